@@ -0,0 +1,130 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.model.User;
+import com.oceanview.resort.util.JournalCodec;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static com.oceanview.resort.util.JournalCodec.readDate;
+import static com.oceanview.resort.util.JournalCodec.readString;
+import static com.oceanview.resort.util.JournalCodec.writeDate;
+import static com.oceanview.resort.util.JournalCodec.writeString;
+
+/**
+ * Journal Codecs - Binary record layouts for the file-backed DAOs
+ *
+ * Fields are written in a fixed order; adding a field means appending it
+ * at the end and giving older records a default when reading.
+ */
+public final class JournalCodecs {
+
+    private JournalCodecs() {}
+
+    public static final JournalCodec<Room> ROOMS = new JournalCodec<Room>() {
+        @Override
+        public String key(Room room) {
+            return room.getRoomNumber();
+        }
+
+        @Override
+        public void write(DataOutput out, Room room) throws IOException {
+            writeRoom(out, room);
+        }
+
+        @Override
+        public Room read(DataInput in) throws IOException {
+            return readRoom(in);
+        }
+    };
+
+    public static final JournalCodec<User> USERS = new JournalCodec<User>() {
+        @Override
+        public String key(User user) {
+            return user.getUsername();
+        }
+
+        @Override
+        public void write(DataOutput out, User user) throws IOException {
+            writeString(out, user.getUsername());
+            writeString(out, user.getPassword());
+            writeString(out, user.getFullName());
+            writeString(out, user.getRole());
+        }
+
+        @Override
+        public User read(DataInput in) throws IOException {
+            return new User(readString(in), readString(in), readString(in), readString(in));
+        }
+    };
+
+    public static final JournalCodec<Reservation> RESERVATIONS = new JournalCodec<Reservation>() {
+        @Override
+        public String key(Reservation reservation) {
+            return reservation.getReservationNumber();
+        }
+
+        @Override
+        public void write(DataOutput out, Reservation reservation) throws IOException {
+            writeString(out, reservation.getReservationNumber());
+            Guest guest = reservation.getGuest();
+            out.writeBoolean(guest != null);
+            if (guest != null) {
+                writeString(out, guest.getName());
+                writeString(out, guest.getAddress());
+                writeString(out, guest.getContactNumber());
+                writeString(out, guest.getEmail());
+                writeString(out, guest.getNicNumber());
+            }
+            out.writeBoolean(reservation.getRoom() != null);
+            if (reservation.getRoom() != null) {
+                writeRoom(out, reservation.getRoom());
+            }
+            writeDate(out, reservation.getCheckInDate());
+            writeDate(out, reservation.getCheckOutDate());
+            out.writeInt(reservation.getNumberOfNights());
+            out.writeDouble(reservation.getTotalAmount());
+            writeString(out, reservation.getStatus());
+            writeDate(out, reservation.getReservationDate());
+        }
+
+        @Override
+        public Reservation read(DataInput in) throws IOException {
+            Reservation reservation = new Reservation();
+            reservation.setReservationNumber(readString(in));
+            if (in.readBoolean()) {
+                reservation.setGuest(new Guest(readString(in), readString(in), readString(in), readString(in),
+                        readString(in)));
+            }
+            if (in.readBoolean()) {
+                reservation.setRoom(readRoom(in));
+            }
+            reservation.setCheckInDate(readDate(in));
+            reservation.setCheckOutDate(readDate(in));
+            // Stored values win over the ones the setters recalculated
+            reservation.setNumberOfNights(in.readInt());
+            reservation.setTotalAmount(in.readDouble());
+            reservation.setStatus(readString(in));
+            reservation.setReservationDate(readDate(in));
+            return reservation;
+        }
+    };
+
+    private static void writeRoom(DataOutput out, Room room) throws IOException {
+        writeString(out, room.getRoomNumber());
+        writeString(out, room.getRoomType() != null ? room.getRoomType().name() : null);
+        out.writeBoolean(room.isAvailable());
+        out.writeInt(room.getCapacity());
+        writeString(out, room.getFeatures());
+    }
+
+    private static Room readRoom(DataInput in) throws IOException {
+        String roomNumber = readString(in);
+        String type = readString(in);
+        return new Room(roomNumber, type != null ? Room.RoomType.valueOf(type) : null, in.readBoolean(),
+                in.readInt(), readString(in));
+    }
+}
@@ -0,0 +1,298 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.model.Room;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mapped Room Store - Rooms and nightly occupancy in a memory-mapped file
+ *
+ * Optional file storage for rooms, enabled with
+ * -Doceanview.storage.rooms=mapped. Every room has a fixed-size slot in
+ * data/rooms.mapped holding its fields and one occupancy counter per night
+ * for a window of WINDOW_DAYS starting a year before the file was created.
+ * Lookups and availability checks read the mapped pages directly, so
+ * nothing is deserialized; isFree allocates nothing at all.
+ *
+ * Room fields are the stored copy. Occupancy is derived from reservations
+ * and is rebuilt by the availability index on startup.
+ *
+ * Slot layout (SLOT_BYTES):
+ *   0   byte    room number length, then up to 15 bytes UTF-8
+ *   16  byte    room type ordinal, -1 for none
+ *   17  byte    available flag
+ *   18  int     capacity
+ *   22  short   features length, then up to 104 bytes UTF-8
+ *   128 byte[]  active reservations per night, WINDOW_DAYS entries
+ */
+public class MappedRoomStore {
+    public static final int WINDOW_DAYS = 4096;
+
+    private static final int MAGIC = 0x4F56524D; // "OVRM"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int MAX_NUMBER_BYTES = 15;
+    private static final int MAX_FEATURE_BYTES = 104;
+    private static final int ROOM_BYTES = 128;
+    private static final int SLOT_BYTES = ROOM_BYTES + WINDOW_DAYS;
+    private static final int INITIAL_SLOTS = 64;
+
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_SLOTS = 8;
+    private static final int H_COUNT = 12;
+    private static final int H_BASE_DAY = 16;
+
+    private static final int S_NUMBER = 0;
+    private static final int S_TYPE = 16;
+    private static final int S_AVAILABLE = 17;
+    private static final int S_CAPACITY = 18;
+    private static final int S_FEATURES = 22;
+
+    private static final Room.RoomType[] TYPES = Room.RoomType.values();
+
+    private static MappedRoomStore instance;
+
+    private final FileChannel channel;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private MappedByteBuffer buffer;
+    private long baseDay;
+
+    public MappedRoomStore(File file) throws IOException {
+        boolean created = !file.exists() || file.length() == 0;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (created) {
+            map(INITIAL_SLOTS);
+            buffer.putInt(H_MAGIC, MAGIC);
+            buffer.putInt(H_VERSION, VERSION);
+            buffer.putInt(H_SLOTS, INITIAL_SLOTS);
+            buffer.putInt(H_COUNT, 0);
+            buffer.putLong(H_BASE_DAY, LocalDate.now().minusYears(1).toEpochDay());
+        } else {
+            map((int) ((channel.size() - HEADER_BYTES) / SLOT_BYTES));
+            if (buffer.getInt(H_MAGIC) != MAGIC || buffer.getInt(H_VERSION) != VERSION) {
+                throw new IOException("Not a room store: " + file);
+            }
+        }
+        baseDay = buffer.getLong(H_BASE_DAY);
+        for (int slot = 0; slot < count(); slot++) {
+            slots.put(readString(slotOffset(slot) + S_NUMBER, 1), slot);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return "mapped".equalsIgnoreCase(System.getProperty("oceanview.storage.rooms"));
+    }
+
+    /**
+     * Store backed by data/rooms.mapped, opened on first use
+     */
+    public static synchronized MappedRoomStore getInstance() throws IOException {
+        if (instance == null) {
+            instance = new MappedRoomStore(new File("data", "rooms.mapped"));
+        }
+        return instance;
+    }
+
+    public synchronized int size() {
+        return count();
+    }
+
+    public synchronized boolean isEmpty() {
+        return count() == 0;
+    }
+
+    public synchronized Room find(String roomNumber) {
+        Integer slot = slots.get(roomNumber);
+        return slot != null ? readRoom(slot) : null;
+    }
+
+    /**
+     * All rooms in the order they were first saved
+     */
+    public synchronized List<Room> findAll() {
+        List<Room> rooms = new ArrayList<>(count());
+        for (int slot = 0; slot < count(); slot++) {
+            rooms.add(readRoom(slot));
+        }
+        return rooms;
+    }
+
+    /**
+     * Insert or overwrite the room's fields in place; occupancy is kept
+     */
+    public synchronized void put(Room room) throws IOException {
+        byte[] number = encode(room.getRoomNumber(), MAX_NUMBER_BYTES, "Room number");
+        byte[] features = encode(room.getFeatures(), MAX_FEATURE_BYTES, "Features");
+
+        Integer slot = slots.get(room.getRoomNumber());
+        if (slot == null) {
+            slot = count();
+            if (slot == buffer.getInt(H_SLOTS)) {
+                grow();
+            }
+        }
+        int offset = slotOffset(slot);
+        buffer.put(offset + S_NUMBER, (byte) number.length);
+        buffer.put(offset + S_NUMBER + 1, number);
+        buffer.put(offset + S_TYPE, (byte) (room.getRoomType() != null ? room.getRoomType().ordinal() : -1));
+        buffer.put(offset + S_AVAILABLE, (byte) (room.isAvailable() ? 1 : 0));
+        buffer.putInt(offset + S_CAPACITY, room.getCapacity());
+        buffer.putShort(offset + S_FEATURES, (short) (features == null ? -1 : features.length));
+        if (features != null) {
+            buffer.put(offset + S_FEATURES + 2, features);
+        }
+
+        if (!slots.containsKey(room.getRoomNumber())) {
+            // Counted only after the slot is fully written
+            buffer.putInt(H_COUNT, slot + 1);
+            slots.put(room.getRoomNumber(), slot);
+        }
+        if (Boolean.getBoolean("oceanview.storage.fsync")) {
+            buffer.force();
+        }
+    }
+
+    public synchronized boolean putAllIfEmpty(Collection<Room> rooms) throws IOException {
+        if (count() > 0) {
+            return false;
+        }
+        for (Room room : rooms) {
+            put(room);
+        }
+        return true;
+    }
+
+    /**
+     * True if the stay lies inside the occupancy window and the room is stored
+     */
+    public synchronized boolean covers(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        return slots.containsKey(roomNumber) && checkIn.toEpochDay() >= baseDay
+                && checkOut.toEpochDay() < baseDay + WINDOW_DAYS;
+    }
+
+    /**
+     * Count a stay on every night from checkIn to checkOut inclusive; the stay must be covered
+     */
+    public synchronized void addStay(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        updateStay(roomNumber, checkIn, checkOut, 1);
+    }
+
+    public synchronized void removeStay(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        updateStay(roomNumber, checkIn, checkOut, -1);
+    }
+
+    /**
+     * True if no counted stay touches the nights from checkIn to checkOut that
+     * fall inside the window; unknown rooms are free
+     */
+    public synchronized boolean isFree(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        Integer slot = slots.get(roomNumber);
+        if (slot == null) {
+            return true;
+        }
+        long from = Math.max(checkIn.toEpochDay() - baseDay, 0);
+        long to = Math.min(checkOut.toEpochDay() - baseDay, WINDOW_DAYS - 1);
+        int nights = slotOffset(slot) + ROOM_BYTES;
+        for (long day = from; day <= to; day++) {
+            if (buffer.get(nights + (int) day) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Zero every occupancy counter, before the index reloads reservations
+     */
+    public synchronized void clearOccupancy() {
+        byte[] zeros = new byte[WINDOW_DAYS];
+        for (int slot = 0; slot < count(); slot++) {
+            buffer.put(slotOffset(slot) + ROOM_BYTES, zeros);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private void updateStay(String roomNumber, LocalDate checkIn, LocalDate checkOut, int delta) {
+        if (!covers(roomNumber, checkIn, checkOut)) {
+            throw new IllegalArgumentException("Stay outside the mapped window: " + roomNumber);
+        }
+        int nights = slotOffset(slots.get(roomNumber)) + ROOM_BYTES;
+        for (long day = checkIn.toEpochDay(); day <= checkOut.toEpochDay(); day++) {
+            int index = nights + (int) (day - baseDay);
+            int count = Math.max(0, Math.min(255, (buffer.get(index) & 0xFF) + delta));
+            buffer.put(index, (byte) count);
+        }
+    }
+
+    private Room readRoom(int slot) {
+        int offset = slotOffset(slot);
+        byte type = buffer.get(offset + S_TYPE);
+        return new Room(readString(offset + S_NUMBER, 1),
+                type >= 0 && type < TYPES.length ? TYPES[type] : null,
+                buffer.get(offset + S_AVAILABLE) != 0,
+                buffer.getInt(offset + S_CAPACITY),
+                readString(offset + S_FEATURES, 2));
+    }
+
+    /**
+     * String stored after a 1-byte or 2-byte length; a negative length is null
+     */
+    private String readString(int offset, int lengthBytes) {
+        int length = lengthBytes == 1 ? buffer.get(offset) : buffer.getShort(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + lengthBytes, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(String value, int max, String field) {
+        if (value == null) {
+            if (max == MAX_NUMBER_BYTES) {
+                throw new IllegalArgumentException("Room number is required");
+            }
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > max) {
+            throw new IllegalArgumentException(field + " longer than " + max + " bytes: " + value);
+        }
+        return bytes;
+    }
+
+    private int count() {
+        return buffer.getInt(H_COUNT);
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private void grow() throws IOException {
+        int grown = buffer.getInt(H_SLOTS) * 2;
+        buffer.force();
+        map(grown);
+        buffer.putInt(H_SLOTS, grown);
+    }
+
+    private void map(int slotCount) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slotCount * SLOT_BYTES);
+    }
+}
@@ -0,0 +1,55 @@
+package com.oceanview.resort.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page - One page of a listing read with keyset pagination
+ *
+ * The cursor names the last item of the page. Passing it back as `after`
+ * continues from that item, however many rows were added or removed in
+ * between. The cursor is null on the last page.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Opaque cursor for the given sort key values
+     */
+    static String cursor(String... key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join("\n", key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sort key values from a cursor made by cursor() with the same number of parts
+     */
+    static String[] key(String cursor, int parts) {
+        String[] key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", parts);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        if (key.length != parts) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return key;
+    }
+}
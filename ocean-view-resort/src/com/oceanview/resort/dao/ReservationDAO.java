@@ -1,89 +1,339 @@
 package com.oceanview.resort.dao;
 
 import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.SchemaMigrations;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.database.Upsert;
 import com.oceanview.resort.model.Guest;
 import com.oceanview.resort.model.Reservation;
 import com.oceanview.resort.model.Room;
 import com.oceanview.resort.util.FileManager;
+import com.oceanview.resort.util.JournalStore;
+import com.oceanview.resort.util.LruCache;
+import com.oceanview.resort.util.RowHandler;
 import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class ReservationDAO {
     private static final String FILENAME = "reservations.dat";
+    private static final int STREAM_FETCH_SIZE = 500;
+    // Rows sent per executeBatch call by insertAll
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_SQL = "INSERT INTO reservations (reservation_number, guest_name, " +
+            "guest_address, guest_contact, guest_email, guest_nic, room_number, room_type, check_in_date, " +
+            "check_out_date, number_of_nights, total_amount, status, reservation_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Reservation columns plus the booked room, loaded in the same query
+    private static final String SELECT_WITH_ROOM = "SELECT r.*, rm.room_number AS rm_room_number, " +
+            "rm.room_type AS rm_room_type, rm.is_available AS rm_is_available, rm.capacity AS rm_capacity, " +
+            "rm.features AS rm_features FROM reservations r LEFT JOIN rooms rm ON rm.room_number = r.room_number";
+
+    private static final String OVERLAP_QUERY = "SELECT 1 FROM reservations WHERE room_number = ? "
+            + "AND check_in_date <= ? AND check_out_date >= ? AND status IN ('CONFIRMED', 'PENDING')";
+
+    // Longest RES-yyyyMMdd-N number, then the last of those in text order
+    private static final String GENERATED_NUMBER = "reservation_number LIKE 'RES-________-_%'";
+    private static final String HIGHEST_NUMBER_QUERY = "SELECT MAX(reservation_number) FROM reservations "
+            + "WHERE " + GENERATED_NUMBER + " AND LENGTH(reservation_number) = "
+            + "(SELECT MAX(LENGTH(reservation_number)) FROM reservations WHERE " + GENERATED_NUMBER + ")";
+    private static final Pattern GENERATED_NUMBER_PATTERN = Pattern.compile("RES-\\d{8}-\\d+");
+
+    /** Largest page findPage returns */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Fields a listing can be narrowed to, in the order they are serialized */
+    public static final Set<String> FIELDS;
+
+    // Columns each field needs; the sort key columns are always read
+    private static final Map<String, String> FIELD_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        FIELD_COLUMNS.put("reservationNumber", "r.reservation_number");
+        FIELD_COLUMNS.put("guestName", "r.guest_name");
+        FIELD_COLUMNS.put("guestAddress", "r.guest_address");
+        FIELD_COLUMNS.put("guestContact", "r.guest_contact");
+        FIELD_COLUMNS.put("guestEmail", "r.guest_email");
+        FIELD_COLUMNS.put("roomNumber", "r.room_number, r.room_type");
+        FIELD_COLUMNS.put("roomType", "r.room_number, r.room_type");
+        FIELD_COLUMNS.put("checkInDate", "r.check_in_date");
+        FIELD_COLUMNS.put("checkOutDate", "r.check_out_date");
+        FIELD_COLUMNS.put("numberOfNights", "r.number_of_nights");
+        FIELD_COLUMNS.put("totalAmount", "r.total_amount");
+        FIELD_COLUMNS.put("status", "r.status");
+        FIELD_COLUMNS.put("reservationDate", "r.reservation_date");
+        FIELDS = Collections.unmodifiableSet(FIELD_COLUMNS.keySet());
+    }
+
+    // Listing order: newest booking first, reservation number breaking ties
+    private static final Comparator<Reservation> NEWEST_FIRST = Comparator
+            .comparing((Reservation r) -> r.getReservationDate() != null ? r.getReservationDate() : LocalDate.MIN)
+            .thenComparing(Reservation::getReservationNumber, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .reversed();
+
+    // Shared by DAOs on the default connection; size and TTL from system properties
+    private static final LruCache<String, Reservation> sharedCache = new LruCache<>(
+            Integer.getInteger("oceanview.cache.reservations.size", 10_000),
+            Long.getLong("oceanview.cache.reservations.ttlSeconds", 300L), TimeUnit.SECONDS);
+
     private FileManager fileManager = FileManager.getInstance();
-    private DatabaseConnection dbConnection = DatabaseConnection.getInstance();
+    private DatabaseConnection dbConnection;
+    private LruCache<String, Reservation> cache;
+
+    public ReservationDAO() {
+        this(DatabaseConnection.getInstance(), sharedCache);
+    }
+
+    public ReservationDAO(DatabaseConnection dbConnection) {
+        this(dbConnection, new LruCache<>(0, 0, TimeUnit.SECONDS));
+    }
+
+    public ReservationDAO(DatabaseConnection dbConnection, LruCache<String, Reservation> cache) {
+        this.dbConnection = dbConnection;
+        this.cache = cache;
+    }
 
     public void save(Reservation reservation) throws IOException, ClassNotFoundException {
-        // Try database first
-        if (dbConnection.isDatabaseAvailable()) {
+        UnitOfWork work = UnitOfWork.current();
+        if (work != null) {
+            saveInUnit(work, reservation);
+            return;
+        }
+        try {
+            // Try database first
+            if (dbConnection.isDatabaseAvailable()) {
+                try {
+                    saveToDatabase(reservation);
+                    cache.put(reservation.getReservationNumber(), new Reservation(reservation));
+                    return;
+                } catch (SQLException e) {
+                    System.err.println("Database save failed, using file storage: " + e.getMessage());
+                }
+            }
+
+            // Fallback to file storage
+            saveToFile(reservation);
+            cache.put(reservation.getReservationNumber(), new Reservation(reservation));
+        } catch (IOException | RuntimeException e) {
+            // Unknown whether the write landed; make the next lookup read the store
+            cache.remove(reservation.getReservationNumber());
+            throw e;
+        }
+    }
+
+    /**
+     * Write on the unit's connection, or hold the file write until it commits
+     */
+    private void saveInUnit(UnitOfWork work, Reservation reservation) throws IOException {
+        String number = reservation.getReservationNumber();
+        Reservation saved = new Reservation(reservation);
+        work.onCommit(() -> cache.put(number, saved));
+        work.onRollback(() -> cache.remove(number));
+        if (work.usesDatabase(dbConnection)) {
             try {
-                saveToDatabase(reservation);
-                return;
+                writeToDatabase(work.connection(dbConnection), reservation);
             } catch (SQLException e) {
-                System.err.println("Database save failed, using file storage: " + e.getMessage());
+                throw work.failed("Database save failed", e);
             }
+        } else {
+            work.defer(() -> saveToFile(saved));
         }
-
-        // Fallback to file storage
-        saveToFile(reservation);
     }
 
     private void saveToDatabase(Reservation reservation) throws SQLException {
-        Connection conn = dbConnection.getConnection();
+        try (Connection conn = dbConnection.getConnection()) {
+            writeToDatabase(conn, reservation);
+        }
+    }
+
+    private void writeToDatabase(Connection conn, Reservation reservation) throws SQLException {
+        SqlDialect dialect = dbConnection.getDialect();
+        if (dialect.supportsUpsert()) {
+            try {
+                // One round trip instead of a lookup followed by an insert or update
+                toUpsert(reservation).execute(conn, dialect);
+                return;
+            } catch (SQLException e) {
+                System.err.println("Upsert failed, falling back to lookup and write: " + e.getMessage());
+            }
+        }
+
+        boolean exists;
 
         // Check if reservation exists
         try (PreparedStatement check = conn.prepareStatement(
                 "SELECT reservation_number FROM reservations WHERE reservation_number = ?")) {
             check.setString(1, reservation.getReservationNumber());
-            ResultSet rs = check.executeQuery();
+            try (ResultSet rs = check.executeQuery()) {
+                exists = rs.next();
+            }
+        }
+
+        if (exists) {
+            // Update existing
+            updateInDatabase(conn, reservation);
+        } else {
+            // Insert new
+            insertIntoDatabase(conn, reservation);
+        }
+    }
+
+    private Upsert toUpsert(Reservation reservation) {
+        Guest guest = reservation.getGuest();
+        Room room = reservation.getRoom();
+        return new Upsert("reservations", "reservation_number")
+                .set("reservation_number", reservation.getReservationNumber())
+                .set("guest_name", guest != null ? guest.getName() : "")
+                .set("guest_address", guest != null ? guest.getAddress() : "")
+                .set("guest_contact", guest != null ? guest.getContactNumber() : "")
+                .set("guest_email", guest != null ? guest.getEmail() : "")
+                .set("guest_nic", guest != null ? guest.getNicNumber() : "")
+                .set("room_number", room != null ? room.getRoomNumber() : "")
+                .set("room_type", room != null ? room.getRoomType().name() : "")
+                .set("check_in_date", reservation.getCheckInDate())
+                .set("check_out_date", reservation.getCheckOutDate())
+                .set("number_of_nights", reservation.getNumberOfNights())
+                .set("total_amount", reservation.getTotalAmount())
+                .set("status", reservation.getStatus())
+                .set("reservation_date", reservation.getReservationDate() != null ? reservation.getReservationDate()
+                        : LocalDate.now())
+                .insertOnly("reservation_date"); // updates never changed the booking date
+    }
+
+    private void insertIntoDatabase(Connection conn, Reservation reservation) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            bindInsert(ps, reservation);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Store new reservations together: on the database one batched INSERT
+     * in a single transaction, in the file store one appended write. Either
+     * all of them are stored or, if this throws, none are.
+     */
+    public void insertAll(List<Reservation> reservations) throws IOException {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        UnitOfWork work = UnitOfWork.current();
+        if (work != null) {
+            insertAllInUnit(work, reservations);
+            return;
+        }
+        try {
+            // Try database first
+            if (dbConnection.isDatabaseAvailable()) {
+                try {
+                    insertAllIntoDatabase(reservations);
+                    cacheAll(reservations);
+                    return;
+                } catch (SQLException e) {
+                    System.err.println("Database batch insert failed, using file storage: " + e.getMessage());
+                }
+            }
 
-            if (rs.next()) {
-                // Update existing
-                updateInDatabase(reservation);
-            } else {
-                // Insert new
-                insertIntoDatabase(reservation);
+            // Fallback to file storage
+            store().putAll(reservations);
+            cacheAll(reservations);
+        } catch (IOException | RuntimeException e) {
+            for (Reservation reservation : reservations) {
+                cache.remove(reservation.getReservationNumber());
             }
+            throw e;
         }
     }
 
-    private void insertIntoDatabase(Reservation reservation) throws SQLException {
-        Connection conn = dbConnection.getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(
-                "INSERT INTO reservations (reservation_number, guest_name, guest_address, guest_contact, " +
-                        "guest_email, guest_nic, room_number, room_type, check_in_date, check_out_date, " +
-                        "number_of_nights, total_amount, status, reservation_date) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+    private void insertAllInUnit(UnitOfWork work, List<Reservation> reservations) throws IOException {
+        List<Reservation> saved = new ArrayList<>(reservations);
+        work.onCommit(() -> cacheAll(saved));
+        work.onRollback(() -> saved.forEach(r -> cache.remove(r.getReservationNumber())));
+        if (work.usesDatabase(dbConnection)) {
+            try {
+                insertBatches(work.connection(dbConnection), saved);
+            } catch (SQLException e) {
+                throw work.failed("Database batch insert failed", e);
+            }
+        } else {
+            work.defer(() -> store().putAll(saved));
+        }
+    }
 
-            Guest guest = reservation.getGuest();
-            Room room = reservation.getRoom();
+    private void insertAllIntoDatabase(List<Reservation> reservations) throws SQLException {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertBatches(conn, reservations);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
 
-            ps.setString(1, reservation.getReservationNumber());
-            ps.setString(2, guest != null ? guest.getName() : "");
-            ps.setString(3, guest != null ? guest.getAddress() : "");
-            ps.setString(4, guest != null ? guest.getContactNumber() : "");
-            ps.setString(5, guest != null ? guest.getEmail() : "");
-            ps.setString(6, guest != null ? guest.getNicNumber() : "");
-            ps.setString(7, room != null ? room.getRoomNumber() : "");
-            ps.setString(8, room != null ? room.getRoomType().name() : "");
-            ps.setDate(9, reservation.getCheckInDate() != null ? Date.valueOf(reservation.getCheckInDate()) : null);
-            ps.setDate(10, reservation.getCheckOutDate() != null ? Date.valueOf(reservation.getCheckOutDate()) : null);
-            ps.setInt(11, reservation.getNumberOfNights());
-            ps.setDouble(12, reservation.getTotalAmount());
-            ps.setString(13, reservation.getStatus());
-            ps.setDate(14, reservation.getReservationDate() != null ? Date.valueOf(reservation.getReservationDate())
-                    : Date.valueOf(LocalDate.now()));
+    private static void insertBatches(Connection conn, List<Reservation> reservations) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            int pending = 0;
+            for (Reservation reservation : reservations) {
+                bindInsert(ps, reservation);
+                ps.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                ps.executeBatch();
+            }
+        }
+    }
 
-            ps.executeUpdate();
+    private void cacheAll(List<Reservation> reservations) {
+        for (Reservation reservation : reservations) {
+            cache.put(reservation.getReservationNumber(), new Reservation(reservation));
         }
     }
 
-    private void updateInDatabase(Reservation reservation) throws SQLException {
-        Connection conn = dbConnection.getConnection();
+    private static void bindInsert(PreparedStatement ps, Reservation reservation) throws SQLException {
+        Guest guest = reservation.getGuest();
+        Room room = reservation.getRoom();
+
+        ps.setString(1, reservation.getReservationNumber());
+        ps.setString(2, guest != null ? guest.getName() : "");
+        ps.setString(3, guest != null ? guest.getAddress() : "");
+        ps.setString(4, guest != null ? guest.getContactNumber() : "");
+        ps.setString(5, guest != null ? guest.getEmail() : "");
+        ps.setString(6, guest != null ? guest.getNicNumber() : "");
+        ps.setString(7, room != null ? room.getRoomNumber() : "");
+        ps.setString(8, room != null ? room.getRoomType().name() : "");
+        ps.setDate(9, reservation.getCheckInDate() != null ? Date.valueOf(reservation.getCheckInDate()) : null);
+        ps.setDate(10, reservation.getCheckOutDate() != null ? Date.valueOf(reservation.getCheckOutDate()) : null);
+        ps.setInt(11, reservation.getNumberOfNights());
+        ps.setDouble(12, reservation.getTotalAmount());
+        ps.setString(13, reservation.getStatus());
+        ps.setDate(14, reservation.getReservationDate() != null ? Date.valueOf(reservation.getReservationDate())
+                : Date.valueOf(LocalDate.now()));
+    }
+
+    private void updateInDatabase(Connection conn, Reservation reservation) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(
                 "UPDATE reservations SET guest_name = ?, guest_address = ?, guest_contact = ?, " +
                         "guest_email = ?, guest_nic = ?, room_number = ?, room_type = ?, check_in_date = ?, " +
@@ -111,20 +361,22 @@ public class ReservationDAO {
         }
     }
 
-    private void saveToFile(Reservation reservation) throws IOException, ClassNotFoundException {
-        List<Reservation> reservations = findAllFromFile();
-        for (int i = 0; i < reservations.size(); i++) {
-            if (reservations.get(i).getReservationNumber().equals(reservation.getReservationNumber())) {
-                reservations.set(i, reservation);
-                fileManager.writeListToFile(reservations, FILENAME);
-                return;
-            }
-        }
-        reservations.add(reservation);
-        fileManager.writeListToFile(reservations, FILENAME);
+    private void saveToFile(Reservation reservation) throws IOException {
+        // One appended record; the store keeps the latest version per key
+        store().put(reservation);
+    }
+
+    private JournalStore<Reservation> store() throws IOException {
+        return fileManager.openJournal("reservations", FILENAME, JournalCodecs.RESERVATIONS);
     }
 
     public Reservation findByReservationNumber(String reservationNumber) throws IOException, ClassNotFoundException {
+        Reservation cached = cache.get(reservationNumber, () -> loadByReservationNumber(reservationNumber));
+        return cached != null ? new Reservation(cached) : null;
+    }
+
+    private Reservation loadByReservationNumber(String reservationNumber)
+            throws IOException, ClassNotFoundException {
         // Try database first
         if (dbConnection.isDatabaseAvailable()) {
             try {
@@ -135,25 +387,53 @@ public class ReservationDAO {
         }
 
         // Fallback to file storage
-        return findAllFromFile().stream()
-                .filter(r -> r.getReservationNumber().equals(reservationNumber))
-                .findFirst().orElse(null);
+        return store().get(reservationNumber);
     }
 
     private Reservation findFromDatabase(String reservationNumber) throws SQLException {
-        Connection conn = dbConnection.getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT * FROM reservations WHERE reservation_number = ?")) {
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        SELECT_WITH_ROOM + " WHERE r.reservation_number = ?")) {
             ps.setString(1, reservationNumber);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                return mapResultSetToReservation(rs);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToReservation(rs, new HashMap<>());
+                }
             }
         }
         return null;
     }
 
+    /**
+     * The RES-yyyyMMdd-N number that is longest, then last in text order, or null when
+     * there is none. For numbers that share a date prefix this is the one
+     * with the highest sequence, so numbers issued above its sequence are new.
+     * Reads one value from the database and only the keys from file storage.
+     */
+    public String findHighestReservationNumber() throws IOException {
+        // Try database first
+        if (dbConnection.isDatabaseAvailable()) {
+            try (Connection conn = dbConnection.getConnection();
+                    Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery(HIGHEST_NUMBER_QUERY)) {
+                return rs.next() ? rs.getString(1) : null;
+            } catch (SQLException e) {
+                System.err.println("Database query failed, using file storage: " + e.getMessage());
+            }
+        }
+
+        // Fallback to file storage
+        String highest = null;
+        for (String number : store().keys()) {
+            if (GENERATED_NUMBER_PATTERN.matcher(number).matches()
+                    && (highest == null || number.length() > highest.length()
+                            || (number.length() == highest.length() && number.compareTo(highest) > 0))) {
+                highest = number;
+            }
+        }
+        return highest;
+    }
+
     public List<Reservation> findAll() throws IOException, ClassNotFoundException {
         // Try database first
         if (dbConnection.isDatabaseAvailable()) {
@@ -168,21 +448,206 @@ public class ReservationDAO {
         return findAllFromFile();
     }
 
+    /**
+     * Pass every reservation to the handler as it is read, newest first from
+     * the database, without holding the whole result in memory
+     */
+    public void forEach(RowHandler<Reservation> handler) throws IOException {
+        forEach(null, handler);
+    }
+
+    /**
+     * Like forEach(handler), reading from the database only the columns the
+     * given fields need (all fields when null); other properties keep their
+     * defaults
+     */
+    public void forEach(Set<String> fields, RowHandler<Reservation> handler) throws IOException {
+        checkFields(fields);
+        // Try database first
+        if (dbConnection.isDatabaseAvailable()) {
+            int[] handled = { 0 };
+            try {
+                forEachFromDatabase(fields, row -> {
+                    handled[0]++;
+                    handler.handle(row);
+                });
+                return;
+            } catch (SQLException e) {
+                if (handled[0] > 0) {
+                    // Rows already went to the handler; falling back would repeat them
+                    throw new IOException("Database query failed after " + handled[0] + " rows", e);
+                }
+                System.err.println("Database query failed, using file storage: " + e.getMessage());
+            }
+        }
+
+        // Fallback to file storage
+        store().forEach(handler);
+    }
+
+    private void forEachFromDatabase(Set<String> fields, RowHandler<Reservation> handler)
+            throws SQLException, IOException {
+        Map<String, Room> rooms = new HashMap<>();
+        try (Connection conn = dbConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            // Ask the driver to fetch in pages rather than buffer the whole result
+            stmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery(select(fields) + " ORDER BY r.reservation_date DESC")) {
+                while (rs.next()) {
+                    handler.handle(map(rs, fields, rooms));
+                }
+            }
+        }
+    }
+
+    /**
+     * One page of the listing, newest first. `after` is the cursor of the
+     * previous page (null for the first); `fields` narrows the columns read
+     * as for forEach.
+     *
+     * @throws IllegalArgumentException for a bad limit, cursor or field name
+     */
+    public Page<Reservation> findPage(String after, int limit, Set<String> fields)
+            throws IOException, ClassNotFoundException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        checkFields(fields);
+        Reservation last = null;
+        if (after != null) {
+            String[] key = Page.key(after, 2);
+            last = new Reservation();
+            try {
+                last.setReservationDate(LocalDate.parse(key[0]));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+            last.setReservationNumber(key[1]);
+        }
+
+        // Try database first
+        if (dbConnection.isDatabaseAvailable()) {
+            try {
+                return toPage(findPageFromDatabase(last, limit, fields), limit);
+            } catch (SQLException e) {
+                System.err.println("Database query failed, using file storage: " + e.getMessage());
+            }
+        }
+
+        // Fallback to file storage
+        return toPage(findPageFromFile(last, limit), limit);
+    }
+
+    /**
+     * Up to limit + 1 rows after `last`; the extra row only shows whether
+     * another page follows
+     */
+    private List<Reservation> findPageFromDatabase(Reservation last, int limit, Set<String> fields)
+            throws SQLException {
+        SqlDialect dialect = dbConnection.getDialect();
+        String where = last != null ? " WHERE (r.reservation_date < ? OR (r.reservation_date = ? "
+                + "AND r.reservation_number < ?))" : "";
+        String order = " ORDER BY r.reservation_date DESC, r.reservation_number DESC";
+        String sql;
+        if (dbConnection.getSchemaVersion() >= SchemaMigrations.RESERVATION_INDEXES) {
+            // Take the page off idx_reservations_listing before joining rooms;
+            // Derby sorts the whole table rather than keep index order through
+            // an outer join
+            String page = "SELECT * FROM reservations r" + dialect.indexHint("idx_reservations_listing")
+                    + where + order + dialect.limitClause();
+            sql = select(fields).replace(" FROM reservations r", " FROM (" + page + ") r") + order;
+        } else {
+            sql = select(fields) + where + order + dialect.limitClause();
+        }
+        List<Reservation> reservations = new ArrayList<>();
+        Map<String, Room> rooms = new HashMap<>();
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (last != null) {
+                ps.setDate(i++, Date.valueOf(last.getReservationDate()));
+                ps.setDate(i++, Date.valueOf(last.getReservationDate()));
+                ps.setString(i++, last.getReservationNumber());
+            }
+            ps.setInt(i, limit + 1);
+            ps.setMaxRows(limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    reservations.add(map(rs, fields, rooms));
+                }
+            }
+        }
+        return reservations;
+    }
+
+    private List<Reservation> findPageFromFile(Reservation last, int limit) throws IOException {
+        // Keep only the first limit + 1 in listing order while scanning
+        PriorityQueue<Reservation> firsts = new PriorityQueue<>(limit + 2, NEWEST_FIRST.reversed());
+        store().forEach(reservation -> {
+            if (last == null || NEWEST_FIRST.compare(reservation, last) > 0) {
+                firsts.add(reservation);
+                if (firsts.size() > limit + 1) {
+                    firsts.poll();
+                }
+            }
+        });
+        List<Reservation> reservations = new ArrayList<>(firsts);
+        reservations.sort(NEWEST_FIRST);
+        return reservations;
+    }
+
+    private static Page<Reservation> toPage(List<Reservation> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        Reservation last = rows.get(limit - 1);
+        LocalDate date = last.getReservationDate() != null ? last.getReservationDate() : LocalDate.MIN;
+        return new Page<>(new ArrayList<>(rows.subList(0, limit)),
+                Page.cursor(date.toString(), last.getReservationNumber()));
+    }
+
+    private static void checkFields(Set<String> fields) {
+        if (fields != null && !FIELDS.containsAll(fields)) {
+            Set<String> unknown = new LinkedHashSet<>(fields);
+            unknown.removeAll(FIELDS);
+            throw new IllegalArgumentException("Unknown fields " + unknown + "; expected some of " + FIELDS);
+        }
+    }
+
+    /**
+     * SELECT and FROM for the given fields; all fields read the booked room too
+     */
+    private static String select(Set<String> fields) {
+        if (fields == null) {
+            return SELECT_WITH_ROOM;
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add("r.reservation_number");
+        columns.add("r.reservation_date");
+        for (String field : fields) {
+            for (String column : FIELD_COLUMNS.get(field).split(", ")) {
+                columns.add(column);
+            }
+        }
+        return "SELECT " + String.join(", ", columns) + " FROM reservations r";
+    }
+
     private List<Reservation> findAllFromDatabase() throws SQLException {
         List<Reservation> reservations = new ArrayList<>();
-        Connection conn = dbConnection.getConnection();
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT * FROM reservations ORDER BY reservation_date DESC")) {
+        Map<String, Room> rooms = new HashMap<>();
+        try (Connection conn = dbConnection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(SELECT_WITH_ROOM + " ORDER BY r.reservation_date DESC")) {
 
             while (rs.next()) {
-                reservations.add(mapResultSetToReservation(rs));
+                reservations.add(mapResultSetToReservation(rs, rooms));
             }
         }
         return reservations;
     }
 
-    private List<Reservation> findAllFromFile() throws IOException, ClassNotFoundException {
-        return fileManager.readListFromFile(FILENAME);
+    private List<Reservation> findAllFromFile() throws IOException {
+        return store().values();
     }
 
     public List<Reservation> findByGuestName(String guestName) throws IOException, ClassNotFoundException {
@@ -204,18 +669,29 @@ public class ReservationDAO {
 
     private List<Reservation> findByGuestNameFromDatabase(String guestName) throws SQLException {
         List<Reservation> reservations = new ArrayList<>();
-
-        System.err.println("reservations: " + reservations);
-        Connection conn = dbConnection.getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT * FROM reservations WHERE LOWER(guest_name) LIKE ? ORDER BY reservation_date DESC")) {
+        Map<String, Room> rooms = new HashMap<>();
+        String select = SELECT_WITH_ROOM;
+        String name = "LOWER(r.guest_name)";
+        String hint = dbConnection.getDialect().filterIndexHint("idx_reservations_guest_name_lower");
+        if (dbConnection.getSchemaVersion() >= SchemaMigrations.GUEST_NAME_LOWER && !hint.isEmpty()) {
+            // A leading % cannot seek the lower-case index, but where the engine
+            // tests LIKE on its entries it is a narrower scan than the table;
+            // elsewhere LIKE ? may range over all of it and fetch every row
+            select = select.replace(" FROM reservations r", " FROM reservations r" + hint);
+            name = "r.guest_name_lower";
+        }
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(select + " WHERE " + name + " LIKE ?")) {
             ps.setString(1, "%" + guestName.toLowerCase() + "%");
-            ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                reservations.add(mapResultSetToReservation(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    reservations.add(mapResultSetToReservation(rs, rooms));
+                }
             }
         }
+        // Sorted here: given ORDER BY, an engine may walk idx_reservations_listing
+        // to skip the sort and so read every row in that order for a few matches
+        reservations.sort(NEWEST_FIRST);
         return reservations;
     }
 
@@ -240,21 +716,113 @@ public class ReservationDAO {
 
     private List<Reservation> findByDateRangeFromDatabase(LocalDate fromDate, LocalDate toDate) throws SQLException {
         List<Reservation> reservations = new ArrayList<>();
-        Connection conn = dbConnection.getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT * FROM reservations WHERE check_in_date >= ? AND check_in_date <= ? ORDER BY check_in_date ASC")) {
+        Map<String, Room> rooms = new HashMap<>();
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        SELECT_WITH_ROOM + " WHERE r.check_in_date >= ? AND r.check_in_date <= ? ORDER BY r.check_in_date ASC")) {
             ps.setDate(1, Date.valueOf(fromDate));
             ps.setDate(2, Date.valueOf(toDate));
-            ResultSet rs = ps.executeQuery();
-
-            while (rs.next()) {
-                reservations.add(mapResultSetToReservation(rs));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    reservations.add(mapResultSetToReservation(rs, rooms));
+                }
             }
         }
         return reservations;
     }
 
-    private Reservation mapResultSetToReservation(ResultSet rs) throws SQLException {
+    /**
+     * Whether an active (CONFIRMED or PENDING) reservation of the room touches
+     * any day from checkIn to checkOut, both inclusive. Reads one index
+     * range in the database and stops at the first match in file storage.
+     */
+    public boolean existsOverlap(String roomNumber, LocalDate checkIn, LocalDate checkOut) throws IOException {
+        // Try database first
+        if (dbConnection.isDatabaseAvailable()) {
+            try {
+                return existsOverlapInDatabase(roomNumber, checkIn, checkOut);
+            } catch (SQLException e) {
+                System.err.println("Database query failed, using file storage: " + e.getMessage());
+            }
+        }
+
+        // Fallback to file storage
+        return store().anyMatch(r -> ("CONFIRMED".equals(r.getStatus()) || "PENDING".equals(r.getStatus()))
+                && r.getRoom() != null && roomNumber.equals(r.getRoom().getRoomNumber())
+                && r.getCheckInDate() != null && r.getCheckOutDate() != null
+                && !r.getCheckInDate().isAfter(checkOut) && !r.getCheckOutDate().isBefore(checkIn));
+    }
+
+    private boolean existsOverlapInDatabase(String roomNumber, LocalDate checkIn, LocalDate checkOut)
+            throws SQLException {
+        // Answered from idx_reservations_room_dates alone
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(OVERLAP_QUERY + dbConnection.getDialect().limitClause())) {
+            ps.setString(1, roomNumber);
+            ps.setDate(2, Date.valueOf(checkOut));
+            ps.setDate(3, Date.valueOf(checkIn));
+            ps.setInt(4, 1);
+            ps.setMaxRows(1);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private Reservation map(ResultSet rs, Set<String> fields, Map<String, Room> rooms) throws SQLException {
+        return fields == null ? mapResultSetToReservation(rs, rooms) : mapProjected(rs, fields, rooms);
+    }
+
+    /**
+     * Map a row read by select(fields); unread properties stay unset
+     */
+    private Reservation mapProjected(ResultSet rs, Set<String> fields, Map<String, Room> rooms)
+            throws SQLException {
+        Reservation reservation = new Reservation();
+        reservation.setStatus(null);
+        reservation.setReservationNumber(rs.getString("reservation_number"));
+        Date resDate = rs.getDate("reservation_date");
+        reservation.setReservationDate(resDate != null ? resDate.toLocalDate() : null);
+
+        if (fields.contains("guestName") || fields.contains("guestAddress") || fields.contains("guestContact")
+                || fields.contains("guestEmail")) {
+            Guest guest = new Guest();
+            if (fields.contains("guestName")) guest.setName(rs.getString("guest_name"));
+            if (fields.contains("guestAddress")) guest.setAddress(rs.getString("guest_address"));
+            if (fields.contains("guestContact")) guest.setContactNumber(rs.getString("guest_contact"));
+            if (fields.contains("guestEmail")) guest.setEmail(rs.getString("guest_email"));
+            reservation.setGuest(guest);
+        }
+        if (fields.contains("roomNumber") || fields.contains("roomType")) {
+            String roomNumber = rs.getString("room_number");
+            if (roomNumber != null) {
+                Room room = rooms.get(roomNumber);
+                if (room == null) {
+                    room = createRoomFromResultSet(rs);
+                    rooms.put(roomNumber, room);
+                }
+                reservation.setRoom(room);
+            }
+        }
+        if (fields.contains("checkInDate")) {
+            Date checkIn = rs.getDate("check_in_date");
+            reservation.setCheckInDate(checkIn != null ? checkIn.toLocalDate() : null);
+        }
+        if (fields.contains("checkOutDate")) {
+            Date checkOut = rs.getDate("check_out_date");
+            reservation.setCheckOutDate(checkOut != null ? checkOut.toLocalDate() : null);
+        }
+        if (fields.contains("numberOfNights")) reservation.setNumberOfNights(rs.getInt("number_of_nights"));
+        if (fields.contains("totalAmount")) reservation.setTotalAmount(rs.getDouble("total_amount"));
+        if (fields.contains("status")) reservation.setStatus(rs.getString("status"));
+        return reservation;
+    }
+
+    /**
+     * Map one row of a SELECT_WITH_ROOM query. Rooms are materialized once
+     * per query: rows for the same room number share the Room in the map.
+     */
+    private Reservation mapResultSetToReservation(ResultSet rs, Map<String, Room> rooms) throws SQLException {
         Reservation reservation = new Reservation();
         reservation.setReservationNumber(rs.getString("reservation_number"));
 
@@ -267,16 +835,15 @@ public class ReservationDAO {
         guest.setNicNumber(rs.getString("guest_nic"));
         reservation.setGuest(guest);
 
-        // Get room (need to fetch from RoomDAO)
+        // Room comes from the joined columns
         String roomNumber = rs.getString("room_number");
         if (roomNumber != null) {
-            try {
-                RoomDAO roomDAO = new RoomDAO();
-                Room room = roomDAO.findByRoomNumber(roomNumber);
-                reservation.setRoom(room != null ? room : createRoomFromResultSet(rs));
-            } catch (Exception e) {
-                reservation.setRoom(createRoomFromResultSet(rs));
+            Room room = rooms.get(roomNumber);
+            if (room == null) {
+                room = rs.getString("rm_room_number") != null ? mapJoinedRoom(rs) : createRoomFromResultSet(rs);
+                rooms.put(roomNumber, room);
             }
+            reservation.setRoom(room);
         }
 
         Date checkIn = rs.getDate("check_in_date");
@@ -297,6 +864,22 @@ public class ReservationDAO {
         return reservation;
     }
 
+    private Room mapJoinedRoom(ResultSet rs) throws SQLException {
+        Room.RoomType roomType = Room.RoomType.SINGLE;
+        try {
+            roomType = Room.RoomType.valueOf(rs.getString("rm_room_type"));
+        } catch (Exception e) {
+            // Use default
+        }
+
+        return new Room(
+                rs.getString("rm_room_number"),
+                roomType,
+                rs.getBoolean("rm_is_available"),
+                rs.getInt("rm_capacity"),
+                rs.getString("rm_features"));
+    }
+
     private Room createRoomFromResultSet(ResultSet rs) throws SQLException {
         String roomTypeStr = rs.getString("room_type");
         Room.RoomType roomType = Room.RoomType.SINGLE;
@@ -313,4 +896,11 @@ public class ReservationDAO {
                 2,
                 "");
     }
+
+    /**
+     * Lookup cache used by this DAO, for its hit-ratio metrics
+     */
+    public LruCache<String, Reservation> getCache() {
+        return cache;
+    }
 }
@@ -0,0 +1,147 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.model.Room;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Room Cache - Read-through cache of rooms for RoomDAO
+ *
+ * Holds rooms by number plus the full list. Callers always get copies, so
+ * changing a returned Room does not change the cache. RoomDAO.save
+ * invalidates the saved room and the list before returning. A load that
+ * started before an invalidation is not cached, so a slow reader cannot put
+ * back a room older than the last save.
+ *
+ * Disable with -Doceanview.cache.rooms=false.
+ */
+public class RoomCache {
+    private static final RoomCache instance = new RoomCache(
+            !"false".equalsIgnoreCase(System.getProperty("oceanview.cache.rooms")));
+
+    /**
+     * Source of rooms on a miss
+     */
+    public interface Loader<T> {
+        T load() throws IOException, ClassNotFoundException;
+    }
+
+    private final boolean enabled;
+    private final Map<String, Room> rooms = new ConcurrentHashMap<>();
+    private volatile List<Room> all;
+    private volatile long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public RoomCache() {
+        this(true);
+    }
+
+    public RoomCache(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Cache shared by RoomDAOs using the default database connection
+     */
+    public static RoomCache getInstance() {
+        return instance;
+    }
+
+    public Room get(String roomNumber, Loader<Room> loader) throws IOException, ClassNotFoundException {
+        if (!enabled) {
+            return loader.load();
+        }
+        Room cached = rooms.get(roomNumber);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return new Room(cached);
+        }
+        misses.incrementAndGet();
+        long seen = generation;
+        Room loaded = loader.load();
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation == seen) {
+                    rooms.put(roomNumber, new Room(loaded));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    public List<Room> getAll(Loader<List<Room>> loader) throws IOException, ClassNotFoundException {
+        if (!enabled) {
+            return loader.load();
+        }
+        List<Room> cached = all;
+        if (cached != null) {
+            hits.incrementAndGet();
+            return copy(cached);
+        }
+        misses.incrementAndGet();
+        long seen = generation;
+        List<Room> loaded = loader.load();
+        List<Room> snapshot = Collections.unmodifiableList(copy(loaded));
+        synchronized (this) {
+            if (generation == seen) {
+                all = snapshot;
+                for (Room room : snapshot) {
+                    rooms.putIfAbsent(room.getRoomNumber(), room);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop one room and the full list; called after the room is written
+     */
+    public synchronized void invalidate(String roomNumber) {
+        generation++;
+        if (roomNumber != null && rooms.remove(roomNumber) != null) {
+            evictions.incrementAndGet();
+        }
+        if (all != null) {
+            all = null;
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        evictions.addAndGet(rooms.size() + (all != null ? 1 : 0));
+        rooms.clear();
+        all = null;
+    }
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getEvictionCount() { return evictions.get(); }
+    public int getSize() { return rooms.size(); }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public String getStats() {
+        return String.format("size=%d, hits=%d, misses=%d, hitRatio=%.3f, evictions=%d", getSize(), getHitCount(),
+                getMissCount(), getHitRatio(), getEvictionCount());
+    }
+
+    private static List<Room> copy(List<Room> rooms) {
+        List<Room> copies = new ArrayList<>(rooms.size());
+        for (Room room : rooms) {
+            copies.add(new Room(room));
+        }
+        return copies;
+    }
+}
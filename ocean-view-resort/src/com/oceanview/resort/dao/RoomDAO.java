@@ -1,55 +1,170 @@
 package com.oceanview.resort.dao;
 
 import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.database.Upsert;
 import com.oceanview.resort.model.Room;
 import com.oceanview.resort.util.FileManager;
+import com.oceanview.resort.util.JournalStore;
 import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class RoomDAO {
     private static final String FILENAME = "rooms.dat";
+    private static final String UPDATE_SQL = "UPDATE rooms SET room_type = ?, is_available = ?, capacity = ?, " +
+            "features = ?, base_rate = ? WHERE room_number = ?";
+
+    /** Largest page findPage returns */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Fields a listing can be narrowed to, in the order they are serialized */
+    public static final Set<String> FIELDS;
+
+    // Column each field needs; room_number is always read
+    private static final Map<String, String> FIELD_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        FIELD_COLUMNS.put("roomNumber", "room_number");
+        FIELD_COLUMNS.put("roomType", "room_type");
+        FIELD_COLUMNS.put("typeDescription", "room_type");
+        FIELD_COLUMNS.put("isAvailable", "is_available");
+        FIELD_COLUMNS.put("capacity", "capacity");
+        FIELD_COLUMNS.put("features", "features");
+        FIELD_COLUMNS.put("rate", "room_type");
+        FIELDS = Collections.unmodifiableSet(FIELD_COLUMNS.keySet());
+    }
+
     private FileManager fileManager = FileManager.getInstance();
-    private DatabaseConnection dbConnection = DatabaseConnection.getInstance();
+    private DatabaseConnection dbConnection;
+    private RoomCache cache;
+
+    public RoomDAO() {
+        this(DatabaseConnection.getInstance(), RoomCache.getInstance());
+    }
+
+    public RoomDAO(DatabaseConnection dbConnection) {
+        this(dbConnection, new RoomCache());
+    }
+
+    public RoomDAO(DatabaseConnection dbConnection, RoomCache cache) {
+        this.dbConnection = dbConnection;
+        this.cache = cache;
+    }
 
     public void save(Room room) throws IOException, ClassNotFoundException {
-        // Try database first
-        if (dbConnection.isDatabaseAvailable()) {
+        UnitOfWork work = UnitOfWork.current();
+        if (work != null) {
+            saveInUnit(work, Collections.singletonList(room));
+            return;
+        }
+        try {
+            // Try database first
+            if (dbConnection.isDatabaseAvailable()) {
+                try {
+                    saveToDatabase(room);
+                    return;
+                } catch (SQLException e) {
+                    System.err.println("Database save failed, using file storage: " + e.getMessage());
+                }
+            }
+
+            // Fallback to file storage
+            saveToFile(room);
+        } finally {
+            // Even a failed write may have reached the store
+            cache.invalidate(room.getRoomNumber());
+        }
+    }
+
+    /**
+     * Join the unit of work: written on its connection, or to file storage
+     * when it commits. The cache is invalidated either way.
+     */
+    private void saveInUnit(UnitOfWork work, Collection<Room> rooms) throws IOException {
+        List<Room> saved = new ArrayList<>(rooms.size());
+        for (Room room : rooms) {
+            saved.add(new Room(room));
+        }
+        Runnable invalidate = () -> saved.forEach(room -> cache.invalidate(room.getRoomNumber()));
+        work.onCommit(invalidate);
+        work.onRollback(invalidate);
+        if (work.usesDatabase(dbConnection)) {
             try {
-                saveToDatabase(room);
-                return;
+                Connection conn = work.connection(dbConnection);
+                if (saved.size() == 1) {
+                    writeToDatabase(conn, saved.get(0));
+                } else {
+                    updateBatch(conn, saved);
+                }
             } catch (SQLException e) {
-                System.err.println("Database save failed, using file storage: " + e.getMessage());
+                throw work.failed("Database save failed", e);
             }
+        } else if (saved.size() == 1) {
+            work.defer(() -> saveToFile(saved.get(0)));
+        } else {
+            work.defer(() -> saveAllToFile(saved));
         }
-
-        // Fallback to file storage
-        saveToFile(room);
     }
 
     private void saveToDatabase(Room room) throws SQLException {
-        Connection conn = dbConnection.getConnection();
+        try (Connection conn = dbConnection.getConnection()) {
+            writeToDatabase(conn, room);
+        }
+    }
+
+    private void writeToDatabase(Connection conn, Room room) throws SQLException {
+        SqlDialect dialect = dbConnection.getDialect();
+        if (dialect.supportsUpsert()) {
+            try {
+                // One round trip instead of a lookup followed by an insert or update
+                toUpsert(room).execute(conn, dialect);
+                return;
+            } catch (SQLException e) {
+                System.err.println("Upsert failed, falling back to lookup and write: " + e.getMessage());
+            }
+        }
+
+        boolean exists;
 
         // Check if room exists
         try (PreparedStatement check = conn.prepareStatement(
                 "SELECT room_number FROM rooms WHERE room_number = ?")) {
             check.setString(1, room.getRoomNumber());
-            ResultSet rs = check.executeQuery();
-
-            if (rs.next()) {
-                // Update existing
-                updateInDatabase(room);
-            } else {
-                // Insert new
-                insertIntoDatabase(room);
+            try (ResultSet rs = check.executeQuery()) {
+                exists = rs.next();
             }
         }
+
+        if (exists) {
+            // Update existing
+            updateInDatabase(conn, room);
+        } else {
+            // Insert new
+            insertIntoDatabase(conn, room);
+        }
     }
 
-    private void insertIntoDatabase(Room room) throws SQLException {
-        Connection conn = dbConnection.getConnection();
+    private Upsert toUpsert(Room room) {
+        return new Upsert("rooms", "room_number")
+                .set("room_number", room.getRoomNumber())
+                .set("room_type", room.getRoomType() != null ? room.getRoomType().name() : "SINGLE")
+                .set("is_available", room.isAvailable())
+                .set("capacity", room.getCapacity())
+                .set("features", room.getFeatures())
+                .set("base_rate", room.getRate());
+    }
+
+    private void insertIntoDatabase(Connection conn, Room room) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(
                 "INSERT INTO rooms (room_number, room_type, is_available, capacity, features, base_rate) " +
                         "VALUES (?, ?, ?, ?, ?, ?)")) {
@@ -65,37 +180,119 @@ public class RoomDAO {
         }
     }
 
-    private void updateInDatabase(Room room) throws SQLException {
-        Connection conn = dbConnection.getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(
-                "UPDATE rooms SET room_type = ?, is_available = ?, capacity = ?, features = ?, base_rate = ? " +
-                        "WHERE room_number = ?")) {
+    private void updateInDatabase(Connection conn, Room room) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+            bindUpdate(ps, room);
+            ps.executeUpdate();
+        }
+    }
 
-            ps.setString(1, room.getRoomType() != null ? room.getRoomType().name() : "SINGLE");
-            ps.setBoolean(2, room.isAvailable());
-            ps.setInt(3, room.getCapacity());
-            ps.setString(4, room.getFeatures());
-            ps.setDouble(5, room.getRate());
-            ps.setString(6, room.getRoomNumber());
+    /**
+     * Write back several existing rooms: on the database one batched UPDATE
+     * in a single transaction, in the file store one appended write
+     */
+    public void saveAll(Collection<Room> rooms) throws IOException {
+        if (rooms.isEmpty()) {
+            return;
+        }
+        UnitOfWork work = UnitOfWork.current();
+        if (work != null) {
+            saveInUnit(work, rooms);
+            return;
+        }
+        try {
+            // Try database first
+            if (dbConnection.isDatabaseAvailable()) {
+                try {
+                    updateAllInDatabase(rooms);
+                    return;
+                } catch (SQLException e) {
+                    System.err.println("Database batch save failed, using file storage: " + e.getMessage());
+                }
+            }
 
-            ps.executeUpdate();
+            // Fallback to file storage
+            saveAllToFile(rooms);
+        } finally {
+            for (Room room : rooms) {
+                cache.invalidate(room.getRoomNumber());
+            }
         }
     }
 
-    private void saveToFile(Room room) throws IOException, ClassNotFoundException {
-        List<Room> rooms = findAllFromFile();
-        for (int i = 0; i < rooms.size(); i++) {
-            if (rooms.get(i).getRoomNumber().equals(room.getRoomNumber())) {
-                rooms.set(i, room);
-                fileManager.writeListToFile(rooms, FILENAME);
-                return;
+    private void updateAllInDatabase(Collection<Room> rooms) throws SQLException {
+        try (Connection conn = dbConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                updateBatch(conn, rooms);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void updateBatch(Connection conn, Collection<Room> rooms) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
+            for (Room room : rooms) {
+                bindUpdate(ps, room);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void bindUpdate(PreparedStatement ps, Room room) throws SQLException {
+        ps.setString(1, room.getRoomType() != null ? room.getRoomType().name() : "SINGLE");
+        ps.setBoolean(2, room.isAvailable());
+        ps.setInt(3, room.getCapacity());
+        ps.setString(4, room.getFeatures());
+        ps.setDouble(5, room.getRate());
+        ps.setString(6, room.getRoomNumber());
+    }
+
+    private void saveToFile(Room room) throws IOException {
+        if (MappedRoomStore.isEnabled()) {
+            mappedStore().put(room);
+            return;
+        }
+        // One appended record; the store keeps the latest version per key
+        store().put(room);
+    }
+
+    private void saveAllToFile(Collection<Room> rooms) throws IOException {
+        if (MappedRoomStore.isEnabled()) {
+            for (Room room : rooms) {
+                mappedStore().put(room);
             }
+            return;
         }
-        rooms.add(room);
-        fileManager.writeListToFile(rooms, FILENAME);
+        store().putAll(rooms);
+    }
+
+    private JournalStore<Room> store() throws IOException {
+        return fileManager.openJournal("rooms", FILENAME, JournalCodecs.ROOMS);
+    }
+
+    /**
+     * Mapped store, seeded from the journal store the first time it is empty
+     */
+    private MappedRoomStore mappedStore() throws IOException {
+        MappedRoomStore mapped = MappedRoomStore.getInstance();
+        if (mapped.isEmpty()) {
+            mapped.putAllIfEmpty(store().values());
+        }
+        return mapped;
     }
 
     public Room findByRoomNumber(String roomNumber) throws IOException, ClassNotFoundException {
+        return cache.get(roomNumber, () -> loadByRoomNumber(roomNumber));
+    }
+
+    private Room loadByRoomNumber(String roomNumber) throws IOException, ClassNotFoundException {
         // Try database first
         if (dbConnection.isDatabaseAvailable()) {
             try {
@@ -106,26 +303,37 @@ public class RoomDAO {
         }
 
         // Fallback to file storage
-        return findAll().stream()
-                .filter(r -> r.getRoomNumber().equals(roomNumber))
-                .findFirst().orElse(null);
+        if (MappedRoomStore.isEnabled()) {
+            if (mappedStore().isEmpty()) {
+                initializeDefaultRooms();
+            }
+            return mappedStore().find(roomNumber);
+        }
+        if (store().isEmpty()) {
+            initializeDefaultRooms();
+        }
+        return store().get(roomNumber);
     }
 
     private Room findFromDatabase(String roomNumber) throws SQLException {
-        Connection conn = dbConnection.getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT * FROM rooms WHERE room_number = ?")) {
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        "SELECT * FROM rooms WHERE room_number = ?")) {
             ps.setString(1, roomNumber);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                return mapResultSetToRoom(rs);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToRoom(rs);
+                }
             }
         }
         return null;
     }
 
     public List<Room> findAll() throws IOException, ClassNotFoundException {
+        return cache.getAll(this::loadAll);
+    }
+
+    private List<Room> loadAll() throws IOException, ClassNotFoundException {
         // Try database first
         if (dbConnection.isDatabaseAvailable()) {
             try {
@@ -146,8 +354,8 @@ public class RoomDAO {
 
     private List<Room> findAllFromDatabase() throws SQLException {
         List<Room> rooms = new ArrayList<>();
-        Connection conn = dbConnection.getConnection();
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = dbConnection.getConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery("SELECT * FROM rooms ORDER BY room_number")) {
 
             while (rs.next()) {
@@ -157,38 +365,114 @@ public class RoomDAO {
         return rooms;
     }
 
-    private List<Room> findAllFromFile() throws IOException, ClassNotFoundException {
-        return fileManager.readListFromFile(FILENAME);
+    private List<Room> findAllFromFile() throws IOException {
+        if (MappedRoomStore.isEnabled()) {
+            return mappedStore().findAll();
+        }
+        return store().values();
     }
 
     public List<Room> findAvailableRooms() throws IOException, ClassNotFoundException {
+        // Filter the cached catalogue rather than querying again
+        return findAll().stream().filter(Room::isAvailable).collect(Collectors.toList());
+    }
+
+    /**
+     * One page of rooms in room number order, optionally only available
+     * ones. `after` is the cursor of the previous page (null for the first);
+     * `fields` names the room fields to read from the database (all when
+     * null).
+     *
+     * @throws IllegalArgumentException for a bad limit, cursor or field name
+     */
+    public Page<Room> findPage(String after, int limit, Set<String> fields, boolean availableOnly)
+            throws IOException, ClassNotFoundException {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (fields != null && !FIELDS.containsAll(fields)) {
+            Set<String> unknown = new LinkedHashSet<>(fields);
+            unknown.removeAll(FIELDS);
+            throw new IllegalArgumentException("Unknown fields " + unknown + "; expected some of " + FIELDS);
+        }
+        String last = after != null ? Page.key(after, 1)[0] : null;
+
         // Try database first
         if (dbConnection.isDatabaseAvailable()) {
             try {
-                return findAvailableFromDatabase();
+                return toPage(findPageFromDatabase(last, limit, fields, availableOnly), limit);
             } catch (SQLException e) {
                 System.err.println("Database query failed, using file storage: " + e.getMessage());
             }
         }
 
-        // Fallback to file storage
-        return findAll().stream().filter(Room::isAvailable).collect(Collectors.toList());
+        // Fallback to the cached catalogue, which is small
+        List<Room> rooms = findAll().stream()
+                .filter(room -> !availableOnly || room.isAvailable())
+                .filter(room -> last == null || room.getRoomNumber().compareTo(last) > 0)
+                .sorted(Comparator.comparing(Room::getRoomNumber))
+                .limit(limit + 1)
+                .collect(Collectors.toList());
+        return toPage(rooms, limit);
     }
 
-    private List<Room> findAvailableFromDatabase() throws SQLException {
-        List<Room> rooms = new ArrayList<>();
-        Connection conn = dbConnection.getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT * FROM rooms WHERE is_available = true ORDER BY room_number")) {
-            ResultSet rs = ps.executeQuery();
+    private List<Room> findPageFromDatabase(String last, int limit, Set<String> fields, boolean availableOnly)
+            throws SQLException {
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add("room_number");
+        for (String field : fields != null ? fields : FIELDS) {
+            columns.add(FIELD_COLUMNS.get(field));
+        }
+        List<String> where = new ArrayList<>();
+        if (last != null) where.add("room_number > ?");
+        if (availableOnly) where.add("is_available = ?");
+        String sql = "SELECT " + String.join(", ", columns) + " FROM rooms"
+                + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+                + " ORDER BY room_number" + dbConnection.getDialect().limitClause();
 
-            while (rs.next()) {
-                rooms.add(mapResultSetToRoom(rs));
+        List<Room> rooms = new ArrayList<>();
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (last != null) ps.setString(i++, last);
+            if (availableOnly) ps.setBoolean(i++, true);
+            ps.setInt(i, limit + 1);
+            ps.setMaxRows(limit + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rooms.add(mapProjected(rs, columns));
+                }
             }
         }
         return rooms;
     }
 
+    private static Page<Room> toPage(List<Room> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        return new Page<>(new ArrayList<>(rows.subList(0, limit)), Page.cursor(rows.get(limit - 1).getRoomNumber()));
+    }
+
+    /**
+     * Map a row holding only the given columns; the rest keep Room defaults
+     */
+    private Room mapProjected(ResultSet rs, Set<String> columns) throws SQLException {
+        Room room = new Room();
+        room.setRoomNumber(rs.getString("room_number"));
+        if (columns.contains("room_type")) {
+            try {
+                room.setRoomType(Room.RoomType.valueOf(rs.getString("room_type")));
+            } catch (Exception e) {
+                room.setRoomType(Room.RoomType.SINGLE);
+            }
+        }
+        if (columns.contains("is_available")) room.setAvailable(rs.getBoolean("is_available"));
+        if (columns.contains("capacity")) room.setCapacity(rs.getInt("capacity"));
+        if (columns.contains("features")) room.setFeatures(rs.getString("features"));
+        return room;
+    }
+
     private Room mapResultSetToRoom(ResultSet rs) throws SQLException {
         String roomTypeStr = rs.getString("room_type");
         Room.RoomType roomType = Room.RoomType.SINGLE;
@@ -222,6 +506,18 @@ public class RoomDAO {
         for (int i = 401; i <= 403; i++) {
             rooms.add(new Room("R" + i, Room.RoomType.SUITE, true, 4, "AC, TV, WiFi, Mini Bar, Balcony, Living Room"));
         }
-        fileManager.writeListToFile(rooms, FILENAME);
+        // No-op if another request seeded the store first
+        if (MappedRoomStore.isEnabled()) {
+            mappedStore().putAllIfEmpty(rooms);
+        } else {
+            store().putAllIfEmpty(rooms);
+        }
+    }
+
+    /**
+     * Cache used by this DAO, for its hit/miss/eviction counters
+     */
+    public RoomCache getCache() {
+        return cache;
     }
 }
@@ -0,0 +1,219 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.database.DatabaseConnection;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit of Work - Groups DAO writes into one transaction with one commit
+ *
+ * While a unit is open on a thread, DAO writes made on that thread join it:
+ * on the database they share one connection with auto-commit off, so the
+ * unit commits once and a failure rolls every write back; on file storage
+ * the journal writes are held until commit (one append per write, applied
+ * together; the two journal files are still separate, so this is not
+ * atomic across them). Inside a unit a failed database write is thrown,
+ * not retried against file storage; run() retries the whole unit there
+ * instead. Writes are not visible to other connections, or in file storage
+ * to anyone, until commit.
+ *
+ * Example:
+ *   UnitOfWork.run(() -> {
+ *       reservationDAO.save(reservation);
+ *       roomDAO.save(room);
+ *   });
+ */
+public class UnitOfWork implements AutoCloseable {
+    private static final ThreadLocal<UnitOfWork> current = new ThreadLocal<>();
+
+    /**
+     * DAO writes to run as one unit
+     */
+    public interface Work {
+        void run() throws Exception;
+    }
+
+    /**
+     * A file-storage write held until commit
+     */
+    interface Write {
+        void run() throws IOException;
+    }
+
+    private final boolean fileStorage;
+    private DatabaseConnection database;
+    private Connection connection;
+    private final List<Write> writes = new ArrayList<>();
+    private final List<Runnable> onCommit = new ArrayList<>();
+    private final List<Runnable> onRollback = new ArrayList<>();
+    private boolean databaseFailed;
+    private boolean committed;
+    private boolean closed;
+
+    private UnitOfWork(boolean fileStorage) {
+        this.fileStorage = fileStorage;
+    }
+
+    /**
+     * Open a unit on this thread; close it in finally, or with
+     * try-with-resources, whether or not it was committed
+     */
+    public static UnitOfWork begin() {
+        return begin(false);
+    }
+
+    private static UnitOfWork begin(boolean fileStorage) {
+        if (current.get() != null) {
+            throw new IllegalStateException("A unit of work is already open on this thread");
+        }
+        UnitOfWork work = new UnitOfWork(fileStorage);
+        current.set(work);
+        return work;
+    }
+
+    /**
+     * Run the writes as one unit and commit it. If the database transaction
+     * fails it is rolled back and the writes run again as a unit on file
+     * storage, as a single DAO write falls back to it.
+     */
+    public static void run(Work body) throws Exception {
+        try (UnitOfWork work = begin()) {
+            try {
+                body.run();
+                work.commit();
+                return;
+            } catch (Exception e) {
+                if (!work.databaseFailed && !(e instanceof SQLException)) {
+                    throw e;
+                }
+                System.err.println("Database transaction failed, using file storage: " + e.getMessage());
+            }
+        }
+        try (UnitOfWork work = begin(true)) {
+            body.run();
+            work.commit();
+        }
+    }
+
+    /**
+     * The unit open on this thread, or null
+     */
+    static UnitOfWork current() {
+        return current.get();
+    }
+
+    /**
+     * Whether the DAOs should write to this database, or hold their writes
+     * for file storage
+     */
+    boolean usesDatabase(DatabaseConnection db) {
+        return !fileStorage && db.isDatabaseAvailable();
+    }
+
+    /**
+     * The unit's connection, borrowed from the given database on first use.
+     * DAOs must not close it or change its transaction state.
+     */
+    Connection connection(DatabaseConnection db) throws SQLException {
+        if (database == null) {
+            Connection borrowed = db.getConnection();
+            try {
+                borrowed.setAutoCommit(false);
+            } catch (SQLException | RuntimeException e) {
+                borrowed.close();
+                throw e;
+            }
+            database = db;
+            connection = borrowed;
+        } else if (database != db) {
+            throw new IllegalStateException("A unit of work writes to one database");
+        }
+        return connection;
+    }
+
+    /**
+     * Record a failed database write, which rolls the unit back, as the
+     * exception the DAO throws
+     */
+    IOException failed(String what, SQLException e) {
+        databaseFailed = true;
+        return new IOException(what + ": " + e.getMessage(), e);
+    }
+
+    /**
+     * Hold a file-storage write until commit
+     */
+    void defer(Write write) {
+        writes.add(write);
+    }
+
+    /**
+     * Run after a successful commit, e.g. to update a cache
+     */
+    void onCommit(Runnable action) {
+        onCommit.add(action);
+    }
+
+    /**
+     * Run when the unit closes without committing
+     */
+    void onRollback(Runnable action) {
+        onRollback.add(action);
+    }
+
+    /**
+     * Commit the database transaction, then apply the held file writes
+     */
+    public void commit() throws SQLException, IOException {
+        if (closed || committed) {
+            throw new IllegalStateException("Unit of work is already " + (closed ? "closed" : "committed"));
+        }
+        if (connection != null) {
+            connection.commit();
+        }
+        for (Write write : writes) {
+            write.run();
+        }
+        committed = true;
+        for (Runnable action : onCommit) {
+            action.run();
+        }
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Roll back unless committed and return the connection
+     */
+    @Override
+    public void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        current.remove();
+        try {
+            if (connection != null) {
+                try {
+                    if (!committed) {
+                        connection.rollback();
+                    }
+                    connection.setAutoCommit(true);
+                } finally {
+                    connection.close();
+                }
+            }
+        } finally {
+            if (!committed) {
+                for (Runnable action : onRollback) {
+                    action.run();
+                }
+            }
+        }
+    }
+}
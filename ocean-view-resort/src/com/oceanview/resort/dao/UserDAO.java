@@ -1,8 +1,11 @@
 package com.oceanview.resort.dao;
 
 import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.database.Upsert;
 import com.oceanview.resort.model.User;
 import com.oceanview.resort.util.FileManager;
+import com.oceanview.resort.util.JournalStore;
 import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
@@ -11,7 +14,15 @@ import java.util.List;
 public class UserDAO {
     private static final String FILENAME = "users.dat";
     private FileManager fileManager = FileManager.getInstance();
-    private DatabaseConnection dbConnection = DatabaseConnection.getInstance();
+    private DatabaseConnection dbConnection;
+
+    public UserDAO() {
+        this(DatabaseConnection.getInstance());
+    }
+
+    public UserDAO(DatabaseConnection dbConnection) {
+        this.dbConnection = dbConnection;
+    }
 
     public void save(User user) throws IOException, ClassNotFoundException {
         // Try database first
@@ -29,26 +40,48 @@ public class UserDAO {
     }
 
     private void saveToDatabase(User user) throws SQLException {
-        Connection conn = dbConnection.getConnection();
+        try (Connection conn = dbConnection.getConnection()) {
+            SqlDialect dialect = dbConnection.getDialect();
+            if (dialect.supportsUpsert()) {
+                try {
+                    // One round trip instead of a lookup followed by an insert or update
+                    toUpsert(user).execute(conn, dialect);
+                    return;
+                } catch (SQLException e) {
+                    System.err.println("Upsert failed, falling back to lookup and write: " + e.getMessage());
+                }
+            }
 
-        // Check if user exists
-        try (PreparedStatement check = conn.prepareStatement(
-                "SELECT username FROM users WHERE username = ?")) {
-            check.setString(1, user.getUsername());
-            ResultSet rs = check.executeQuery();
+            boolean exists;
 
-            if (rs.next()) {
+            // Check if user exists
+            try (PreparedStatement check = conn.prepareStatement(
+                    "SELECT username FROM users WHERE username = ?")) {
+                check.setString(1, user.getUsername());
+                try (ResultSet rs = check.executeQuery()) {
+                    exists = rs.next();
+                }
+            }
+
+            if (exists) {
                 // Update existing
-                updateInDatabase(user);
+                updateInDatabase(conn, user);
             } else {
                 // Insert new
-                insertIntoDatabase(user);
+                insertIntoDatabase(conn, user);
             }
         }
     }
 
-    private void insertIntoDatabase(User user) throws SQLException {
-        Connection conn = dbConnection.getConnection();
+    private Upsert toUpsert(User user) {
+        return new Upsert("users", "username")
+                .set("username", user.getUsername())
+                .set("password", user.getPassword())
+                .set("full_name", user.getFullName())
+                .set("role", user.getRole());
+    }
+
+    private void insertIntoDatabase(Connection conn, User user) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(
                 "INSERT INTO users (username, password, full_name, role) VALUES (?, ?, ?, ?)")) {
 
@@ -61,8 +94,7 @@ public class UserDAO {
         }
     }
 
-    private void updateInDatabase(User user) throws SQLException {
-        Connection conn = dbConnection.getConnection();
+    private void updateInDatabase(Connection conn, User user) throws SQLException {
         try (PreparedStatement ps = conn.prepareStatement(
                 "UPDATE users SET password = ?, full_name = ?, role = ? WHERE username = ?")) {
 
@@ -75,17 +107,13 @@ public class UserDAO {
         }
     }
 
-    private void saveToFile(User user) throws IOException, ClassNotFoundException {
-        List<User> users = findAllFromFile();
-        for (int i = 0; i < users.size(); i++) {
-            if (users.get(i).getUsername().equals(user.getUsername())) {
-                users.set(i, user);
-                fileManager.writeListToFile(users, FILENAME);
-                return;
-            }
-        }
-        users.add(user);
-        fileManager.writeListToFile(users, FILENAME);
+    private void saveToFile(User user) throws IOException {
+        // One appended record; the store keeps the latest version per key
+        store().put(user);
+    }
+
+    private JournalStore<User> store() throws IOException {
+        return fileManager.openJournal("users", FILENAME, JournalCodecs.USERS);
     }
 
     public User findByUsername(String username) throws IOException, ClassNotFoundException {
@@ -105,19 +133,19 @@ public class UserDAO {
     }
 
     private User findFromDatabase(String username) throws SQLException {
-        Connection conn = dbConnection.getConnection();
-        try (PreparedStatement ps = conn.prepareStatement(
-                "SELECT * FROM users WHERE LOWER(username) = LOWER(?)")) {
+        try (Connection conn = dbConnection.getConnection();
+                PreparedStatement ps = conn.prepareStatement(
+                        "SELECT * FROM users WHERE LOWER(username) = LOWER(?)")) {
             ps.setString(1, username);
-            ResultSet rs = ps.executeQuery();
-
-            if (rs.next()) {
-                User user = new User();
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setFullName(rs.getString("full_name"));
-                user.setRole(rs.getString("role"));
-                return user;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    User user = new User();
+                    user.setUsername(rs.getString("username"));
+                    user.setPassword(rs.getString("password"));
+                    user.setFullName(rs.getString("full_name"));
+                    user.setRole(rs.getString("role"));
+                    return user;
+                }
             }
         }
         return null;
@@ -144,8 +172,8 @@ public class UserDAO {
 
     private List<User> findAllFromDatabase() throws SQLException {
         List<User> users = new ArrayList<>();
-        Connection conn = dbConnection.getConnection();
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = dbConnection.getConnection();
+                Statement stmt = conn.createStatement();
                 ResultSet rs = stmt.executeQuery("SELECT * FROM users ORDER BY username")) {
 
             while (rs.next()) {
@@ -160,14 +188,15 @@ public class UserDAO {
         return users;
     }
 
-    private List<User> findAllFromFile() throws IOException, ClassNotFoundException {
-        return fileManager.readListFromFile(FILENAME);
+    private List<User> findAllFromFile() throws IOException {
+        return store().values();
     }
 
     private void initializeDefaultUsers() throws IOException, ClassNotFoundException {
         List<User> defaultUsers = new ArrayList<>();
         defaultUsers.add(new User("admin", "admin123", "Administrator", "ADMIN"));
         defaultUsers.add(new User("staff", "staff123", "Staff Member", "STAFF"));
-        fileManager.writeListToFile(defaultUsers, FILENAME);
+        // No-op if another request seeded the store first
+        store().putAllIfEmpty(defaultUsers);
     }
 }
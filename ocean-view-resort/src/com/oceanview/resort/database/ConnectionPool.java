@@ -0,0 +1,402 @@
+package com.oceanview.resort.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connection Pool - Dependency-free JDBC connection pool
+ *
+ * Callers borrow with getConnection() and return by calling close() on the
+ * connection they received (try-with-resources). Connections are validated
+ * when borrowed, borrowers wait up to the borrow timeout when the pool is
+ * exhausted, and connections held longer than the leak threshold are
+ * reported with the stack trace of the code that borrowed them. Each
+ * physical connection keeps its prepared statements open in a
+ * StatementCache, so prepareStatement(sql) parses and plans once per
+ * connection rather than once per call.
+ */
+public class ConnectionPool {
+
+    /**
+     * Opens a new physical connection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("oceanview.db.statementCacheSize", 64);
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+    private int total;
+    private int waiters;
+    private boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+    private final AtomicInteger schemaGeneration = new AtomicInteger();
+    private Thread leakDetector;
+
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize,
+            long borrowTimeoutMillis, long leakThresholdMillis) throws SQLException {
+        this(factory, minSize, maxSize, borrowTimeoutMillis, leakThresholdMillis, STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * @param statementCacheSize prepared statements kept open per connection; 0 disables the cache
+     */
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize,
+            long borrowTimeoutMillis, long leakThresholdMillis, int statementCacheSize) throws SQLException {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+
+        for (int i = 0; i < minSize; i++) {
+            idle.push(factory.create());
+            total++;
+        }
+        if (leakThresholdMillis > 0) {
+            startLeakDetector();
+        }
+    }
+
+    /**
+     * Borrow a connection; close() on the returned object gives it back
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+        Connection physical = null;
+
+        while (physical == null) {
+            boolean create = false;
+            lock.lock();
+            try {
+                while (!closed && idle.isEmpty() && total >= maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        throw new SQLException("Timed out after " + borrowTimeoutMillis
+                                + " ms waiting for a database connection (" + getStats() + ")");
+                    }
+                    waiters++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    } finally {
+                        waiters--;
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    physical = idle.pop();
+                } else {
+                    total++;
+                    create = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    physical = factory.create();
+                } catch (SQLException | RuntimeException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (!isUsable(physical)) {
+                // Validation on borrow: drop the dead connection and try again
+                discard(physical);
+                physical = null;
+            }
+        }
+
+        long waited = System.nanoTime() - start;
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        StatementCache statements = statementCacheSize == 0 ? null : statementCaches.computeIfAbsent(physical,
+                p -> new StatementCache(p, statementCacheSize, statementHits, statementMisses));
+        if (statements != null) {
+            statements.checkGeneration(schemaGeneration.get());
+        }
+        Lease lease = new Lease(physical, statements,
+                leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null);
+        leases.put(physical, lease);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, lease);
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Lease lease) {
+        Connection physical = lease.physical;
+        leases.remove(physical);
+        if (lease.statements != null) {
+            lease.statements.closeLent();
+        }
+        try {
+            if (physical.isClosed()) {
+                discard(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                // Never hand out a connection with someone else's open transaction
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(physical);
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (closed) {
+                total--;
+                statementCaches.remove(physical);
+                closeQuietly(physical);
+            } else {
+                idle.push(physical);
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(Connection physical) {
+        if (physical != null) {
+            // Closing the connection closes its statements
+            statementCaches.remove(physical);
+            closeQuietly(physical);
+        }
+        lock.lock();
+        try {
+            total--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void startLeakDetector() {
+        leakDetector = new Thread(() -> {
+            while (!isClosed()) {
+                try {
+                    Thread.sleep(Math.max(100, leakThresholdMillis / 2));
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                for (Lease lease : leases.values()) {
+                    if (!lease.reported && now - lease.borrowedAt > leakThresholdMillis) {
+                        lease.reported = true;
+                        leakCount.incrementAndGet();
+                        System.err.println("Warning: database connection held for " + (now - lease.borrowedAt)
+                                + " ms by " + lease.borrower + " (possible leak)");
+                        if (lease.origin != null) {
+                            lease.origin.printStackTrace();
+                        }
+                    }
+                }
+            }
+        }, "db-pool-leak-detector");
+        leakDetector.setDaemon(true);
+        leakDetector.start();
+    }
+
+    /**
+     * Drop every cached statement, each connection's on its next borrow.
+     * Call after changing the schema.
+     */
+    public void clearStatementCaches() {
+        schemaGeneration.incrementAndGet();
+    }
+
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Close idle connections now; borrowed ones are closed when returned
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            while (!idle.isEmpty()) {
+                Connection physical = idle.pop();
+                statementCaches.remove(physical);
+                closeQuietly(physical);
+                total--;
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (leakDetector != null) {
+            leakDetector.interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Ignore
+        }
+    }
+
+    // Pool metrics
+
+    public int getMinSize() { return minSize; }
+    public int getMaxSize() { return maxSize; }
+    public int getActiveCount() { return leases.size(); }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiterCount() {
+        lock.lock();
+        try {
+            return waiters;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getTimeoutCount() { return timeoutCount.get(); }
+    public long getLeakCount() { return leakCount.get(); }
+    public long getStatementCacheHits() { return statementHits.get(); }
+    public long getStatementCacheMisses() { return statementMisses.get(); }
+    public double getTotalWaitMillis() { return totalWaitNanos.get() / 1_000_000.0; }
+    public double getMaxWaitMillis() { return maxWaitNanos.get() / 1_000_000.0; }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0 : getTotalWaitMillis() / borrows;
+    }
+
+    public String getStats() {
+        return String.format("active=%d, idle=%d, waiters=%d, borrows=%d, avgWait=%.3fms, maxWait=%.3fms, "
+                + "timeouts=%d, leaks=%d, statementHits=%d, statementMisses=%d", getActiveCount(), getIdleCount(),
+                getWaiterCount(), getBorrowCount(), getAverageWaitMillis(), getMaxWaitMillis(), getTimeoutCount(),
+                getLeakCount(), getStatementCacheHits(), getStatementCacheMisses());
+    }
+
+    /**
+     * One borrow of a physical connection. Also the invocation handler of the
+     * proxy given to the caller, so close() returns the connection exactly once.
+     */
+    private class Lease implements InvocationHandler {
+        private final Connection physical;
+        private final StatementCache statements;
+        private final Throwable origin;
+        private final String borrower = Thread.currentThread().getName();
+        private final long borrowedAt = System.currentTimeMillis();
+        private volatile boolean reported;
+        private boolean returned;
+
+        Lease(Connection physical, StatementCache statements, Throwable origin) {
+            this.physical = physical;
+            this.statements = statements;
+            this.origin = origin;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!returned) {
+                            returned = true;
+                            release(this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (statements != null && "prepareStatement".equals(method.getName()) && args.length == 1) {
+                return statements.prepare((String) args[0], (Connection) proxy);
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
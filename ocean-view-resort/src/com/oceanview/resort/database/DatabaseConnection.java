@@ -13,13 +13,22 @@ import java.io.File;
  * Uses embedded database (H2, Derby, or SQLite) with JDBC
  * Pure Java implementation - no external libraries required if using Java
  * DB/Derby
+ *
+ * Connections come from a ConnectionPool; callers borrow one per operation
+ * and return it by closing it (try-with-resources).
  */
 public class DatabaseConnection {
     private static DatabaseConnection instance;
-    private Connection connection;
+    private ConnectionPool pool;
     private static final String DB_DIR = "data";
     private static final String DB_NAME = "oceanview_resort";
 
+    // Pool sizing and limits
+    private static final int POOL_MIN = Integer.getInteger("oceanview.db.pool.min", 2);
+    private static final int POOL_MAX = Integer.getInteger("oceanview.db.pool.max", 10);
+    private static final long BORROW_TIMEOUT_MS = Long.getLong("oceanview.db.pool.borrowTimeout", 5000L);
+    private static final long LEAK_THRESHOLD_MS = Long.getLong("oceanview.db.pool.leakThreshold", 30000L);
+
     // Try Java DB/Derby first (bundled with some JDK installations)
     private static final String DERBY_DRIVER = "org.apache.derby.jdbc.EmbeddedDriver";
     private static final String DERBY_URL = "jdbc:derby:" + DB_DIR + "/" + DB_NAME + ";create=true";
@@ -34,11 +43,25 @@ public class DatabaseConnection {
 
     private String activeDriver;
     private String activeUrl;
+    private SqlDialect dialect = SqlDialect.GENERIC;
+    private volatile int schemaVersion;
 
     private DatabaseConnection() {
         initializeDatabase();
     }
 
+    /**
+     * Wrap an existing pool, for tests and embedding. No tables are created.
+     */
+    public DatabaseConnection(ConnectionPool pool) {
+        this(pool, SqlDialect.GENERIC);
+    }
+
+    public DatabaseConnection(ConnectionPool pool, SqlDialect dialect) {
+        this.pool = pool;
+        this.dialect = dialect;
+    }
+
     public static synchronized DatabaseConnection getInstance() {
         if (instance == null) {
             instance = new DatabaseConnection();
@@ -74,8 +97,11 @@ public class DatabaseConnection {
                 return;
             }
 
-            // Create tables if they don't exist
+            dialect = SqlDialect.forDriver(activeDriver);
+
+            // Create tables if they don't exist, then apply newer schema versions
             createTables();
+            migrateSchema();
 
         } catch (Exception e) {
             System.err.println("Database initialization error: " + e.getMessage());
@@ -89,9 +115,16 @@ public class DatabaseConnection {
     private boolean tryConnect(String driver, String url) {
         try {
             Class.forName(driver);
-            connection = DriverManager.getConnection(url);
-            return connection != null && !connection.isClosed();
+            pool = new ConnectionPool(() -> DriverManager.getConnection(url),
+                    POOL_MIN, POOL_MAX, BORROW_TIMEOUT_MS, LEAK_THRESHOLD_MS);
+            try (Connection probe = pool.getConnection()) {
+                return !probe.isClosed();
+            }
         } catch (ClassNotFoundException | SQLException e) {
+            if (pool != null) {
+                pool.close();
+                pool = null;
+            }
             return false;
         }
     }
@@ -100,10 +133,11 @@ public class DatabaseConnection {
      * Create database tables
      */
     private void createTables() {
-        if (connection == null)
+        if (pool == null)
             return;
 
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = pool.getConnection();
+                Statement stmt = connection.createStatement()) {
             // Users table
             stmt.executeUpdate(
                     "CREATE TABLE IF NOT EXISTS users (" +
@@ -168,7 +202,7 @@ public class DatabaseConnection {
                             "FOREIGN KEY (room_number) REFERENCES rooms(room_number))");
 
             // Initialize default data
-            initializeDefaultData();
+            initializeDefaultData(connection);
 
             System.out.println("Database tables created successfully");
 
@@ -178,10 +212,45 @@ public class DatabaseConnection {
         }
     }
 
+    /**
+     * Apply the schema migrations the database lacks. Also for a wrapped
+     * pool whose tables already exist; until called, DAOs assume version 0.
+     *
+     * @return the schema version reached
+     */
+    public int migrateSchema() {
+        if (pool == null) {
+            return schemaVersion;
+        }
+        int before = schemaVersion;
+        try (Connection connection = pool.getConnection()) {
+            try {
+                schemaVersion = SchemaMigrations.migrate(connection, dialect);
+            } catch (SQLException e) {
+                System.err.println("Schema migration failed: " + e.getMessage());
+                schemaVersion = SchemaMigrations.currentVersion(connection);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error reading schema version: " + e.getMessage());
+        }
+        if (schemaVersion != before) {
+            // A statement prepared before ALTER TABLE may keep the old columns of r.*
+            pool.clearStatementCaches();
+        }
+        return schemaVersion;
+    }
+
+    /**
+     * Schema version applied by migrateSchema, 0 before it has run
+     */
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
     /**
      * Initialize default data (users and rooms)
      */
-    private void initializeDefaultData() {
+    private void initializeDefaultData(Connection connection) {
         try {
             // Check if users exist
             try (PreparedStatement ps = connection.prepareStatement("SELECT COUNT(*) FROM users")) {
@@ -204,7 +273,7 @@ public class DatabaseConnection {
                 ResultSet rs = ps.executeQuery();
                 if (rs.next() && rs.getInt(1) == 0) {
                     // Insert default rooms
-                    insertDefaultRooms();
+                    insertDefaultRooms(connection);
                 }
             }
 
@@ -216,7 +285,7 @@ public class DatabaseConnection {
     /**
      * Insert default rooms into database
      */
-    private void insertDefaultRooms() throws SQLException {
+    private void insertDefaultRooms(Connection connection) throws SQLException {
         String[][] rooms = {
                 { "R101", "SINGLE", "5000", "1", "AC, TV, WiFi" },
                 { "R102", "SINGLE", "5000", "1", "AC, TV, WiFi" },
@@ -245,61 +314,58 @@ public class DatabaseConnection {
     }
 
     /**
-     * Get database connection
+     * Borrow a database connection from the pool.
+     * Callers must close it to return it, ideally with try-with-resources.
      */
     public Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            if (activeDriver != null && activeUrl != null) {
-                try {
-                    Class.forName(activeDriver);
-                    connection = DriverManager.getConnection(activeUrl);
-                } catch (ClassNotFoundException e) {
-                    throw new SQLException("Database driver not found: " + activeDriver, e);
-                }
-            } else {
-                throw new SQLException("Database not initialized");
-            }
+        if (pool == null) {
+            throw new SQLException("Database not initialized");
         }
-        return connection;
+        return pool.getConnection();
     }
 
     /**
      * Check if database is available
      */
     public boolean isDatabaseAvailable() {
-        try {
-            return connection != null && !connection.isClosed();
-        } catch (SQLException e) {
-            return false;
-        }
+        return pool != null && !pool.isClosed();
+    }
+
+    /**
+     * Pool metrics (active, idle, waiters, wait time); null when no database is in use
+     */
+    public ConnectionPool getPool() {
+        return pool;
     }
 
     /**
-     * Close database connection
+     * Close database connections
      */
     public void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                // For Derby, need to shutdown
-                if (activeDriver != null && activeDriver.contains("derby")) {
-                    try {
-                        DriverManager.getConnection("jdbc:derby:;shutdown=true");
-                    } catch (SQLException e) {
-                        // Expected exception for shutdown
-                        if (e.getSQLState().equals("XJ015")) {
-                            System.out.println("Derby database shut down normally");
-                        }
-                    }
-                } else {
-                    connection.close();
+        if (pool == null || pool.isClosed())
+            return;
+
+        pool.close();
+        // For Derby, need to shutdown
+        if (activeDriver != null && activeDriver.contains("derby")) {
+            try {
+                DriverManager.getConnection("jdbc:derby:;shutdown=true");
+            } catch (SQLException e) {
+                // Expected exception for shutdown
+                if ("XJ015".equals(e.getSQLState())) {
+                    System.out.println("Derby database shut down normally");
                 }
-                connection = null;
             }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
         }
     }
 
+    /**
+     * SQL dialect of the active database, GENERIC when none is in use
+     */
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+
     /**
      * Get the active database type
      */
@@ -0,0 +1,56 @@
+package com.oceanview.resort.database;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Database Executor - Bounded thread pool for blocking database work
+ *
+ * Async service calls run here instead of on HTTP worker threads, so a slow
+ * query holds one of these threads while the worker goes back to serving
+ * requests. By default it has as many threads as the connection pool has
+ * connections, so tasks do not wait a second time inside the pool.
+ *
+ * Sizing: -Doceanview.db.executor.threads (default oceanview.db.pool.max, 10),
+ * -Doceanview.db.executor.queue (default 1000); when both are full
+ * execute() throws RejectedExecutionException.
+ */
+public class DatabaseExecutor {
+    private static final int DEFAULT_QUEUE = 1000;
+
+    private static ExecutorService instance;
+
+    private DatabaseExecutor() {
+    }
+
+    /**
+     * Shared executor, created on first use with the configured sizes
+     */
+    public static synchronized ExecutorService getInstance() {
+        if (instance == null) {
+            int threads = Integer.getInteger("oceanview.db.executor.threads",
+                    Integer.getInteger("oceanview.db.pool.max", 10));
+            instance = newBoundedPool(threads, Integer.getInteger("oceanview.db.executor.queue", DEFAULT_QUEUE));
+        }
+        return instance;
+    }
+
+    /**
+     * Fixed-size pool whose queue holds at most queueLimit waiting tasks
+     */
+    public static ExecutorService newBoundedPool(int threads, int queueLimit) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread t = new Thread(task, "db-worker-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueLimit)), factory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,135 @@
+package com.oceanview.resort.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Schema Migrations - Versioned changes applied on top of the base tables
+ *
+ * The schema_version table records each applied version. migrate() applies
+ * the missing ones in order, each in its own transaction together with its
+ * schema_version row, and stops at the first that fails so a later start
+ * retries it. Versions are never edited once released; a change to the
+ * schema is a new version.
+ */
+public final class SchemaMigrations {
+
+    /** Version that adds the reservation indexes, idx_reservations_listing among them */
+    public static final int RESERVATION_INDEXES = 1;
+
+    /** Version that adds the reservations.guest_name_lower column */
+    public static final int GUEST_NAME_LOWER = 2;
+
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+            new Migration(RESERVATION_INDEXES, "Indexes for reservation room/date, check-in and listing queries",
+                    dialect -> Arrays.asList(
+                    // Overlap checks: one room, bounded by both stay dates; with status
+                    // the check reads only the index
+                    "CREATE INDEX idx_reservations_room_dates ON reservations "
+                            + "(room_number, check_in_date, check_out_date, status)",
+                    // findByDateRange
+                    "CREATE INDEX idx_reservations_check_in ON reservations (check_in_date)",
+                    // Listing and keyset pages, newest first; Derby cannot read an index backwards
+                    "CREATE INDEX idx_reservations_listing ON reservations "
+                            + "(reservation_date DESC, reservation_number DESC)")),
+            new Migration(GUEST_NAME_LOWER, "Lower-case guest name for name search", dialect ->
+                    !dialect.supportsGeneratedColumns() ? Collections.<String>emptyList() : Arrays.asList(
+                            "ALTER TABLE reservations ADD COLUMN guest_name_lower "
+                                    + dialect.generatedColumn("VARCHAR(100)", "LOWER(guest_name)"),
+                            "CREATE INDEX idx_reservations_guest_name_lower ON reservations (guest_name_lower)"))));
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Newest version this build knows
+     */
+    public static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Version the database is at; 0 before any migration
+     */
+    public static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Bring the schema up to the latest version
+     *
+     * @return the version the database is at afterwards
+     * @throws SQLException when a migration fails; the versions before it stay applied
+     */
+    public static int migrate(Connection conn, SqlDialect dialect) throws SQLException {
+        int version;
+        try {
+            version = currentVersion(conn);
+        } catch (SQLException e) {
+            // First run: no version table yet
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE schema_version (version INTEGER PRIMARY KEY, "
+                        + "description VARCHAR(200) NOT NULL, applied_on TIMESTAMP NOT NULL)");
+            }
+            version = 0;
+        }
+
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version <= version) {
+                continue;
+            }
+            apply(conn, dialect, migration);
+            version = migration.version;
+            System.out.println("Applied schema version " + version + ": " + migration.description);
+        }
+        return version;
+    }
+
+    private static void apply(Connection conn, SqlDialect dialect, Migration migration) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.statements.apply(dialect)) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO schema_version (version, description, applied_on) VALUES (?, ?, ?)")) {
+                ps.setInt(1, migration.version);
+                ps.setString(2, migration.description);
+                ps.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                ps.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw new SQLException("Schema version " + migration.version + " failed: " + e.getMessage(), e);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static final class Migration {
+        final int version;
+        final String description;
+        final Function<SqlDialect, List<String>> statements;
+
+        Migration(int version, String description, Function<SqlDialect, List<String>> statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+}
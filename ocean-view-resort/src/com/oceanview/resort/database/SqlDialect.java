@@ -0,0 +1,80 @@
+package com.oceanview.resort.database;
+
+/**
+ * SQL Dialect - Engine-specific SQL for the embedded databases we support
+ */
+public enum SqlDialect {
+    DERBY,
+    H2,
+    SQLITE,
+    /** Unknown engine: no upsert, DAOs check existence and then insert or update */
+    GENERIC;
+
+    /**
+     * Dialect of the given JDBC driver class name
+     */
+    public static SqlDialect forDriver(String driverClass) {
+        if (driverClass == null) {
+            return GENERIC;
+        }
+        String driver = driverClass.toLowerCase();
+        if (driver.contains("derby")) {
+            return DERBY;
+        }
+        if (driver.contains("h2")) {
+            return H2;
+        }
+        if (driver.contains("sqlite")) {
+            return SQLITE;
+        }
+        return GENERIC;
+    }
+
+    public boolean supportsUpsert() {
+        return this != GENERIC;
+    }
+
+    /**
+     * Whether a column can be computed by the engine from other columns
+     */
+    public boolean supportsGeneratedColumns() {
+        return this != GENERIC;
+    }
+
+    /**
+     * Column definition of a column the engine computes from an expression
+     * over the row and keeps up to date on every write
+     */
+    public String generatedColumn(String type, String expression) {
+        // SQLite can only add VIRTUAL generated columns to an existing table
+        return type + " GENERATED ALWAYS AS (" + expression + ")" + (this == SQLITE ? " VIRTUAL" : "");
+    }
+
+    /**
+     * Text to place right after a table in FROM that makes the optimizer
+     * read it through the given index; empty where the optimizer needs no help
+     */
+    public String indexHint(String index) {
+        // Derby does not weigh FETCH FIRST when costing, so it sorts a whole
+        // table rather than read the first rows of an index in order
+        return this == DERBY ? " --DERBY-PROPERTIES index=" + index.toUpperCase() + "\n" : "";
+    }
+
+    /**
+     * Text to place right after a table in FROM that makes the engine test a
+     * filter on the entries of the given index and read only the matching
+     * rows; empty where it cannot filter on index entries
+     */
+    public String filterIndexHint(String index) {
+        // SQLite would rather walk an ORDER BY index than scan a narrow one
+        return this == SQLITE ? " INDEXED BY " + index : "";
+    }
+
+    /**
+     * Clause ending a query after a row count bound as its one parameter
+     */
+    public String limitClause() {
+        // SQLite has no FETCH FIRST; the others accept the SQL:2008 form
+        return this == SQLITE ? " LIMIT ?" : " FETCH FIRST ? ROWS ONLY";
+    }
+}
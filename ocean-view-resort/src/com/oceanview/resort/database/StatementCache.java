@@ -0,0 +1,188 @@
+package com.oceanview.resort.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statement Cache - Prepared statements kept open on one physical connection
+ *
+ * prepareStatement(sql) on a pooled connection hands out the statement
+ * already prepared for that SQL text, so the engine parses and plans each
+ * statement once per connection instead of once per call. Closing the
+ * handle closes its result set, clears its parameters and puts the
+ * statement back; the least recently used ones beyond the cache size are
+ * closed for real. Returning the connection to the pool closes any handle
+ * the borrower left open. A statement is lent to one handle at a time; the
+ * same SQL prepared again while it is out gets a second statement.
+ *
+ * Not thread-safe: a physical connection has one borrower at a time.
+ */
+final class StatementCache {
+    private final Connection physical;
+    private final int capacity;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final LinkedHashMap<String, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<Handle> lent = new ArrayList<>();
+    private int generation;
+
+    StatementCache(Connection physical, int capacity, AtomicLong hits, AtomicLong misses) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Lend the statement for this SQL, preparing it on a miss
+     *
+     * @param owner the pooled connection the handle reports as its connection
+     */
+    PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        PreparedStatement statement = idle.remove(sql);
+        if (statement != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            statement = physical.prepareStatement(sql);
+        }
+        Handle handle = new Handle(sql, statement, owner);
+        lent.add(handle);
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, handle);
+    }
+
+    /**
+     * Close the idle statements if the pool's schema generation moved on
+     * since they were prepared; H2, for one, keeps the column list a
+     * statement was prepared with across ALTER TABLE
+     */
+    void checkGeneration(int current) {
+        if (generation == current) {
+            return;
+        }
+        for (PreparedStatement statement : idle.values()) {
+            closeQuietly(statement);
+        }
+        idle.clear();
+        generation = current;
+    }
+
+    /**
+     * Close the handles still lent out, as closing a connection would
+     */
+    void closeLent() {
+        for (Handle handle : new ArrayList<>(lent)) {
+            handle.close();
+        }
+    }
+
+    int size() {
+        return idle.size();
+    }
+
+    private void giveBack(Handle handle) {
+        lent.remove(handle);
+        PreparedStatement statement = handle.statement;
+        try {
+            statement.clearParameters();
+            statement.clearBatch();
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(statement);
+            return;
+        }
+        PreparedStatement previous = idle.put(handle.sql, statement);
+        if (previous != null && previous != statement) {
+            // The same SQL was lent twice; keep one
+            closeQuietly(previous);
+        }
+        Iterator<Map.Entry<String, PreparedStatement>> eldest = idle.entrySet().iterator();
+        while (idle.size() > capacity && eldest.hasNext()) {
+            closeQuietly(eldest.next().getValue());
+            eldest.remove();
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+
+    /**
+     * One loan of a cached statement; the invocation handler of the proxy
+     * given to the caller, so close() gives the statement back exactly once
+     */
+    private class Handle implements InvocationHandler {
+        private final String sql;
+        private final PreparedStatement statement;
+        private final Connection owner;
+        private ResultSet results;
+        private boolean closed;
+
+        Handle(String sql, PreparedStatement statement, Connection owner) {
+            this.sql = sql;
+            this.statement = statement;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + statement;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result;
+            try {
+                result = method.invoke(statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet) {
+                results = (ResultSet) result;
+            }
+            return result;
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (results != null) {
+                closeQuietly(results);
+            }
+            giveBack(this);
+        }
+    }
+}
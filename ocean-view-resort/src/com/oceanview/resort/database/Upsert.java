@@ -0,0 +1,177 @@
+package com.oceanview.resort.database;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Upsert - Insert-or-update of one row in a single statement
+ *
+ * Columns are added with set(); the first argument of the constructor is the
+ * key. The statement is MERGE on Derby and H2 and INSERT ... ON CONFLICT on
+ * SQLite. Generated SQL is cached per dialect, table and column list.
+ *
+ * Example:
+ *   new Upsert("rooms", "room_number").set("room_number", "R101").set("capacity", 2).execute(conn, dialect);
+ */
+public class Upsert {
+    private static final Map<String, Statement> SQL_CACHE = new ConcurrentHashMap<>();
+
+    private final String table;
+    private final String key;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    private final Map<String, Integer> types = new LinkedHashMap<>();
+    private final Set<String> insertOnly = new HashSet<>();
+
+    public Upsert(String table, String key) {
+        this.table = table;
+        this.key = key;
+    }
+
+    public Upsert set(String column, String value) {
+        return put(column, value, Types.VARCHAR);
+    }
+
+    public Upsert set(String column, int value) {
+        return put(column, value, Types.INTEGER);
+    }
+
+    public Upsert set(String column, double value) {
+        return put(column, value, Types.DOUBLE);
+    }
+
+    public Upsert set(String column, boolean value) {
+        return put(column, value, Types.BOOLEAN);
+    }
+
+    public Upsert set(String column, LocalDate value) {
+        return put(column, value != null ? Date.valueOf(value) : null, Types.DATE);
+    }
+
+    /**
+     * Written when the row is inserted, left unchanged when it already exists
+     */
+    public Upsert insertOnly(String column) {
+        insertOnly.add(column);
+        return this;
+    }
+
+    private Upsert put(String column, Object value, int sqlType) {
+        values.put(column, value);
+        types.put(column, sqlType);
+        return this;
+    }
+
+    /**
+     * Run the upsert on the given connection; returns the driver's update count
+     */
+    public int execute(Connection conn, SqlDialect dialect) throws SQLException {
+        if (!values.containsKey(key)) {
+            throw new IllegalStateException("Key column " + key + " has no value");
+        }
+        Statement statement = statement(dialect);
+        try (PreparedStatement ps = conn.prepareStatement(statement.sql)) {
+            for (int i = 0; i < statement.parameters.size(); i++) {
+                String column = statement.parameters.get(i);
+                Object value = values.get(column);
+                if (value == null) {
+                    ps.setNull(i + 1, types.get(column));
+                } else {
+                    ps.setObject(i + 1, value, types.get(column));
+                }
+            }
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * SQL text and the column bound to each parameter, built once per shape
+     */
+    Statement statement(SqlDialect dialect) {
+        String cacheKey = dialect + "|" + table + "|" + key + "|" + values.keySet() + "|" + insertOnly;
+        return SQL_CACHE.computeIfAbsent(cacheKey, k -> build(dialect));
+    }
+
+    private Statement build(SqlDialect dialect) {
+        List<String> columns = new ArrayList<>(values.keySet());
+        List<String> updated = new ArrayList<>();
+        for (String column : columns) {
+            if (!column.equals(key) && !insertOnly.contains(column)) {
+                updated.add(column);
+            }
+        }
+        String columnList = String.join(", ", columns);
+        String placeholders = String.join(", ", repeat("?", columns.size()));
+
+        switch (dialect) {
+            case H2:
+                return new Statement("MERGE INTO " + table + " t USING (VALUES (" + placeholders + ")) AS s ("
+                        + columnList + ") ON t." + key + " = s." + key
+                        + (updated.isEmpty() ? "" : " WHEN MATCHED THEN UPDATE SET " + assignments(updated, "s."))
+                        + " WHEN NOT MATCHED THEN INSERT (" + columnList + ") VALUES ("
+                        + String.join(", ", prefixed(columns, "s.")) + ")", columns);
+            case DERBY: {
+                // Derby's MERGE needs a table source, so the row comes in as parameters
+                List<String> parameters = new ArrayList<>();
+                parameters.add(key);
+                parameters.addAll(updated);
+                parameters.addAll(columns);
+                return new Statement("MERGE INTO " + table + " t USING SYSIBM.SYSDUMMY1 ON t." + key + " = ?"
+                        + (updated.isEmpty() ? "" : " WHEN MATCHED THEN UPDATE SET " + assignments(updated, null))
+                        + " WHEN NOT MATCHED THEN INSERT (" + columnList + ") VALUES (" + placeholders + ")",
+                        parameters);
+            }
+            case SQLITE:
+                return new Statement("INSERT INTO " + table + " (" + columnList + ") VALUES (" + placeholders
+                        + ") ON CONFLICT(" + key + ") DO "
+                        + (updated.isEmpty() ? "NOTHING" : "UPDATE SET " + assignments(updated, "excluded.")),
+                        columns);
+            default:
+                throw new UnsupportedOperationException("No upsert for " + dialect);
+        }
+    }
+
+    private static String assignments(List<String> columns, String sourcePrefix) {
+        List<String> parts = new ArrayList<>();
+        for (String column : columns) {
+            parts.add(column + " = " + (sourcePrefix == null ? "?" : sourcePrefix + column));
+        }
+        return String.join(", ", parts);
+    }
+
+    private static List<String> prefixed(List<String> columns, String prefix) {
+        List<String> result = new ArrayList<>();
+        for (String column : columns) {
+            result.add(prefix + column);
+        }
+        return result;
+    }
+
+    private static List<String> repeat(String s, int n) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            result.add(s);
+        }
+        return result;
+    }
+
+    static class Statement {
+        final String sql;
+        final List<String> parameters;
+
+        Statement(String sql, List<String> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+}
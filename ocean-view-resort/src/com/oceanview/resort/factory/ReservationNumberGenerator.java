@@ -0,0 +1,120 @@
+package com.oceanview.resort.factory;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Reservation Number Generator - Lock-free RES-yyyyMMdd-NNNN numbers
+ *
+ * The NNNN part is a single sequence across all days, taken from an
+ * AtomicLong. The shared instance is seeded from the highest number already
+ * stored, so numbers stay unique across restarts. If storage cannot be read
+ * the sequence starts at 1000, within the reservation_number column, and
+ * every later number retries the read until it succeeds.
+ */
+public class ReservationNumberGenerator {
+    private static final String PREFIX = "RES-";
+    private static final long FIRST_SEQUENCE = 1000;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern GENERATED = Pattern.compile("RES-\\d{8}-\\d+");
+
+    private final AtomicLong sequence;
+    private volatile DatePrefix datePrefix = new DatePrefix(LocalDate.now());
+    // Reads the highest stored number; null once the sequence is seeded
+    private volatile Callable<String> seedSource;
+
+    /**
+     * @param lastUsed highest sequence already issued; the next number is one above
+     */
+    public ReservationNumberGenerator(long lastUsed) {
+        this.sequence = new AtomicLong(Math.max(lastUsed, FIRST_SEQUENCE - 1));
+    }
+
+    /**
+     * Seeded from the highest stored number the source returns (null when
+     * there is none), read now and again before each number until it succeeds
+     */
+    ReservationNumberGenerator(Callable<String> highestStored) {
+        this(0);
+        this.seedSource = highestStored;
+        seed();
+    }
+
+    private static class Holder {
+        static final ReservationNumberGenerator INSTANCE =
+                new ReservationNumberGenerator(() -> new ReservationDAO().findHighestReservationNumber());
+    }
+
+    /**
+     * Shared generator; reads the highest stored number on first use
+     */
+    public static ReservationNumberGenerator getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private synchronized void seed() {
+        Callable<String> source = seedSource;
+        if (source == null) {
+            return;
+        }
+        try {
+            long stored = parseSequence(source.call());
+            sequence.accumulateAndGet(stored, Math::max);
+            seedSource = null;
+        } catch (Exception e) {
+            System.err.println("Could not read existing reservation numbers: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The NNNN part of a RES-yyyyMMdd-NNNN number, or 0 for any other shape
+     */
+    static long parseSequence(String number) {
+        if (number == null || !GENERATED.matcher(number).matches()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(number.substring(PREFIX.length() + 9));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public long nextSequence() {
+        if (seedSource != null) {
+            seed();
+        }
+        return sequence.incrementAndGet();
+    }
+
+    public String next() {
+        return format(nextSequence());
+    }
+
+    String format(long sequenceNumber) {
+        DatePrefix prefix = datePrefix;
+        long today = LocalDate.now().toEpochDay();
+        if (prefix.epochDay != today) {
+            prefix = new DatePrefix(LocalDate.ofEpochDay(today));
+            datePrefix = prefix;
+        }
+        return prefix.text + sequenceNumber;
+    }
+
+    /**
+     * "RES-yyyyMMdd-" for one day, formatted once rather than per number
+     */
+    private static class DatePrefix {
+        final long epochDay;
+        final String text;
+
+        DatePrefix(LocalDate date) {
+            this.epochDay = date.toEpochDay();
+            this.text = PREFIX + date.format(DATE_FORMAT) + "-";
+        }
+    }
+}
@@ -19,6 +19,10 @@ public class Guest implements Serializable {
         this.email = email;
         this.nicNumber = nicNumber;
     }
+
+    public Guest(Guest other) {
+        this(other.name, other.address, other.contactNumber, other.email, other.nicNumber);
+    }
     
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
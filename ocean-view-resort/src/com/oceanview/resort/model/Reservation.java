@@ -30,6 +30,21 @@ public class Reservation implements Serializable {
         calculateNights();
         calculateTotalAmount();
     }
+
+    /**
+     * Deep copy, including guest and room; amounts are copied, not recalculated
+     */
+    public Reservation(Reservation other) {
+        this.reservationNumber = other.reservationNumber;
+        this.guest = other.guest != null ? new Guest(other.guest) : null;
+        this.room = other.room != null ? new Room(other.room) : null;
+        this.checkInDate = other.checkInDate;
+        this.checkOutDate = other.checkOutDate;
+        this.numberOfNights = other.numberOfNights;
+        this.totalAmount = other.totalAmount;
+        this.status = other.status;
+        this.reservationDate = other.reservationDate;
+    }
     
     public void calculateNights() {
         if (checkInDate != null && checkOutDate != null) {
@@ -38,6 +38,10 @@ public class Room implements Serializable {
         this.capacity = capacity;
         this.features = features;
     }
+
+    public Room(Room other) {
+        this(other.roomNumber, other.roomType, other.isAvailable, other.capacity, other.features);
+    }
     
     public String getRoomNumber() { return roomNumber; }
     public void setRoomNumber(String roomNumber) { this.roomNumber = roomNumber; }
@@ -0,0 +1,107 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.Page;
+import com.oceanview.resort.database.DatabaseExecutor;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Async Reservation Service - ReservationService calls returning a CompletableFuture
+ *
+ * Each call runs the whole ReservationService method on the executor, so a
+ * transaction and its connection stay on one thread, and completes the
+ * future with the result or the exception the method threw. The calling
+ * thread is free once the call is queued. When the bounded executor is
+ * full the future fails at once with RejectedExecutionException.
+ */
+public class AsyncReservationService {
+    private final ReservationService reservationService;
+    private final Executor executor;
+
+    /**
+     * Calls run on the shared DatabaseExecutor
+     */
+    public AsyncReservationService(ReservationService reservationService) {
+        this(reservationService, DatabaseExecutor.getInstance());
+    }
+
+    /**
+     * Calls run on the given executor; Runnable::run runs them on the
+     * calling thread and returns futures that are already complete
+     */
+    public AsyncReservationService(ReservationService reservationService, Executor executor) {
+        this.reservationService = reservationService;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<String> createReservationAsync(Guest guest, String roomNumber, String checkIn,
+            String checkOut) {
+        return submit(() -> reservationService.createReservation(guest, roomNumber, checkIn, checkOut));
+    }
+
+    public CompletableFuture<List<ReservationService.BookingResult>> importReservationsAsync(
+            List<ReservationService.Booking> bookings) {
+        return submit(() -> reservationService.importReservations(bookings));
+    }
+
+    public CompletableFuture<Reservation> getReservationByNumberAsync(String number) {
+        return submit(() -> reservationService.getReservationByNumber(number));
+    }
+
+    public CompletableFuture<List<Reservation>> getAllReservationsAsync() {
+        return submit(reservationService::getAllReservations);
+    }
+
+    public CompletableFuture<Page<Reservation>> getReservationPageAsync(String after, int limit, Set<String> fields) {
+        return submit(() -> reservationService.getReservationPage(after, limit, fields));
+    }
+
+    public CompletableFuture<List<Reservation>> searchByGuestNameAsync(String name) {
+        return submit(() -> reservationService.searchByGuestName(name));
+    }
+
+    public CompletableFuture<List<Reservation>> searchGuestsAsync(String query, boolean prefix, int limit) {
+        return submit(() -> reservationService.searchGuests(query, prefix, limit));
+    }
+
+    public CompletableFuture<List<Reservation>> getReservationsByDateRangeAsync(String from, String to) {
+        return submit(() -> reservationService.getReservationsByDateRange(from, to));
+    }
+
+    public CompletableFuture<List<Room>> findAvailableRoomsAsync(LocalDate checkIn, LocalDate checkOut,
+            Room.RoomType type, int minCapacity) {
+        return submit(() -> reservationService.findAvailableRooms(checkIn, checkOut, type, minCapacity));
+    }
+
+    public CompletableFuture<Reservation> cancelReservationAsync(String number) {
+        return submit(() -> reservationService.cancelReservation(number));
+    }
+
+    public CompletableFuture<String> calculateBillAsync(String number) {
+        return submit(() -> reservationService.calculateBill(number));
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
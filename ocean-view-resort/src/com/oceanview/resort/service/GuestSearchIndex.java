@@ -0,0 +1,276 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.model.Reservation;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Guest Search Index - In-memory trigram index over guest names
+ *
+ * Built once from ReservationDAO and kept up to date by ReservationService as
+ * bookings are made, so a name search no longer reads every reservation.
+ * Reservations get ids in booking-date order, and each three-character
+ * sequence of a lower-cased guest name maps to the sorted ids whose name
+ * contains it. Word starts are also indexed behind one and two markers, so
+ * one- and two-letter prefixes have a list to read. A search walks the
+ * intersection of the query's lists from the newest id down and checks each
+ * candidate's name until the limit is reached; substring queries shorter
+ * than three characters have no trigram and walk all names instead.
+ *
+ * Names do not change after booking and cancelled reservations are still
+ * found by name, so cancelling leaves the index as it is.
+ */
+public class GuestSearchIndex {
+    public static final int MAX_LIMIT = 100;
+    // Marks a word start in the prefix trigrams; never part of a name
+    private static final char WORD_START = '\u0001';
+    // Loading reads only the name; the number and date always come along
+    private static final Set<String> FIELDS = Collections.singleton("guestName");
+    private static final Comparator<Reservation> OLDEST_FIRST = Comparator
+            .comparing(Reservation::getReservationDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(Reservation::getReservationNumber, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private static GuestSearchIndex instance;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    // Ids whose reservation was added again under another name
+    private final BitSet replaced = new BitSet();
+    private String[] numbers = new String[1024];
+    private String[] names = new String[1024];
+    private int size;
+
+    public GuestSearchIndex() {
+    }
+
+    /**
+     * Shared index, loaded from the stored reservations on first use
+     */
+    public static synchronized GuestSearchIndex getInstance() throws Exception {
+        if (instance == null) {
+            List<Reservation> reservations = new ArrayList<>();
+            new ReservationDAO().forEach(FIELDS, reservations::add);
+            GuestSearchIndex index = new GuestSearchIndex();
+            index.load(reservations);
+            instance = index;
+        }
+        return instance;
+    }
+
+    /**
+     * The shared index if it has been loaded, waiting for a load under way;
+     * null before the first search, when there is nothing to keep up to date
+     */
+    public static synchronized GuestSearchIndex getLoaded() {
+        return instance;
+    }
+
+    /**
+     * Add every reservation in the list, oldest first so that ids follow booking dates
+     */
+    public void load(List<Reservation> reservations) {
+        List<Reservation> sorted = new ArrayList<>(reservations);
+        sorted.sort(OLDEST_FIRST);
+        for (Reservation reservation : sorted) {
+            add(reservation);
+        }
+    }
+
+    /**
+     * Index a reservation's guest name as the newest entry; adding one that
+     * is already indexed under the same name does nothing
+     */
+    public void add(Reservation reservation) {
+        String number = reservation.getReservationNumber();
+        if (number == null || reservation.getGuest() == null || reservation.getGuest().getName() == null) {
+            return;
+        }
+        String name = normalize(reservation.getGuest().getName());
+        lock.writeLock().lock();
+        try {
+            Integer previous = ids.get(number);
+            if (previous != null) {
+                if (names[previous].equals(name)) {
+                    return;
+                }
+                replaced.set(previous);
+            }
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+                names = Arrays.copyOf(names, size * 2);
+            }
+            int id = size++;
+            numbers[id] = number;
+            names[id] = name;
+            ids.put(number, id);
+            for (long key : nameGrams(name)) {
+                postings.computeIfAbsent(key, k -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Numbers of the reservations whose guest name contains the query, or
+     * with prefix has a word starting with it, ignoring case; newest first,
+     * at most limit of them
+     */
+    public List<String> search(String query, boolean prefix, int limit) {
+        List<String> found = new ArrayList<>();
+        String text = normalize(query);
+        if (text.isEmpty() || limit <= 0) {
+            return found;
+        }
+        long[] keys = prefix ? prefixGrams(text) : trigrams(text);
+        lock.readLock().lock();
+        try {
+            if (keys.length == 0) {
+                for (int id = size - 1; id >= 0 && found.size() < limit; id--) {
+                    collect(id, text, prefix, found);
+                }
+                return found;
+            }
+            Postings[] lists = new Postings[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                lists[i] = postings.get(keys[i]);
+                if (lists[i] == null) {
+                    return found;
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            Postings shortest = lists[0];
+            candidates:
+            for (int i = shortest.size - 1; i >= 0 && found.size() < limit; i--) {
+                int id = shortest.ids[i];
+                for (int j = 1; j < lists.length; j++) {
+                    if (!lists[j].contains(id)) {
+                        continue candidates;
+                    }
+                }
+                // Sharing the trigrams does not make a match; check the name itself
+                collect(id, text, prefix, found);
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collect(int id, String text, boolean prefix, List<String> found) {
+        if (!replaced.get(id) && matches(names[id], text, prefix)) {
+            found.add(numbers[id]);
+        }
+    }
+
+    static boolean matches(String name, String text, boolean prefix) {
+        if (!prefix) {
+            return name.contains(text);
+        }
+        for (int i = name.indexOf(text); i >= 0; i = name.indexOf(text, i + 1)) {
+            if (i == 0 || name.charAt(i - 1) == ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Every trigram of the name, plus the one- and two-letter start of each word
+     */
+    private static long[] nameGrams(String name) {
+        long[] keys = new long[name.length() * 3];
+        int n = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (i + 2 < name.length()) {
+                keys[n++] = key(c, name.charAt(i + 1), name.charAt(i + 2));
+            }
+            if (c != ' ' && (i == 0 || name.charAt(i - 1) == ' ')) {
+                keys[n++] = key(WORD_START, WORD_START, c);
+                if (i + 1 < name.length()) {
+                    keys[n++] = key(WORD_START, c, name.charAt(i + 1));
+                }
+            }
+        }
+        return distinct(keys, n);
+    }
+
+    private static long[] trigrams(String text) {
+        long[] keys = new long[Math.max(0, text.length() - 2)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        return distinct(keys, keys.length);
+    }
+
+    private static long[] prefixGrams(String text) {
+        long[] inner = trigrams(text);
+        long[] keys = Arrays.copyOf(inner, inner.length + 2);
+        int n = inner.length;
+        keys[n++] = key(WORD_START, WORD_START, text.charAt(0));
+        if (text.length() > 1) {
+            keys[n++] = key(WORD_START, text.charAt(0), text.charAt(1));
+        }
+        return distinct(keys, n);
+    }
+
+    private static long key(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private static long[] distinct(long[] keys, int length) {
+        Arrays.sort(keys, 0, length);
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (n == 0 || keys[n - 1] != keys[i]) {
+                keys[n++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, n);
+    }
+
+    /**
+     * Ids of the names containing one trigram, in ascending order
+     */
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
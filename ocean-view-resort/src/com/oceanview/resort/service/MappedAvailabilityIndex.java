@@ -0,0 +1,63 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.MappedRoomStore;
+import com.oceanview.resort.model.Reservation;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Mapped Availability Index - Availability index kept in MappedRoomStore
+ *
+ * Stays inside the store's occupancy window are counted in the mapped file;
+ * stays outside it, or for rooms the store does not know, fall back to the
+ * in-memory calendars of RoomAvailabilityIndex. A check consults both.
+ */
+public class MappedAvailabilityIndex extends RoomAvailabilityIndex {
+    private final MappedRoomStore store;
+
+    public MappedAvailabilityIndex(MappedRoomStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Replace the mapped counts, which may be left over from a previous run
+     */
+    @Override
+    public void load(List<Reservation> reservations) {
+        store.clearOccupancy();
+        super.load(reservations);
+    }
+
+    @Override
+    public void add(Reservation reservation) {
+        if (isActive(reservation) && mapped(reservation)) {
+            store.addStay(reservation.getRoom().getRoomNumber(), reservation.getCheckInDate(),
+                    reservation.getCheckOutDate());
+        } else {
+            super.add(reservation);
+        }
+    }
+
+    @Override
+    public void remove(Reservation reservation) {
+        if (mapped(reservation)) {
+            store.removeStay(reservation.getRoom().getRoomNumber(), reservation.getCheckInDate(),
+                    reservation.getCheckOutDate());
+        } else {
+            super.remove(reservation);
+        }
+    }
+
+    @Override
+    public boolean isAvailable(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        return store.isFree(roomNumber, checkIn, checkOut) && super.isAvailable(roomNumber, checkIn, checkOut);
+    }
+
+    private boolean mapped(Reservation reservation) {
+        return reservation.getRoom() != null && reservation.getRoom().getRoomNumber() != null
+                && reservation.getCheckInDate() != null && reservation.getCheckOutDate() != null
+                && !reservation.getCheckOutDate().isBefore(reservation.getCheckInDate())
+                && store.covers(reservation.getRoom().getRoomNumber(), reservation.getCheckInDate(),
+                        reservation.getCheckOutDate());
+    }
+}
@@ -1,65 +1,246 @@
 package com.oceanview.resort.service;
 
+import com.oceanview.resort.dao.Page;
 import com.oceanview.resort.dao.ReservationDAO;
 import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.dao.UnitOfWork;
 import com.oceanview.resort.factory.ReservationFactory;
 import com.oceanview.resort.model.Guest;
 import com.oceanview.resort.model.Reservation;
 import com.oceanview.resort.model.Room;
+import com.oceanview.resort.util.RowHandler;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ReservationService {
+    // Latest check-out accepted, counted from today
+    static final int MAX_ADVANCE_DAYS = 3 * 365;
+
     private ReservationDAO reservationDAO = new ReservationDAO();
     private RoomDAO roomDAO = new RoomDAO();
     private PricingStrategy pricingStrategy = new DiscountPricingStrategy();
+    private RoomAvailabilityIndex availabilityIndex;
+    private GuestSearchIndex guestSearchIndex;
+    private RoomLocks roomLocks = RoomLocks.getInstance();
+
+    public ReservationService() {
+    }
+
+    ReservationService(ReservationDAO reservationDAO, RoomDAO roomDAO, RoomAvailabilityIndex availabilityIndex) {
+        this.reservationDAO = reservationDAO;
+        this.roomDAO = roomDAO;
+        this.availabilityIndex = availabilityIndex;
+    }
+
+    ReservationService(ReservationDAO reservationDAO, RoomDAO roomDAO, RoomAvailabilityIndex availabilityIndex,
+            RoomLocks roomLocks) {
+        this(reservationDAO, roomDAO, availabilityIndex);
+        this.roomLocks = roomLocks;
+    }
+
+    ReservationService(ReservationDAO reservationDAO, RoomDAO roomDAO, RoomAvailabilityIndex availabilityIndex,
+            GuestSearchIndex guestSearchIndex) {
+        this(reservationDAO, roomDAO, availabilityIndex);
+        this.guestSearchIndex = guestSearchIndex;
+    }
 
     public String createReservation(Guest guest, String roomNumber, String checkInStr, String checkOutStr)
             throws Exception {
-        LocalDate checkIn = LocalDate.parse(checkInStr);
-        LocalDate checkOut = LocalDate.parse(checkOutStr);
+        LocalDate checkIn = parseDate(checkInStr);
+        LocalDate checkOut = parseDate(checkOutStr);
+
+        checkStay(checkIn, checkOut);
+
+        // Check and book under the room's lock so two requests cannot both pass the checks
+        ReentrantLock lock = roomLocks.forRoom(roomNumber);
+        lock.lock();
+        try {
+            Room room = roomDAO.findByRoomNumber(roomNumber);
+            if (room == null || !room.isAvailable()) {
+                throw new IllegalArgumentException("Room not available");
+            }
+
+            if (hasConflict(roomNumber, checkIn, checkOut)) {
+                throw new IllegalArgumentException("Room already booked for these dates");
+            }
+
+            Reservation reservation = ReservationFactory.createReservation(guest, room, checkIn, checkOut);
+            reservation.setStatus("CONFIRMED");
+            reservation.setTotalAmount(pricingStrategy.calculatePrice(reservation));
+            room.setAvailable(false);
+            // Reservation and room in one transaction: both are written or neither is
+            UnitOfWork.run(() -> {
+                reservationDAO.save(reservation);
+                roomDAO.save(room);
+            });
+            availabilityIndex().add(reservation);
+            indexGuest(reservation);
+
+            return reservation.getReservationNumber();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Book many reservations at once, e.g. a channel manager's import. Each
+     * booking is checked in order exactly as createReservation would check
+     * it, against the rooms and the availability index as they stand plus the
+     * bookings accepted earlier in the import. The accepted ones are then
+     * written together in one transaction, a batch for the reservations and
+     * one for the rooms.
+     *
+     * @return one result per booking, in the same order
+     */
+    public List<BookingResult> importReservations(List<Booking> bookings) throws Exception {
+        BookingResult[] results = new BookingResult[bookings.size()];
+        Set<String> roomNumbers = new HashSet<>();
+        for (Booking booking : bookings) {
+            roomNumbers.add(booking.roomNumber);
+        }
+
+        // Hold every involved room's lock so single bookings cannot slip in between check and write
+        List<ReentrantLock> locks = roomLocks.forRooms(roomNumbers);
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            Map<String, Room> rooms = new HashMap<>();
+            for (Room room : roomDAO.findAll()) {
+                rooms.put(room.getRoomNumber(), room);
+            }
+            RoomAvailabilityIndex index = availabilityIndex();
+            Map<String, Room> booked = new LinkedHashMap<>();
+            List<Reservation> accepted = new ArrayList<>();
+
+            for (int i = 0; i < results.length; i++) {
+                Booking booking = bookings.get(i);
+                LocalDate checkIn;
+                LocalDate checkOut;
+                try {
+                    if (booking.checkIn == null || booking.checkOut == null) {
+                        throw new IllegalArgumentException("Check-in and check-out dates are required");
+                    }
+                    checkIn = LocalDate.parse(booking.checkIn);
+                    checkOut = LocalDate.parse(booking.checkOut);
+                    checkStay(checkIn, checkOut);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    results[i] = BookingResult.failed(e.getMessage());
+                    continue;
+                }
+
+                // A room booked earlier in this import is no longer available, as after createReservation
+                Room room = rooms.get(booking.roomNumber);
+                if (room == null || !room.isAvailable() || booked.containsKey(booking.roomNumber)) {
+                    results[i] = BookingResult.failed("Room not available");
+                    continue;
+                }
+                if (!index.isAvailable(booking.roomNumber, checkIn, checkOut)) {
+                    results[i] = BookingResult.failed("Room already booked for these dates");
+                    continue;
+                }
+
+                Reservation reservation = ReservationFactory.createReservation(booking.guest, room, checkIn,
+                        checkOut);
+                reservation.setStatus("CONFIRMED");
+                reservation.setTotalAmount(pricingStrategy.calculatePrice(reservation));
+                accepted.add(reservation);
+                booked.put(booking.roomNumber, room);
+                results[i] = BookingResult.created(reservation.getReservationNumber());
+            }
+
+            for (Room room : booked.values()) {
+                room.setAvailable(false);
+            }
+            UnitOfWork.run(() -> {
+                reservationDAO.insertAll(accepted);
+                roomDAO.saveAll(booked.values());
+            });
+            for (Reservation reservation : accepted) {
+                index.add(reservation);
+                indexGuest(reservation);
+            }
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+        return Arrays.asList(results);
+    }
 
+    /**
+     * Every stay passes here before the room lock and the availability index
+     */
+    private static void checkStay(LocalDate checkIn, LocalDate checkOut) {
         if (checkOut.isBefore(checkIn) || checkOut.isEqual(checkIn)) {
             throw new IllegalArgumentException("Check-out must be after check-in");
         }
-        if (checkIn.isBefore(LocalDate.now())) {
+        LocalDate today = LocalDate.now();
+        if (checkIn.isBefore(today)) {
             throw new IllegalArgumentException("Check-in cannot be in the past");
         }
-
-        Room room = roomDAO.findByRoomNumber(roomNumber);
-        if (room == null || !room.isAvailable()) {
-            throw new IllegalArgumentException("Room not available");
+        if (checkOut.isAfter(today.plusDays(MAX_ADVANCE_DAYS))) {
+            throw new IllegalArgumentException("Check-out cannot be more than " + MAX_ADVANCE_DAYS
+                    + " days ahead");
         }
-
-        if (hasConflict(roomNumber, checkIn, checkOut)) {
-            throw new IllegalArgumentException("Room already booked for these dates");
+        if (checkIn.plusDays(RoomAvailabilityIndex.MAX_STAY_NIGHTS).isBefore(checkOut)) {
+            throw new IllegalArgumentException("Stay cannot be longer than " + RoomAvailabilityIndex.MAX_STAY_NIGHTS
+                    + " nights");
         }
+    }
 
-        Reservation reservation = ReservationFactory.createReservation(guest, room, checkIn, checkOut);
-        reservation.setStatus("CONFIRMED");
-        reservation.setTotalAmount(pricingStrategy.calculatePrice(reservation));
-        reservationDAO.save(reservation);
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
 
-        room.setAvailable(false);
-        roomDAO.save(room);
+    private boolean hasConflict(String roomNumber, LocalDate checkIn, LocalDate checkOut) throws Exception {
+        return !availabilityIndex().isAvailable(roomNumber, checkIn, checkOut);
+    }
 
-        return reservation.getReservationNumber();
+    private synchronized RoomAvailabilityIndex availabilityIndex() throws Exception {
+        if (availabilityIndex == null) {
+            availabilityIndex = RoomAvailabilityIndex.getInstance();
+        }
+        return availabilityIndex;
     }
 
-    private boolean hasConflict(String roomNumber, LocalDate checkIn, LocalDate checkOut) throws Exception {
-        List<Reservation> reservations = reservationDAO.findAll();
-        for (Reservation r : reservations) {
-            if (r.getRoom() != null && r.getRoom().getRoomNumber().equals(roomNumber)
-                    && ("CONFIRMED".equals(r.getStatus()) || "PENDING".equals(r.getStatus()))) {
-                LocalDate rIn = r.getCheckInDate();
-                LocalDate rOut = r.getCheckOutDate();
-                if (!(checkOut.isBefore(rIn) || checkIn.isAfter(rOut))) {
-                    return true;
-                }
+    /**
+     * Rooms that can be booked for the whole stay, optionally limited to a
+     * room type and a minimum capacity. Uses the availability index, so the
+     * cost depends on the number of rooms, not on the booking history.
+     */
+    public List<Room> findAvailableRooms(LocalDate checkIn, LocalDate checkOut, Room.RoomType type, int minCapacity)
+            throws Exception {
+        checkStay(checkIn, checkOut);
+
+        RoomAvailabilityIndex index = availabilityIndex();
+        List<Room> rooms = new ArrayList<>();
+        for (Room room : roomDAO.findAll()) {
+            // createReservation also refuses rooms flagged unavailable
+            if (!room.isAvailable()
+                    || (type != null && room.getRoomType() != type)
+                    || room.getCapacity() < minCapacity) {
+                continue;
+            }
+            if (index.isAvailable(room.getRoomNumber(), checkIn, checkOut)) {
+                rooms.add(room);
             }
         }
-        return false;
+        return rooms;
     }
 
     public Reservation getReservationByNumber(String number) throws Exception {
@@ -70,27 +251,104 @@ public class ReservationService {
         return reservationDAO.findAll();
     }
 
+    /**
+     * Stream every reservation to the handler without building a list
+     */
+    public void forEachReservation(RowHandler<Reservation> handler) throws Exception {
+        forEachReservation(null, handler);
+    }
+
+    /**
+     * Stream every reservation, reading only the given fields (all when null)
+     */
+    public void forEachReservation(Set<String> fields, RowHandler<Reservation> handler) throws Exception {
+        reservationDAO.forEach(fields, handler);
+    }
+
+    /**
+     * One page of reservations, newest first, after the given cursor
+     */
+    public Page<Reservation> getReservationPage(String after, int limit, Set<String> fields) throws Exception {
+        return reservationDAO.findPage(after, limit, fields);
+    }
+
     public List<Reservation> searchByGuestName(String name) throws Exception {
         return reservationDAO.findByGuestName(name);
     }
 
+    /**
+     * Reservations whose guest name contains the query, or with prefix has a
+     * word starting with it, newest first and at most limit of them; answered
+     * from the guest search index, then read by number
+     */
+    public List<Reservation> searchGuests(String query, boolean prefix, int limit) throws Exception {
+        List<Reservation> reservations = new ArrayList<>();
+        for (String number : guestSearchIndex(true).search(query, prefix, limit)) {
+            Reservation reservation = reservationDAO.findByReservationNumber(number);
+            if (reservation != null) {
+                reservations.add(reservation);
+            }
+        }
+        return reservations;
+    }
+
+    private void indexGuest(Reservation reservation) throws Exception {
+        // Until someone searches there is no index to keep up to date
+        GuestSearchIndex index = guestSearchIndex(false);
+        if (index != null) {
+            index.add(reservation);
+        }
+    }
+
+    private synchronized GuestSearchIndex guestSearchIndex(boolean load) throws Exception {
+        if (guestSearchIndex == null) {
+            guestSearchIndex = load ? GuestSearchIndex.getInstance() : GuestSearchIndex.getLoaded();
+        }
+        return guestSearchIndex;
+    }
+
     public Reservation cancelReservation(String reservationNumber) throws Exception {
-        Reservation reservation = reservationDAO.findByReservationNumber(reservationNumber);
-        if (reservation == null) {
+        Reservation found = reservationDAO.findByReservationNumber(reservationNumber);
+        if (found == null) {
             return null;
         }
+        if (found.getRoom() == null) {
+            return cancel(found);
+        }
+
+        ReentrantLock lock = roomLocks.forRoom(found.getRoom().getRoomNumber());
+        lock.lock();
+        try {
+            // Re-read under the lock; a concurrent cancel may have won
+            return cancel(reservationDAO.findByReservationNumber(reservationNumber));
+        } finally {
+            lock.unlock();
+        }
+    }
 
+    private Reservation cancel(Reservation reservation) throws Exception {
+        if (reservation == null) {
+            return null;
+        }
         if ("CANCELLED".equals(reservation.getStatus())) {
             throw new IllegalArgumentException("Reservation is already cancelled");
         }
 
+        boolean wasActive = RoomAvailabilityIndex.isActive(reservation);
         reservation.setStatus("CANCELLED");
-        reservationDAO.save(reservation);
-
-        // Make the room available again
-        if (reservation.getRoom() != null) {
-            reservation.getRoom().setAvailable(true);
-            roomDAO.save(reservation.getRoom());
+        // Make the room available again, in the same transaction
+        Room room = reservation.getRoom();
+        if (room != null) {
+            room.setAvailable(true);
+        }
+        UnitOfWork.run(() -> {
+            reservationDAO.save(reservation);
+            if (room != null) {
+                roomDAO.save(room);
+            }
+        });
+        if (wasActive) {
+            availabilityIndex().remove(reservation);
         }
 
         return reservation;
@@ -103,10 +361,25 @@ public class ReservationService {
     }
 
     public String calculateBill(String reservationNumber) throws Exception {
-        Reservation reservation = reservationDAO.findByReservationNumber(reservationNumber);
-        if (reservation == null)
+        Reservation found = reservationDAO.findByReservationNumber(reservationNumber);
+        if (found == null)
             return "Reservation not found";
+        if (found.getRoom() == null)
+            return bill(found);
 
+        ReentrantLock lock = roomLocks.forRoom(found.getRoom().getRoomNumber());
+        lock.lock();
+        try {
+            // Re-read under the lock; saving a copy read before a concurrent
+            // cancel would bring the cancelled stay back
+            Reservation reservation = reservationDAO.findByReservationNumber(reservationNumber);
+            return reservation != null ? bill(reservation) : "Reservation not found";
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private String bill(Reservation reservation) throws Exception {
         double total = pricingStrategy.calculatePrice(reservation);
         reservation.setTotalAmount(total);
         reservationDAO.save(reservation);
@@ -139,4 +412,51 @@ public class ReservationService {
         bill.append("========================================\n");
         return bill.toString();
     }
+
+    /**
+     * One booking of an import: the input createReservation takes
+     */
+    public static class Booking {
+        private final Guest guest;
+        private final String roomNumber;
+        private final String checkIn;
+        private final String checkOut;
+
+        public Booking(Guest guest, String roomNumber, String checkIn, String checkOut) {
+            this.guest = guest;
+            this.roomNumber = roomNumber;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+        }
+
+        public Guest getGuest() { return guest; }
+        public String getRoomNumber() { return roomNumber; }
+        public String getCheckIn() { return checkIn; }
+        public String getCheckOut() { return checkOut; }
+    }
+
+    /**
+     * Outcome of one imported booking: its reservation number, or why it was refused
+     */
+    public static class BookingResult {
+        private final String reservationNumber;
+        private final String error;
+
+        private BookingResult(String reservationNumber, String error) {
+            this.reservationNumber = reservationNumber;
+            this.error = error;
+        }
+
+        public static BookingResult created(String reservationNumber) {
+            return new BookingResult(reservationNumber, null);
+        }
+
+        public static BookingResult failed(String error) {
+            return new BookingResult(null, error);
+        }
+
+        public boolean isSuccess() { return error == null; }
+        public String getReservationNumber() { return reservationNumber; }
+        public String getError() { return error; }
+    }
 }
@@ -0,0 +1,180 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.MappedRoomStore;
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.model.Reservation;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Room Availability Index - In-memory calendar of occupied days per room
+ *
+ * Built once from ReservationDAO and kept up to date by ReservationService on
+ * create and cancel, so conflict checks no longer scan every reservation.
+ * Each room keeps a count of active (CONFIRMED or PENDING) reservations per
+ * day and a bitset of days with a non-zero count. A stay occupies its
+ * check-in and check-out days inclusive, matching the original conflict rule.
+ * Stays longer than MAX_STAY_NIGHTS, or dates that would stretch a room's
+ * calendar past MAX_CALENDAR_DAYS, are refused with IllegalArgumentException.
+ */
+public class RoomAvailabilityIndex {
+    public static final int MAX_STAY_NIGHTS = 365;
+    // About a century of days per room; bounds the arrays a bogus date can grow
+    static final int MAX_CALENDAR_DAYS = 36_525;
+
+    private static RoomAvailabilityIndex instance;
+
+    private final Map<String, RoomCalendar> rooms = new ConcurrentHashMap<>();
+
+    public RoomAvailabilityIndex() {
+    }
+
+    /**
+     * Shared index, loaded from the stored reservations on first use; with
+     * oceanview.availability=stored, one that queries them on every check
+     */
+    public static synchronized RoomAvailabilityIndex getInstance() throws Exception {
+        if (instance == null && "stored".equalsIgnoreCase(System.getProperty("oceanview.availability"))) {
+            instance = new StoredAvailabilityIndex(new ReservationDAO());
+        }
+        if (instance == null) {
+            RoomAvailabilityIndex index = MappedRoomStore.isEnabled()
+                    ? new MappedAvailabilityIndex(MappedRoomStore.getInstance())
+                    : new RoomAvailabilityIndex();
+            index.load(new ReservationDAO().findAll());
+            instance = index;
+        }
+        return instance;
+    }
+
+    /**
+     * Add every active reservation in the list, skipping any the index refuses
+     */
+    public void load(List<Reservation> reservations) {
+        for (Reservation reservation : reservations) {
+            try {
+                add(reservation);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Warning: reservation " + reservation.getReservationNumber()
+                        + " not indexed: " + e.getMessage());
+            }
+        }
+    }
+
+    public static boolean isActive(Reservation reservation) {
+        return "CONFIRMED".equals(reservation.getStatus()) || "PENDING".equals(reservation.getStatus());
+    }
+
+    /**
+     * Record a reservation; ignored unless it is active and fully dated
+     *
+     * @throws IllegalArgumentException if the stay is too long or too far from the room's other stays
+     */
+    public void add(Reservation reservation) {
+        if (indexable(reservation)) {
+            calendar(reservation.getRoom().getRoomNumber())
+                    .update(reservation.getCheckInDate(), reservation.getCheckOutDate(), 1);
+        }
+    }
+
+    /**
+     * Forget a reservation that was active when added; its current status is not checked
+     */
+    public void remove(Reservation reservation) {
+        if (hasDates(reservation)) {
+            RoomCalendar calendar = rooms.get(reservation.getRoom().getRoomNumber());
+            if (calendar != null) {
+                calendar.update(reservation.getCheckInDate(), reservation.getCheckOutDate(), -1);
+            }
+        }
+    }
+
+    /**
+     * True if no active reservation of the room touches any day from checkIn to checkOut
+     */
+    public boolean isAvailable(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        RoomCalendar calendar = rooms.get(roomNumber);
+        return calendar == null || calendar.isFree(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    private static boolean indexable(Reservation reservation) {
+        return isActive(reservation) && hasDates(reservation);
+    }
+
+    private static boolean hasDates(Reservation reservation) {
+        return reservation.getRoom() != null
+                && reservation.getRoom().getRoomNumber() != null
+                && reservation.getCheckInDate() != null && reservation.getCheckOutDate() != null
+                && !reservation.getCheckOutDate().isBefore(reservation.getCheckInDate());
+    }
+
+    private RoomCalendar calendar(String roomNumber) {
+        return rooms.computeIfAbsent(roomNumber, k -> new RoomCalendar());
+    }
+
+    /**
+     * Occupancy of one room, indexed by epoch day minus base
+     */
+    private static class RoomCalendar {
+        private long base;
+        private int[] counts = new int[0];
+        private BitSet occupied = new BitSet();
+
+        synchronized boolean isFree(long from, long to) {
+            long start = Math.max(0, from - base);
+            long end = to - base;
+            if (end < 0 || start >= counts.length) {
+                return true;
+            }
+            int next = occupied.nextSetBit((int) start);
+            return next < 0 || next > end;
+        }
+
+        synchronized void update(LocalDate checkIn, LocalDate checkOut, int delta) {
+            long from = checkIn.toEpochDay();
+            long to = checkOut.toEpochDay();
+            if (delta > 0) {
+                if (to - from > MAX_STAY_NIGHTS) {
+                    throw new IllegalArgumentException("Stay cannot be longer than " + MAX_STAY_NIGHTS + " nights");
+                }
+                ensureRange(from, to);
+            } else if (from < base || to - base >= counts.length) {
+                return; // never added
+            }
+            for (long day = from; day <= to; day++) {
+                int i = (int) (day - base);
+                int count = Math.max(0, counts[i] + delta);
+                counts[i] = count;
+                occupied.set(i, count > 0);
+            }
+        }
+
+        private void ensureRange(long from, long to) {
+            if (counts.length == 0) {
+                base = from;
+            }
+            long newBase = Math.min(base, from);
+            long needed = Math.max(base + counts.length, to + 1) - newBase;
+            if (newBase == base && needed <= counts.length) {
+                return;
+            }
+            if (needed > MAX_CALENDAR_DAYS) {
+                throw new IllegalArgumentException("Stay dates are too far from the room's other reservations");
+            }
+            int shift = Math.toIntExact(base - newBase);
+            int size = (int) Math.min(Math.max(needed, (long) counts.length * 2), MAX_CALENDAR_DAYS);
+            int[] grown = new int[size];
+            System.arraycopy(counts, 0, grown, shift, counts.length);
+            BitSet bits = new BitSet(size);
+            for (int i = occupied.nextSetBit(0); i >= 0; i = occupied.nextSetBit(i + 1)) {
+                bits.set(i + shift);
+            }
+            base = newBase;
+            counts = grown;
+            occupied = bits;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.oceanview.resort.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Room Locks - Striped locks that serialize bookings per room
+ *
+ * Each room number hashes to one of a fixed set of locks, so bookings for the
+ * same room run one at a time while bookings for other rooms rarely contend.
+ * Stripe count is set with -Doceanview.booking.lockStripes (default 64).
+ */
+public class RoomLocks {
+    private static final int DEFAULT_STRIPES = Integer.getInteger("oceanview.booking.lockStripes", 64);
+    private static final RoomLocks instance = new RoomLocks(DEFAULT_STRIPES);
+
+    private final ReentrantLock[] stripes;
+
+    public RoomLocks(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Lock stripes must be positive: " + stripes);
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Locks shared by every ReservationService in this JVM
+     */
+    public static RoomLocks getInstance() {
+        return instance;
+    }
+
+    /**
+     * Lock guarding the given room; callers lock() and unlock() in finally
+     */
+    public ReentrantLock forRoom(String roomNumber) {
+        return stripes[stripe(roomNumber)];
+    }
+
+    /**
+     * Locks guarding all the given rooms, each once and always in stripe
+     * order, so callers locking overlapping sets in that order cannot deadlock
+     */
+    public List<ReentrantLock> forRooms(Collection<String> roomNumbers) {
+        boolean[] used = new boolean[stripes.length];
+        for (String roomNumber : roomNumbers) {
+            used[stripe(roomNumber)] = true;
+        }
+        List<ReentrantLock> locks = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            if (used[i]) {
+                locks.add(stripes[i]);
+            }
+        }
+        return locks;
+    }
+
+    private int stripe(String roomNumber) {
+        int h = roomNumber == null ? 0 : roomNumber.hashCode();
+        h ^= (h >>> 16); // spread like HashMap so similar room numbers use different stripes
+        return Math.floorMod(h, stripes.length);
+    }
+}
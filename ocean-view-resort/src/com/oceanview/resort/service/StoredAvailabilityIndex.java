@@ -0,0 +1,49 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.model.Reservation;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Stored Availability Index - Availability answered by the stored reservations
+ *
+ * Keeps nothing in memory: each check is one ReservationDAO.existsOverlap
+ * query, which reads an index range in the database or scans file storage
+ * up to the first match. Nothing is loaded at startup, so it suits a long
+ * booking history whose calendars would not fit in memory, at the cost of a
+ * query per check. Saves and cancellations are seen once they are stored.
+ */
+public class StoredAvailabilityIndex extends RoomAvailabilityIndex {
+    private final ReservationDAO reservationDAO;
+
+    public StoredAvailabilityIndex(ReservationDAO reservationDAO) {
+        this.reservationDAO = reservationDAO;
+    }
+
+    @Override
+    public void load(List<Reservation> reservations) {
+        // The store is the index
+    }
+
+    @Override
+    public void add(Reservation reservation) {
+        // Already stored by the caller
+    }
+
+    @Override
+    public void remove(Reservation reservation) {
+        // Already stored by the caller
+    }
+
+    @Override
+    public boolean isAvailable(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        try {
+            return !reservationDAO.existsOverlap(roomNumber, checkIn, checkOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
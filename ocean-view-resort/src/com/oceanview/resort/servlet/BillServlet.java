@@ -42,12 +42,10 @@ public class BillServlet extends Servlet {
                     response.setContentType("text/plain");
                     
                     // Convert to JSON for consistency with API
-                    String jsonBill = String.format(
-                        "{\"reservationNumber\":\"%s\",\"bill\":\"%s\"}",
-                        reservationNumber,
-                        escape(bill.replace("\n", "\\n").replace("\r", "\\r"))
-                    );
-                    response.sendJSON(jsonBill);
+                    response.sendJSON(JsonWriter.get().beginObject()
+                        .name("reservationNumber").value(reservationNumber)
+                        .name("bill").value(bill)
+                        .endObject());
                 } else {
                     response.setStatus(404);
                     response.sendError(404, "Reservation not found");
@@ -75,14 +73,4 @@ public class BillServlet extends Servlet {
         }
         return "";
     }
-    
-    /**
-     * Escape JSON string
-     */
-    private String escape(String str) {
-        if (str == null) return "";
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\t", "\\t");
-    }
 }
@@ -0,0 +1,77 @@
+package com.oceanview.resort.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Chunked Output Stream - HTTP/1.1 chunked transfer encoding
+ *
+ * Buffers writes and sends them as chunks of up to the buffer size. close()
+ * sends the terminating zero-length chunk but leaves the connection open
+ * for the next request.
+ */
+class ChunkedOutputStream extends OutputStream {
+    private static final byte[] CRLF = { '\r', '\n' };
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+    private boolean closed;
+
+    ChunkedOutputStream(OutputStream out, int chunkSize) {
+        this.out = out;
+        this.buffer = new byte[chunkSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            writeChunk();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeChunk();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writeChunk();
+        out.write(LAST_CHUNK);
+        out.flush();
+    }
+
+    private void writeChunk() throws IOException {
+        if (count == 0) {
+            return; // a zero-length chunk would end the body
+        }
+        out.write(Integer.toHexString(count).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+        out.write(buffer, 0, count);
+        out.write(CRLF);
+        count = 0;
+    }
+}
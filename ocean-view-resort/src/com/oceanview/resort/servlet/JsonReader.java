@@ -0,0 +1,499 @@
+package com.oceanview.resort.servlet;
+
+/**
+ * JSON Reader - Pulls typed values out of a JSON request body in one pass
+ *
+ * A cursor over the body text: callers step through objects and arrays with
+ * beginObject/hasNext/nextName and read each value as the type they expect,
+ * skipping members they don't know with skipValue. Nothing is split or
+ * copied up front; strings are cut straight out of the body. Malformed
+ * input fails with an IllegalArgumentException naming the offset, which the
+ * servlets answer with 400.
+ */
+final class JsonReader {
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // Deeper bodies are rejected rather than walked
+    static final int MAX_DEPTH = 64;
+
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte DANGLING_NAME = 5;
+    private static final byte NONEMPTY_OBJECT = 6;
+
+    private final String in;
+    private final int limit;
+    private int pos;
+
+    private final byte[] scopes = new byte[MAX_DEPTH + 1];
+    private int depth = 1;
+
+    // The token peek() found at pos; for numbers and literals valueEnd is where it stops
+    private Token peeked;
+    private int valueEnd;
+    private boolean integral;
+
+    JsonReader(String json) {
+        this.in = json != null ? json : "";
+        this.limit = in.length();
+        scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    void beginObject() {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    void beginArray() {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * Whether the current object or array has another member
+     */
+    boolean hasNext() {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    String nextName() {
+        if (peek() != Token.NAME) {
+            throw error("Expected a name but was " + peeked);
+        }
+        return takeString();
+    }
+
+    /**
+     * A string value. Numbers and booleans are returned as written, so a
+     * client may send "nights": 3 or "nights": "3"; null gives null.
+     */
+    String nextString() {
+        switch (peek()) {
+            case STRING:
+                return takeString();
+            case NUMBER:
+            case BOOLEAN:
+                return takeLiteral();
+            case NULL:
+                peeked = null;
+                pos = valueEnd;
+                return null;
+            default:
+                throw error("Expected a string but was " + peeked);
+        }
+    }
+
+    /**
+     * A whole number, written bare or quoted
+     */
+    long nextLong() {
+        Token token = peek();
+        if (token == Token.NUMBER && integral) {
+            long value = parseLong(pos, valueEnd);
+            peeked = null;
+            pos = valueEnd;
+            return value;
+        }
+        int start = pos;
+        double value = nextDouble();
+        if (value != Math.rint(value) || Math.abs(value) >= 0x1p63) {
+            pos = start;
+            throw error("Expected a whole number");
+        }
+        return (long) value;
+    }
+
+    /**
+     * A number, written bare or quoted
+     */
+    double nextDouble() {
+        Token token = peek();
+        if (token != Token.NUMBER && token != Token.STRING) {
+            throw error("Expected a number but was " + token);
+        }
+        int start = pos;
+        String text = token == Token.NUMBER ? takeLiteral() : takeString();
+        if (token == Token.STRING && !isNumber(text)) {
+            pos = start;
+            throw error("Expected a number");
+        }
+        return Double.parseDouble(text);
+    }
+
+    boolean nextBoolean() {
+        if (peek() != Token.BOOLEAN) {
+            throw error("Expected a boolean but was " + peeked);
+        }
+        boolean value = in.charAt(pos) == 't';
+        peeked = null;
+        pos = valueEnd;
+        return value;
+    }
+
+    void nextNull() {
+        expect(Token.NULL);
+        pos = valueEnd;
+    }
+
+    /**
+     * Skip the next value, including everything nested in it; at a name,
+     * skip the name and its value
+     */
+    void skipValue() {
+        if (peek() == Token.NAME) {
+            skipString();
+        }
+        int nested = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nested++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nested++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nested--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nested--;
+                    break;
+                case NAME:
+                case STRING:
+                    skipString();
+                    break;
+                case END_DOCUMENT:
+                    throw error("Expected a value");
+                default:
+                    peeked = null;
+                    pos = valueEnd;
+            }
+        } while (nested > 0);
+    }
+
+    /**
+     * Check that nothing but whitespace follows the value just read
+     */
+    void endDocument() {
+        if (peek() != Token.END_DOCUMENT) {
+            throw error("Unexpected " + peeked + " after the end of the document");
+        }
+    }
+
+    /**
+     * The kind of the next token, without consuming it
+     */
+    Token peek() {
+        if (peeked != null) {
+            return peeked;
+        }
+        byte scope = scopes[depth - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY:
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (scope == NONEMPTY_ARRAY) {
+                    consume(c, ',', "Expected ',' or ']'");
+                }
+                scopes[depth - 1] = NONEMPTY_ARRAY;
+                return peekValue();
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    consume(c, ',', "Expected ',' or '}'");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') {
+                    throw error("Expected a member name");
+                }
+                scopes[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            case DANGLING_NAME:
+                consume(nextNonWhitespace(), ':', "Expected ':'");
+                scopes[depth - 1] = NONEMPTY_OBJECT;
+                return peekValue();
+            case EMPTY_DOCUMENT:
+                scopes[0] = NONEMPTY_DOCUMENT;
+                return peekValue();
+            default:
+                if (nextNonWhitespace() != -1) {
+                    throw error("Unexpected data after the end of the document");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+    }
+
+    private Token peekValue() {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                return peeked = Token.STRING;
+            case 't':
+                return literal("true", Token.BOOLEAN);
+            case 'f':
+                return literal("false", Token.BOOLEAN);
+            case 'n':
+                return literal("null", Token.NULL);
+            case -1:
+                throw error("Unexpected end of input");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    valueEnd = scanNumber(pos);
+                    if (valueEnd < 0) {
+                        throw error("Malformed number");
+                    }
+                    return peeked = Token.NUMBER;
+                }
+                throw error("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private Token literal(String word, Token token) {
+        int end = pos + word.length();
+        if (!in.startsWith(word, pos) || (end < limit && isWordChar(in.charAt(end)))) {
+            throw error("Unexpected word");
+        }
+        valueEnd = end;
+        return peeked = token;
+    }
+
+    /**
+     * End of the number starting at start, or -1 when it isn't valid JSON;
+     * sets integral when it has no fraction or exponent
+     */
+    private int scanNumber(int start) {
+        int i = start;
+        if (i < limit && in.charAt(i) == '-') i++;
+        if (i >= limit) return -1;
+        char c = in.charAt(i);
+        if (c == '0') {
+            i++;
+        } else if (c >= '1' && c <= '9') {
+            while (i < limit && isDigit(in.charAt(i))) i++;
+        } else {
+            return -1;
+        }
+        integral = true;
+        if (i < limit && in.charAt(i) == '.') {
+            integral = false;
+            int digits = ++i;
+            while (i < limit && isDigit(in.charAt(i))) i++;
+            if (i == digits) return -1;
+        }
+        if (i < limit && (in.charAt(i) == 'e' || in.charAt(i) == 'E')) {
+            integral = false;
+            i++;
+            if (i < limit && (in.charAt(i) == '+' || in.charAt(i) == '-')) i++;
+            int digits = i;
+            while (i < limit && isDigit(in.charAt(i))) i++;
+            if (i == digits) return -1;
+        }
+        if (i < limit && (isWordChar(in.charAt(i)) || in.charAt(i) == '.')) {
+            return -1;
+        }
+        return i;
+    }
+
+    private long parseLong(int start, int end) {
+        boolean negative = in.charAt(start) == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            int digit = in.charAt(i) - '0';
+            // Accumulate negatively so Long.MIN_VALUE fits
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                throw error("Number out of range");
+            }
+            value = value * 10 - digit;
+        }
+        if (!negative) {
+            if (value == Long.MIN_VALUE) {
+                throw error("Number out of range");
+            }
+            value = -value;
+        }
+        return value;
+    }
+
+    private boolean isNumber(String text) {
+        JsonReader number = new JsonReader(text);
+        return !text.isEmpty() && number.scanNumber(0) == text.length();
+    }
+
+    private String takeLiteral() {
+        String text = in.substring(pos, valueEnd);
+        peeked = null;
+        pos = valueEnd;
+        return text;
+    }
+
+    /**
+     * The string or name whose opening quote is at pos
+     */
+    private String takeString() {
+        peeked = null;
+        int start = ++pos;
+        // Most strings have no escapes and come out as one substring
+        for (int i = start; i < limit; i++) {
+            char c = in.charAt(i);
+            if (c == '"') {
+                pos = i + 1;
+                return in.substring(start, i);
+            }
+            if (c == '\\') {
+                break;
+            }
+            if (c < 0x20) {
+                pos = i;
+                throw error("Unescaped control character in string");
+            }
+        }
+        StringBuilder value = new StringBuilder();
+        while (pos < limit) {
+            char c = in.charAt(pos++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c == '\\') {
+                value.append(readEscape());
+            } else if (c < 0x20) {
+                pos--;
+                throw error("Unescaped control character in string");
+            } else {
+                value.append(c);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private void skipString() {
+        peeked = null;
+        pos++;
+        while (pos < limit) {
+            char c = in.charAt(pos++);
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                readEscape();
+            } else if (c < 0x20) {
+                pos--;
+                throw error("Unescaped control character in string");
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private char readEscape() {
+        if (pos >= limit) {
+            throw error("Unterminated string");
+        }
+        char c = in.charAt(pos++);
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                if (pos + 4 > limit) {
+                    throw error("Unterminated escape");
+                }
+                int value = 0;
+                for (int end = pos + 4; pos < end; pos++) {
+                    int digit = Character.digit(in.charAt(pos), 16);
+                    if (digit < 0) {
+                        throw error("Invalid \\u escape");
+                    }
+                    value = value << 4 | digit;
+                }
+                return (char) value;
+            default:
+                pos--;
+                throw error("Invalid escape '\\" + c + "'");
+        }
+    }
+
+    private void expect(Token token) {
+        if (peek() != token) {
+            throw error("Expected " + token + " but was " + peeked);
+        }
+        peeked = null;
+        pos++;
+    }
+
+    private void push(byte scope) {
+        if (depth > MAX_DEPTH) {
+            throw error("Nested more than " + MAX_DEPTH + " deep");
+        }
+        scopes[depth++] = scope;
+    }
+
+    private void consume(int c, char expected, String message) {
+        if (c != expected) {
+            throw error(message);
+        }
+        pos++;
+    }
+
+    /**
+     * The next character that isn't whitespace, left at pos; -1 at the end
+     */
+    private int nextNonWhitespace() {
+        while (pos < limit) {
+            char c = in.charAt(pos);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+            pos++;
+        }
+        return -1;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at offset " + pos + ": " + message);
+    }
+}
@@ -0,0 +1,334 @@
+package com.oceanview.resort.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * JSON Writer - Encodes JSON as UTF-8 straight into a reusable byte buffer
+ *
+ * Strings are escaped character by character into the buffer and numbers are
+ * written digit by digit, so building a response allocates nothing once the
+ * buffer has grown to fit it. Each thread reuses one writer through get();
+ * commas between members and elements are added automatically.
+ */
+final class JsonWriter {
+    private static final int INITIAL_BYTES = 8 * 1024;
+    // A writer that grew past this for one large response shrinks back on reuse
+    private static final int MAX_RETAINED_BYTES = 1024 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final long[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    // Below this a scaled amount is off by far less than the 1e-6 tie margin
+    private static final double MAX_FAST_SCALED = 1e9;
+
+    private static final ThreadLocal<JsonWriter> writers = ThreadLocal.withInitial(JsonWriter::new);
+
+    private byte[] buf = new byte[INITIAL_BYTES];
+    private int size;
+    // hasMember[d]: the container at depth d already holds a value, so the next one needs a comma
+    private boolean[] hasMember = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    JsonWriter() {
+    }
+
+    /**
+     * This thread's writer, emptied. Finish with it before calling get() again
+     * on the same thread.
+     */
+    static JsonWriter get() {
+        JsonWriter writer = writers.get();
+        writer.reset();
+        return writer;
+    }
+
+    void reset() {
+        if (buf.length > MAX_RETAINED_BYTES) {
+            buf = new byte[INITIAL_BYTES];
+        }
+        size = 0;
+        depth = 0;
+        hasMember[0] = false;
+        afterName = false;
+    }
+
+    JsonWriter beginObject() {
+        beforeValue();
+        write('{');
+        push();
+        return this;
+    }
+
+    JsonWriter endObject() {
+        depth--;
+        write('}');
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        beforeValue();
+        write('[');
+        push();
+        return this;
+    }
+
+    JsonWriter endArray() {
+        depth--;
+        write(']');
+        return this;
+    }
+
+    /**
+     * Member name inside an object; the value call that follows is its value
+     */
+    JsonWriter name(String name) {
+        beforeValue();
+        quoted(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * A string; null is written as "" like the servlets always have
+     */
+    JsonWriter value(String value) {
+        beforeValue();
+        quoted(value);
+        return this;
+    }
+
+    /**
+     * A date as "yyyy-MM-dd" (what LocalDate.toString gives); null as ""
+     */
+    JsonWriter value(LocalDate date) {
+        beforeValue();
+        if (date == null || date.getYear() < 0 || date.getYear() > 9999) {
+            quoted(date != null ? date.toString() : null);
+            return this;
+        }
+        write('"');
+        digits(date.getYear(), 4);
+        write('-');
+        digits(date.getMonthValue(), 2);
+        write('-');
+        digits(date.getDayOfMonth(), 2);
+        write('"');
+        return this;
+    }
+
+    JsonWriter nullValue() {
+        beforeValue();
+        ascii("null");
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        beforeValue();
+        writeLong(value);
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        beforeValue();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * A number with a fixed count of decimal places (0 to 6), rounded like
+     * String.format("%.2f") (half up, on the shortest decimal form of the
+     * double) but always with a '.' separator
+     */
+    JsonWriter value(double value, int decimals) {
+        beforeValue();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            ascii(String.format("%." + decimals + "f", value));
+            return this;
+        }
+        if (Math.copySign(1.0, value) < 0) {
+            write('-');
+        }
+        double scaled = Math.abs(value) * POW10[decimals];
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (scaled >= MAX_FAST_SCALED || Math.abs(fraction - 0.5) < 1e-6) {
+            // Large, or close to a tie where the double's error could flip the rounding
+            ascii(BigDecimal.valueOf(Math.abs(value)).setScale(decimals, RoundingMode.HALF_UP).toPlainString());
+            return this;
+        }
+        long units = fraction > 0.5 ? (long) floor + 1 : (long) floor;
+        writeLong(units / POW10[decimals]);
+        if (decimals > 0) {
+            write('.');
+            long rest = units % POW10[decimals];
+            for (long unit = POW10[decimals - 1]; unit > 0; unit /= 10) {
+                write('0' + (int) (rest / unit % 10));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Bytes written so far
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copy the bytes written so far to the stream
+     */
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, size);
+    }
+
+    /**
+     * Copy the bytes written so far to the stream and drop them from the
+     * buffer; nesting is kept, so writing can carry on where it left off
+     */
+    void flushTo(OutputStream out) throws IOException {
+        out.write(buf, 0, size);
+        size = 0;
+    }
+
+    /**
+     * The bytes written so far, for callers that need their own copy
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasMember[depth]) {
+            write(',');
+        }
+        hasMember[depth] = true;
+    }
+
+    private void push() {
+        if (++depth == hasMember.length) {
+            hasMember = Arrays.copyOf(hasMember, depth * 2);
+        }
+        hasMember[depth] = false;
+    }
+
+    private void quoted(String value) {
+        write('"');
+        if (value != null) {
+            escape(value);
+        }
+        write('"');
+    }
+
+    private void escape(String value) {
+        int length = value.length();
+        // Worst case is six bytes (a \\u00XX escape) per char; reserve once
+        ensure(length * 6);
+        byte[] b = buf;
+        int n = size;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    b[n++] = '\\';
+                }
+                b[n++] = (byte) c;
+            } else if (c < 0x20) {
+                b[n++] = '\\';
+                switch (c) {
+                    case '\n': b[n++] = 'n'; break;
+                    case '\r': b[n++] = 'r'; break;
+                    case '\t': b[n++] = 't'; break;
+                    case '\b': b[n++] = 'b'; break;
+                    case '\f': b[n++] = 'f'; break;
+                    default:
+                        b[n++] = 'u';
+                        b[n++] = '0';
+                        b[n++] = '0';
+                        b[n++] = HEX[c >> 4];
+                        b[n++] = HEX[c & 0xf];
+                }
+            } else if (c < 0x800) {
+                b[n++] = (byte) (0xc0 | (c >> 6));
+                b[n++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                b[n++] = (byte) (0xf0 | (cp >> 18));
+                b[n++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                b[n++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                b[n++] = (byte) (0x80 | (cp & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                b[n++] = '?'; // unpaired surrogate, as String.getBytes does
+            } else {
+                b[n++] = (byte) (0xe0 | (c >> 12));
+                b[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                b[n++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        size = n;
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            ascii(Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        ensure(digits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            buf[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    private void digits(int value, int count) {
+        ensure(count);
+        for (int i = size + count - 1; i >= size; i--) {
+            buf[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += count;
+    }
+
+    private void ascii(String s) {
+        ensure(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            buf[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    private void write(int b) {
+        ensure(1);
+        buf[size++] = (byte) b;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package com.oceanview.resort.servlet;
 
 import com.oceanview.resort.security.AuthenticationService;
-import java.util.Map;
-import java.util.HashMap;
 
 /**
  * Login Servlet - Handles user authentication
@@ -31,10 +29,20 @@ public class LoginServlet extends Servlet {
                 return;
             }
 
-            // Parse JSON body
-            Map<String, String> jsonData = parseJSON(body);
-            String username = jsonData.get("username");
-            String password = jsonData.get("password");
+            // Read the credentials from the JSON body
+            String username = null;
+            String password = null;
+            JsonReader json = new JsonReader(body);
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "username": username = json.nextString(); break;
+                    case "password": password = json.nextString(); break;
+                    default: json.skipValue();
+                }
+            }
+            json.endObject();
+            json.endDocument();
 
             if (username == null || password == null || username.isEmpty() || password.isEmpty()) {
                 response.setStatus(400);
@@ -54,45 +62,27 @@ public class LoginServlet extends Servlet {
 
                 // Success response with role info
                 response.setStatus(200);
-                String json = String.format(
-                        "{\"success\":true,\"session\":\"%s\",\"username\":\"%s\",\"role\":\"%s\",\"fullName\":\"%s\",\"message\":\"Login successful\"}",
-                        sessionId, username, role != null ? role : "STAFF", fullName != null ? fullName : username);
-                response.sendJSON(json);
+                response.sendJSON(JsonWriter.get().beginObject()
+                        .name("success").value(true)
+                        .name("session").value(sessionId)
+                        .name("username").value(username)
+                        .name("role").value(role != null ? role : "STAFF")
+                        .name("fullName").value(fullName != null ? fullName : username)
+                        .name("message").value("Login successful")
+                        .endObject());
             } else {
                 // Authentication failed
                 response.setStatus(401);
                 response.sendError(401, "Invalid username or password");
             }
 
+        } catch (IllegalArgumentException e) {
+            response.setStatus(400);
+            response.sendError(400, e.getMessage());
         } catch (Exception e) {
             response.setStatus(500);
             response.sendError(500, "Internal server error: " + e.getMessage());
             e.printStackTrace();
         }
     }
-
-    /**
-     * Simple JSON parser for request body
-     */
-    private Map<String, String> parseJSON(String json) {
-        Map<String, String> result = new HashMap<>();
-        if (json == null || json.trim().isEmpty()) {
-            return result;
-        }
-
-        // Remove braces
-        json = json.trim().replaceAll("^\\{", "").replaceAll("\\}$", "");
-
-        // Split by comma
-        String[] pairs = json.split(",");
-        for (String pair : pairs) {
-            String[] keyValue = pair.split(":", 2);
-            if (keyValue.length == 2) {
-                String key = keyValue[0].trim().replaceAll("\"", "");
-                String value = keyValue[1].trim().replaceAll("\"", "");
-                result.put(key, value);
-            }
-        }
-        return result;
-    }
 }
@@ -1,19 +1,63 @@
 package com.oceanview.resort.servlet;
 
+import com.oceanview.resort.dao.Page;
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.database.DatabaseExecutor;
 import com.oceanview.resort.model.Guest;
 import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.service.AsyncReservationService;
+import com.oceanview.resort.service.GuestSearchIndex;
 import com.oceanview.resort.service.ReservationService;
 import com.oceanview.resort.util.ValidationUtil;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Reservation Servlet - Handles reservation operations
  * Supports GET (all/get by ID), POST (create), PUT (update), DELETE
+ *
+ * The listing takes ?limit=&after= for keyset pages and ?fields=a,b to
+ * return only some fields. The name search takes ?limit= and ?match=prefix
+ * for type-ahead, answered from the guest search index. Apart from the
+ * streamed listing and the batch import, requests complete the response
+ * when their service future resolves, so on a server that supports it the
+ * request thread does not wait for the database.
  */
 public class ReservationServlet extends Servlet {
-    private ReservationService reservationService = new ReservationService();
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    // Bookings accepted in one POST /api/reservations/batch
+    static final int MAX_BATCH_SIZE = 10_000;
+    // Streamed listings are handed to the connection in pieces of about this size
+    private static final int STREAM_FLUSH_BYTES = 8 * 1024;
+
+    private ReservationService reservationService;
+    // Database calls on the DatabaseExecutor, for servers that can finish responses later
+    private AsyncReservationService asyncService;
+    // The same calls on the request thread, for servers that cannot
+    private AsyncReservationService inlineService;
+
+    public ReservationServlet() {
+        this(new ReservationService());
+    }
+
+    ReservationServlet(ReservationService reservationService) {
+        this(reservationService, DatabaseExecutor.getInstance());
+    }
+
+    /**
+     * Servlet whose async database calls run on the given executor
+     */
+    public ReservationServlet(ReservationService reservationService, Executor databaseExecutor) {
+        this.reservationService = reservationService;
+        this.asyncService = new AsyncReservationService(reservationService, databaseExecutor);
+        this.inlineService = new AsyncReservationService(reservationService, Runnable::run);
+    }
 
     @Override
     public void service(HttpServletRequest request, HttpServletResponse response) throws Exception {
@@ -44,9 +88,22 @@ public class ReservationServlet extends Servlet {
 
             // GET /api/reservations - Get all reservations
             if (path.equals("/api/reservations") || path.equals("/reservations")) {
-                List<Reservation> reservations = reservationService.getAllReservations();
-                response.setStatus(200);
-                response.sendJSON(toJSONArray(reservations));
+                Set<String> fields;
+                int limit;
+                try {
+                    fields = parseFields(request.getParameter("fields"), ReservationDAO.FIELDS);
+                    limit = parseLimit(request.getParameter("limit"), ReservationDAO.MAX_PAGE_SIZE);
+                } catch (IllegalArgumentException e) {
+                    response.setStatus(400);
+                    response.sendError(400, e.getMessage());
+                    return;
+                }
+                if (limit > 0 || request.getParameter("after") != null) {
+                    sendPage(service(request), request.getParameter("after"), limit > 0 ? limit : DEFAULT_PAGE_SIZE,
+                            fields, response);
+                } else {
+                    streamAll(fields, response);
+                }
             }
             // GET /api/reservations/search?name=... - Search by guest name
             // NOTE: This must be checked BEFORE the generic /{number} path below,
@@ -62,9 +119,28 @@ public class ReservationServlet extends Servlet {
                     return;
                 }
 
-                List<Reservation> results = reservationService.searchByGuestName(name);
-                response.setStatus(200);
-                response.sendJSON(toJSONArray(results));
+                int limit;
+                String match = request.getParameter("match");
+                try {
+                    limit = parseLimit(request.getParameter("limit"), GuestSearchIndex.MAX_LIMIT);
+                    if (match != null && !match.equals("prefix") && !match.equals("substring")) {
+                        throw new IllegalArgumentException("match must be prefix or substring");
+                    }
+                } catch (IllegalArgumentException e) {
+                    response.setStatus(400);
+                    response.sendError(400, e.getMessage());
+                    return;
+                }
+
+                // A limit or match asks for type-ahead results from the in-memory index
+                CompletableFuture<List<Reservation>> results = limit > 0 || match != null
+                        ? service(request).searchGuestsAsync(name, "prefix".equals(match),
+                                limit > 0 ? limit : DEFAULT_SEARCH_LIMIT)
+                        : service(request).searchByGuestNameAsync(name);
+                response.completeWhen(results, found -> {
+                    response.setStatus(200);
+                    response.sendJSON(toJSONArray(found));
+                });
             }
             // GET /api/reservations/daterange?from=...&to=... - Filter by date range
             else if (path.startsWith("/api/reservations/daterange") || path.startsWith("/reservations/daterange")) {
@@ -77,34 +153,84 @@ public class ReservationServlet extends Servlet {
                     return;
                 }
 
-                List<Reservation> results = reservationService.getReservationsByDateRange(fromDate, toDate);
-                response.setStatus(200);
-                response.sendJSON(toJSONArray(results));
+                response.completeWhen(service(request).getReservationsByDateRangeAsync(fromDate, toDate), found -> {
+                    response.setStatus(200);
+                    response.sendJSON(toJSONArray(found));
+                });
             }
             // GET /api/reservations/{number} - Get reservation by number
             else if (path.startsWith("/api/reservations/") || path.startsWith("/reservations/")) {
                 String number = extractPathParameter(path, "/api/reservations/", "/reservations/");
-                Reservation reservation = reservationService.getReservationByNumber(number);
-
-                if (reservation != null) {
-                    response.setStatus(200);
-                    response.sendJSON(toJSON(reservation));
-                } else {
-                    response.setStatus(404);
-                    response.sendError(404, "Reservation not found");
-                }
+                response.completeWhen(service(request).getReservationByNumberAsync(number), reservation -> {
+                    if (reservation != null) {
+                        response.setStatus(200);
+                        response.sendJSON(toJSON(reservation));
+                    } else {
+                        response.setStatus(404);
+                        response.sendError(404, "Reservation not found");
+                    }
+                });
             } else {
                 response.setStatus(404);
                 response.sendError(404, "Not found");
             }
 
         } catch (Exception e) {
+            if (response.isCommitted()) {
+                throw e; // part of the body is already out; the server drops the connection
+            }
             response.setStatus(500);
             response.sendError(500, "Internal server error: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    /**
+     * Send one page as {"items":[...],"nextCursor":...}; the cursor is null
+     * on the last page. A bad cursor is answered with 400 by completeWhen.
+     */
+    private void sendPage(AsyncReservationService service, String after, int limit, Set<String> fields,
+            HttpServletResponse response) {
+        response.completeWhen(service.getReservationPageAsync(after, limit, fields),
+                page -> writePage(page, fields, response));
+    }
+
+    private void writePage(Page<Reservation> page, Set<String> fields, HttpServletResponse response) {
+        JsonWriter json = JsonWriter.get().beginObject().name("items").beginArray();
+        for (Reservation reservation : page.getItems()) {
+            toJSON(json, reservation, fields);
+        }
+        json.endArray().name("nextCursor");
+        if (page.getNextCursor() != null) {
+            json.value(page.getNextCursor());
+        } else {
+            json.nullValue();
+        }
+        response.setStatus(200);
+        response.sendJSON(json.endObject());
+    }
+
+    /**
+     * Write every reservation as a JSON array while it is read, so memory use
+     * does not grow with the number of reservations
+     */
+    private void streamAll(Set<String> fields, HttpServletResponse response) throws Exception {
+        response.setStatus(200);
+        response.setContentType("application/json");
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        OutputStream out = response.startStream();
+        JsonWriter json = JsonWriter.get().beginArray();
+        reservationService.forEachReservation(fields, reservation -> {
+            toJSON(json, reservation, fields);
+            if (json.size() >= STREAM_FLUSH_BYTES) {
+                json.flushTo(out);
+            }
+        });
+        json.endArray().flushTo(out);
+        // Not in a finally: closing ends the body, which must not happen after a failure
+        out.close();
+    }
+
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response) throws Exception {
         try {
@@ -115,77 +241,35 @@ public class ReservationServlet extends Servlet {
                 return;
             }
 
-            // Parse JSON body
-            Map<String, String> jsonData = parseJSON(body);
-
-            // Extract reservation data
-            String name = jsonData.get("name");
-            String address = jsonData.get("address");
-            String contact = jsonData.get("contact");
-            String email = jsonData.get("email");
-            String nic = jsonData.get("nic");
-            String roomNumber = jsonData.get("roomNumber");
-            String checkInDate = jsonData.get("checkInDate");
-            String checkOutDate = jsonData.get("checkOutDate");
-
-            // Validate required fields
-            if (name == null || roomNumber == null || checkInDate == null || checkOutDate == null) {
-                response.setStatus(400);
-                response.sendError(400, "Missing required fields: name, roomNumber, checkInDate, checkOutDate");
-                return;
-            }
-
-            name = ValidationUtil.sanitizeInput(name);
-            address = ValidationUtil.sanitizeInput(address);
-            contact = ValidationUtil.sanitizeInput(contact);
-            email = ValidationUtil.sanitizeInput(email);
-            nic = ValidationUtil.sanitizeInput(nic);
-            roomNumber = ValidationUtil.sanitizeInput(roomNumber);
-            checkInDate = ValidationUtil.sanitizeInput(checkInDate);
-            checkOutDate = ValidationUtil.sanitizeInput(checkOutDate);
-
-            if (!ValidationUtil.isValidName(name)) {
-                response.setStatus(400);
-                response.sendError(400, "Invalid guest name. Use letters and spaces only (minimum 2 characters)");
-                return;
-            }
-
-            if (contact == null || contact.isEmpty() || !ValidationUtil.isValidPhone(contact)) {
-                response.setStatus(400);
-                response.sendError(400, "Invalid contact number. Enter a 10-digit number");
-                return;
-            }
-
-            if (email != null && !email.isEmpty() && !ValidationUtil.isValidEmail(email)) {
-                response.setStatus(400);
-                response.sendError(400, "Invalid email format");
+            // POST /api/reservations/batch - Import an array of bookings
+            String path = request.getPath();
+            if (path.endsWith("/batch")) {
+                importBatch(body, response);
                 return;
             }
 
-            if (!ValidationUtil.isValidRoomNumber(roomNumber)) {
-                response.setStatus(400);
-                response.sendError(400, "Invalid room number format. Example: R101");
-                return;
-            }
+            JsonReader json = new JsonReader(body);
+            BookingRequest booking = BookingRequest.read(json);
+            json.endDocument();
 
-            if (!ValidationUtil.isValidDate(checkInDate) || !ValidationUtil.isValidDate(checkOutDate)) {
+            String error = booking.validate();
+            if (error != null) {
                 response.setStatus(400);
-                response.sendError(400, "Invalid date format. Use YYYY-MM-DD");
+                response.sendError(400, error);
                 return;
             }
 
-            // Create guest object
-            Guest guest = new Guest(name, address, contact, email, nic);
-
             // Create reservation
-            String reservationNumber = reservationService.createReservation(
-                    guest, roomNumber, checkInDate, checkOutDate);
-
-            response.setStatus(201);
-            String json = String.format(
-                    "{\"success\":true,\"reservationNumber\":\"%s\",\"message\":\"Reservation created successfully\"}",
-                    reservationNumber);
-            response.sendJSON(json);
+            CompletableFuture<String> created = service(request).createReservationAsync(
+                    booking.guest(), booking.roomNumber, booking.checkInDate, booking.checkOutDate);
+            response.completeWhen(created, reservationNumber -> {
+                response.setStatus(201);
+                response.sendJSON(JsonWriter.get().beginObject()
+                        .name("success").value(true)
+                        .name("reservationNumber").value(reservationNumber)
+                        .name("message").value("Reservation created successfully")
+                        .endObject());
+            });
 
         } catch (IllegalArgumentException e) {
             response.setStatus(400);
@@ -197,6 +281,63 @@ public class ReservationServlet extends Servlet {
         }
     }
 
+    /**
+     * Validate every booking of the array body, book the valid ones in one
+     * import and answer with a result per booking, in order
+     */
+    private void importBatch(String body, HttpServletResponse response) throws Exception {
+        List<BookingRequest> requests = new ArrayList<>();
+        JsonReader json = new JsonReader(body);
+        json.beginArray();
+        while (json.hasNext()) {
+            if (requests.size() == MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("A batch holds at most " + MAX_BATCH_SIZE + " reservations");
+            }
+            requests.add(BookingRequest.read(json));
+        }
+        json.endArray();
+        json.endDocument();
+
+        String[] errors = new String[requests.size()];
+        List<ReservationService.Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            errors[i] = request.validate();
+            if (errors[i] == null) {
+                bookings.add(new ReservationService.Booking(request.guest(), request.roomNumber,
+                        request.checkInDate, request.checkOutDate));
+            }
+        }
+        List<ReservationService.BookingResult> results = reservationService.importReservations(bookings);
+
+        JsonWriter out = JsonWriter.get().beginObject().name("results").beginArray();
+        int created = 0;
+        int booked = 0;
+        for (int i = 0; i < errors.length; i++) {
+            String error = errors[i];
+            String reservationNumber = null;
+            if (error == null) {
+                ReservationService.BookingResult result = results.get(booked++);
+                error = result.getError();
+                reservationNumber = result.getReservationNumber();
+            }
+            out.beginObject().name("index").value(i).name("success").value(error == null);
+            if (error == null) {
+                out.name("reservationNumber").value(reservationNumber);
+                created++;
+            } else {
+                out.name("error").value(error);
+            }
+            out.endObject();
+        }
+        out.endArray()
+                .name("created").value(created)
+                .name("failed").value(errors.length - created)
+                .endObject();
+        response.setStatus(200);
+        response.sendJSON(out);
+    }
+
     @Override
     protected void doPut(HttpServletRequest request, HttpServletResponse response) throws Exception {
         try {
@@ -212,18 +353,19 @@ public class ReservationServlet extends Servlet {
                     return;
                 }
 
-                Reservation cancelled = reservationService.cancelReservation(number);
-
-                if (cancelled != null) {
-                    response.setStatus(200);
-                    String json = String.format(
-                            "{\"success\":true,\"message\":\"Reservation %s has been cancelled\",\"reservation\":%s}",
-                            escape(number), toJSON(cancelled));
-                    response.sendJSON(json);
-                } else {
-                    response.setStatus(404);
-                    response.sendError(404, "Reservation not found");
-                }
+                response.completeWhen(service(request).cancelReservationAsync(number), cancelled -> {
+                    if (cancelled != null) {
+                        response.setStatus(200);
+                        JsonWriter json = JsonWriter.get().beginObject()
+                                .name("success").value(true)
+                                .name("message").value("Reservation " + number + " has been cancelled")
+                                .name("reservation");
+                        response.sendJSON(toJSON(json, cancelled, null).endObject());
+                    } else {
+                        response.setStatus(404);
+                        response.sendError(404, "Reservation not found");
+                    }
+                });
             } else {
                 response.setStatus(404);
                 response.sendError(404, "Not found");
@@ -246,6 +388,14 @@ public class ReservationServlet extends Servlet {
         response.sendError(501, "Delete operation not yet implemented");
     }
 
+    /**
+     * Where a request's database calls run: on the database executor when
+     * the server can finish the response later, otherwise on this thread
+     */
+    private AsyncReservationService service(HttpServletRequest request) {
+        return request.isAsyncSupported() ? asyncService : inlineService;
+    }
+
     /**
      * Extract path parameter from URL
      */
@@ -259,88 +409,131 @@ public class ReservationServlet extends Servlet {
     }
 
     /**
-     * Parse JSON string to Map
+     * Booking fields of a POST body; members it doesn't know are skipped
      */
-    private Map<String, String> parseJSON(String json) {
-        Map<String, String> result = new HashMap<>();
-        if (json == null || json.trim().isEmpty()) {
-            return result;
+    static class BookingRequest {
+        String name;
+        String address;
+        String contact;
+        String email;
+        String nic;
+        String roomNumber;
+        String checkInDate;
+        String checkOutDate;
+
+        static BookingRequest read(JsonReader json) {
+            BookingRequest booking = new BookingRequest();
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "name": booking.name = json.nextString(); break;
+                    case "address": booking.address = json.nextString(); break;
+                    case "contact": booking.contact = json.nextString(); break;
+                    case "email": booking.email = json.nextString(); break;
+                    case "nic": booking.nic = json.nextString(); break;
+                    case "roomNumber": booking.roomNumber = json.nextString(); break;
+                    case "checkInDate": booking.checkInDate = json.nextString(); break;
+                    case "checkOutDate": booking.checkOutDate = json.nextString(); break;
+                    default: json.skipValue();
+                }
+            }
+            json.endObject();
+            return booking;
         }
 
-        json = json.trim().replaceAll("^\\{", "").replaceAll("\\}$", "");
-        String[] pairs = json.split(",");
+        /**
+         * Sanitize the fields in place; returns why the booking is invalid,
+         * or null when it is valid
+         */
+        String validate() {
+            if (name == null || roomNumber == null || checkInDate == null || checkOutDate == null) {
+                return "Missing required fields: name, roomNumber, checkInDate, checkOutDate";
+            }
+
+            name = ValidationUtil.sanitizeInput(name);
+            address = ValidationUtil.sanitizeInput(address);
+            contact = ValidationUtil.sanitizeInput(contact);
+            email = ValidationUtil.sanitizeInput(email);
+            nic = ValidationUtil.sanitizeInput(nic);
+            roomNumber = ValidationUtil.sanitizeInput(roomNumber);
+            checkInDate = ValidationUtil.sanitizeInput(checkInDate);
+            checkOutDate = ValidationUtil.sanitizeInput(checkOutDate);
 
-        for (String pair : pairs) {
-            String[] keyValue = pair.split(":", 2);
-            if (keyValue.length == 2) {
-                String key = keyValue[0].trim().replaceAll("\"", "");
-                String value = keyValue[1].trim().replaceAll("\"", "");
-                result.put(key, value);
+            if (!ValidationUtil.isValidName(name)) {
+                return "Invalid guest name. Use letters and spaces only (minimum 2 characters)";
+            }
+            if (contact == null || contact.isEmpty() || !ValidationUtil.isValidPhone(contact)) {
+                return "Invalid contact number. Enter a 10-digit number";
             }
+            if (email != null && !email.isEmpty() && !ValidationUtil.isValidEmail(email)) {
+                return "Invalid email format";
+            }
+            if (!ValidationUtil.isValidRoomNumber(roomNumber)) {
+                return "Invalid room number format. Example: R101";
+            }
+            if (!ValidationUtil.isValidDate(checkInDate) || !ValidationUtil.isValidDate(checkOutDate)) {
+                return "Invalid date format. Use YYYY-MM-DD";
+            }
+            return null;
+        }
+
+        Guest guest() {
+            return new Guest(name, address, contact, email, nic);
         }
-        return result;
     }
 
     /**
      * Convert Reservation to JSON
      */
-    private String toJSON(Reservation r) {
-        if (r == null)
-            return "{}";
-
-        return String.format(
-                "{\"reservationNumber\":\"%s\"," +
-                        "\"guestName\":\"%s\"," +
-                        "\"guestAddress\":\"%s\"," +
-                        "\"guestContact\":\"%s\"," +
-                        "\"guestEmail\":\"%s\"," +
-                        "\"roomNumber\":\"%s\"," +
-                        "\"roomType\":\"%s\"," +
-                        "\"checkInDate\":\"%s\"," +
-                        "\"checkOutDate\":\"%s\"," +
-                        "\"numberOfNights\":%d," +
-                        "\"totalAmount\":%.2f," +
-                        "\"status\":\"%s\"," +
-                        "\"reservationDate\":\"%s\"}",
-                escape(r.getReservationNumber()),
-                escape(r.getGuest() != null ? r.getGuest().getName() : ""),
-                escape(r.getGuest() != null ? r.getGuest().getAddress() : ""),
-                escape(r.getGuest() != null ? r.getGuest().getContactNumber() : ""),
-                escape(r.getGuest() != null ? r.getGuest().getEmail() : ""),
-                escape(r.getRoom() != null ? r.getRoom().getRoomNumber() : ""),
-                r.getRoom() != null ? r.getRoom().getRoomType().getDescription() : "",
-                r.getCheckInDate() != null ? r.getCheckInDate().toString() : "",
-                r.getCheckOutDate() != null ? r.getCheckOutDate().toString() : "",
-                r.getNumberOfNights(),
-                r.getTotalAmount(),
-                escape(r.getStatus()),
-                r.getReservationDate() != null ? r.getReservationDate().toString() : "");
+    private JsonWriter toJSON(Reservation r) {
+        return toJSON(JsonWriter.get(), r, null);
     }
 
     /**
-     * Convert List of Reservations to JSON array
+     * Write a Reservation as a JSON object with only the given fields (all
+     * when null)
      */
-    private String toJSONArray(List<Reservation> reservations) {
-        StringBuilder json = new StringBuilder("[");
-        for (int i = 0; i < reservations.size(); i++) {
-            if (i > 0)
-                json.append(",");
-            json.append(toJSON(reservations.get(i)));
+    static JsonWriter toJSON(JsonWriter json, Reservation r, Set<String> fields) {
+        json.beginObject();
+        if (r != null) {
+            for (String field : ReservationDAO.FIELDS) {
+                if (fields == null || fields.contains(field)) {
+                    writeField(json.name(field), r, field);
+                }
+            }
+        }
+        return json.endObject();
+    }
+
+    private static void writeField(JsonWriter json, Reservation r, String field) {
+        Guest guest = r.getGuest();
+        Room room = r.getRoom();
+        switch (field) {
+            case "reservationNumber": json.value(r.getReservationNumber()); break;
+            case "guestName": json.value(guest != null ? guest.getName() : ""); break;
+            case "guestAddress": json.value(guest != null ? guest.getAddress() : ""); break;
+            case "guestContact": json.value(guest != null ? guest.getContactNumber() : ""); break;
+            case "guestEmail": json.value(guest != null ? guest.getEmail() : ""); break;
+            case "roomNumber": json.value(room != null ? room.getRoomNumber() : ""); break;
+            case "roomType": json.value(room != null ? room.getRoomType().getDescription() : ""); break;
+            case "checkInDate": json.value(r.getCheckInDate()); break;
+            case "checkOutDate": json.value(r.getCheckOutDate()); break;
+            case "numberOfNights": json.value(r.getNumberOfNights()); break;
+            case "totalAmount": json.value(r.getTotalAmount(), 2); break;
+            case "status": json.value(r.getStatus()); break;
+            case "reservationDate": json.value(r.getReservationDate()); break;
+            default: throw new IllegalArgumentException("Unknown field " + field);
         }
-        json.append("]");
-        return json.toString();
     }
 
     /**
-     * Escape JSON string
+     * Convert List of Reservations to JSON array
      */
-    private String escape(String str) {
-        if (str == null)
-            return "";
-        return str.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+    private JsonWriter toJSONArray(List<Reservation> reservations) {
+        JsonWriter json = JsonWriter.get().beginArray();
+        for (Reservation reservation : reservations) {
+            toJSON(json, reservation, null);
+        }
+        return json.endArray();
     }
 }
@@ -1,16 +1,28 @@
 package com.oceanview.resort.servlet;
 
+import com.oceanview.resort.dao.Page;
 import com.oceanview.resort.dao.RoomDAO;
 import com.oceanview.resort.model.Room;
+import com.oceanview.resort.service.ReservationService;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Set;
 
 /**
  * Room Servlet - Handles room-related operations
+ *
+ * The listing takes ?limit=&after= for keyset pages and ?fields=a,b to
+ * return only some fields.
  */
 public class RoomServlet extends Servlet {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+
     private RoomDAO roomDAO = new RoomDAO();
+    private ReservationService reservationService = new ReservationService();
     
     @Override
     public void service(HttpServletRequest request, HttpServletResponse response) throws Exception {
@@ -31,9 +43,25 @@ public class RoomServlet extends Servlet {
             // GET /api/rooms - Get all available rooms
             if (path.equals("/api/rooms") || path.equals("/rooms")) {
                 String available = request.getParameter("available");
+                boolean availableOnly = "true".equalsIgnoreCase(available) || available == null;
+                Set<String> fields;
+                int limit;
+                try {
+                    fields = parseFields(request.getParameter("fields"), RoomDAO.FIELDS);
+                    limit = parseLimit(request.getParameter("limit"), RoomDAO.MAX_PAGE_SIZE);
+                } catch (IllegalArgumentException e) {
+                    response.setStatus(400);
+                    response.sendError(400, e.getMessage());
+                    return;
+                }
+                if (limit > 0 || request.getParameter("after") != null) {
+                    sendPage(request.getParameter("after"), limit > 0 ? limit : DEFAULT_PAGE_SIZE, fields,
+                            availableOnly, response);
+                    return;
+                }
                 
                 List<Room> rooms;
-                if ("true".equalsIgnoreCase(available) || available == null) {
+                if (availableOnly) {
                     // Get only available rooms (default)
                     rooms = roomDAO.findAvailableRooms();
                 } else {
@@ -42,7 +70,12 @@ public class RoomServlet extends Servlet {
                 }
                 
                 response.setStatus(200);
-                response.sendJSON(toJSONArray(rooms));
+                response.sendJSON(toJSONArray(JsonWriter.get(), rooms, fields));
+            }
+            // GET /api/rooms/availability?from=...&to=...&type=...&capacity=... - Rooms free for a stay
+            // Checked before /{roomNumber} so "availability" is not taken as a room number
+            else if (path.equals("/api/rooms/availability") || path.equals("/rooms/availability")) {
+                findAvailable(request, response);
             }
             // GET /api/rooms/{roomNumber} - Get specific room
             else if (path.startsWith("/api/rooms/") || path.startsWith("/rooms/")) {
@@ -68,6 +101,67 @@ public class RoomServlet extends Servlet {
         }
     }
     
+    /**
+     * Send one page as {"items":[...],"nextCursor":...}; the cursor is null
+     * on the last page
+     */
+    private void sendPage(String after, int limit, Set<String> fields, boolean availableOnly,
+            HttpServletResponse response) throws Exception {
+        Page<Room> page;
+        try {
+            page = roomDAO.findPage(after, limit, fields, availableOnly);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(400);
+            response.sendError(400, e.getMessage());
+            return;
+        }
+        JsonWriter json = JsonWriter.get().beginObject().name("items");
+        toJSONArray(json, page.getItems(), fields).name("nextCursor");
+        if (page.getNextCursor() != null) {
+            json.value(page.getNextCursor());
+        } else {
+            json.nullValue();
+        }
+        response.setStatus(200);
+        response.sendJSON(json.endObject());
+    }
+
+    /**
+     * Date-range availability search
+     */
+    private void findAvailable(HttpServletRequest request, HttpServletResponse response) throws Exception {
+        String from = request.getParameter("from");
+        String to = request.getParameter("to");
+        String type = request.getParameter("type");
+        String capacity = request.getParameter("capacity");
+
+        if (from == null || from.isEmpty() || to == null || to.isEmpty()) {
+            response.setStatus(400);
+            response.sendError(400, "Query parameters 'from' and 'to' are required (YYYY-MM-DD)");
+            return;
+        }
+
+        List<Room> rooms;
+        try {
+            Room.RoomType roomType = type == null || type.isEmpty() ? null : Room.RoomType.valueOf(type.toUpperCase());
+            int minCapacity = capacity == null || capacity.isEmpty() ? 0 : Integer.parseInt(capacity);
+            rooms = reservationService.findAvailableRooms(LocalDate.parse(from), LocalDate.parse(to), roomType,
+                    minCapacity);
+        } catch (DateTimeParseException e) {
+            response.setStatus(400);
+            response.sendError(400, "Invalid date format. Use YYYY-MM-DD");
+            return;
+        } catch (IllegalArgumentException e) {
+            // Unknown room type, bad capacity or an invalid stay
+            response.setStatus(400);
+            response.sendError(400, e.getMessage());
+            return;
+        }
+
+        response.setStatus(200);
+        response.sendJSON(toJSONArray(rooms));
+    }
+
     /**
      * Extract path parameter from URL
      */
@@ -83,49 +177,52 @@ public class RoomServlet extends Servlet {
     /**
      * Convert Room to JSON
      */
-    private String toJSON(Room room) {
-        if (room == null) return "{}";
-        
-        return String.format(
-            "{\"roomNumber\":\"%s\"," +
-            "\"roomType\":\"%s\"," +
-            "\"typeDescription\":\"%s\"," +
-            "\"isAvailable\":%s," +
-            "\"capacity\":%d," +
-            "\"features\":\"%s\"," +
-            "\"rate\":%.2f}",
-            escape(room.getRoomNumber()),
-            room.getRoomType() != null ? room.getRoomType().name() : "",
-            room.getRoomType() != null ? escape(room.getRoomType().getDescription()) : "",
-            room.isAvailable(),
-            room.getCapacity(),
-            escape(room.getFeatures()),
-            room.getRate()
-        );
+    private JsonWriter toJSON(Room room) {
+        return toJSON(JsonWriter.get(), room, null);
     }
     
     /**
-     * Convert List of Rooms to JSON array
+     * Write a Room as a JSON object with only the given fields (all when null)
      */
-    private String toJSONArray(List<Room> rooms) {
-        StringBuilder json = new StringBuilder("[");
-        for (int i = 0; i < rooms.size(); i++) {
-            if (i > 0) json.append(",");
-            json.append(toJSON(rooms.get(i)));
+    static JsonWriter toJSON(JsonWriter json, Room room, Set<String> fields) {
+        json.beginObject();
+        if (room != null) {
+            for (String field : RoomDAO.FIELDS) {
+                if (fields == null || fields.contains(field)) {
+                    writeField(json.name(field), room, field);
+                }
+            }
+        }
+        return json.endObject();
+    }
+    
+    private static void writeField(JsonWriter json, Room room, String field) {
+        switch (field) {
+            case "roomNumber": json.value(room.getRoomNumber()); break;
+            case "roomType": json.value(room.getRoomType() != null ? room.getRoomType().name() : ""); break;
+            case "typeDescription":
+                json.value(room.getRoomType() != null ? room.getRoomType().getDescription() : "");
+                break;
+            case "isAvailable": json.value(room.isAvailable()); break;
+            case "capacity": json.value(room.getCapacity()); break;
+            case "features": json.value(room.getFeatures()); break;
+            case "rate": json.value(room.getRate(), 2); break;
+            default: throw new IllegalArgumentException("Unknown field " + field);
         }
-        json.append("]");
-        return json.toString();
     }
     
     /**
-     * Escape JSON string
+     * Convert List of Rooms to JSON array
      */
-    private String escape(String str) {
-        if (str == null) return "";
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\r", "\\r")
-                  .replace("\t", "\\t");
+    private JsonWriter toJSONArray(List<Room> rooms) {
+        return toJSONArray(JsonWriter.get(), rooms, null);
+    }
+    
+    private static JsonWriter toJSONArray(JsonWriter json, List<Room> rooms, Set<String> fields) {
+        json.beginArray();
+        for (Room room : rooms) {
+            toJSON(json, room, fields);
+        }
+        return json.endArray();
     }
 }
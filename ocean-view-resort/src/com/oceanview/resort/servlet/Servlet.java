@@ -1,9 +1,19 @@
 package com.oceanview.resort.servlet;
 
 import java.io.BufferedReader;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Base Servlet class - Servlet-like interface for HTTP request handling
@@ -44,6 +54,46 @@ public abstract class Servlet {
         response.sendError(405, "Method DELETE not allowed");
     }
     
+    /**
+     * Requested field names, or null for all; unknown names are rejected
+     */
+    protected static Set<String> parseFields(String fields, Set<String> known) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        // Commas may arrive percent-encoded; query strings are not decoded
+        for (String field : fields.replace("%2C", ",").replace("%2c", ",").split(",")) {
+            if (!field.trim().isEmpty()) {
+                requested.add(field.trim());
+            }
+        }
+        for (String field : requested) {
+            if (!known.contains(field)) {
+                throw new IllegalArgumentException("Unknown field '" + field + "'; expected some of " + known);
+            }
+        }
+        return requested;
+    }
+    
+    /**
+     * Page size from ?limit=, or 0 when absent
+     */
+    protected static int parseLimit(String limit, int max) {
+        if (limit == null || limit.isEmpty()) {
+            return 0;
+        }
+        try {
+            int value = Integer.parseInt(limit);
+            if (value >= 1 && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("limit must be a number between 1 and " + max);
+    }
+    
     /**
      * HTTP Request wrapper
      */
@@ -55,6 +105,7 @@ public abstract class Servlet {
         private String body;
         private BufferedReader reader;
         private String sessionId;
+        private boolean asyncSupported;
         
         public HttpServletRequest(String method, String path, Map<String, String> parameters,
                                  Map<String, String> headers, String body, BufferedReader reader) {
@@ -76,6 +127,13 @@ public abstract class Servlet {
         public String getSessionId() { return sessionId; }
         public void setSessionId(String sessionId) { this.sessionId = sessionId; }
         
+        /**
+         * True when the server frees its thread once service() returns and
+         * waits for HttpServletResponse.completeWhen futures instead
+         */
+        public boolean isAsyncSupported() { return asyncSupported; }
+        public void setAsyncSupported(boolean asyncSupported) { this.asyncSupported = asyncSupported; }
+        
         public String getPathInfo() {
             int lastSlash = path.lastIndexOf('/');
             return lastSlash >= 0 ? path.substring(lastSlash) : path;
@@ -84,51 +142,181 @@ public abstract class Servlet {
     
     /**
      * HTTP Response wrapper
+     * Writes exactly Content-Length bytes so persistent connections stay framed
      */
     public static class HttpServletResponse {
+        private static final int STREAM_CHUNK_BYTES = 16 * 1024;
+
+        private OutputStream out;
         private PrintWriter writer;
+        private boolean keepAlive;
+        private boolean writeFailed;
+        private boolean committed;
         private int statusCode = 200;
         private String contentType = "text/html";
-        private Map<String, String> headers = new HashMap<>();
+        private Map<String, String> headers = new LinkedHashMap<>();
+        private CompletableFuture<Void> completion;
         
-        public HttpServletResponse(PrintWriter writer) {
-            this.writer = writer;
+        public HttpServletResponse(OutputStream out, boolean keepAlive) {
+            this.out = out;
+            this.keepAlive = keepAlive;
         }
         
         public void setStatus(int code) { this.statusCode = code; }
         public int getStatus() { return statusCode; }
         public void setContentType(String type) { this.contentType = type; }
         public String getContentType() { return contentType; }
-        public PrintWriter getWriter() { return writer; }
+        public boolean isKeepAlive() { return keepAlive; }
+        public boolean checkError() { return writeFailed; }
+        public boolean isCommitted() { return committed; }
+        public OutputStream getOutputStream() { return out; }
+        public PrintWriter getWriter() {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            }
+            return writer;
+        }
         public void setHeader(String name, String value) {
             if (headers != null) headers.put(name, value);
         }
         
         public void sendJSON(String json) {
             setContentType("application/json");
-            writer.println("HTTP/1.1 " + statusCode + " " + getStatusText(statusCode));
-            writer.println("Content-Type: application/json; charset=UTF-8");
-            writer.println("Access-Control-Allow-Origin: *");
-            writer.println("Content-Length: " + json.getBytes().length);
-            writer.println();
-            writer.println(json);
-            writer.flush();
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            writeResponse("Access-Control-Allow-Origin: *\r\n", bytes.length, body -> body.write(bytes));
+        }
+        
+        /**
+         * Send what the writer holds, copying its buffer straight to the connection
+         */
+        void sendJSON(JsonWriter json) {
+            setContentType("application/json");
+            writeResponse("Access-Control-Allow-Origin: *\r\n", json.size(), json::writeTo);
         }
         
         public void sendText(String text) {
-            byte[] bytes = text.getBytes();
-            writer.println("HTTP/1.1 " + statusCode + " " + getStatusText(statusCode));
-            writer.println("Content-Type: " + contentType + "; charset=UTF-8");
-            writer.println("Content-Length: " + bytes.length);
-            writer.println();
-            writer.print(text);
-            writer.flush();
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            writeResponse("", bytes.length, body -> body.write(bytes));
         }
         
         public void sendError(int code, String message) {
-            String json = "{\"error\":\"" + message + "\"}";
             statusCode = code;
-            sendJSON(json);
+            sendJSON(JsonWriter.get().beginObject().name("error").value(message).endObject());
+        }
+        
+        /**
+         * Finish the response when the future resolves rather than when
+         * service() returns: the handler writes the result, on the thread
+         * that completed the future. A failure is answered as the servlets
+         * answer it synchronously: 400 for IllegalArgumentException, 503
+         * when the executor is full, otherwise 500.
+         */
+        public <T> void completeWhen(CompletableFuture<T> future, ResultHandler<T> handler) {
+            completion = future.handle((value, error) -> {
+                Throwable failure = error;
+                if (failure == null) {
+                    try {
+                        handler.handle(value);
+                        return null;
+                    } catch (Exception e) {
+                        failure = e;
+                    }
+                }
+                fail(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+                return null;
+            });
+        }
+
+        /**
+         * Completes once the response has been written: at once unless
+         * completeWhen deferred it. Completes exceptionally when the response
+         * failed after part of it was sent, so the connection must be closed.
+         */
+        public CompletableFuture<Void> getCompletion() {
+            return completion != null ? completion : CompletableFuture.completedFuture(null);
+        }
+
+        private void fail(Throwable error) {
+            if (committed) {
+                throw new CompletionException(error);
+            }
+            if (error instanceof IllegalArgumentException) {
+                sendError(400, error.getMessage());
+            } else if (error instanceof RejectedExecutionException) {
+                sendError(503, "Server busy, please retry");
+            } else {
+                sendError(500, "Internal server error: " + error.getMessage());
+                error.printStackTrace();
+            }
+        }
+
+        /** Writes the response for the result of an async call */
+        public interface ResultHandler<T> {
+            void handle(T value) throws Exception;
+        }
+        
+        /**
+         * Send the headers and return a stream for a body of unknown length.
+         * Keep-alive connections get chunked transfer encoding; otherwise the
+         * body ends when the connection closes. Close the stream only after
+         * the whole body is written: if writing fails part way, throw instead,
+         * so the server drops the connection and the client sees a truncated
+         * body rather than a complete-looking one.
+         */
+        public OutputStream startStream() throws IOException {
+            StringBuilder head = head("");
+            if (keepAlive) {
+                head.append("Transfer-Encoding: chunked\r\n");
+            }
+            head.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+            committed = true;
+            out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+            if (keepAlive) {
+                return new ChunkedOutputStream(out, STREAM_CHUNK_BYTES);
+            }
+            return new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush(); // the server closes the connection
+                }
+            };
+        }
+
+        private void writeResponse(String extraHeaders, int length, Body body) {
+            StringBuilder head = head(extraHeaders);
+            head.append("Content-Length: ").append(length).append("\r\n");
+            head.append("Connection: ").append(keepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+            committed = true;
+            try {
+                out.write(head.toString().getBytes(StandardCharsets.UTF_8));
+                body.writeTo(out);
+                out.flush();
+            } catch (IOException e) {
+                // Client went away; like PrintWriter, record it instead of throwing
+                writeFailed = true;
+            }
+        }
+
+        /** Body of a known length, written once the headers are out */
+        private interface Body {
+            void writeTo(OutputStream out) throws IOException;
+        }
+
+        private StringBuilder head(String extraHeaders) {
+            StringBuilder head = new StringBuilder(160);
+            head.append("HTTP/1.1 ").append(statusCode).append(' ').append(getStatusText(statusCode)).append("\r\n");
+            head.append("Content-Type: ").append(contentType).append("; charset=UTF-8\r\n");
+            head.append(extraHeaders);
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+            }
+            return head;
         }
         
         private String getStatusText(int code) {
@@ -140,6 +328,8 @@ public abstract class Servlet {
                 case 404: return "Not Found";
                 case 405: return "Method Not Allowed";
                 case 500: return "Internal Server Error";
+                case 501: return "Not Implemented";
+                case 503: return "Service Unavailable";
                 default: return "OK";
             }
         }
@@ -1,12 +1,18 @@
 package com.oceanview.resort.util;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FileManager {
     private static FileManager instance;
     private static final String DATA_DIR = "data/";
+    private final Map<String, Object> fileLocks = new ConcurrentHashMap<>();
+    private final Map<String, JournalStore<?>> journals = new ConcurrentHashMap<>();
     
     private FileManager() {
         new File(DATA_DIR).mkdirs();
@@ -23,9 +29,30 @@ public class FileManager {
         return instance;
     }
     
+    /**
+     * Lock to hold around a read-modify-write of one file, so concurrent
+     * saves do not overwrite each other's changes
+     */
+    public Object lockFor(String filename) {
+        return fileLocks.computeIfAbsent(filename, k -> new Object());
+    }
+
+    /**
+     * Write to a temporary file and rename it over the target, so readers
+     * never see a half-written list
+     */
     public void writeListToFile(List<?> list, String filename) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_DIR + filename))) {
-            oos.writeObject(list);
+        File target = new File(DATA_DIR + filename);
+        File temp = File.createTempFile(filename, ".tmp", new File(DATA_DIR));
+        try {
+            try (ObjectOutputStream oos = new ObjectOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                oos.writeObject(list);
+            }
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temp.delete();
         }
     }
     
@@ -33,9 +60,48 @@ public class FileManager {
     public <T> List<T> readListFromFile(String filename) throws IOException, ClassNotFoundException {
         File file = new File(DATA_DIR + filename);
         if (!file.exists()) return new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
             Object obj = ois.readObject();
             return obj instanceof List ? (List<T>) obj : new ArrayList<>();
         }
     }
+
+    /**
+     * Open (once per JVM) the journal store for a record type. The first time
+     * a store is created, records in the old serialized list file are
+     * imported; the old file is left in place.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> JournalStore<T> openJournal(String name, String legacyFilename, JournalCodec<T> codec)
+            throws IOException {
+        JournalStore<?> store = journals.get(name);
+        if (store != null) {
+            return (JournalStore<T>) store;
+        }
+        synchronized (lockFor(name)) {
+            store = journals.get(name);
+            if (store == null) {
+                JournalStore<T> opened = new JournalStore<>(new File(DATA_DIR), name, codec);
+                if (!opened.existedOnDisk() && legacyFilename != null) {
+                    importLegacy(opened, legacyFilename);
+                }
+                journals.put(name, opened);
+                store = opened;
+            }
+        }
+        return (JournalStore<T>) store;
+    }
+
+    private <T> void importLegacy(JournalStore<T> store, String legacyFilename) throws IOException {
+        try {
+            List<T> legacy = readListFromFile(legacyFilename);
+            if (!legacy.isEmpty()) {
+                store.putAll(legacy);
+                store.compact();
+                System.out.println("Imported " + legacy.size() + " records from " + legacyFilename);
+            }
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Cannot import " + legacyFilename, e);
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package com.oceanview.resort.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Journal Codec - Compact binary form of one stored record type
+ *
+ * Used by JournalStore instead of Java serialization, which repeats class
+ * descriptors in every record.
+ */
+public interface JournalCodec<T> {
+
+    /**
+     * Unique key of the record, e.g. the reservation number
+     */
+    String key(T value);
+
+    void write(DataOutput out, T value) throws IOException;
+
+    T read(DataInput in) throws IOException;
+
+    // Helpers for nullable fields
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeDate(DataOutput out, LocalDate value) throws IOException {
+        out.writeLong(value != null ? value.toEpochDay() : Long.MIN_VALUE);
+    }
+
+    static LocalDate readDate(DataInput in) throws IOException {
+        long day = in.readLong();
+        return day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day);
+    }
+}
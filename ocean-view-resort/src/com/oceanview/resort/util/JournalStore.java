@@ -0,0 +1,364 @@
+package com.oceanview.resort.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * Journal Store - Append-only file storage for keyed records
+ *
+ * Each save appends one framed record (length, CRC32, payload) to
+ * name.journal, so a save costs the same however many records exist. The
+ * latest version of every record is kept in memory in encoded form and
+ * rebuilt on startup from name.snapshot followed by the journal. When more
+ * than half of the journal is superseded records, the live set is written
+ * to a new snapshot and the journal is emptied.
+ *
+ * A record cut short by a crash, or one that fails its checksum, ends
+ * recovery: it and anything after it are dropped and the journal is
+ * truncated back to the last good record.
+ */
+public class JournalStore<T> {
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    private static final int HEADER_BYTES = 8;
+    private static final long MIN_COMPACT_RECORDS = Long.getLong("oceanview.storage.compactAfter", 10_000L);
+    private static final boolean FSYNC = Boolean.getBoolean("oceanview.storage.fsync");
+
+    private final File journalFile;
+    private final File snapshotFile;
+    private final JournalCodec<T> codec;
+    private final Map<String, byte[]> records = new LinkedHashMap<>();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+    private FileChannel journal;
+    private long journalRecords;
+    // After a failed compaction, wait until the journal grows this far before retrying
+    private long retryCompactAt;
+    private long droppedBytes;
+    private final boolean existed;
+
+    public JournalStore(File dir, String name, JournalCodec<T> codec) throws IOException {
+        dir.mkdirs();
+        this.journalFile = new File(dir, name + ".journal");
+        this.snapshotFile = new File(dir, name + ".snapshot");
+        this.codec = codec;
+        this.existed = journalFile.exists() || snapshotFile.exists();
+
+        if (snapshotFile.exists()) {
+            replay(snapshotFile, false);
+        }
+        long goodLength = journalFile.exists() ? replay(journalFile, true) : 0;
+        journal = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (journal.size() > goodLength) {
+            droppedBytes = journal.size() - goodLength;
+            System.err.println("Warning: dropped " + droppedBytes + " bytes of incomplete or corrupt records from "
+                    + journalFile);
+            journal.truncate(goodLength);
+        }
+        journal.position(goodLength);
+    }
+
+    /**
+     * True if a journal or snapshot was already on disk when opened
+     */
+    public boolean existedOnDisk() {
+        return existed;
+    }
+
+    public synchronized T get(String key) {
+        byte[] encoded = records.get(key);
+        return encoded != null ? decode(encoded) : null;
+    }
+
+    /**
+     * All records in the order they were first saved; each call returns fresh copies
+     */
+    public synchronized List<T> values() {
+        List<T> values = new ArrayList<>(records.size());
+        for (byte[] encoded : records.values()) {
+            values.add(decode(encoded));
+        }
+        return values;
+    }
+
+    /**
+     * Pass every record to the handler in saved order, decoding one at a
+     * time. The handler runs without the store's lock, so a slow consumer
+     * does not block saves; records saved meanwhile may not be seen.
+     */
+    public void forEach(RowHandler<T> handler) throws IOException {
+        byte[][] snapshot;
+        synchronized (this) {
+            snapshot = records.values().toArray(new byte[0][]);
+        }
+        for (int i = 0; i < snapshot.length; i++) {
+            T value = decode(snapshot[i]);
+            snapshot[i] = null; // let the encoded copy go once it is handled
+            handler.handle(value);
+        }
+    }
+
+    /**
+     * Whether any record passes the test, decoding one at a time in saved
+     * order and stopping at the first that does
+     */
+    public boolean anyMatch(Predicate<T> test) {
+        byte[][] snapshot;
+        synchronized (this) {
+            snapshot = records.values().toArray(new byte[0][]);
+        }
+        for (byte[] encoded : snapshot) {
+            if (test.test(decode(encoded))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keys of all records in saved order, without decoding them
+     */
+    public synchronized List<String> keys() {
+        return new ArrayList<>(records.keySet());
+    }
+
+    public synchronized int size() {
+        return records.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return records.isEmpty();
+    }
+
+    /**
+     * Insert or replace the record with the same key
+     */
+    public synchronized void put(T value) throws IOException {
+        putAll(Collections.singletonList(value));
+    }
+
+    /**
+     * Append several records with one write
+     */
+    public synchronized void putAll(Collection<T> values) throws IOException {
+        ensureOpen();
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        List<String> keys = new ArrayList<>(values.size());
+        List<byte[]> encoded = new ArrayList<>(values.size());
+        for (T value : values) {
+            String key = codec.key(value);
+            byte[] bytes = encode(value);
+            writeFrame(frames, key, bytes);
+            keys.add(key);
+            encoded.add(bytes);
+        }
+
+        // A failed write may leave part of a frame behind; cut it off so later
+        // appends do not land after bytes that replay would stop at
+        long start = journal.position();
+        ByteBuffer out = ByteBuffer.wrap(frames.toByteArray());
+        try {
+            while (out.hasRemaining()) {
+                journal.write(out);
+            }
+            if (FSYNC) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            try {
+                journal.truncate(start);
+                journal.position(start);
+            } catch (IOException rollback) {
+                // Cannot repair the journal, so refuse further writes
+                e.addSuppressed(rollback);
+                close();
+            }
+            throw e;
+        }
+
+        // Only visible once the write succeeded
+        for (int i = 0; i < keys.size(); i++) {
+            records.put(keys.get(i), encoded.get(i));
+        }
+        journalRecords += keys.size();
+
+        // Once more than half the journal is superseded records; amortized O(1) per save
+        if (journalRecords >= MIN_COMPACT_RECORDS && journalRecords > 2L * records.size()
+                && journalRecords >= retryCompactAt) {
+            try {
+                compact();
+            } catch (IOException e) {
+                // The records are already durable in the journal, so the save stands
+                retryCompactAt = journalRecords + records.size();
+                System.err.println("Warning: compaction of " + journalFile.getName() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Save the records only if the store is empty, e.g. to seed default data
+     *
+     * @return true if the records were saved
+     */
+    public synchronized boolean putAllIfEmpty(Collection<T> values) throws IOException {
+        if (!records.isEmpty()) {
+            return false;
+        }
+        putAll(values);
+        return true;
+    }
+
+    /**
+     * Write the live records to a new snapshot and empty the journal
+     */
+    public synchronized void compact() throws IOException {
+        ensureOpen();
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream(64 * 1024);
+            for (Map.Entry<String, byte[]> record : records.entrySet()) {
+                writeFrame(chunk, record.getKey(), record.getValue());
+                if (chunk.size() >= 64 * 1024) {
+                    writeFully(out, chunk);
+                }
+            }
+            writeFully(out, chunk);
+            out.force(true);
+        }
+        Files.move(temp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        // A crash before this truncate only means replaying records the snapshot already has
+        journal.truncate(0);
+        journal.position(0);
+        journalRecords = 0;
+        retryCompactAt = 0;
+    }
+
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * Records currently in the journal (not yet folded into the snapshot)
+     */
+    public synchronized long getJournalRecords() {
+        return journalRecords;
+    }
+
+    /**
+     * Bytes discarded at startup because the last record was incomplete or corrupt
+     */
+    public long getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    /**
+     * Replace the journal channel, e.g. with one that fails writes in tests
+     */
+    synchronized void setJournalChannel(FileChannel channel) {
+        journal = channel;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (journal == null) {
+            throw new IOException("Journal store is closed: " + journalFile);
+        }
+    }
+
+    /**
+     * Load every good record from the file; returns the offset after the last one
+     */
+    private long replay(File file, boolean isJournal) throws IOException {
+        long length = file.length();
+        long offset = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024))) {
+            CRC32 crc = new CRC32();
+            while (length - offset >= HEADER_BYTES) {
+                int size = in.readInt();
+                int checksum = in.readInt();
+                if (size <= 0 || size > MAX_RECORD_BYTES || size > length - offset - HEADER_BYTES) {
+                    break; // torn or garbage header
+                }
+                byte[] payload = new byte[size];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload, 0, size);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                String key = record.readUTF();
+                byte[] value = new byte[record.available()];
+                record.readFully(value);
+                records.put(key, value);
+                if (isJournal) {
+                    journalRecords++;
+                }
+                offset += HEADER_BYTES + size;
+            }
+        } catch (EOFException e) {
+            // Ends at the last complete record
+        }
+        return offset;
+    }
+
+    private void writeFrame(ByteArrayOutputStream out, String key, byte[] value) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(value.length + key.length() + 2);
+        new DataOutputStream(payload).writeUTF(key);
+        payload.write(value);
+        byte[] bytes = payload.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        DataOutputStream frame = new DataOutputStream(out);
+        frame.writeInt(bytes.length);
+        frame.writeInt((int) crc.getValue());
+        frame.write(bytes);
+    }
+
+    private static void writeFully(FileChannel channel, ByteArrayOutputStream chunk) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(chunk.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        chunk.reset();
+    }
+
+    private byte[] encode(T value) throws IOException {
+        buffer.reset();
+        codec.write(new DataOutputStream(buffer), value);
+        return buffer.toByteArray();
+    }
+
+    private T decode(byte[] encoded) {
+        try {
+            return codec.read(new DataInputStream(new ByteArrayInputStream(encoded)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt record in " + journalFile, e);
+        }
+    }
+}
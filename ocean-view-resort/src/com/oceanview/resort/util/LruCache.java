@@ -0,0 +1,216 @@
+package com.oceanview.resort.util;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU Cache - Size-bounded, concurrent least-recently-used cache with expiry
+ *
+ * Keys are spread over independently locked segments, each an access-ordered
+ * LinkedHashMap that drops its eldest entry when full, so concurrent lookups
+ * of different keys rarely wait on each other. LRU is per segment, which is
+ * close to global LRU once there are many more entries than segments.
+ *
+ * Entries older than the TTL are treated as missing. A value loaded on a
+ * miss is only stored if no put or remove happened while it was loading,
+ * so a slow reader cannot replace a newer value written through.
+ */
+public class LruCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    /**
+     * Source of a value on a miss
+     */
+    public interface Loader<V> {
+        V load() throws IOException, ClassNotFoundException;
+    }
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final int capacity;
+    private final AtomicLong writes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * @param capacity maximum entries; 0 disables caching
+     * @param ttl how long an entry stays valid after it is stored; 0 for no expiry
+     */
+    public LruCache(int capacity, long ttl, TimeUnit unit) {
+        if (capacity < 0 || ttl < 0) {
+            throw new IllegalArgumentException("Capacity and TTL must not be negative");
+        }
+        this.capacity = capacity;
+        this.ttlNanos = unit.toNanos(ttl);
+        int count = capacity < SEGMENTS * 8 ? 1 : SEGMENTS;
+        @SuppressWarnings("unchecked")
+        Segment<K, V>[] table = (Segment<K, V>[]) new Segment<?, ?>[count];
+        this.segments = table;
+        for (int i = 0; i < count; i++) {
+            // Spread the remainder so the segments add up to exactly the capacity
+            segments[i] = new Segment<>(capacity / count + (i < capacity % count ? 1 : 0), evictions);
+        }
+    }
+
+    public V get(K key) {
+        if (capacity == 0) {
+            return null;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            Entry<V> entry = segment.map.get(key);
+            if (entry != null && !expired(entry)) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            if (entry != null) {
+                segment.map.remove(key);
+                expirations.incrementAndGet();
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Cached value, or the loader's result (cached unless a write raced it)
+     */
+    public V get(K key, Loader<V> loader) throws IOException, ClassNotFoundException {
+        V cached = get(key);
+        if (cached != null || capacity == 0) {
+            return cached != null ? cached : loader.load();
+        }
+        long stamp = writes.get();
+        V loaded = loader.load();
+        if (loaded != null) {
+            Segment<K, V> segment = segmentFor(key);
+            segment.lock.lock();
+            try {
+                if (writes.get() == stamp) {
+                    segment.map.put(key, new Entry<>(loaded, System.nanoTime()));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Store a value that was just written to the backing store
+     */
+    public void put(K key, V value) {
+        writes.incrementAndGet();
+        if (capacity == 0) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.map.put(key, new Entry<>(value, System.nanoTime()));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void remove(K key) {
+        writes.incrementAndGet();
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.map.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    public void clear() {
+        writes.incrementAndGet();
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.map.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public int getCapacity() { return capacity; }
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getEvictionCount() { return evictions.get(); }
+    public long getExpirationCount() { return expirations.get(); }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    public String getStats() {
+        return String.format("size=%d/%d, hits=%d, misses=%d, hitRatio=%.3f, evictions=%d, expirations=%d",
+                size(), capacity, getHitCount(), getMissCount(), getHitRatio(), getEvictionCount(),
+                getExpirationCount());
+    }
+
+    private boolean expired(Entry<V> entry) {
+        return ttlNanos > 0 && System.nanoTime() - entry.storedAt > ttlNanos;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[Math.floorMod(h, segments.length)];
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long storedAt;
+
+        Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<K, Entry<V>> map;
+
+        Segment(int capacity, AtomicLong evictions) {
+            map = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.oceanview.resort.util;
+
+import java.io.IOException;
+
+/**
+ * Row Handler - Receives query results one row at a time
+ *
+ * Used to stream large results (e.g. straight into an HTTP response)
+ * instead of collecting them into a list first.
+ */
+public interface RowHandler<T> {
+    void handle(T row) throws IOException;
+}
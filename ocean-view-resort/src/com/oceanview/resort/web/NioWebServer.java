@@ -0,0 +1,562 @@
+package com.oceanview.resort.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NIO Web Server - Selector-based alternative to the blocking WebServer
+ *
+ * A single selector thread owns every socket. Requests are parsed
+ * incrementally from ByteBuffers and only complete requests are handed to
+ * the worker executor, so idle or slow clients do not hold a thread.
+ * Servlets may finish a response after the worker returns, once a database
+ * call on the DatabaseExecutor completes, so slow queries do not hold a
+ * worker either. Keep-alive and pipelining follow the same rules as WebServer.
+ *
+ * Enabled with -Doceanview.server.engine=nio; -Doceanview.server.async=false
+ * keeps every request on its worker until the response is written
+ */
+public class NioWebServer {
+    private static final int INITIAL_BUFFER = 4096;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final ServletRouter servletRouter;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final String mode;
+    // Servlets may finish responses from the database executor
+    private final boolean async;
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private ExecutorService workers;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    public NioWebServer(int port) throws IOException {
+        this(port, WorkerExecutors.configuredMode());
+    }
+
+    public NioWebServer(int port, String mode) throws IOException {
+        this(port, mode, new ServletRouter());
+    }
+
+    NioWebServer(int port, String mode, ServletRouter servletRouter) throws IOException {
+        this.servletRouter = servletRouter;
+        this.async = !"false".equalsIgnoreCase(System.getProperty("oceanview.server.async", "true").trim());
+        new File(WebServer.WEB_DIR).mkdirs();
+        new File(WebServer.DATA_DIR).mkdirs();
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port), 1024);
+        this.serverChannel.configureBlocking(false);
+        this.mode = mode;
+    }
+
+    public void start() throws IOException {
+        running = true;
+        workers = WorkerExecutors.create(mode);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        System.out.println("============================================");
+        System.out.println("Ocean View Resort - Web Application (NIO)");
+        System.out.println("Server running on: http://localhost:" + getPort());
+        System.out.println("Worker mode: " + WorkerExecutors.describe(workers));
+        System.out.println("============================================\n");
+
+        selectorThread = new Thread(this::runLoop, "http-selector");
+        selectorThread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Number of client connections currently open
+     */
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public void stop() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            if (selectorThread != null) {
+                selectorThread.join(5000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
+    private void runLoop() {
+        long lastSweep = System.currentTimeMillis();
+        while (running) {
+            try {
+                selector.select(1000);
+
+                // Responses finished by workers since the last wake-up
+                Runnable completion;
+                while ((completion = completions.poll()) != null) {
+                    completion.run();
+                }
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection conn = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            conn.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            conn.onWritable();
+                        }
+                    } catch (IOException | CancelledKeyException e) {
+                        conn.close();
+                    }
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastSweep >= 1000) {
+                    closeIdle(now);
+                    lastSweep = now;
+                }
+            } catch (IOException e) {
+                if (running)
+                    System.err.println("Error: " + e.getMessage());
+            }
+        }
+        shutdownChannels();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key));
+            openConnections.incrementAndGet();
+        }
+    }
+
+    private void closeIdle(long now) {
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof Connection) {
+                Connection conn = (Connection) attachment;
+                if (!conn.busy && now - conn.lastActive > WebServer.KEEP_ALIVE_TIMEOUT_MS) {
+                    conn.close();
+                }
+            }
+        }
+    }
+
+    private void shutdownChannels() {
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof Connection) {
+                ((Connection) attachment).close();
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            // Already closing
+        }
+    }
+
+    /**
+     * Per-socket state. Only the selector thread touches it, except for the
+     * response bytes that workers hand back through the completions queue.
+     */
+    private class Connection {
+        private final SocketChannel channel;
+        private final SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(INITIAL_BUFFER); // bytes in [0, position)
+        private final ArrayDeque<Part> pending = new ArrayDeque<>();
+        private Part out;
+        private boolean responseComplete;
+        private volatile ResponseStream streaming;
+        private int scanFrom;
+        private int served;
+        private boolean busy;
+        private boolean closeAfterWrite;
+        private long lastActive = System.currentTimeMillis();
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+
+        void onReadable() throws IOException {
+            if (!in.hasRemaining()) {
+                ensureCapacity(in.capacity() * 2);
+            }
+            int n = channel.read(in);
+            if (n == -1) {
+                close();
+                return;
+            }
+            lastActive = System.currentTimeMillis();
+            processBuffered();
+        }
+
+        void onWritable() throws IOException {
+            while (out != null || (out = pending.poll()) != null) {
+                channel.write(out.bytes);
+                if (out.bytes.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                out.written();
+                out = null;
+            }
+            lastActive = System.currentTimeMillis();
+            if (!responseComplete) {
+                key.interestOps(0); // a streaming worker has more to send
+                return;
+            }
+            responseComplete = false;
+            streaming = null;
+            if (closeAfterWrite) {
+                close();
+                return;
+            }
+            busy = false;
+            key.interestOps(SelectionKey.OP_READ);
+            // A pipelined request may already be waiting in the buffer
+            processBuffered();
+        }
+
+        /**
+         * Parse as many complete requests as the buffer holds, one at a time
+         * so responses go out in request order.
+         */
+        private void processBuffered() throws IOException {
+            while (!busy && key.isValid()) {
+                skipLeadingLineBreaks();
+                int headerEnd = findHeaderEnd();
+                if (headerEnd < 0) {
+                    if (in.position() > MAX_HEADER_BYTES) {
+                        reject(431, "Request headers too large");
+                    }
+                    return;
+                }
+
+                String[] lines = new String(in.array(), 0, headerEnd, StandardCharsets.ISO_8859_1).split("\r?\n");
+                String[] parts = lines[0].split(" ");
+                if (parts.length < 2) {
+                    reject(400, "Bad Request");
+                    return;
+                }
+                Map<String, String> headers = new HashMap<>();
+                for (int i = 1; i < lines.length; i++) {
+                    int colon = lines[i].indexOf(':');
+                    if (colon > 0) {
+                        headers.put(lines[i].substring(0, colon).trim().toLowerCase(),
+                                lines[i].substring(colon + 1).trim());
+                    }
+                }
+
+                int length = WebServer.contentLength(headers);
+                if (length > WebServer.MAX_BODY_BYTES) {
+                    reject(413, "Request body too large");
+                    return;
+                }
+                if (in.position() < headerEnd + length) {
+                    ensureCapacity(headerEnd + length);
+                    return; // wait for the rest of the body
+                }
+
+                String body = new String(in.array(), headerEnd, length, StandardCharsets.UTF_8);
+                consume(headerEnd + length);
+
+                served++;
+                String version = parts.length > 2 ? parts[2] : "HTTP/1.0";
+                boolean keepAlive = WebServer.isKeepAlive(version, headers)
+                        && served < WebServer.MAX_KEEP_ALIVE_REQUESTS && running;
+                dispatch(parts[0], parts[1], headers, body, keepAlive);
+            }
+        }
+
+        private void dispatch(String method, String path, Map<String, String> headers, String body,
+                boolean keepAlive) {
+            busy = true;
+            key.interestOps(0);
+            try {
+                workers.execute(() -> {
+                    ResponseStream response = new ResponseStream(this);
+                    streaming = response;
+                    CompletableFuture<Void> done;
+                    try {
+                        done = WebServer.handleRequest(servletRouter, method, path, headers, body, null, response,
+                                keepAlive, async);
+                    } catch (Exception e) {
+                        done = CompletableFuture.failedFuture(e);
+                    }
+                    // A servlet waiting on the database finishes later, from the thread that
+                    // completes its future; this worker is free for other requests meanwhile
+                    done.whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            error.printStackTrace();
+                            if (response.isEmpty()) {
+                                try {
+                                    WebServer.sendError(response, 500, "Internal server error");
+                                } catch (IOException e) {
+                                    // Nothing sent yet, so this only buffers
+                                }
+                            }
+                        }
+                        response.finish(keepAlive && error == null);
+                    });
+                });
+            } catch (RejectedExecutionException e) {
+                respond(WebServer.overloadedResponse(), false);
+            }
+        }
+
+        /**
+         * Called from a worker thread; the selector thread does the write.
+         */
+        private void send(Part part, boolean last, boolean keepAlive) {
+            completions.add(() -> enqueue(part, last, keepAlive));
+            selector.wakeup();
+        }
+
+        /**
+         * Called from a worker thread; the selector thread closes the channel.
+         */
+        private void closeFromWorker() {
+            completions.add(this::close);
+            selector.wakeup();
+        }
+
+        private void respond(byte[] response, boolean keepAlive) {
+            enqueue(new Part(ByteBuffer.wrap(response), null), true, keepAlive);
+        }
+
+        private void enqueue(Part part, boolean last, boolean keepAlive) {
+            if (!key.isValid()) {
+                return;
+            }
+            pending.add(part);
+            if (last) {
+                responseComplete = true;
+                closeAfterWrite = !keepAlive;
+            }
+            if (out == null) {
+                try {
+                    onWritable();
+                } catch (IOException | CancelledKeyException e) {
+                    close();
+                }
+            }
+        }
+
+        private void reject(int code, String message) throws IOException {
+            ByteArrayOutputStream response = new ByteArrayOutputStream(128);
+            WebServer.sendError(response, code, message);
+            busy = true;
+            key.interestOps(0);
+            respond(response.toByteArray(), false);
+        }
+
+        private void skipLeadingLineBreaks() {
+            byte[] buf = in.array();
+            int n = 0;
+            while (n < in.position() && (buf[n] == '\r' || buf[n] == '\n')) {
+                n++;
+            }
+            if (n > 0) {
+                consume(n);
+            }
+        }
+
+        /**
+         * Offset just past the blank line ending the headers, or -1. Scanning
+         * resumes where the previous attempt stopped, so trickling clients
+         * cost linear work overall.
+         */
+        private int findHeaderEnd() {
+            byte[] buf = in.array();
+            int end = in.position();
+            for (int i = Math.max(scanFrom, 1); i < end; i++) {
+                if (buf[i] == '\n' && (buf[i - 1] == '\n' || (i >= 2 && buf[i - 1] == '\r' && buf[i - 2] == '\n'))) {
+                    return i + 1;
+                }
+            }
+            scanFrom = Math.max(1, end - 2);
+            return -1;
+        }
+
+        private void consume(int n) {
+            byte[] buf = in.array();
+            int remaining = in.position() - n;
+            if (in.capacity() > INITIAL_BUFFER * 16 && remaining <= INITIAL_BUFFER) {
+                // Drop the large buffer a big body needed
+                ByteBuffer smaller = ByteBuffer.allocate(INITIAL_BUFFER);
+                smaller.put(buf, n, remaining);
+                in = smaller;
+            } else {
+                System.arraycopy(buf, n, buf, 0, remaining);
+                in.position(remaining);
+            }
+            scanFrom = 0;
+        }
+
+        private void ensureCapacity(int needed) {
+            if (in.capacity() >= needed) {
+                return;
+            }
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, in.capacity() * 2));
+            in.flip();
+            bigger.put(in);
+            in = bigger;
+        }
+
+        void close() {
+            if (!channel.isOpen()) {
+                return;
+            }
+            ResponseStream stream = streaming;
+            if (stream != null) {
+                stream.abort(); // unblock a worker waiting to send more
+            }
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            openConnections.decrementAndGet();
+        }
+    }
+
+    /**
+     * Bytes queued for one connection, and the stream to credit once written
+     */
+    private static final class Part {
+        final ByteBuffer bytes;
+        final ResponseStream owner;
+
+        Part(ByteBuffer bytes, ResponseStream owner) {
+            this.bytes = bytes;
+            this.owner = owner;
+        }
+
+        void written() {
+            if (owner != null) {
+                owner.inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * Worker-side response body. Small responses are sent in one piece when
+     * the request is done; large (streamed) ones are handed to the selector
+     * in parts as they are written, with at most PARTS_IN_FLIGHT parts
+     * waiting to be written, so memory per response stays bounded. A worker
+     * that waits longer than the keep-alive timeout for the client to take a
+     * part gives up and closes the connection.
+     */
+    private static final class ResponseStream extends OutputStream {
+        private static final int PART_BYTES = 64 * 1024;
+        private static final int PARTS_IN_FLIGHT = 4;
+
+        private final Connection connection;
+        private final Semaphore inFlight = new Semaphore(PARTS_IN_FLIGHT);
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        private boolean sentParts;
+        private volatile boolean aborted;
+
+        ResponseStream(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer.write(b);
+            if (buffer.size() >= PART_BYTES) {
+                sendPart();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            buffer.write(b, off, len);
+            if (buffer.size() >= PART_BYTES) {
+                sendPart();
+            }
+        }
+
+        boolean isEmpty() {
+            return !sentParts && buffer.size() == 0;
+        }
+
+        void finish(boolean keepAlive) {
+            connection.send(new Part(ByteBuffer.wrap(buffer.toByteArray()), null), true, keepAlive);
+            buffer = null;
+        }
+
+        void abort() {
+            aborted = true;
+            inFlight.release(PARTS_IN_FLIGHT);
+        }
+
+        private void sendPart() throws IOException {
+            try {
+                // A client that stops reading would otherwise hold this worker for good
+                if (!inFlight.tryAcquire(WebServer.KEEP_ALIVE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    connection.closeFromWorker();
+                    throw new IOException("Client stopped reading the response");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while sending response");
+            }
+            if (aborted) {
+                throw new IOException("Connection closed by client");
+            }
+            sentParts = true;
+            connection.send(new Part(ByteBuffer.wrap(buffer.toByteArray()), this), false, true);
+            buffer.reset();
+        }
+    }
+}
@@ -2,28 +2,49 @@ package com.oceanview.resort.web;
 
 import com.oceanview.resort.servlet.*;
 import java.io.BufferedReader;
-import java.io.PrintWriter;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servlet Router - Routes HTTP requests to appropriate servlets
  */
 public class ServletRouter {
     private LoginServlet loginServlet = new LoginServlet();
-    private ReservationServlet reservationServlet = new ReservationServlet();
+    private ReservationServlet reservationServlet;
     private RoomServlet roomServlet = new RoomServlet();
     private BillServlet billServlet = new BillServlet();
     
+    public ServletRouter() {
+        this(new ReservationServlet());
+    }
+    
+    ServletRouter(ReservationServlet reservationServlet) {
+        this.reservationServlet = reservationServlet;
+    }
+    
     /**
      * Route request to appropriate servlet
+     * keepAlive tells the response whether the connection stays open afterwards
+     */
+    public CompletableFuture<Void> route(String method, String path, Map<String, String> params, 
+                     Map<String, String> headers, String body, 
+                     BufferedReader reader, OutputStream out, boolean keepAlive) throws Exception {
+        return route(method, path, params, headers, body, reader, out, keepAlive, false);
+    }
+    
+    /**
+     * Route request to appropriate servlet; with async, servlets may finish
+     * the response later, and the returned future completes when they have
      */
-    public void route(String method, String path, Map<String, String> params, 
+    public CompletableFuture<Void> route(String method, String path, Map<String, String> params, 
                      Map<String, String> headers, String body, 
-                     BufferedReader reader, PrintWriter writer) throws Exception {
+                     BufferedReader reader, OutputStream out, boolean keepAlive, boolean async) throws Exception {
         
         Servlet.HttpServletRequest request = createRequest(method, path, params, headers, body, reader);
-        Servlet.HttpServletResponse response = createResponse(writer);
+        request.setAsyncSupported(async);
+        Servlet.HttpServletResponse response = createResponse(out, keepAlive);
         
         try {
             // Route based on path
@@ -40,10 +61,14 @@ public class ServletRouter {
                 response.sendError(404, "Endpoint not found");
             }
         } catch (Exception e) {
+            if (response.isCommitted()) {
+                throw e; // a streamed body was cut short; the caller closes the connection
+            }
             response.setStatus(500);
             response.sendError(500, "Internal server error: " + e.getMessage());
             e.printStackTrace();
         }
+        return response.getCompletion();
     }
     
     private Servlet.HttpServletRequest createRequest(String method, String path, 
@@ -54,7 +79,7 @@ public class ServletRouter {
         return new Servlet.HttpServletRequest(method, path, params, headers, body, reader);
     }
     
-    private Servlet.HttpServletResponse createResponse(PrintWriter writer) {
-        return new Servlet.HttpServletResponse(writer);
+    private Servlet.HttpServletResponse createResponse(OutputStream out, boolean keepAlive) {
+        return new Servlet.HttpServletResponse(out, keepAlive);
     }
 }
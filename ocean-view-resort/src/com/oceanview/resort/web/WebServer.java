@@ -3,47 +3,122 @@ package com.oceanview.resort.web;
 import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 public class WebServer {
     private ServletRouter servletRouter = new ServletRouter();
     private ServerSocket serverSocket;
-    private boolean running;
-    private static final String WEB_DIR = "web";
-    private static final String DATA_DIR = "data";
+    private ExecutorService workers;
+    private final String mode;
+    private volatile boolean running;
+    static final String WEB_DIR = "web";
+    static final String DATA_DIR = "data";
+
+    // Persistent connection limits (HTTP/1.1 keep-alive)
+    static final int KEEP_ALIVE_TIMEOUT_MS = Integer.getInteger("oceanview.server.keepAliveTimeout", 15000);
+    static final int MAX_KEEP_ALIVE_REQUESTS = Integer.getInteger("oceanview.server.maxKeepAliveRequests", 100);
+    // How often an idle connection checks whether others are waiting for its thread
+    private static final int IDLE_CHECK_MS = 100;
+
+    // Larger declared bodies are answered 413 before any buffer is allocated
+    static final int MAX_BODY_BYTES = Integer.getInteger("oceanview.server.maxBodyBytes", 8 * 1024 * 1024);
 
     public WebServer(int port) throws IOException {
+        this(port, WorkerExecutors.configuredMode());
+    }
+
+    public WebServer(int port, String mode) throws IOException {
         new File(WEB_DIR).mkdirs();
         new File(DATA_DIR).mkdirs();
         this.serverSocket = new ServerSocket(port);
+        this.mode = mode;
     }
 
     public void start() {
         running = true;
+        workers = WorkerExecutors.create(mode);
         System.out.println("============================================");
         System.out.println("Ocean View Resort - Web Application");
         System.out.println("Server running on: http://localhost:" + serverSocket.getLocalPort());
+        System.out.println("Worker mode: " + WorkerExecutors.describe(workers));
         System.out.println("============================================\n");
 
         new Thread(() -> {
             while (running) {
                 try {
                     Socket client = serverSocket.accept();
-                    new Thread(new ClientHandler(client)).start();
+                    dispatch(client);
                 } catch (IOException e) {
                     if (running)
                         System.err.println("Error: " + e.getMessage());
                 }
             }
-        }).start();
+        }, "http-acceptor").start();
+    }
+
+    /**
+     * Hand an accepted socket to the worker executor, answering 503 when the
+     * bounded pool and its queue are both full.
+     */
+    private void dispatch(Socket client) {
+        try {
+            workers.execute(new ClientHandler(client));
+        } catch (RejectedExecutionException e) {
+            rejectOverloaded(client);
+        }
+    }
+
+    private void rejectOverloaded(Socket client) {
+        try (Socket socket = client) {
+            OutputStream out = socket.getOutputStream();
+            out.write(overloadedResponse());
+            out.flush();
+        } catch (IOException e) {
+            // Client already gone; nothing more to do
+        }
+    }
+
+    /**
+     * 503 response sent when no worker can take the request
+     */
+    static byte[] overloadedResponse() {
+        String json = "{\"error\":\"Server busy, please retry\"}";
+        String response = "HTTP/1.1 503 Service Unavailable\r\n" +
+                "Content-Type: application/json; charset=UTF-8\r\n" +
+                "Retry-After: 1\r\n" +
+                "Connection: close\r\n" +
+                "Content-Length: " + json.getBytes(StandardCharsets.UTF_8).length + "\r\n" +
+                "\r\n" + json;
+        return response.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * True when connections are already waiting for a worker; idle keep-alive
+     * sockets are then closed after their current response to free the thread.
+     */
+    private boolean workersSaturated() {
+        return workers instanceof ThreadPoolExecutor && !((ThreadPoolExecutor) workers).getQueue().isEmpty();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
     }
 
     public void stop() throws IOException {
         running = false;
         serverSocket.close();
+        if (workers != null) {
+            workers.shutdown();
+        }
     }
 
     private class ClientHandler implements Runnable {
@@ -55,23 +130,57 @@ public class WebServer {
 
         @Override
         public void run() {
-            try (BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                    PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+            // ISO-8859-1 maps every byte to one char, so Content-Length can be
+            // honoured exactly and pipelined requests stay framed in the buffer
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                    OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
 
-                String request = in.readLine();
-                if (request == null)
-                    return;
+                socket.setSoTimeout(KEEP_ALIVE_TIMEOUT_MS);
+                int served = 0;
+                boolean keepAlive = true;
 
-                String[] parts = request.split(" ");
-                if (parts.length < 2) {
-                    sendError(out, 400, "Bad Request");
-                    return;
-                }
+                while (keepAlive && running) {
+                    if (!awaitRequest(in, served > 0)) {
+                        return; // idle connection
+                    }
+                    String request = in.readLine();
+                    if (request == null)
+                        return;
+                    if (request.isEmpty())
+                        continue; // tolerate stray CRLF between pipelined requests
+
+                    String[] parts = request.split(" ");
+                    if (parts.length < 2) {
+                        sendError(out, 400, "Bad Request");
+                        return;
+                    }
+
+                    String method = parts[0];
+                    String path = parts[1];
+                    String version = parts.length > 2 ? parts[2] : "HTTP/1.0";
+
+                    Map<String, String> headers = parseHeaders(in);
+                    served++;
+                    keepAlive = isKeepAlive(version, headers)
+                            && served < MAX_KEEP_ALIVE_REQUESTS
+                            && !workersSaturated();
+
+                    // The unread body would desynchronize the connection, so close it
+                    if (contentLength(headers) > MAX_BODY_BYTES) {
+                        sendError(out, 413, "Request body too large");
+                        return;
+                    }
 
-                String method = parts[0];
-                String path = parts[1];
+                    // Always consume a declared body so the next pipelined
+                    // request starts at the right offset
+                    String body = readRequestBody(in, headers);
 
-                handleRequest(method, path, in, out);
+                    // This thread owns the socket until the response is out, so servlets answer inline
+                    handleRequest(servletRouter, method, path, headers, body, in, out, keepAlive, false).join();
+                }
+            } catch (SocketTimeoutException e) {
+                // Client stalled mid-request
             } catch (Exception e) {
                 e.printStackTrace();
             } finally {
@@ -82,46 +191,38 @@ public class WebServer {
             }
         }
 
-        private void handleRequest(String method, String path, BufferedReader in, PrintWriter out) throws Exception {
-            // Serve static HTML files
-            if (method.equals("GET") && (path.equals("/") || path.equals("/index.html"))) {
-                serveFile(out, WEB_DIR + "/index.html", "text/html");
-                return;
-            } else if (method.equals("GET") && path.equals("/dashboard.html")) {
-                serveFile(out, WEB_DIR + "/dashboard.html", "text/html");
-                return;
-            }
-
-            // Parse query parameters
-            Map<String, String> params = parseQueryParameters(path);
-            String cleanPath = path.split("\\?")[0];
-
-            // Parse headers
-            Map<String, String> headers = parseHeaders(in);
-
-            // Read request body for POST/PUT
-            String body = "";
-            if (method.equals("POST") || method.equals("PUT")) {
-                body = readRequestBody(in, headers);
-            }
-
-            // Route to servlets
-            servletRouter.route(method, cleanPath, params, headers, body, in, out);
-        }
-
-        private Map<String, String> parseQueryParameters(String path) {
-            Map<String, String> params = new HashMap<>();
-            if (path.contains("?")) {
-                String query = path.substring(path.indexOf("?") + 1);
-                String[] pairs = query.split("&");
-                for (String pair : pairs) {
-                    String[] keyValue = pair.split("=", 2);
-                    if (keyValue.length == 2) {
-                        params.put(keyValue[0], keyValue[1]);
+        /**
+         * Wait for the first byte of the next request. Gives up after the
+         * keep-alive timeout or, between requests, as soon as other
+         * connections are queued for a worker, so idle keep-alive connections
+         * do not hold every thread.
+         */
+        private boolean awaitRequest(BufferedReader in, boolean yieldWhenBusy) throws IOException {
+            long deadline = System.currentTimeMillis() + KEEP_ALIVE_TIMEOUT_MS;
+            try {
+                while (true) {
+                    if (in.ready()) {
+                        return true; // pipelined request already buffered
+                    }
+                    long left = deadline - System.currentTimeMillis();
+                    if (left <= 0 || (yieldWhenBusy && workersSaturated())) {
+                        return false;
+                    }
+                    socket.setSoTimeout((int) Math.min(left, IDLE_CHECK_MS));
+                    in.mark(1);
+                    try {
+                        if (in.read() == -1) {
+                            return false;
+                        }
+                        in.reset();
+                        return true;
+                    } catch (SocketTimeoutException e) {
+                        // Nothing yet; check the queue again
                     }
                 }
+            } finally {
+                socket.setSoTimeout(KEEP_ALIVE_TIMEOUT_MS);
             }
-            return params;
         }
 
         private Map<String, String> parseHeaders(BufferedReader in) throws IOException {
@@ -139,76 +240,149 @@ public class WebServer {
         }
 
         private String readRequestBody(BufferedReader in, Map<String, String> headers) throws IOException {
-            String contentLength = headers.get("content-length");
-            if (contentLength == null)
+            int length = contentLength(headers);
+            if (length <= 0)
                 return "";
 
-            try {
-                int length = Integer.parseInt(contentLength);
-                if (length <= 0)
-                    return "";
-
-                char[] buffer = new char[length];
-                int read = 0;
-                while (read < length) {
-                    int charsRead = in.read(buffer, read, length - read);
-                    if (charsRead == -1)
-                        break;
-                    read += charsRead;
-                }
-                return new String(buffer, 0, read);
-            } catch (NumberFormatException e) {
-                return "";
+            char[] buffer = new char[length];
+            int read = 0;
+            while (read < length) {
+                int charsRead = in.read(buffer, read, length - read);
+                if (charsRead == -1)
+                    break;
+                read += charsRead;
+            }
+            // Each char holds one raw byte; decode the body as UTF-8
+            byte[] bytes = new byte[read];
+            for (int i = 0; i < read; i++) {
+                bytes[i] = (byte) buffer[i];
             }
+            return new String(bytes, StandardCharsets.UTF_8);
         }
+    }
 
-        private void sendError(PrintWriter out, int code, String msg) {
-            String json = "{\"error\":\"" + msg + "\"}";
-            out.println("HTTP/1.1 " + code + " " + getStatus(code));
-            out.println("Content-Type: application/json; charset=UTF-8");
-            out.println("Content-Length: " + json.getBytes().length);
-            out.println();
-            out.println(json);
-            out.flush();
+    /*
+     * Request handling shared by the blocking and NIO engines. Callers parse
+     * the request line, headers and body; these helpers route and respond.
+     */
+
+    /**
+     * HTTP/1.1 connections persist unless the client asks to close;
+     * HTTP/1.0 connections persist only when the client asks to keep them.
+     * Chunked request bodies are not parsed, so they end the connection.
+     */
+    static boolean isKeepAlive(String version, Map<String, String> headers) {
+        if (headers.containsKey("transfer-encoding"))
+            return false;
+        String connection = headers.getOrDefault("connection", "").toLowerCase();
+        if ("HTTP/1.1".equals(version))
+            return !connection.contains("close");
+        return connection.contains("keep-alive");
+    }
+
+    /**
+     * Declared body length, or 0 when absent or malformed; lengths beyond
+     * int range come back as Integer.MAX_VALUE so they fail the size limit
+     */
+    static int contentLength(Map<String, String> headers) {
+        String contentLength = headers.get("content-length");
+        if (contentLength == null)
+            return 0;
+        try {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, Long.parseLong(contentLength.trim())));
+        } catch (NumberFormatException e) {
+            return 0;
         }
+    }
 
-        private String getStatus(int code) {
-            switch (code) {
-                case 200:
-                    return "OK";
-                case 400:
-                    return "Bad Request";
-                case 404:
-                    return "Not Found";
-                case 500:
-                    return "Internal Server Error";
-                default:
-                    return "OK";
-            }
+    /**
+     * Serve one request; the future completes once the response is written,
+     * which with async may be after this returns
+     */
+    static CompletableFuture<Void> handleRequest(ServletRouter router, String method, String path,
+            Map<String, String> headers, String body, BufferedReader in, OutputStream out, boolean keepAlive,
+            boolean async) throws Exception {
+        // Serve static HTML files
+        if (method.equals("GET") && (path.equals("/") || path.equals("/index.html"))) {
+            serveFile(out, WEB_DIR + "/index.html", "text/html", keepAlive);
+            return CompletableFuture.completedFuture(null);
+        } else if (method.equals("GET") && path.equals("/dashboard.html")) {
+            serveFile(out, WEB_DIR + "/dashboard.html", "text/html", keepAlive);
+            return CompletableFuture.completedFuture(null);
         }
 
-        private void serveFile(PrintWriter out, String filePath, String contentType) {
-            try {
-                byte[] bytes = Files.readAllBytes(Paths.get(filePath));
-                String content = new String(bytes);
-                byte[] contentBytes = content.getBytes();
-
-                out.println("HTTP/1.1 200 OK");
-                out.println("Content-Type: " + contentType + "; charset=UTF-8");
-                out.println("Content-Length: " + contentBytes.length);
-                out.println();
-                out.print(content);
-                out.flush();
-            } catch (IOException e) {
-                String error = "{\"error\":\"File not found\"}";
-                out.println("HTTP/1.1 404 Not Found");
-                out.println("Content-Type: application/json; charset=UTF-8");
-                out.println("Content-Length: " + error.getBytes().length);
-                out.println();
-                out.println(error);
-                out.flush();
+        // Parse query parameters
+        Map<String, String> params = parseQueryParameters(path);
+        String cleanPath = path.split("\\?")[0];
+
+        // Route to servlets
+        return router.route(method, cleanPath, params, headers, body, in, out, keepAlive, async);
+    }
+
+    private static Map<String, String> parseQueryParameters(String path) {
+        Map<String, String> params = new HashMap<>();
+        if (path.contains("?")) {
+            String query = path.substring(path.indexOf("?") + 1);
+            String[] pairs = query.split("&");
+            for (String pair : pairs) {
+                String[] keyValue = pair.split("=", 2);
+                if (keyValue.length == 2) {
+                    params.put(keyValue[0], keyValue[1]);
+                }
             }
         }
+        return params;
+    }
+
+    static void sendError(OutputStream out, int code, String msg) throws IOException {
+        String json = "{\"error\":\"" + msg + "\"}";
+        writeResponse(out, code, "application/json", json.getBytes(StandardCharsets.UTF_8), false);
+    }
+
+    private static void writeResponse(OutputStream out, int code, String contentType, byte[] body,
+            boolean keepAlive) throws IOException {
+        String head = "HTTP/1.1 " + code + " " + getStatus(code) + "\r\n" +
+                "Content-Type: " + contentType + "; charset=UTF-8\r\n" +
+                "Content-Length: " + body.length + "\r\n" +
+                "Connection: " + (keepAlive ? "keep-alive" : "close") + "\r\n" +
+                "\r\n";
+        out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(body);
+        out.flush();
+    }
+
+    private static String getStatus(int code) {
+        switch (code) {
+            case 200:
+                return "OK";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 413:
+                return "Payload Too Large";
+            case 431:
+                return "Request Header Fields Too Large";
+            case 500:
+                return "Internal Server Error";
+            case 503:
+                return "Service Unavailable";
+            default:
+                return "OK";
+        }
+    }
+
+    private static void serveFile(OutputStream out, String filePath, String contentType, boolean keepAlive)
+            throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(Paths.get(filePath));
+        } catch (IOException e) {
+            String error = "{\"error\":\"File not found\"}";
+            writeResponse(out, 404, "application/json", error.getBytes(StandardCharsets.UTF_8), keepAlive);
+            return;
+        }
+        writeResponse(out, 200, contentType, bytes, keepAlive);
     }
 
     public static void main(String[] args) throws Exception {
@@ -227,6 +401,16 @@ public class WebServer {
         }
 
         int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String engine = System.getProperty("oceanview.server.engine", "blocking").trim().toLowerCase();
+        if ("nio".equals(engine)) {
+            NioWebServer server = new NioWebServer(port);
+            server.start();
+            System.out.println("Press Enter to stop...");
+            new BufferedReader(new InputStreamReader(System.in)).readLine();
+            server.stop();
+            return;
+        }
+
         WebServer server = new WebServer(port);
         server.start();
         System.out.println("Press Enter to stop...");
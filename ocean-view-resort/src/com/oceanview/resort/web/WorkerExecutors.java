@@ -0,0 +1,90 @@
+package com.oceanview.resort.web;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker Executors - Builds the executor that runs request handlers
+ *
+ * Modes (selected with -Doceanview.server.mode):
+ *   pool    - bounded thread pool with a bounded queue; excess work is rejected (default)
+ *   virtual - one virtual thread per task (JDK 21+, falls back to pool otherwise)
+ *
+ * Pool sizing: -Doceanview.server.threads (default 32), -Doceanview.server.queue (default 256)
+ */
+public class WorkerExecutors {
+    public static final String MODE_POOL = "pool";
+    public static final String MODE_VIRTUAL = "virtual";
+
+    private static final int DEFAULT_THREADS = 32;
+    private static final int DEFAULT_QUEUE = 256;
+
+    private WorkerExecutors() {
+    }
+
+    public static String configuredMode() {
+        return System.getProperty("oceanview.server.mode", MODE_POOL).trim().toLowerCase();
+    }
+
+    public static ExecutorService create(String mode) {
+        if (MODE_VIRTUAL.equals(mode)) {
+            ExecutorService virtual = newVirtualThreadExecutor();
+            if (virtual != null) {
+                return virtual;
+            }
+            System.err.println("Warning: virtual threads need JDK 21+, using bounded pool instead");
+        }
+        return newBoundedPool(Integer.getInteger("oceanview.server.threads", DEFAULT_THREADS),
+                Integer.getInteger("oceanview.server.queue", DEFAULT_QUEUE));
+    }
+
+    /**
+     * Fixed-size pool whose queue holds at most queueLimit waiting connections.
+     * When both are full execute() throws RejectedExecutionException.
+     */
+    public static ExecutorService newBoundedPool(int threads, int queueLimit) {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread t = new Thread(task, "http-worker-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueLimit)), factory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Looked up reflectively so the code still compiles and runs on JDK 17.
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        try {
+            java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public static String describe(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            return "bounded pool (" + pool.getMaximumPoolSize() + " threads, queue "
+                    + (pool.getQueue().remainingCapacity() + pool.getQueue().size()) + ")";
+        }
+        return "virtual thread per task";
+    }
+}
@@ -0,0 +1,93 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.util.FileManager;
+import com.oceanview.resort.util.JournalStore;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Room lookup and availability check latency and allocation: the old
+ * serialized list file, the journal store, and the mapped store.
+ *
+ * Usage: MappedRoomStoreBenchmark [rooms]
+ */
+public class MappedRoomStoreBenchmark {
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    interface Operation {
+        Object run(int i) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        Room.RoomType[] types = Room.RoomType.values();
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Room("R" + (1000 + i), types[i % types.length], true, 1 + i % 4, "AC, TV, WiFi"));
+        }
+        String[] numbers = rooms.stream().map(Room::getRoomNumber).toArray(String[]::new);
+
+        String listFile = "bench-rooms-" + System.nanoTime() + ".dat";
+        FileManager.getInstance().writeListToFile(rooms, listFile);
+
+        File dir = Files.createTempDirectory("room-bench").toFile();
+        JournalStore<Room> journal = new JournalStore<>(dir, "rooms", JournalCodecs.ROOMS);
+        journal.putAll(rooms);
+        MappedRoomStore mapped = new MappedRoomStore(new File(dir, "rooms.mapped"));
+        for (Room room : rooms) {
+            mapped.put(room);
+        }
+
+        LocalDate in = LocalDate.now().plusDays(10);
+        Random random = new Random(3);
+        for (int i = 0; i < roomCount; i++) {
+            LocalDate stay = in.plusDays(random.nextInt(60));
+            mapped.addStay(numbers[i], stay, stay.plusDays(3));
+        }
+
+        System.out.printf("%d rooms%n", roomCount);
+        measure("serialized list lookup", 200, i -> {
+            List<Room> all = FileManager.getInstance().readListFromFile(listFile);
+            String number = numbers[i % numbers.length];
+            return all.stream().filter(r -> r.getRoomNumber().equals(number)).findFirst().orElse(null);
+        });
+        measure("journal store lookup", 200_000, i -> journal.get(numbers[i % numbers.length]));
+        measure("mapped store lookup", 200_000, i -> mapped.find(numbers[i % numbers.length]));
+        LocalDate out = in.plusDays(5);
+        measure("mapped availability check", 200_000,
+                i -> mapped.isFree(numbers[i % numbers.length], in, out) ? Boolean.TRUE : Boolean.FALSE);
+
+        new File("data", listFile).delete();
+        journal.close();
+        mapped.close();
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    private static void measure(String label, int operations, Operation operation) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < Math.min(operations, 20_000); i++) {
+            sink = operation.run(i); // warm up
+        }
+        long id = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(id);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            sink = operation.run(i);
+        }
+        long elapsed = System.nanoTime() - t0;
+        bytes = THREADS.getThreadAllocatedBytes(id) - bytes;
+        System.out.printf("%-28s %10.2f us/op %12.1f bytes/op %10.1f MB/s allocated%s%n", label,
+                elapsed / 1e3 / operations, (double) bytes / operations, bytes / 1e6 / (elapsed / 1e9),
+                sink == null ? " (no result)" : "");
+    }
+}
@@ -0,0 +1,218 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.service.MappedAvailabilityIndex;
+import com.oceanview.resort.service.RoomAvailabilityIndex;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for MappedRoomStore rooms, occupancy and the mapped storage mode.
+ */
+public class MappedRoomStoreTest {
+
+    public static void main(String[] args) {
+        MappedRoomStoreTest test = new MappedRoomStoreTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running MappedRoomStore Tests...\n");
+
+        String[] names = {
+                "Rooms survive reopen and update in place",
+                "Store grows past its initial slots",
+                "Mapped index agrees with the in-memory index",
+                "Availability check allocates nothing",
+                "Oversized fields are rejected",
+                "RoomDAO uses the mapped store when enabled"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testReopen();
+            case 1: return testGrowth();
+            case 2: return testIndexAgreement();
+            case 3: return testNoAllocation();
+            case 4: return testOversized();
+            default: return testRoomDAO();
+        }
+    }
+
+    private boolean testReopen() throws Exception {
+        File file = tempFile();
+        MappedRoomStore store = new MappedRoomStore(file);
+        store.put(new Room("R101", Room.RoomType.SINGLE, true, 1, "AC, TV"));
+        store.put(new Room("R201", Room.RoomType.DOUBLE, true, 2, null));
+        store.put(new Room("R101", Room.RoomType.SUITE, false, 4, "Balcony, Sea view"));
+        store.close();
+
+        MappedRoomStore reopened = new MappedRoomStore(file);
+        Room updated = reopened.find("R101");
+        Room other = reopened.find("R201");
+        List<Room> all = reopened.findAll();
+        reopened.close();
+        return all.size() == 2 && all.get(0).getRoomNumber().equals("R101")
+                && updated.getRoomType() == Room.RoomType.SUITE && !updated.isAvailable()
+                && updated.getCapacity() == 4 && "Balcony, Sea view".equals(updated.getFeatures())
+                && other.getFeatures() == null && other.isAvailable()
+                && reopened.find("R999") == null;
+    }
+
+    private boolean testGrowth() throws Exception {
+        File file = tempFile();
+        MappedRoomStore store = new MappedRoomStore(file);
+        LocalDate day = LocalDate.now().plusDays(3);
+        for (int i = 0; i < 300; i++) {
+            store.put(new Room("G" + i, Room.RoomType.DELUXE, true, 2, "AC"));
+            store.addStay("G" + i, day, day.plusDays(i % 5));
+        }
+        store.close();
+
+        MappedRoomStore reopened = new MappedRoomStore(file);
+        boolean ok = reopened.size() == 300 && reopened.find("G0") != null && reopened.find("G299") != null
+                && !reopened.isFree("G7", day.plusDays(2), day.plusDays(4))
+                && reopened.isFree("G5", day.plusDays(1), day.plusDays(4));
+        reopened.close();
+        return ok;
+    }
+
+    private boolean testIndexAgreement() throws Exception {
+        MappedRoomStore store = new MappedRoomStore(tempFile());
+        for (int i = 0; i < 20; i++) {
+            store.put(new Room("R" + i, Room.RoomType.SINGLE, true, 1, "AC"));
+        }
+        RoomAvailabilityIndex memory = new RoomAvailabilityIndex();
+        MappedAvailabilityIndex mapped = new MappedAvailabilityIndex(store);
+
+        // Includes stays before the window and for a room the store does not have
+        Random random = new Random(7);
+        LocalDate start = LocalDate.now().minusYears(2);
+        Reservation[] stays = new Reservation[2000];
+        for (int i = 0; i < stays.length; i++) {
+            LocalDate in = start.plusDays(random.nextInt(3 * 365));
+            stays[i] = reservation("R" + random.nextInt(22), in, in.plusDays(random.nextInt(6)),
+                    random.nextInt(5) == 0 ? "CANCELLED" : "CONFIRMED");
+            memory.add(stays[i]);
+            mapped.add(stays[i]);
+        }
+        for (int i = 0; i < stays.length; i += 3) {
+            if (RoomAvailabilityIndex.isActive(stays[i])) {
+                memory.remove(stays[i]);
+                mapped.remove(stays[i]);
+            }
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            String room = "R" + random.nextInt(22);
+            LocalDate in = start.plusDays(random.nextInt(3 * 365));
+            LocalDate out = in.plusDays(random.nextInt(10));
+            if (memory.isAvailable(room, in, out) != mapped.isAvailable(room, in, out)) {
+                System.out.println("  mismatch for " + room + " " + in + ".." + out);
+                return false;
+            }
+        }
+        store.close();
+        return true;
+    }
+
+    private boolean testNoAllocation() throws Exception {
+        MappedRoomStore store = new MappedRoomStore(tempFile());
+        store.put(new Room("R101", Room.RoomType.SINGLE, true, 1, "AC"));
+        LocalDate in = LocalDate.now().plusDays(1);
+        LocalDate out = in.plusDays(7);
+        store.addStay("R101", in.plusDays(30), in.plusDays(32));
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        int free = 0;
+        for (int i = 0; i < 100_000; i++) {
+            free += store.isFree("R101", in, out) ? 1 : 0; // warm up
+        }
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 100_000; i++) {
+            free += store.isFree("R101", in, out) ? 1 : 0;
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+        store.close();
+        System.out.println("  " + allocated + " bytes allocated by 100000 checks");
+        // Allow for the allocation counter itself, not per-call garbage
+        return free == 200_000 && allocated < 10_000;
+    }
+
+    private boolean testOversized() throws Exception {
+        MappedRoomStore store = new MappedRoomStore(tempFile());
+        boolean longNumber = rejects(store, new Room("R-12345678901234", Room.RoomType.SINGLE, true, 1, "AC"));
+        boolean longFeatures = rejects(store, new Room("R1", Room.RoomType.SINGLE, true, 1, "x".repeat(105)));
+        boolean noNumber = rejects(store, new Room(null, Room.RoomType.SINGLE, true, 1, "AC"));
+        boolean ok = longNumber && longFeatures && noNumber && store.isEmpty();
+        store.close();
+        return ok;
+    }
+
+    private boolean testRoomDAO() throws Exception {
+        System.setProperty("oceanview.storage.rooms", "mapped");
+        try {
+            RoomDAO dao = new RoomDAO();
+            List<Room> rooms = dao.findAll();
+            Room room = dao.findByRoomNumber("R301");
+            room.setAvailable(false);
+            dao.save(room);
+            return rooms.size() == MappedRoomStore.getInstance().size() && !rooms.isEmpty()
+                    && !dao.findByRoomNumber("R301").isAvailable()
+                    && !MappedRoomStore.getInstance().find("R301").isAvailable()
+                    && new File("data", "rooms.mapped").exists();
+        } finally {
+            System.clearProperty("oceanview.storage.rooms");
+        }
+    }
+
+    private static boolean rejects(MappedRoomStore store, Room room) throws Exception {
+        try {
+            store.put(room);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static Reservation reservation(String room, LocalDate in, LocalDate out, String status) {
+        Reservation reservation = new Reservation("RES-" + room + "-" + in, null,
+                new Room(room, Room.RoomType.SINGLE, true, 1, "AC"), in, out);
+        reservation.setStatus(status);
+        return reservation;
+    }
+
+    private static File tempFile() throws Exception {
+        File file = File.createTempFile("rooms", ".mapped");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+}
@@ -0,0 +1,272 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.servlet.RoomServlet;
+import com.oceanview.resort.servlet.Servlet;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for keyset pagination and field projection of the reservation and
+ * room listings.
+ */
+public class PaginationTest {
+
+    public static void main(String[] args) {
+        PaginationTest test = new PaginationTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Pagination Tests...\n");
+
+        String[] names = {
+                "Reservation page query seeks past the cursor and limits in SQL",
+                "Projected page reads only the requested columns",
+                "File storage pages cover every reservation once, newest first",
+                "Room pages filter and limit in SQL, and page the cached catalogue",
+                "Room listing returns an items/nextCursor envelope and rejects bad input"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testKeysetQuery();
+            case 1: return testProjection();
+            case 2: return testFilePages();
+            case 3: return testRoomPages();
+            default: return testRoomEnvelope();
+        }
+    }
+
+    private boolean testKeysetQuery() throws Exception {
+        FakeDatabase db = new FakeDatabase().rows(sql -> reservationRows(3));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            ReservationDAO dao = new ReservationDAO(new DatabaseConnection(pool, SqlDialect.DERBY));
+            Page<Reservation> first = dao.findPage(null, 2, null);
+            String firstSql = db.executedSql.get(0);
+            List<Object> firstParams = db.executedParameters.get(0);
+
+            db.rows(sql -> reservationRows(1));
+            Page<Reservation> second = dao.findPage(first.getNextCursor(), 2, null);
+            String secondSql = db.executedSql.get(1);
+            List<Object> secondParams = db.executedParameters.get(1);
+
+            ReservationDAO sqlite = new ReservationDAO(new DatabaseConnection(pool, SqlDialect.SQLITE));
+            sqlite.findPage(null, 2, null);
+
+            Reservation last = first.getItems().get(1);
+            return first.getItems().size() == 2 && first.getNextCursor() != null
+                    && !firstSql.contains("WHERE")
+                    && firstSql.endsWith("ORDER BY r.reservation_date DESC, r.reservation_number DESC "
+                            + "FETCH FIRST ? ROWS ONLY")
+                    && firstParams.equals(Arrays.asList(3))
+                    && secondSql.contains("WHERE (r.reservation_date < ? OR (r.reservation_date = ? "
+                            + "AND r.reservation_number < ?))")
+                    && secondParams.equals(Arrays.asList(Date.valueOf(last.getReservationDate()),
+                            Date.valueOf(last.getReservationDate()), last.getReservationNumber(), 3))
+                    && second.getItems().size() == 1 && second.getNextCursor() == null
+                    && db.executedSql.get(2).endsWith(" LIMIT ?");
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testProjection() throws Exception {
+        FakeDatabase db = new FakeDatabase().rows(sql -> reservationRows(2));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            ReservationDAO dao = new ReservationDAO(new DatabaseConnection(pool, SqlDialect.H2));
+            Page<Reservation> page = dao.findPage(null, 5, new LinkedHashSet<>(Arrays.asList("status",
+                    "guestName")));
+            String sql = db.executedSql.get(0);
+            Reservation first = page.getItems().get(0);
+
+            boolean rejected = false;
+            try {
+                dao.findPage(null, 5, new HashSet<>(Arrays.asList("password")));
+            } catch (IllegalArgumentException expected) {
+                rejected = true;
+            }
+            System.out.println("  " + sql.substring(0, sql.indexOf(" ORDER BY")));
+            return sql.startsWith("SELECT r.reservation_number, r.reservation_date, r.status, r.guest_name "
+                    + "FROM reservations r ORDER BY") && !sql.contains("JOIN")
+                    && "CONFIRMED".equals(first.getStatus()) && "Guest 0".equals(first.getGuest().getName())
+                    && first.getRoom() == null && first.getCheckInDate() == null
+                    && page.getNextCursor() == null && rejected;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testFilePages() throws Exception {
+        ReservationDAO dao = new ReservationDAO();
+        String prefix = "PAGE-" + System.nanoTime() + "-";
+        int count = 250;
+        for (int i = 0; i < count; i++) {
+            Reservation reservation = new Reservation(prefix + i, null,
+                    new Room("R101", Room.RoomType.SINGLE, true, 1, "AC"),
+                    LocalDate.now().plusDays(1), LocalDate.now().plusDays(2));
+            // Several bookings per day, so the reservation number has to break ties
+            reservation.setReservationDate(LocalDate.of(2020, 1, 1).plusDays(i / 7));
+            reservation.setStatus("CANCELLED"); // inert for other tests sharing the data directory
+            dao.save(reservation);
+        }
+
+        List<Reservation> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Page<Reservation> page = dao.findPage(cursor, 100, null);
+            listed.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        Set<String> seen = new HashSet<>();
+        int mine = 0;
+        for (int i = 0; i < listed.size(); i++) {
+            Reservation r = listed.get(i);
+            if (!seen.add(r.getReservationNumber())) {
+                System.out.println("  listed twice: " + r.getReservationNumber());
+                return false;
+            }
+            if (i > 0 && newerOrSame(r, listed.get(i - 1))) {
+                System.out.println("  out of order at " + r.getReservationNumber());
+                return false;
+            }
+            if (r.getReservationNumber().startsWith(prefix)) mine++;
+        }
+        System.out.println("  " + listed.size() + " reservations in " + pages + " pages");
+        return mine == count && listed.size() == dao.findAll().size();
+    }
+
+    private boolean testRoomPages() throws Exception {
+        FakeDatabase db = new FakeDatabase().rows(sql -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                rows.add(FakeDatabase.row("room_number", "R20" + i, "is_available", true));
+            }
+            return rows;
+        });
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        Page<Room> dbPage;
+        try {
+            RoomDAO dao = new RoomDAO(new DatabaseConnection(pool, SqlDialect.DERBY));
+            dbPage = dao.findPage(Page.cursor("R199"), 2, new HashSet<>(Arrays.asList("isAvailable")), true);
+        } finally {
+            pool.close();
+        }
+        String sql = db.executedSql.get(0);
+
+        // File storage: page through the whole catalogue three rooms at a time
+        RoomDAO files = new RoomDAO();
+        List<String> listed = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Room> page = files.findPage(cursor, 3, null, false);
+            page.getItems().forEach(room -> listed.add(room.getRoomNumber()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        List<String> expected = new ArrayList<>();
+        files.findAll().forEach(room -> expected.add(room.getRoomNumber()));
+        expected.sort(null);
+
+        return sql.equals("SELECT room_number, is_available FROM rooms WHERE room_number > ? "
+                + "AND is_available = ? ORDER BY room_number FETCH FIRST ? ROWS ONLY")
+                && db.executedParameters.get(0).equals(Arrays.asList("R199", true, 3))
+                && dbPage.getItems().size() == 2 && dbPage.getNextCursor() != null
+                && listed.equals(expected);
+    }
+
+    private boolean testRoomEnvelope() throws Exception {
+        String page = get("/api/rooms", "limit", "2", "fields", "roomNumber%2Ccapacity", "available", "false");
+        String body = page.substring(page.indexOf("\r\n\r\n") + 4);
+        String cursor = body.substring(body.indexOf("\"nextCursor\":\"") + 14, body.lastIndexOf('"'));
+        String next = get("/api/rooms", "limit", "2", "after", cursor, "available", "false");
+        System.out.println("  " + body);
+        return page.startsWith("HTTP/1.1 200")
+                && body.matches("\\{\"items\":\\[\\{\"roomNumber\":\"[^\"]+\",\"capacity\":\\d+\\},"
+                        + "\\{\"roomNumber\":\"[^\"]+\",\"capacity\":\\d+\\}\\],\"nextCursor\":\"[\\w-]+\"\\}")
+                && next.startsWith("HTTP/1.1 200") && next.contains("\"rate\":")
+                && get("/api/rooms", "limit", "0").startsWith("HTTP/1.1 400")
+                && get("/api/rooms", "limit", "ten").startsWith("HTTP/1.1 400")
+                && get("/api/rooms", "fields", "roomNumber,secret").startsWith("HTTP/1.1 400")
+                && get("/api/rooms", "after", "***").startsWith("HTTP/1.1 400");
+    }
+
+    private static String get(String path, String... params) throws Exception {
+        Map<String, String> parameters = new HashMap<>();
+        for (int i = 0; i < params.length; i += 2) {
+            parameters.put(params[i], params[i + 1]);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RoomServlet().service(new Servlet.HttpServletRequest("GET", path, parameters, new HashMap<>(), "", null),
+                new Servlet.HttpServletResponse(out, false));
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static boolean newerOrSame(Reservation r, Reservation previous) {
+        int byDate = r.getReservationDate().compareTo(previous.getReservationDate());
+        return byDate > 0 || (byDate == 0 && r.getReservationNumber().compareTo(previous.getReservationNumber()) >= 0);
+    }
+
+    private static List<Map<String, Object>> reservationRows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(FakeDatabase.row(
+                    "reservation_number", "RES" + (100 - i),
+                    "guest_name", "Guest " + i,
+                    "room_number", "R101",
+                    "room_type", "SINGLE",
+                    "check_in_date", LocalDate.of(2026, 3, 1),
+                    "check_out_date", LocalDate.of(2026, 3, 4),
+                    "reservation_date", LocalDate.of(2026, 2, 10 - i),
+                    "number_of_nights", 3,
+                    "total_amount", 36000.0,
+                    "status", "CONFIRMED",
+                    "rm_room_number", "R101",
+                    "rm_room_type", "SINGLE",
+                    "rm_is_available", true,
+                    "rm_capacity", 1,
+                    "rm_features", "AC"));
+        }
+        return rows;
+    }
+}
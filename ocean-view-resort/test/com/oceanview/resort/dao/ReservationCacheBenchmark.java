@@ -0,0 +1,105 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.util.LruCache;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read throughput of findByReservationNumber with Zipf-distributed keys,
+ * without a cache and with LRU caches of a few sizes. Each database lookup
+ * costs a simulated round trip.
+ *
+ * Usage: ReservationCacheBenchmark [reservations] [latencyMicros] [threads]
+ */
+public class ReservationCacheBenchmark {
+    private static final double SKEW = 0.99;
+    private static final int LOOKUPS_PER_THREAD = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        int reservations = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        double[] cdf = zipf(reservations, SKEW);
+        FakeDatabase db = new FakeDatabase().latencyMicros(latency).rows(sql -> Collections.singletonList(
+                FakeDatabase.row(
+                        "reservation_number", "RES-1",
+                        "guest_name", "Guest",
+                        "room_number", "R101",
+                        "room_type", "SINGLE",
+                        "check_in_date", LocalDate.of(2030, 1, 1),
+                        "check_out_date", LocalDate.of(2030, 1, 3),
+                        "reservation_date", LocalDate.of(2029, 12, 1),
+                        "number_of_nights", 2,
+                        "total_amount", 10000.0,
+                        "status", "CONFIRMED",
+                        "rm_room_number", "R101",
+                        "rm_room_type", "SINGLE",
+                        "rm_is_available", true,
+                        "rm_capacity", 1,
+                        "rm_features", "AC")));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, threads, threads, 5000, 0);
+        DatabaseConnection connection = new DatabaseConnection(pool, SqlDialect.GENERIC);
+
+        System.out.printf("%d reservations, zipf s=%.2f, %d us per query, %d threads%n", reservations, SKEW,
+                latency, threads);
+        for (int capacity : new int[] {0, 1_000, 10_000}) {
+            LruCache<String, Reservation> cache = new LruCache<>(capacity, 300, TimeUnit.SECONDS);
+            ReservationDAO dao = new ReservationDAO(connection, cache);
+            run(dao, cdf, threads); // warm up
+            db.resetCounters();
+            double rate = run(dao, cdf, threads);
+            System.out.printf("cache %6d: %10.0f lookups/sec, hit ratio %.3f, %d queries%n", capacity, rate,
+                    cache.getHitRatio(), db.statementsExecuted.get());
+        }
+        pool.close();
+    }
+
+    private static double run(ReservationDAO dao, double[] cdf, int threads) throws Exception {
+        CountDownLatch done = new CountDownLatch(threads);
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final Random random = new Random(t);
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < LOOKUPS_PER_THREAD; i++) {
+                        dao.findByReservationNumber("RES-" + sample(cdf, random));
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+        return threads * LOOKUPS_PER_THREAD / ((System.nanoTime() - t0) / 1e9);
+    }
+
+    private static double[] zipf(int n, double s) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, s);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, Random random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,129 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.model.Reservation;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that reservation queries load rooms without one query per row.
+ */
+public class ReservationDAOQueryTest {
+    private static final int ROOMS = 5;
+
+    public static void main(String[] args) {
+        ReservationDAOQueryTest test = new ReservationDAOQueryTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running ReservationDAO Query Tests...\n");
+
+        String[] names = {
+                "findAll statement count independent of row count",
+                "findByGuestName statement count independent of row count",
+                "findByDateRange statement count independent of row count",
+                "Rooms materialized once per query from joined columns"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private interface Query {
+        List<Reservation> run(ReservationDAO dao) throws Exception;
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return constantStatements(dao -> dao.findAll());
+            case 1: return constantStatements(dao -> dao.findByGuestName("guest"));
+            case 2: return constantStatements(dao -> dao.findByDateRange(LocalDate.of(2026, 1, 1),
+                    LocalDate.of(2026, 12, 31)));
+            default: return testIdentityMap();
+        }
+    }
+
+    private boolean constantStatements(Query query) throws Exception {
+        int small = statementsFor(query, 10);
+        int large = statementsFor(query, 1000);
+        System.out.println("  statements: 10 rows -> " + small + ", 1000 rows -> " + large);
+        return small == 1 && large == 1;
+    }
+
+    private int statementsFor(Query query, int rowCount) throws Exception {
+        FakeDatabase db = new FakeDatabase().rows(sql -> reservationRows(sql, rowCount));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            List<Reservation> result = query.run(new ReservationDAO(new DatabaseConnection(pool)));
+            return result.size() == rowCount ? db.statementsExecuted.get() : -1;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testIdentityMap() throws Exception {
+        FakeDatabase db = new FakeDatabase().rows(sql -> reservationRows(sql, 100));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            List<Reservation> all = new ReservationDAO(new DatabaseConnection(pool)).findAll();
+            long distinctRooms = all.stream().map(r -> System.identityHashCode(r.getRoom())).distinct().count();
+            Reservation first = all.get(0);
+            return distinctRooms == ROOMS
+                    && first.getRoom() == all.get(ROOMS).getRoom()
+                    && first.getRoom().getCapacity() == 3
+                    && !first.getRoom().isAvailable()
+                    && "Sea view".equals(first.getRoom().getFeatures());
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static List<Map<String, Object>> reservationRows(String sql, int count) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        if (sql == null || !sql.contains("FROM reservations")) {
+            return rows;
+        }
+        for (int i = 0; i < count; i++) {
+            String room = "R30" + (i % ROOMS);
+            rows.add(FakeDatabase.row(
+                    "reservation_number", "RES" + i,
+                    "guest_name", "guest " + i,
+                    "room_number", room,
+                    "room_type", "DELUXE",
+                    "check_in_date", LocalDate.of(2026, 3, 1),
+                    "check_out_date", LocalDate.of(2026, 3, 4),
+                    "reservation_date", LocalDate.of(2026, 2, 1),
+                    "number_of_nights", 3,
+                    "total_amount", 36000.0,
+                    "status", "CONFIRMED",
+                    "rm_room_number", room,
+                    "rm_room_type", "DELUXE",
+                    "rm_is_available", false,
+                    "rm_capacity", 3,
+                    "rm_features", "Sea view"));
+        }
+        return rows;
+    }
+}
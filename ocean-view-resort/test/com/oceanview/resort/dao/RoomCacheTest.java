@@ -0,0 +1,228 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.model.Room;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tests for RoomCache counters, copy isolation and coherence with RoomDAO saves.
+ */
+public class RoomCacheTest {
+    private static final int ROOMS = 8;
+    private static final int WRITES_PER_ROOM = 300;
+    private static final int READERS = 6;
+
+    public static void main(String[] args) {
+        RoomCacheTest test = new RoomCacheTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running RoomCache Tests...\n");
+
+        String[] names = {
+                "Repeated lookups are hits and return copies",
+                "Save invalidates the room and the full list",
+                "Load racing an invalidation is not cached",
+                "Concurrent readers never see a room older than the last save"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testHitsAndCopies();
+            case 1: return testSaveInvalidates();
+            case 2: return testRacingLoad();
+            default: return testConcurrentCoherence();
+        }
+    }
+
+    private boolean testHitsAndCopies() throws Exception {
+        RoomCache cache = new RoomCache();
+        AtomicInteger loads = new AtomicInteger();
+        RoomCache.Loader<Room> loader = () -> {
+            loads.incrementAndGet();
+            return new Room("R101", Room.RoomType.SINGLE, true, 1, "AC");
+        };
+
+        Room first = cache.get("R101", loader);
+        first.setAvailable(false); // must not leak into the cache
+        Room second = cache.get("R101", loader);
+        Room third = cache.get("R101", loader);
+        return loads.get() == 1 && second.isAvailable() && second != third
+                && cache.getHitCount() == 2 && cache.getMissCount() == 1;
+    }
+
+    private boolean testSaveInvalidates() throws Exception {
+        RoomDAO dao = new RoomDAO(DatabaseConnection.getInstance(), new RoomCache());
+        String number = "C900";
+        dao.findAll(); // seed the default rooms before adding test rooms
+        dao.save(new Room(number, Room.RoomType.SINGLE, false, 1, "v0"));
+        List<Room> before = dao.findAll();
+        dao.findByRoomNumber(number);
+        long evictions = dao.getCache().getEvictionCount();
+
+        dao.save(new Room(number, Room.RoomType.SINGLE, false, 1, "v1"));
+        boolean evicted = dao.getCache().getEvictionCount() == evictions + 2;
+        Room after = dao.findByRoomNumber(number);
+        Room listed = dao.findAll().stream().filter(r -> r.getRoomNumber().equals(number)).findFirst().orElse(null);
+        return evicted && "v1".equals(after.getFeatures()) && listed != null && "v1".equals(listed.getFeatures())
+                && before.stream().anyMatch(r -> r.getRoomNumber().equals(number));
+    }
+
+    private boolean testRacingLoad() throws Exception {
+        RoomCache cache = new RoomCache();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            try {
+                cache.get("R101", () -> {
+                    loading.countDown();
+                    try {
+                        invalidated.await();
+                    } catch (InterruptedException e) {
+                        throw new java.io.IOException(e);
+                    }
+                    return new Room("R101", Room.RoomType.SINGLE, true, 1, "old");
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        reader.start();
+        loading.await();
+        cache.invalidate("R101");
+        invalidated.countDown();
+        reader.join();
+
+        Room reloaded = cache.get("R101", () -> new Room("R101", Room.RoomType.SINGLE, false, 1, "new"));
+        return "new".equals(reloaded.getFeatures()) && cache.getMissCount() == 2;
+    }
+
+    private boolean testConcurrentCoherence() throws Exception {
+        RoomDAO dao = new RoomDAO(DatabaseConnection.getInstance(), new RoomCache());
+        AtomicLongArray committed = new AtomicLongArray(ROOMS);
+        for (int i = 0; i < ROOMS; i++) {
+            dao.save(room(i, 0));
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicInteger stale = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(ROOMS + READERS);
+
+        // One writer per room, so each room's versions only go up
+        for (int w = 0; w < ROOMS; w++) {
+            final int room = w;
+            new Thread(() -> {
+                try {
+                    for (int v = 1; v <= WRITES_PER_ROOM; v++) {
+                        dao.save(room(room, v));
+                        committed.set(room, v);
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        for (int r = 0; r < READERS; r++) {
+            final int seed = r;
+            new Thread(() -> {
+                try {
+                    int i = seed;
+                    while (writing.get()) {
+                        int room = i++ % ROOMS;
+                        long floor = committed.get(room);
+                        if (i % 4 == 0) {
+                            long[] floors = new long[ROOMS];
+                            for (int k = 0; k < ROOMS; k++) {
+                                floors[k] = committed.get(k);
+                            }
+                            for (Room listed : dao.findAll()) {
+                                int index = index(listed);
+                                if (index >= 0 && version(listed) < floors[index]) {
+                                    stale.incrementAndGet();
+                                }
+                            }
+                        }
+                        Room found = dao.findByRoomNumber(number(room));
+                        if (version(found) < floor || found.isAvailable() != (version(found) % 2 == 0)) {
+                            stale.incrementAndGet();
+                        }
+                        reads.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        while (done.getCount() > READERS) {
+            Thread.sleep(10);
+        }
+        writing.set(false);
+        done.await(60, TimeUnit.SECONDS);
+
+        // Settled state matches the store exactly
+        boolean settled = true;
+        for (int i = 0; i < ROOMS; i++) {
+            settled &= version(dao.findByRoomNumber(number(i))) == WRITES_PER_ROOM;
+            dao.save(new Room(number(i), Room.RoomType.SINGLE, false, 1, "test room"));
+        }
+        System.out.println("  " + reads.get() + " reads, " + stale.get() + " stale; " + dao.getCache().getStats());
+        return errors.get() == 0 && stale.get() == 0 && settled && dao.getCache().getHitCount() > 0;
+    }
+
+    private static Room room(int index, int version) {
+        return new Room(number(index), Room.RoomType.SINGLE, version % 2 == 0, 1, "v" + version);
+    }
+
+    private static String number(int index) {
+        return "C" + (901 + index);
+    }
+
+    private static int index(Room room) {
+        String number = room.getRoomNumber();
+        if (!number.startsWith("C9") || !room.getFeatures().startsWith("v")) {
+            return -1;
+        }
+        int index = Integer.parseInt(number.substring(1)) - 901;
+        return index < ROOMS ? index : -1;
+    }
+
+    private static long version(Room room) {
+        return Long.parseLong(room.getFeatures().substring(1));
+    }
+}
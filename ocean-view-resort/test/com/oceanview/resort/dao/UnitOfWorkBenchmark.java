@@ -0,0 +1,62 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.time.LocalDate;
+
+/**
+ * The writes of one booking, a reservation and its room, as two auto-commit
+ * statements (how createReservation wrote them before) versus one unit of
+ * work. The fake database charges a simulated time per statement and per
+ * commit (the log flush a durable engine does); the waits are sleeps, which
+ * the OS rounds up to its timer tick (about 1 ms on Linux).
+ *
+ * Usage: UnitOfWorkBenchmark [bookings] [statementMicros] [commitMicros]
+ */
+public class UnitOfWorkBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        long statementMicros = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        long commitMicros = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+        System.out.printf("%,d bookings, %d us per statement, %d us per commit%n", count, statementMicros,
+                commitMicros);
+        for (boolean unit : new boolean[] {false, true}) {
+            FakeDatabase db = new FakeDatabase();
+            ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 5000, 0);
+            DatabaseConnection connection = new DatabaseConnection(pool, SqlDialect.DERBY);
+            ReservationDAO reservations = new ReservationDAO(connection);
+            RoomDAO rooms = new RoomDAO(connection);
+            db.latencyMicros(statementMicros).commitLatencyMicros(commitMicros);
+
+            LocalDate checkIn = LocalDate.now().plusDays(30);
+            long t0 = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                Room room = new Room(String.format("B%05d", i), Room.RoomType.DOUBLE, false, 2, "AC");
+                Reservation reservation = new Reservation("RES-B" + i,
+                        new Guest("Guest " + i, "Galle", "0712345678", "guest@example.com", "901234567V"),
+                        room, checkIn, checkIn.plusDays(3));
+                if (unit) {
+                    UnitOfWork.run(() -> {
+                        reservations.save(reservation);
+                        rooms.save(room);
+                    });
+                } else {
+                    reservations.save(reservation);
+                    rooms.save(room);
+                }
+            }
+            double micros = (System.nanoTime() - t0) / 1e3 / count;
+            System.out.printf("%-22s %8.1f us per booking, %4.2f commits, %4.2f statements per booking%n",
+                    unit ? "unit of work" : "auto-commit x 2", micros, (double) db.commits.get() / count,
+                    (double) db.statementsExecuted.get() / count);
+            pool.close();
+        }
+    }
+}
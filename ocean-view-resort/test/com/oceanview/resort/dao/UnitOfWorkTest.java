@@ -0,0 +1,233 @@
+package com.oceanview.resort.dao;
+
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.util.LruCache;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for UnitOfWork: one connection and one commit for several DAO
+ * writes, and rollback when any of them, or the commit, fails.
+ */
+public class UnitOfWorkTest {
+
+    public static void main(String[] args) {
+        UnitOfWorkTest test = new UnitOfWorkTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Unit of Work Tests...\n");
+
+        String[] names = {
+                "Reservation and room writes share one connection and one commit",
+                "A failed room write rolls back the reservation write",
+                "A failed commit rolls back and leaves the cache untouched",
+                "run falls back to file storage when the transaction fails",
+                "File storage writes are held until commit and dropped without it",
+                "Units do not nest and are cleared from the thread on close"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testOneCommit();
+            case 1: return testFailedWrite();
+            case 2: return testFailedCommit();
+            case 3: return testFallback();
+            case 4: return testFileStorage();
+            default: return testThreadBinding();
+        }
+    }
+
+    private boolean testOneCommit() throws Exception {
+        FakeDatabase db = new FakeDatabase();
+        // One pooled connection: a second borrow inside the unit would time out
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 200, 0);
+        try {
+            DatabaseConnection connection = new DatabaseConnection(pool, SqlDialect.DERBY);
+            ReservationDAO reservations = cached(connection);
+            RoomDAO rooms = new RoomDAO(connection);
+            Reservation reservation = reservation("RES-UOW-1");
+
+            reservations.save(reservation);
+            rooms.save(reservation.getRoom());
+            int autoCommits = db.commits.get();
+
+            db.resetCounters();
+            try (UnitOfWork work = UnitOfWork.begin()) {
+                reservations.save(reservation);
+                rooms.save(reservation.getRoom());
+                if (db.commits.get() != 0) {
+                    return false;
+                }
+                work.commit();
+            }
+            System.out.println("  commits: auto-commit " + autoCommits + ", unit " + db.commits.get());
+            return autoCommits == 2 && db.commits.get() == 1 && db.rollbacks.get() == 0
+                    && db.connectionsOpened.get() == 1
+                    && reservations.findByReservationNumber("RES-UOW-1") != null;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testFailedWrite() throws Exception {
+        FakeDatabase db = new FakeDatabase().failOn(sql -> sql.matches("(?s)(INSERT INTO|UPDATE|MERGE INTO) rooms.*"));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 200, 0);
+        try {
+            DatabaseConnection connection = new DatabaseConnection(pool, SqlDialect.DERBY);
+            ReservationDAO reservations = cached(connection);
+            Reservation reservation = reservation("RES-UOW-2");
+
+            boolean thrown = false;
+            try (UnitOfWork work = UnitOfWork.begin()) {
+                reservations.save(reservation);
+                new RoomDAO(connection).save(reservation.getRoom());
+                work.commit();
+            } catch (IOException e) {
+                thrown = true;
+            }
+            // Not cached, and not written to file storage in place of the database
+            return thrown && db.commits.get() == 0 && db.rollbacks.get() == 1
+                    && reservations.findByReservationNumber("RES-UOW-2") == null
+                    && new ReservationDAO().findByReservationNumber("RES-UOW-2") == null;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testFailedCommit() throws Exception {
+        FakeDatabase db = new FakeDatabase().failCommits(true);
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 200, 0);
+        try {
+            ReservationDAO reservations = cached(new DatabaseConnection(pool, SqlDialect.DERBY));
+
+            boolean thrown = false;
+            try (UnitOfWork work = UnitOfWork.begin()) {
+                reservations.save(reservation("RES-UOW-3"));
+                work.commit();
+            } catch (SQLException e) {
+                thrown = true;
+            }
+            return thrown && db.rollbacks.get() == 1
+                    && reservations.findByReservationNumber("RES-UOW-3") == null;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testFallback() throws Exception {
+        FakeDatabase db = new FakeDatabase().failOn(sql -> sql.contains("reservations") && !sql.startsWith("SELECT"));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 200, 0);
+        try {
+            ReservationDAO reservations = new ReservationDAO(new DatabaseConnection(pool, SqlDialect.DERBY));
+            Reservation reservation = reservation("RES-UOW-4");
+
+            UnitOfWork.run(() -> reservations.save(reservation));
+            Reservation stored = new ReservationDAO().findByReservationNumber("RES-UOW-4");
+            return db.rollbacks.get() == 1 && stored != null && UnitOfWork.current() == null;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testFileStorage() throws Exception {
+        // No JDBC driver in the test classpath: the default DAO stores to files
+        ReservationDAO files = new ReservationDAO();
+        String committed = "RES-UOW-5-" + System.nanoTime();
+        String dropped = "RES-UOW-6-" + System.nanoTime();
+
+        boolean heldUntilCommit;
+        try (UnitOfWork work = UnitOfWork.begin()) {
+            files.save(reservation(committed));
+            heldUntilCommit = new ReservationDAO().findByReservationNumber(committed) == null;
+            work.commit();
+        }
+        boolean closedUncommitted;
+        try (UnitOfWork work = UnitOfWork.begin()) {
+            files.save(reservation(dropped));
+            closedUncommitted = !work.isCommitted();
+        }
+        return heldUntilCommit && closedUncommitted && files.findByReservationNumber(committed) != null
+                && files.findByReservationNumber(dropped) == null;
+    }
+
+    private boolean testThreadBinding() throws Exception {
+        boolean nestedRejected = false;
+        UnitOfWork work = UnitOfWork.begin();
+        try {
+            UnitOfWork.begin();
+        } catch (IllegalStateException e) {
+            nestedRejected = true;
+        } finally {
+            work.close();
+        }
+
+        boolean commitAfterCloseRejected = false;
+        try {
+            work.commit();
+        } catch (IllegalStateException e) {
+            commitAfterCloseRejected = true;
+        }
+
+        boolean clearedAfterFailure = false;
+        try {
+            UnitOfWork.run(() -> {
+                throw new IllegalArgumentException("not a storage failure");
+            });
+        } catch (IllegalArgumentException e) {
+            clearedAfterFailure = UnitOfWork.current() == null;
+        }
+        return nestedRejected && commitAfterCloseRejected && clearedAfterFailure && UnitOfWork.current() == null;
+    }
+
+    /**
+     * A DAO with a lookup cache; the fake database returns no rows, so a
+     * lookup only finds what the cache holds
+     */
+    private static ReservationDAO cached(DatabaseConnection connection) {
+        return new ReservationDAO(connection, new LruCache<>(100, 300, TimeUnit.SECONDS));
+    }
+
+    /**
+     * A cancelled reservation, so records left in the shared data directory
+     * do not block rooms for other tests
+     */
+    private static Reservation reservation(String number) {
+        LocalDate checkIn = LocalDate.now().plusDays(40);
+        Reservation reservation = new Reservation(number,
+                new Guest("Nimal Perera", "12, Galle Rd", "0712345678", "nimal@example.com", "901234567V"),
+                new Room("R101", Room.RoomType.SINGLE, true, 1, "AC"), checkIn, checkIn.plusDays(2));
+        reservation.setStatus("CANCELLED");
+        return reservation;
+    }
+}
@@ -0,0 +1,87 @@
+package com.oceanview.resort.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares one shared connection with the pool under concurrent queries.
+ *
+ * The simulated engine allows one statement at a time per connection, as
+ * embedded drivers do, so a shared connection serializes every caller.
+ *
+ * Usage: ConnectionPoolBenchmark [queriesPerThread] [latencyMicros]
+ */
+public class ConnectionPoolBenchmark {
+
+    private interface Source {
+        Connection borrow() throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int queries = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        int[] threadCounts = { 1, 8, 32 };
+
+        System.out.println("Connection source  threads   queries/sec    p50 ms    p99 ms");
+        for (int threads : threadCounts) {
+            FakeDatabase shared = new FakeDatabase().latencyMicros(latency).serializePerConnection(true);
+            Connection single = shared.newConnection();
+            run("single", threads, queries, () -> single);
+
+            FakeDatabase pooled = new FakeDatabase().latencyMicros(latency).serializePerConnection(true);
+            ConnectionPool pool = new ConnectionPool(pooled::newConnection, Math.min(2, threads), threads, 5000, 0);
+            run("pool", threads, queries, pool::getConnection);
+            System.out.println("    pool stats: " + pool.getStats());
+            pool.close();
+        }
+    }
+
+    private static void run(String label, int threads, int queries, Source source) throws InterruptedException {
+        List<long[]> samples = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            long[] latencies = new long[queries];
+            samples.add(latencies);
+            new Thread(() -> {
+                for (int i = 0; i < queries; i++) {
+                    long t0 = System.nanoTime();
+                    Connection conn = null;
+                    try {
+                        conn = source.borrow();
+                        PreparedStatement stmt = conn.prepareStatement("SELECT * FROM rooms WHERE room_number = ?");
+                        stmt.setString(1, "R101");
+                        stmt.executeQuery();
+                    } catch (SQLException e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        // The shared connection stays open; pooled ones go back to the pool
+                        if (conn != null && label.equals("pool")) {
+                            try {
+                                conn.close();
+                            } catch (SQLException ignored) {
+                                // Ignore
+                            }
+                        }
+                    }
+                    latencies[i] = System.nanoTime() - t0;
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] all = samples.stream().flatMapToLong(java.util.Arrays::stream).sorted().toArray();
+        System.out.printf("%-17s %8d %13.0f %9.2f %9.2f%s%n", label, threads, all.length / seconds,
+                all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6,
+                errors.get() > 0 ? "  errors=" + errors.get() : "");
+    }
+}
@@ -0,0 +1,191 @@
+package com.oceanview.resort.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for ConnectionPool borrowing, limits, validation and leak detection.
+ */
+public class ConnectionPoolTest {
+
+    public static void main(String[] args) {
+        ConnectionPoolTest test = new ConnectionPoolTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running ConnectionPool Tests...\n");
+
+        String[] names = {
+                "Returned connections are reused",
+                "Exhausted pool times out and counts waiters",
+                "Waiting borrower gets a returned connection",
+                "Invalid connection replaced on borrow",
+                "Open transaction rolled back on return",
+                "Returned handle cannot be used again",
+                "Leaked connection reported"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testReuse();
+            case 1: return testTimeout();
+            case 2: return testWaiterHandoff();
+            case 3: return testValidationOnBorrow();
+            case 4: return testRollbackOnReturn();
+            case 5: return testReturnedHandleUnusable();
+            default: return testLeakDetection();
+        }
+    }
+
+    private boolean testReuse() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 4, 1000, 0);
+        for (int i = 0; i < 10; i++) {
+            try (Connection conn = pool.getConnection()) {
+                conn.prepareStatement("SELECT 1").executeQuery();
+            }
+        }
+        boolean ok = db.connectionsOpened.get() == 1 && pool.getIdleCount() == 1
+                && pool.getActiveCount() == 0 && pool.getBorrowCount() == 10;
+        pool.close();
+        return ok;
+    }
+
+    private boolean testTimeout() throws Exception {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 0, 2, 200, 0);
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+
+        int[] waitersSeen = { 0 };
+        Thread observer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            waitersSeen[0] = pool.getWaiterCount();
+        });
+        observer.start();
+
+        long start = System.currentTimeMillis();
+        boolean timedOut = false;
+        try {
+            pool.getConnection();
+        } catch (SQLException e) {
+            timedOut = true;
+        }
+        long waited = System.currentTimeMillis() - start;
+        observer.join();
+        a.close();
+        b.close();
+
+        boolean ok = timedOut && waited >= 190 && waitersSeen[0] == 1 && pool.getTimeoutCount() == 1
+                && db.connectionsOpened.get() == 2;
+        pool.close();
+        return ok;
+    }
+
+    private boolean testWaiterHandoff() throws Exception {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 0, 1, 5000, 0);
+        Connection held = pool.getConnection();
+        CountDownLatch borrowed = new CountDownLatch(1);
+        new Thread(() -> {
+            try (Connection conn = pool.getConnection()) {
+                // The handed-off connection must be open for the waiter
+                if (!conn.isClosed()) {
+                    borrowed.countDown();
+                }
+            } catch (SQLException e) {
+                // Latch stays up and the test fails
+            }
+        }).start();
+
+        Thread.sleep(100);
+        held.close();
+        boolean ok = borrowed.await(2, java.util.concurrent.TimeUnit.SECONDS)
+                && pool.getMaxWaitMillis() >= 90 && db.connectionsOpened.get() == 1;
+        pool.close();
+        return ok;
+    }
+
+    private boolean testValidationOnBorrow() throws SQLException {
+        FakeDatabase db = new FakeDatabase().valid(false);
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 2, 1000, 0);
+        db.valid(true);
+        try (Connection conn = pool.getConnection()) {
+            if (!conn.isValid(1)) return false;
+        }
+        boolean ok = db.connectionsOpened.get() == 2 && pool.getIdleCount() == 1;
+        pool.close();
+        return ok;
+    }
+
+    private boolean testRollbackOnReturn() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            conn.prepareStatement("UPDATE rooms SET is_available = false").executeUpdate();
+        }
+        boolean ok;
+        try (Connection conn = pool.getConnection()) {
+            ok = db.rollbacks.get() == 1 && conn.getAutoCommit();
+        }
+        pool.close();
+        return ok;
+    }
+
+    private boolean testReturnedHandleUnusable() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close(); // second close must not return the connection twice
+        boolean rejected = false;
+        try {
+            conn.prepareStatement("SELECT 1");
+        } catch (SQLException e) {
+            rejected = true;
+        }
+        boolean ok = rejected && conn.isClosed() && pool.getIdleCount() == 1;
+        pool.close();
+        return ok;
+    }
+
+    private boolean testLeakDetection() throws Exception {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 0, 2, 1000, 150);
+        Connection leaked = pool.getConnection();
+        System.out.println("  (a leak warning with stack trace is expected below)");
+        Thread.sleep(500);
+        boolean ok = pool.getLeakCount() == 1 && pool.getActiveCount() == 1;
+        leaked.close();
+        pool.close();
+        return ok;
+    }
+}
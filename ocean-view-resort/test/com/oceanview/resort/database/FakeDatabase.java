@@ -0,0 +1,291 @@
+package com.oceanview.resort.database;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Test double for JDBC: hands out proxy Connections that count the work done
+ * on them, answer queries from a caller-supplied row source and can simulate
+ * latency or failures. No SQL is interpreted beyond what the row source does.
+ */
+public class FakeDatabase {
+    public final AtomicInteger connectionsOpened = new AtomicInteger();
+    public final AtomicInteger statementsPrepared = new AtomicInteger();
+    public final AtomicInteger statementsExecuted = new AtomicInteger();
+    public final AtomicInteger statementsClosed = new AtomicInteger();
+    public final AtomicInteger commits = new AtomicInteger();
+    public final AtomicInteger rollbacks = new AtomicInteger();
+    public final List<String> executedSql = Collections.synchronizedList(new ArrayList<>());
+    /** Parameters bound for each entry of executedSql, in index order */
+    public final List<List<Object>> executedParameters = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile Function<String, List<Map<String, Object>>> rows = sql -> new ArrayList<>();
+    private volatile Predicate<String> failOn = sql -> false;
+    private volatile long latencyMicros;
+    private volatile long commitLatencyMicros;
+    private volatile long prepareCostMicros;
+    private volatile boolean failCommits;
+    private volatile boolean serializePerConnection;
+    private volatile boolean valid = true;
+
+    /** Rows returned for each query, keyed by lower-case column name */
+    public FakeDatabase rows(Function<String, List<Map<String, Object>>> rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    /** Statements whose SQL matches throw SQLException when executed */
+    public FakeDatabase failOn(Predicate<String> failOn) {
+        this.failOn = failOn;
+        return this;
+    }
+
+    /** Simulated time spent in the engine for each execute call */
+    public FakeDatabase latencyMicros(long latencyMicros) {
+        this.latencyMicros = latencyMicros;
+        return this;
+    }
+
+    /** Simulated time to make a commit durable (log flush), explicit or auto-commit */
+    public FakeDatabase commitLatencyMicros(long commitLatencyMicros) {
+        this.commitLatencyMicros = commitLatencyMicros;
+        return this;
+    }
+
+    /**
+     * Simulated parse and plan work for each prepareStatement call, spent
+     * on the calling thread's CPU like an embedded engine's compiler
+     */
+    public FakeDatabase prepareCostMicros(long prepareCostMicros) {
+        this.prepareCostMicros = prepareCostMicros;
+        return this;
+    }
+
+    /** Explicit commits throw SQLException, e.g. the log device failing */
+    public FakeDatabase failCommits(boolean failCommits) {
+        this.failCommits = failCommits;
+        return this;
+    }
+
+    /** Like embedded drivers, allow only one statement at a time per connection */
+    public FakeDatabase serializePerConnection(boolean serialize) {
+        this.serializePerConnection = serialize;
+        return this;
+    }
+
+    /** Result of Connection.isValid for connections opened from now on */
+    public FakeDatabase valid(boolean valid) {
+        this.valid = valid;
+        return this;
+    }
+
+    public void resetCounters() {
+        statementsPrepared.set(0);
+        statementsExecuted.set(0);
+        statementsClosed.set(0);
+        commits.set(0);
+        rollbacks.set(0);
+        executedSql.clear();
+        executedParameters.clear();
+    }
+
+    public Connection newConnection() {
+        connectionsOpened.incrementAndGet();
+        final boolean[] closed = { false };
+        final boolean[] autoCommit = { true };
+        final boolean isValid = valid;
+        final Object engineLock = new Object();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close": closed[0] = true; return null;
+                        case "isClosed": return closed[0];
+                        case "isValid": return isValid && !closed[0];
+                        case "getAutoCommit": return autoCommit[0];
+                        case "setAutoCommit": autoCommit[0] = (Boolean) args[0]; return null;
+                        case "commit":
+                            if (failCommits) throw new SQLException("Injected commit failure");
+                            commits.incrementAndGet();
+                            sleep(commitLatencyMicros);
+                            return null;
+                        case "rollback": rollbacks.incrementAndGet(); return null;
+                        case "prepareStatement":
+                            statementsPrepared.incrementAndGet();
+                            busy(prepareCostMicros);
+                            return statement(PreparedStatement.class, (String) args[0], engineLock, autoCommit);
+                        case "createStatement":
+                            statementsPrepared.incrementAndGet();
+                            return statement(Statement.class, null, engineLock, autoCommit);
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        case "toString": return "FakeConnection";
+                        default: return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private Object statement(Class<? extends Statement> type, String preparedSql, Object engineLock,
+            boolean[] autoCommit) {
+        final List<Object[]> batch = new ArrayList<>();
+        final Map<Integer, Object> parameters = new java.util.TreeMap<>();
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            String name = method.getName();
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            if (name.startsWith("set") && args != null && args.length == 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], args[1]);
+                return null;
+            }
+            if (name.startsWith("execute")) {
+                executedParameters.add(new ArrayList<>(parameters.values()));
+            }
+            switch (name) {
+                case "executeQuery":
+                    return resultSet(execute(sql, engineLock, autoCommit));
+                case "executeUpdate":
+                case "execute":
+                    execute(sql, engineLock, autoCommit);
+                    return "execute".equals(name) ? (Object) Boolean.FALSE : (Object) 1;
+                case "addBatch":
+                    batch.add(args);
+                    return null;
+                case "executeBatch":
+                    execute(sql, engineLock, autoCommit);
+                    int[] counts = new int[batch.size()];
+                    java.util.Arrays.fill(counts, 1);
+                    batch.clear();
+                    return counts;
+                case "clearParameters":
+                    parameters.clear();
+                    return null;
+                case "close":
+                    statementsClosed.incrementAndGet();
+                    return null;
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default:
+                    return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    private List<Map<String, Object>> execute(String sql, Object engineLock, boolean[] autoCommit)
+            throws SQLException {
+        statementsExecuted.incrementAndGet();
+        executedSql.add(sql);
+        if (failOn.test(sql)) {
+            throw new SQLException("Injected failure: " + sql);
+        }
+        if (serializePerConnection) {
+            synchronized (engineLock) {
+                spin();
+            }
+        } else {
+            spin();
+        }
+        if (autoCommit[0] && sql != null && !sql.trim().toUpperCase().startsWith("SELECT")) {
+            commits.incrementAndGet();
+            sleep(commitLatencyMicros);
+        }
+        return rows.apply(sql);
+    }
+
+    private void spin() {
+        sleep(latencyMicros);
+    }
+
+    private static void busy(long micros) {
+        long end = System.nanoTime() + micros * 1000;
+        while (micros > 0 && System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void sleep(long micros) {
+        if (micros <= 0) return;
+        try {
+            Thread.sleep(micros / 1000, (int) (micros % 1000) * 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read-only ResultSet over a list of rows
+     */
+    public static ResultSet resultSet(List<Map<String, Object>> rows) {
+        final int[] cursor = { -1 };
+        final boolean[] wasNull = { false };
+        final boolean[] closed = { false };
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("next")) {
+                        return ++cursor[0] < rows.size();
+                    }
+                    if (name.equals("close") || name.equals("isClosed")) {
+                        closed[0] |= name.equals("close");
+                        return name.equals("close") ? null : (Object) closed[0];
+                    }
+                    if (name.equals("hashCode") || name.equals("equals")) {
+                        return name.equals("hashCode") ? System.identityHashCode(proxy) : proxy == args[0];
+                    }
+                    if (name.equals("wasNull")) {
+                        return wasNull[0];
+                    }
+                    if (name.startsWith("get") && args != null && args.length == 1) {
+                        Map<String, Object> row = rows.get(cursor[0]);
+                        Object value = args[0] instanceof Integer
+                                ? new ArrayList<>(row.values()).get((Integer) args[0] - 1)
+                                : row.get(((String) args[0]).toLowerCase());
+                        wasNull[0] = value == null;
+                        return convert(value, method.getReturnType());
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+    }
+
+    /** Convenience for building a row */
+    public static Map<String, Object> row(Object... keyValues) {
+        Map<String, Object> row = new java.util.LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            row.put(((String) keyValues[i]).toLowerCase(), keyValues[i + 1]);
+        }
+        return row;
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null) return defaultValue(type);
+        if (type == String.class) return value.toString();
+        if (type == int.class) return ((Number) value).intValue();
+        if (type == long.class) return ((Number) value).longValue();
+        if (type == double.class) return ((Number) value).doubleValue();
+        if (type == boolean.class) return value instanceof Boolean ? value : Boolean.parseBoolean(value.toString());
+        if (type == java.sql.Date.class) {
+            return value instanceof java.time.LocalDate ? java.sql.Date.valueOf((java.time.LocalDate) value) : value;
+        }
+        return value;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return null;
+    }
+}
@@ -0,0 +1,179 @@
+package com.oceanview.resort.database;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * The reservation search paths on a large table before and after the
+ * schema migrations. Runs on each of Derby, H2 and SQLite whose driver is
+ * on the classpath, with the database in a temporary directory.
+ *
+ * Usage: SchemaIndexBenchmark [rows] [repetitions]
+ */
+public class SchemaIndexBenchmark {
+    private static final int ROOMS = 200;
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 3 * 365;
+
+    private interface Search {
+        int run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        String[][] engines = {
+                {"org.apache.derby.jdbc.EmbeddedDriver", "jdbc:derby:%s/db;create=true"},
+                {"org.h2.Driver", "jdbc:h2:%s/db"},
+                {"org.sqlite.JDBC", "jdbc:sqlite:%s/db.sqlite"}
+        };
+        boolean ran = false;
+        for (String[] engine : engines) {
+            try {
+                Class.forName(engine[0]);
+            } catch (ClassNotFoundException e) {
+                continue;
+            }
+            ran = true;
+            Path dir = Files.createTempDirectory("schema-bench");
+            try {
+                run(SqlDialect.forDriver(engine[0]), String.format(engine[1], dir), rows, repetitions);
+            } finally {
+                delete(dir);
+            }
+        }
+        if (!ran) {
+            System.out.println("No Derby, H2 or SQLite driver on the classpath; add one to run this benchmark");
+        }
+    }
+
+    private static void run(SqlDialect dialect, String url, int rows, int repetitions) throws Exception {
+        long t0 = System.nanoTime();
+        try (Connection conn = DriverManager.getConnection(url)) {
+            createTables(conn);
+            fill(conn, rows);
+        }
+        System.out.printf("%n%s, %,d reservations (loaded in %.1f s), mean of %d runs%n", dialect, rows,
+                (System.nanoTime() - t0) / 1e9, repetitions);
+        System.out.printf("%-34s %12s %12s %8s%n", "", "before ms", "after ms", "rows");
+
+        ConnectionPool pool = new ConnectionPool(() -> DriverManager.getConnection(url), 1, 1, 60_000, 0);
+        try {
+            DatabaseConnection connection = new DatabaseConnection(pool, dialect);
+            double[][] results = new double[4][];
+            int[] found = new int[4];
+            for (int phase = 0; phase < 2; phase++) {
+                if (phase == 1) {
+                    long m0 = System.nanoTime();
+                    connection.migrateSchema();
+                    if (dialect == SqlDialect.DERBY) {
+                        try (Connection conn = connection.getConnection(); Statement stmt = conn.createStatement()) {
+                            stmt.execute("CALL SYSCS_UTIL.SYSCS_UPDATE_STATISTICS('APP', 'RESERVATIONS', NULL)");
+                        }
+                    }
+                    System.out.printf("(migration to version %d took %.1f s)%n", connection.getSchemaVersion(),
+                            (System.nanoTime() - m0) / 1e9);
+                }
+                ReservationDAO dao = new ReservationDAO(connection);
+                LocalDate day = START.plusDays(400);
+                Search[] searches = {
+                        () -> dao.findByDateRange(day, day).size(),
+                        () -> dao.findPage(null, 20, null).getItems().size(),
+                        () -> dao.existsOverlap("R42", day, day.plusDays(3)) ? 1 : 0,
+                        () -> dao.findByGuestName("guest 12345").size()
+                };
+                for (int i = 0; i < searches.length; i++) {
+                    if (results[i] == null) {
+                        results[i] = new double[2];
+                    }
+                    found[i] = searches[i].run(); // warm-up
+                    long s0 = System.nanoTime();
+                    for (int r = 0; r < repetitions; r++) {
+                        searches[i].run();
+                    }
+                    results[i][phase] = (System.nanoTime() - s0) / 1e6 / repetitions;
+                }
+            }
+            String[] names = {"findByDateRange (one day)", "findPage (first 20, newest first)",
+                    "overlap check (one room)", "findByGuestName (substring)"};
+            for (int i = 0; i < names.length; i++) {
+                System.out.printf("%-34s %12.2f %12.2f %8d%n", names[i], results[i][0], results[i][1], found[i]);
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * The DatabaseConnection schema, without IF NOT EXISTS, which Derby lacks
+     */
+    private static void createTables(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE rooms (room_number VARCHAR(10) PRIMARY KEY, "
+                    + "room_type VARCHAR(20) NOT NULL, is_available BOOLEAN NOT NULL DEFAULT true, "
+                    + "capacity INTEGER NOT NULL, features VARCHAR(500), base_rate DOUBLE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE reservations (reservation_number VARCHAR(20) PRIMARY KEY, "
+                    + "guest_id INTEGER, guest_name VARCHAR(100) NOT NULL, guest_address VARCHAR(500), "
+                    + "guest_contact VARCHAR(20), guest_email VARCHAR(100), guest_nic VARCHAR(20), "
+                    + "room_number VARCHAR(10) NOT NULL, room_type VARCHAR(20) NOT NULL, "
+                    + "check_in_date DATE NOT NULL, check_out_date DATE NOT NULL, "
+                    + "number_of_nights INTEGER NOT NULL, total_amount DOUBLE NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL DEFAULT 'PENDING', reservation_date DATE NOT NULL, "
+                    + "FOREIGN KEY (room_number) REFERENCES rooms(room_number))");
+        }
+    }
+
+    /**
+     * Rows spread over the rooms and three years, in one transaction
+     */
+    private static void fill(Connection conn, int rows) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO rooms (room_number, room_type, "
+                + "is_available, capacity, features, base_rate) VALUES (?, 'DOUBLE', true, 2, 'AC', 8000)")) {
+            for (int i = 0; i < ROOMS; i++) {
+                ps.setString(1, "R" + i);
+                ps.executeUpdate();
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO reservations (reservation_number, "
+                + "guest_name, guest_contact, room_number, room_type, check_in_date, check_out_date, "
+                + "number_of_nights, total_amount, status, reservation_date) "
+                + "VALUES (?, ?, '0712345678', ?, 'DOUBLE', ?, ?, 3, 24000, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                LocalDate checkIn = START.plusDays((i * 7L) % DAYS);
+                ps.setString(1, "RES" + i);
+                ps.setString(2, "Guest " + i);
+                ps.setString(3, "R" + (i % ROOMS));
+                ps.setDate(4, Date.valueOf(checkIn));
+                ps.setDate(5, Date.valueOf(checkIn.plusDays(3)));
+                ps.setString(6, i % 10 == 0 ? "CANCELLED" : "CONFIRMED");
+                ps.setDate(7, Date.valueOf(checkIn.minusDays(i % 60)));
+                ps.addBatch();
+                if (i % 5000 == 4999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
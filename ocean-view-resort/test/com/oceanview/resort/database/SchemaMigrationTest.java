@@ -0,0 +1,362 @@
+package com.oceanview.resort.database;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for versioned schema migrations and the query plans of the
+ * reservation search paths. The plan checks run EXPLAIN on each of Derby,
+ * H2 and SQLite whose driver is on the classpath, and are skipped otherwise.
+ */
+public class SchemaMigrationTest {
+    private static final int ROWS = 5000;
+
+    public static void main(String[] args) {
+        SchemaMigrationTest test = new SchemaMigrationTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Schema Migration Tests...\n");
+
+        String[] names = {
+                "First run creates schema_version and commits each version with its row",
+                "An up-to-date schema runs no migration",
+                "A failed migration is rolled back and stops later versions",
+                "Name search reads the lower-case index where the engine can filter on it",
+                "Hot reservation queries use the new indexes"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testFirstRun();
+            case 1: return testUpToDate();
+            case 2: return testFailure();
+            case 3: return testNameColumn();
+            default: return testQueryPlans();
+        }
+    }
+
+    private boolean testFirstRun() throws SQLException {
+        AtomicBoolean created = new AtomicBoolean();
+        FakeDatabase db = new FakeDatabase().failOn(sql -> {
+            if (sql.startsWith("CREATE TABLE schema_version")) {
+                created.set(true);
+            }
+            return sql.contains("FROM schema_version") && !created.get();
+        });
+        try (Connection conn = db.newConnection()) {
+            int version = SchemaMigrations.migrate(conn, SqlDialect.DERBY);
+            List<String> versionRows = new ArrayList<>();
+            for (int i = 0; i < db.executedSql.size(); i++) {
+                if (db.executedSql.get(i).startsWith("INSERT INTO schema_version")) {
+                    versionRows.add(String.valueOf(db.executedParameters.get(i).get(0)));
+                }
+            }
+            boolean indexes = db.executedSql.stream().filter(sql -> sql.startsWith("CREATE INDEX")).count() == 4;
+            boolean column = db.executedSql.contains("ALTER TABLE reservations ADD COLUMN guest_name_lower "
+                    + "VARCHAR(100) GENERATED ALWAYS AS (LOWER(guest_name))");
+            System.out.println("  " + db.executedSql.size() + " statements, " + db.commits.get() + " commits");
+            // One auto-commit for the version table, then one commit per version
+            return version == SchemaMigrations.latestVersion() && created.get() && indexes && column
+                    && versionRows.equals(List.of("1", "2")) && db.commits.get() == 3 && conn.getAutoCommit();
+        }
+    }
+
+    private boolean testUpToDate() throws SQLException {
+        FakeDatabase db = new FakeDatabase().rows(sql -> sql.contains("MAX(version)")
+                ? List.of(FakeDatabase.row("max", SchemaMigrations.latestVersion())) : new ArrayList<>());
+        try (Connection conn = db.newConnection()) {
+            int version = SchemaMigrations.migrate(conn, SqlDialect.H2);
+            return version == SchemaMigrations.latestVersion() && db.statementsExecuted.get() == 1;
+        }
+    }
+
+    private boolean testFailure() throws SQLException {
+        FakeDatabase db = new FakeDatabase()
+                .rows(sql -> sql.contains("MAX(version)") ? List.of(FakeDatabase.row("max", 0)) : new ArrayList<>())
+                .failOn(sql -> sql.startsWith("ALTER TABLE reservations"));
+        try (Connection conn = db.newConnection()) {
+            try {
+                SchemaMigrations.migrate(conn, SqlDialect.SQLITE);
+                return false;
+            } catch (SQLException e) {
+                System.out.println("  " + e.getMessage());
+                long versionRows = db.executedSql.stream()
+                        .filter(sql -> sql.startsWith("INSERT INTO schema_version")).count();
+                // Version 1 committed with its row, version 2 rolled back before its row
+                return versionRows == 1 && db.commits.get() == 1 && db.rollbacks.get() == 1
+                        && !db.executedSql.contains("CREATE INDEX idx_reservations_guest_name_lower "
+                                + "ON reservations (guest_name_lower)");
+            }
+        }
+    }
+
+    private boolean testNameColumn() throws Exception {
+        String sqlite = nameColumn(SqlDialect.SQLITE, true);
+        System.out.println("  " + sqlite);
+        return nameColumn(SqlDialect.SQLITE, false).endsWith(" FROM reservations r LEFT JOIN rooms rm ON "
+                        + "rm.room_number = r.room_number WHERE LOWER(r.guest_name) LIKE ?")
+                && sqlite.endsWith(" FROM reservations r INDEXED BY idx_reservations_guest_name_lower "
+                        + "LEFT JOIN rooms rm ON rm.room_number = r.room_number WHERE r.guest_name_lower LIKE ?")
+                // LIKE '%...' cannot seek the index; only SQLite filters on its entries
+                && nameColumn(SqlDialect.DERBY, true).endsWith(" WHERE LOWER(r.guest_name) LIKE ?")
+                && nameColumn(SqlDialect.GENERIC, true).endsWith(" WHERE LOWER(r.guest_name) LIKE ?");
+    }
+
+    private String nameColumn(SqlDialect dialect, boolean migrated) throws Exception {
+        FakeDatabase db = new FakeDatabase().rows(sql -> sql.contains("MAX(version)")
+                ? List.of(FakeDatabase.row("max", SchemaMigrations.latestVersion())) : new ArrayList<>());
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            DatabaseConnection connection = new DatabaseConnection(pool, dialect);
+            if (migrated) {
+                connection.migrateSchema();
+            }
+            db.resetCounters();
+            new ReservationDAO(connection).findByGuestName("Nimal");
+            return db.executedSql.get(0);
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testQueryPlans() throws Exception {
+        String[][] engines = {
+                {"org.apache.derby.jdbc.EmbeddedDriver", "jdbc:derby:memory:schematest;create=true"},
+                {"org.h2.Driver", "jdbc:h2:mem:schematest;DB_CLOSE_DELAY=-1"},
+                {"org.sqlite.JDBC", "jdbc:sqlite:file:schematest?mode=memory&cache=shared"}
+        };
+        boolean ok = true;
+        int ran = 0;
+        for (String[] engine : engines) {
+            try {
+                Class.forName(engine[0]);
+            } catch (ClassNotFoundException e) {
+                continue;
+            }
+            ran++;
+            ok &= queryPlans(SqlDialect.forDriver(engine[0]), engine[1]);
+        }
+        if (ran == 0) {
+            System.out.println("  skipped: no Derby, H2 or SQLite driver on the classpath");
+        }
+        return ok;
+    }
+
+    private boolean queryPlans(SqlDialect dialect, String url) throws Exception {
+        // Kept open so the in-memory database lives for the whole check
+        try (Connection keep = DriverManager.getConnection(url)) {
+            createTables(keep);
+            List<Query> queries = Collections.synchronizedList(new ArrayList<>());
+            ConnectionPool pool = new ConnectionPool(() -> recording(DriverManager.getConnection(url), queries),
+                    1, 1, 1000, 0);
+            try {
+                DatabaseConnection connection = new DatabaseConnection(pool, dialect);
+                if (connection.migrateSchema() != SchemaMigrations.latestVersion()) {
+                    return false;
+                }
+                fill(keep);
+                if (dialect == SqlDialect.DERBY) {
+                    // Indexes created on the empty table have no statistics yet
+                    try (Statement stmt = keep.createStatement()) {
+                        stmt.execute("CALL SYSCS_UTIL.SYSCS_UPDATE_STATISTICS('APP', 'RESERVATIONS', NULL)");
+                    }
+                }
+                ReservationDAO dao = new ReservationDAO(connection);
+                LocalDate from = LocalDate.of(2026, 3, 1);
+                queries.clear();
+                dao.findByDateRange(from, from.plusDays(2));
+                dao.findPage(dao.findPage(null, 20, null).getNextCursor(), 20, null);
+                dao.existsOverlap("R7", from, from.plusDays(3));
+
+                String[] expected = {"idx_reservations_check_in", "idx_reservations_listing",
+                        "idx_reservations_listing", "idx_reservations_room_dates"};
+                boolean ok = queries.size() == expected.length;
+                for (int i = 0; ok && i < expected.length; i++) {
+                    String plan = plan(keep, dialect, queries.get(i));
+                    if (!plan.toLowerCase().contains(expected[i])) {
+                        System.out.println("  " + dialect + " did not use " + expected[i] + ":\n" + plan);
+                        ok = false;
+                    }
+                }
+                System.out.println("  " + dialect + ": " + (ok ? "indexes used" : "see plans above"));
+                return ok;
+            } finally {
+                pool.close();
+            }
+        }
+    }
+
+    /**
+     * Plan the engine picks for a query: EXPLAIN on H2, EXPLAIN QUERY PLAN
+     * on SQLite, and on Derby the runtime statistics of a real execution
+     */
+    private static String plan(Connection conn, SqlDialect dialect, Query query) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        if (dialect == SqlDialect.DERBY) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(1)");
+                try (PreparedStatement ps = bind(conn, query.sql, query.parameters);
+                        ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        // Drain so the statistics cover the whole execution
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery("VALUES SYSCS_UTIL.SYSCS_GET_RUNTIMESTATISTICS()")) {
+                    rs.next();
+                    plan.append(rs.getString(1));
+                }
+                stmt.execute("CALL SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(0)");
+            }
+            return plan.toString();
+        }
+        String explain = dialect == SqlDialect.SQLITE ? "EXPLAIN QUERY PLAN " : "EXPLAIN ";
+        try (PreparedStatement ps = bind(conn, explain + query.sql, query.parameters);
+                ResultSet rs = ps.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                plan.append(rs.getString(columns)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static PreparedStatement bind(Connection conn, String sql, List<Object> parameters) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(sql);
+        for (int i = 0; i < parameters.size(); i++) {
+            ps.setObject(i + 1, parameters.get(i));
+        }
+        return ps;
+    }
+
+    private static final class Query {
+        final String sql;
+        final List<Object> parameters;
+
+        Query(String sql, List<Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    /**
+     * Wrap a connection so each query it runs through a prepared statement
+     * is recorded with its parameters
+     */
+    private static Connection recording(Connection physical, List<Query> queries) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    Object result = invoke(physical, method, args);
+                    if (!"prepareStatement".equals(method.getName())) {
+                        return result;
+                    }
+                    PreparedStatement statement = (PreparedStatement) result;
+                    String sql = (String) args[0];
+                    Map<Integer, Object> parameters = new TreeMap<>();
+                    return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                            new Class<?>[] { PreparedStatement.class }, (ps, m, a) -> {
+                                if (m.getName().startsWith("set") && a != null && a.length == 2
+                                        && a[0] instanceof Integer) {
+                                    parameters.put((Integer) a[0], a[1]);
+                                } else if ("executeQuery".equals(m.getName())) {
+                                    queries.add(new Query(sql, new ArrayList<>(parameters.values())));
+                                }
+                                return invoke(statement, m, a);
+                            });
+                });
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The DatabaseConnection schema, without IF NOT EXISTS, which Derby lacks
+     */
+    private static void createTables(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE rooms (room_number VARCHAR(10) PRIMARY KEY, "
+                    + "room_type VARCHAR(20) NOT NULL, is_available BOOLEAN NOT NULL DEFAULT true, "
+                    + "capacity INTEGER NOT NULL, features VARCHAR(500), base_rate DOUBLE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE reservations (reservation_number VARCHAR(20) PRIMARY KEY, "
+                    + "guest_id INTEGER, guest_name VARCHAR(100) NOT NULL, guest_address VARCHAR(500), "
+                    + "guest_contact VARCHAR(20), guest_email VARCHAR(100), guest_nic VARCHAR(20), "
+                    + "room_number VARCHAR(10) NOT NULL, room_type VARCHAR(20) NOT NULL, "
+                    + "check_in_date DATE NOT NULL, check_out_date DATE NOT NULL, "
+                    + "number_of_nights INTEGER NOT NULL, total_amount DOUBLE NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL DEFAULT 'PENDING', reservation_date DATE NOT NULL, "
+                    + "FOREIGN KEY (room_number) REFERENCES rooms(room_number))");
+        }
+    }
+
+    /**
+     * Enough rows over 50 rooms and a year of dates that an index beats a scan
+     */
+    private static void fill(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO rooms (room_number, room_type, "
+                + "is_available, capacity, features, base_rate) VALUES (?, 'DOUBLE', true, 2, 'AC', 8000)")) {
+            for (int i = 0; i < 50; i++) {
+                ps.setString(1, "R" + i);
+                ps.executeUpdate();
+            }
+        }
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO reservations (reservation_number, "
+                + "guest_name, room_number, room_type, check_in_date, check_out_date, number_of_nights, "
+                + "total_amount, status, reservation_date) VALUES (?, ?, ?, 'DOUBLE', ?, ?, 2, 16000, "
+                + "'CONFIRMED', ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                LocalDate checkIn = start.plusDays(i % 365);
+                ps.setString(1, "RES" + i);
+                ps.setString(2, "Guest " + i);
+                ps.setString(3, "R" + (i % 50));
+                ps.setDate(4, Date.valueOf(checkIn));
+                ps.setDate(5, Date.valueOf(checkIn.plusDays(2)));
+                ps.setDate(6, Date.valueOf(checkIn.minusDays(30)));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
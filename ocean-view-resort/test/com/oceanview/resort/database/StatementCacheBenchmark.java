@@ -0,0 +1,140 @@
+package com.oceanview.resort.database;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomCache;
+import com.oceanview.resort.dao.RoomDAO;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * findByReservationNumber and findByRoomNumber latency with the pool's
+ * statement cache off and on. The DAOs' own lookup caches are disabled so
+ * every call reaches the database.
+ *
+ * Runs against in-memory Derby and H2 when their drivers are on the
+ * classpath. Without them it uses FakeDatabase, charging a simulated parse
+ * and plan cost per prepareStatement call; pick it to match your engine
+ * (Derby compiles each new statement to bytecode and typically costs far
+ * more than H2).
+ *
+ * Usage: StatementCacheBenchmark [lookups] [fakePrepareMicros]
+ */
+public class StatementCacheBenchmark {
+    private static final int ROOMS = 100;
+    private static final int RESERVATIONS = 10_000;
+    private static final int ROUNDS = 5;
+
+    private interface Lookup {
+        Object find(int i) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int lookups = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        long prepareMicros = args.length > 1 ? Long.parseLong(args[1]) : 50;
+
+        boolean ranEngine = false;
+        ranEngine |= runEngine("Derby", "org.apache.derby.jdbc.EmbeddedDriver",
+                "jdbc:derby:memory:statementbench;create=true", lookups);
+        ranEngine |= runEngine("H2", "org.h2.Driver", "jdbc:h2:mem:statementbench;DB_CLOSE_DELAY=-1", lookups);
+        if (!ranEngine) {
+            System.out.println("No Derby or H2 driver on the classpath; using FakeDatabase with " + prepareMicros
+                    + " us per prepare");
+            FakeDatabase db = new FakeDatabase().prepareCostMicros(prepareMicros);
+            run("FakeDatabase", db::newConnection, SqlDialect.DERBY, lookups);
+        }
+    }
+
+    private static boolean runEngine(String name, String driver, String url, int lookups) throws Exception {
+        try {
+            Class.forName(driver);
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+        try (Connection conn = DriverManager.getConnection(url)) {
+            createSchema(conn);
+        }
+        run(name, () -> DriverManager.getConnection(url), SqlDialect.forDriver(driver), lookups);
+        return true;
+    }
+
+    private static void run(String name, ConnectionPool.ConnectionFactory factory, SqlDialect dialect, int lookups)
+            throws Exception {
+        System.out.printf("%s, %,d lookups per round, best of %d rounds%n", name, lookups, ROUNDS);
+        System.out.printf("%-26s %14s %14s%n", "", "no cache us/op", "cached us/op");
+        double[][] results = new double[2][2];
+        for (int cached = 0; cached < 2; cached++) {
+            ConnectionPool pool = new ConnectionPool(factory, 1, 1, 5000, 0, cached == 1 ? 64 : 0);
+            try {
+                DatabaseConnection connection = new DatabaseConnection(pool, dialect);
+                ReservationDAO reservations = new ReservationDAO(connection);
+                RoomDAO rooms = new RoomDAO(connection, new RoomCache(false));
+                results[0][cached] = time(lookups, i -> reservations.findByReservationNumber(
+                        "RES" + (i % RESERVATIONS)));
+                results[1][cached] = time(lookups, i -> rooms.findByRoomNumber(room(i % ROOMS)));
+            } finally {
+                pool.close();
+            }
+        }
+        System.out.printf("%-26s %14.2f %14.2f%n", "findByReservationNumber", results[0][0], results[0][1]);
+        System.out.printf("%-26s %14.2f %14.2f%n", "findByRoomNumber", results[1][0], results[1][1]);
+    }
+
+    private static double time(int lookups, Lookup lookup) throws Exception {
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS + 1; round++) {
+            long t0 = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                lookup.find(i);
+            }
+            double micros = (System.nanoTime() - t0) / 1e3 / lookups;
+            if (round > 0) { // the first round is warm-up
+                best = Math.min(best, micros);
+            }
+        }
+        return best;
+    }
+
+    private static String room(int i) {
+        return String.format("R%03d", i);
+    }
+
+    /**
+     * The DatabaseConnection schema, without IF NOT EXISTS, which Derby lacks
+     */
+    private static void createSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE rooms (room_number VARCHAR(10) PRIMARY KEY, "
+                    + "room_type VARCHAR(20) NOT NULL, is_available BOOLEAN NOT NULL DEFAULT true, "
+                    + "capacity INTEGER NOT NULL, features VARCHAR(500), base_rate DOUBLE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE reservations (reservation_number VARCHAR(20) PRIMARY KEY, "
+                    + "guest_id INTEGER, guest_name VARCHAR(100) NOT NULL, guest_address VARCHAR(500), "
+                    + "guest_contact VARCHAR(20), guest_email VARCHAR(100), guest_nic VARCHAR(20), "
+                    + "room_number VARCHAR(10) NOT NULL, room_type VARCHAR(20) NOT NULL, "
+                    + "check_in_date DATE NOT NULL, check_out_date DATE NOT NULL, "
+                    + "number_of_nights INTEGER NOT NULL, total_amount DOUBLE NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL DEFAULT 'PENDING', reservation_date DATE NOT NULL, "
+                    + "FOREIGN KEY (room_number) REFERENCES rooms(room_number))");
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO rooms (room_number, room_type, "
+                + "is_available, capacity, features, base_rate) VALUES (?, 'DOUBLE', true, 2, 'AC', 8000)")) {
+            for (int i = 0; i < ROOMS; i++) {
+                ps.setString(1, room(i));
+                ps.executeUpdate();
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO reservations (reservation_number, "
+                + "guest_name, room_number, room_type, check_in_date, check_out_date, number_of_nights, "
+                + "total_amount, status, reservation_date) VALUES (?, 'Guest', ?, 'DOUBLE', DATE('2026-03-01'), "
+                + "DATE('2026-03-04'), 3, 24000, 'CONFIRMED', DATE('2026-01-15'))")) {
+            for (int i = 0; i < RESERVATIONS; i++) {
+                ps.setString(1, "RES" + i);
+                ps.setString(2, room(i % ROOMS));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+}
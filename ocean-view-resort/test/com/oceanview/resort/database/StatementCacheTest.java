@@ -0,0 +1,230 @@
+package com.oceanview.resort.database;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomCache;
+import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.dao.UserDAO;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Tests for the per-connection prepared statement cache of ConnectionPool.
+ */
+public class StatementCacheTest {
+
+    public static void main(String[] args) {
+        StatementCacheTest test = new StatementCacheTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Statement Cache Tests...\n");
+
+        String[] names = {
+                "Same SQL is prepared once per connection",
+                "DAO lookups reuse their statements across borrows",
+                "Closing a handle clears parameters and closes its result set",
+                "SQL prepared twice at once gets two statements",
+                "Least recently used statements beyond the size are closed",
+                "Handles left open are given back with the connection",
+                "A schema migration drops the cached statements",
+                "Size 0 prepares on every call"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testPreparedOnce();
+            case 1: return testDaoLookups();
+            case 2: return testHandleClose();
+            case 3: return testConcurrentUse();
+            case 4: return testEviction();
+            case 5: return testLeftOpen();
+            case 6: return testSchemaChange();
+            default: return testDisabled();
+        }
+    }
+
+    private boolean testPreparedOnce() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0, 8);
+        try {
+            for (int i = 0; i < 10; i++) {
+                try (Connection conn = pool.getConnection();
+                        PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM rooms WHERE room_number = ?")) {
+                    ps.setString(1, "R10" + i);
+                    ps.executeQuery().close();
+                }
+            }
+            return db.statementsPrepared.get() == 1 && db.statementsExecuted.get() == 10
+                    && db.statementsClosed.get() == 0
+                    && pool.getStatementCacheHits() == 9 && pool.getStatementCacheMisses() == 1;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testDaoLookups() throws Exception {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0, 8);
+        try {
+            DatabaseConnection connection = new DatabaseConnection(pool, SqlDialect.DERBY);
+            ReservationDAO reservations = new ReservationDAO(connection);
+            RoomDAO rooms = new RoomDAO(connection, new RoomCache(false));
+            UserDAO users = new UserDAO(connection);
+            for (int i = 0; i < 20; i++) {
+                reservations.findByReservationNumber("RES" + i);
+                rooms.findByRoomNumber("R10" + i);
+                users.findByUsername("user" + i);
+            }
+            System.out.println("  " + db.statementsExecuted.get() + " executed, " + db.statementsPrepared.get()
+                    + " prepared");
+            return db.statementsExecuted.get() == 60 && db.statementsPrepared.get() == 3;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testHandleClose() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0, 8);
+        try (Connection conn = pool.getConnection()) {
+            String sql = "SELECT * FROM users WHERE username = ?";
+            PreparedStatement first = conn.prepareStatement(sql);
+            first.setString(1, "admin");
+            ResultSet rs = first.executeQuery();
+            first.close();
+
+            boolean closedHandleRejected = false;
+            try {
+                first.executeQuery();
+            } catch (SQLException e) {
+                closedHandleRejected = true;
+            }
+
+            try (PreparedStatement second = conn.prepareStatement(sql)) {
+                second.executeQuery();
+                return rs.isClosed() && closedHandleRejected && first.isClosed()
+                        && second.getConnection() == conn
+                        && db.statementsPrepared.get() == 1
+                        && db.executedParameters.get(1).isEmpty();
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testConcurrentUse() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0, 8);
+        try (Connection conn = pool.getConnection()) {
+            String sql = "SELECT * FROM rooms";
+            PreparedStatement outer = conn.prepareStatement(sql);
+            PreparedStatement inner = conn.prepareStatement(sql);
+            outer.executeQuery();
+            inner.executeQuery();
+            inner.close();
+            outer.close();
+            // One of the two is kept, the other closed
+            try (PreparedStatement again = conn.prepareStatement(sql)) {
+                again.executeQuery();
+            }
+            return db.statementsPrepared.get() == 2 && db.statementsClosed.get() == 1;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testEviction() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0, 2);
+        try (Connection conn = pool.getConnection()) {
+            for (String sql : new String[] {"SELECT a", "SELECT b", "SELECT a", "SELECT c", "SELECT a", "SELECT b"}) {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.executeQuery();
+                }
+            }
+            // b is evicted when c arrives, then c when b comes back
+            return db.statementsPrepared.get() == 4 && db.statementsClosed.get() == 2;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testLeftOpen() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0, 8);
+        try {
+            PreparedStatement leaked = null;
+            for (int i = 0; i < 10; i++) {
+                try (Connection conn = pool.getConnection()) {
+                    leaked = conn.prepareStatement("SELECT 1");
+                    leaked.executeQuery();
+                }
+            }
+            return db.statementsPrepared.get() == 1 && leaked.isClosed();
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testSchemaChange() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0, 8);
+        try {
+            String sql = "SELECT r.* FROM reservations r WHERE r.reservation_number = ?";
+            try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.executeQuery();
+            }
+            // Applies both versions, so r.* gains a column
+            new DatabaseConnection(pool, SqlDialect.H2).migrateSchema();
+            long prepared = db.statementsPrepared.get();
+            long closed = db.statementsClosed.get();
+            try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.executeQuery();
+            }
+            // The next borrow closes the old statements and prepares the SQL afresh
+            return db.statementsPrepared.get() == prepared + 1 && db.statementsClosed.get() > closed;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testDisabled() throws SQLException {
+        FakeDatabase db = new FakeDatabase();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0, 0);
+        try {
+            for (int i = 0; i < 5; i++) {
+                try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement("SELECT 1")) {
+                    ps.executeQuery();
+                }
+            }
+            return db.statementsPrepared.get() == 5 && db.statementsClosed.get() == 5
+                    && pool.getStatementCacheMisses() == 0;
+        } finally {
+            pool.close();
+        }
+    }
+}
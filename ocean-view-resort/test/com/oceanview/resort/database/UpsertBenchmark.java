@@ -0,0 +1,45 @@
+package com.oceanview.resort.database;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.time.LocalDate;
+
+/**
+ * ReservationDAO.save() throughput: lookup-then-write versus a single upsert
+ * for each dialect, against a simulated engine with a fixed cost per statement.
+ *
+ * Usage: UpsertBenchmark [saves] [latencyMicros]
+ */
+public class UpsertBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int saves = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long latency = args.length > 1 ? Long.parseLong(args[1]) : 200;
+
+        System.out.println("dialect   path               saves/sec   statements/save");
+        for (SqlDialect dialect : SqlDialect.values()) {
+            FakeDatabase db = new FakeDatabase().latencyMicros(latency);
+            ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 5000, 0);
+            ReservationDAO dao = new ReservationDAO(new DatabaseConnection(pool, dialect));
+            Room room = new Room("R101", Room.RoomType.SINGLE, true, 1, "AC");
+            Guest guest = new Guest("Bench", "Colombo", "0712345678", "b@example.com", "1V");
+
+            double rate = 0;
+            for (int round = 0; round < 2; round++) {
+                db.resetCounters();
+                long start = System.nanoTime();
+                for (int i = 0; i < saves; i++) {
+                    dao.save(new Reservation("RES-20260101-" + (i % 500), guest, room,
+                            LocalDate.now().plusDays(1), LocalDate.now().plusDays(3)));
+                }
+                rate = saves / ((System.nanoTime() - start) / 1e9);
+            }
+            System.out.printf("%-9s %-18s %9.0f %17.1f%n", dialect,
+                    dialect.supportsUpsert() ? "upsert" : "lookup + write", rate,
+                    db.statementsExecuted.get() / (double) saves);
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.oceanview.resort.database;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.dao.UserDAO;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.model.User;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for dialect-specific upsert SQL and single-statement DAO saves.
+ */
+public class UpsertTest {
+
+    public static void main(String[] args) {
+        UpsertTest test = new UpsertTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Upsert Tests...\n");
+
+        String[] names = {
+                "H2 uses MERGE with a VALUES source",
+                "Derby uses MERGE with parameters in key, update and insert order",
+                "SQLite uses INSERT ... ON CONFLICT",
+                "Insert-only columns are not updated",
+                "DAO saves run one statement with an upsert dialect",
+                "Generic dialect keeps lookup then write",
+                "Failed upsert falls back to lookup then write"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testH2();
+            case 1: return testDerby();
+            case 2: return testSqlite();
+            case 3: return testInsertOnly();
+            case 4: return testDaoStatementCounts();
+            case 5: return testGenericDialect();
+            default: return testFallback();
+        }
+    }
+
+    private static Upsert room() {
+        return new Upsert("rooms", "room_number").set("room_number", "R101").set("capacity", 2)
+                .set("features", "AC");
+    }
+
+    private boolean testH2() {
+        Upsert.Statement s = room().statement(SqlDialect.H2);
+        return s.sql.equals("MERGE INTO rooms t USING (VALUES (?, ?, ?)) AS s (room_number, capacity, features) "
+                + "ON t.room_number = s.room_number WHEN MATCHED THEN UPDATE SET capacity = s.capacity, "
+                + "features = s.features WHEN NOT MATCHED THEN INSERT (room_number, capacity, features) "
+                + "VALUES (s.room_number, s.capacity, s.features)")
+                && s.parameters.equals(Arrays.asList("room_number", "capacity", "features"));
+    }
+
+    private boolean testDerby() {
+        Upsert.Statement s = room().statement(SqlDialect.DERBY);
+        return s.sql.equals("MERGE INTO rooms t USING SYSIBM.SYSDUMMY1 ON t.room_number = ? "
+                + "WHEN MATCHED THEN UPDATE SET capacity = ?, features = ? "
+                + "WHEN NOT MATCHED THEN INSERT (room_number, capacity, features) VALUES (?, ?, ?)")
+                && s.parameters.equals(Arrays.asList("room_number", "capacity", "features",
+                        "room_number", "capacity", "features"));
+    }
+
+    private boolean testSqlite() {
+        Upsert.Statement s = room().statement(SqlDialect.SQLITE);
+        return s.sql.equals("INSERT INTO rooms (room_number, capacity, features) VALUES (?, ?, ?) "
+                + "ON CONFLICT(room_number) DO UPDATE SET capacity = excluded.capacity, "
+                + "features = excluded.features");
+    }
+
+    private boolean testInsertOnly() {
+        Upsert upsert = new Upsert("reservations", "reservation_number").set("reservation_number", "RES-1")
+                .set("status", "CONFIRMED").set("reservation_date", LocalDate.now()).insertOnly("reservation_date");
+        for (SqlDialect dialect : Arrays.asList(SqlDialect.H2, SqlDialect.DERBY, SqlDialect.SQLITE)) {
+            String sql = upsert.statement(dialect).sql;
+            String update = sql.substring(sql.indexOf("UPDATE SET")).split(" WHEN NOT MATCHED")[0];
+            boolean inserted = sql.contains("(reservation_number, status, reservation_date)");
+            if (update.contains("reservation_date") || !inserted) {
+                System.out.println("  " + dialect + ": " + sql);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean testDaoStatementCounts() throws Exception {
+        for (SqlDialect dialect : Arrays.asList(SqlDialect.H2, SqlDialect.DERBY, SqlDialect.SQLITE)) {
+            int[] counts = saveAll(dialect, new FakeDatabase());
+            if (counts[0] != 1 || counts[1] != 1 || counts[2] != 1) {
+                System.out.println("  " + dialect + ": " + Arrays.toString(counts));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean testGenericDialect() throws Exception {
+        int[] counts = saveAll(SqlDialect.GENERIC, new FakeDatabase());
+        return counts[0] == 2 && counts[1] == 2 && counts[2] == 2;
+    }
+
+    private boolean testFallback() throws Exception {
+        FakeDatabase db = new FakeDatabase().failOn(sql -> sql.startsWith("MERGE"));
+        int[] counts = saveAll(SqlDialect.DERBY, db);
+        List<String> sql = db.executedSql;
+        return counts[0] == 3 && sql.get(1).startsWith("SELECT") && sql.get(2).startsWith("INSERT");
+    }
+
+    /**
+     * Statements executed by one save each of a reservation, room and user
+     */
+    private static int[] saveAll(SqlDialect dialect, FakeDatabase db) throws Exception {
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        DatabaseConnection connection = new DatabaseConnection(pool, dialect);
+        Room room = new Room("R101", Room.RoomType.SINGLE, true, 1, "AC");
+        int[] counts = new int[3];
+        try {
+            new ReservationDAO(connection).save(new Reservation("RES-20260101-1000",
+                    new Guest("Upsert Test", "Colombo", "0712345678", "u@example.com", "1V"), room,
+                    LocalDate.now().plusDays(1), LocalDate.now().plusDays(2)));
+            counts[0] = db.statementsExecuted.get();
+            db.resetCounters();
+            new RoomDAO(connection).save(room);
+            counts[1] = db.statementsExecuted.get();
+            db.resetCounters();
+            new UserDAO(connection).save(new User("upsert", "secret", "Upsert Test", "STAFF"));
+            counts[2] = db.statementsExecuted.get();
+        } finally {
+            pool.close();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,62 @@
+package com.oceanview.resort.factory;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Reservation numbers per second by thread count: the atomic generator
+ * versus the synchronized counter it replaced.
+ *
+ * Usage: ReservationNumberBenchmark [numbersPerThread]
+ */
+public class ReservationNumberBenchmark {
+
+    private interface Source {
+        String next();
+    }
+
+    /**
+     * The old scheme, made thread-safe with a lock
+     */
+    private static class SynchronizedCounter implements Source {
+        private int counter = 1000;
+
+        @Override
+        public synchronized String next() {
+            return "RES-" + java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"))
+                    + "-" + (counter++);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int perThread = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        System.out.println("threads   synchronized/sec        atomic/sec");
+        for (int threads : new int[] { 1, 4, 16 }) {
+            double locked = run(threads, perThread, new SynchronizedCounter());
+            ReservationNumberGenerator generator = new ReservationNumberGenerator(0);
+            double atomic = run(threads, perThread, generator::next);
+            System.out.printf("%7d %18.0f %17.0f%n", threads, locked, atomic);
+        }
+    }
+
+    private static double run(int threads, int perThread, Source source) throws InterruptedException {
+        // Warm-up pass, then the timed one
+        double rate = 0;
+        for (int round = 0; round < 2; round++) {
+            CountDownLatch done = new CountDownLatch(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                new Thread(() -> {
+                    int length = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        length += source.next().length();
+                    }
+                    if (length == 0) System.out.println("unreachable");
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+            rate = (double) threads * perThread / ((System.nanoTime() - start) / 1e9);
+        }
+        return rate;
+    }
+}
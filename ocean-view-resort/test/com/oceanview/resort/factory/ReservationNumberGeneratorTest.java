@@ -0,0 +1,167 @@
+package com.oceanview.resort.factory;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for ReservationNumberGenerator uniqueness and seeding.
+ */
+public class ReservationNumberGeneratorTest {
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 500_000;
+
+    public static void main(String[] args) {
+        ReservationNumberGeneratorTest test = new ReservationNumberGeneratorTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running ReservationNumberGenerator Tests...\n");
+
+        String[] names = {
+                (THREADS * PER_THREAD) + " sequences from " + THREADS + " threads are unique",
+                "Formatted numbers from concurrent threads are unique",
+                "Seeded above the highest stored number",
+                "Number format is RES-yyyyMMdd-NNNN",
+                "Unreadable storage starts within the column, then seeds once readable",
+                "Highest stored number read with one query"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testUniqueSequences();
+            case 1: return testUniqueStrings();
+            case 2: return testSeeding();
+            case 3: return testFormat();
+            case 4: return testSeedRetry();
+            default: return testHighestStoredQuery();
+        }
+    }
+
+    private boolean testUniqueSequences() throws Exception {
+        ReservationNumberGenerator generator = new ReservationNumberGenerator(0);
+        long[][] issued = new long[THREADS][PER_THREAD];
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            long[] mine = issued[t];
+            new Thread(() -> {
+                for (int i = 0; i < PER_THREAD; i++) {
+                    mine[i] = generator.nextSequence();
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+
+        long[] all = Arrays.stream(issued).flatMapToLong(Arrays::stream).sorted().toArray();
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                System.out.println("  duplicate sequence " + all[i]);
+                return false;
+            }
+        }
+        // Dense as well as unique: no sequence skipped
+        return all[0] == 1000 && all[all.length - 1] == 1000 + all.length - 1;
+    }
+
+    private boolean testUniqueStrings() throws Exception {
+        ReservationNumberGenerator generator = new ReservationNumberGenerator(0);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        int perThread = 25_000;
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    seen.add(generator.next());
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        return seen.size() == THREADS * perThread;
+    }
+
+    private boolean testSeeding() {
+        String[] stored = {
+                "RES-20250101-1000", "RES-20250102-4711", "RES-20241231-999",
+                "legacy-number", "RES-UOW-5-" + System.nanoTime(), null
+        };
+        long max = 0;
+        for (String number : stored) {
+            max = Math.max(max, ReservationNumberGenerator.parseSequence(number));
+        }
+        ReservationNumberGenerator generator = new ReservationNumberGenerator(max);
+        return max == 4711 && generator.next().endsWith("-4712")
+                && new ReservationNumberGenerator(0).nextSequence() == 1000;
+    }
+
+    private boolean testFormat() {
+        String number = new ReservationNumberGenerator(41).next();
+        return number.matches("RES-\\d{8}-1000");
+    }
+
+    private boolean testSeedRetry() {
+        String[] stored = { null };
+        ReservationNumberGenerator generator = new ReservationNumberGenerator(() -> {
+            if (stored[0] == null) {
+                throw new IOException("storage offline");
+            }
+            return stored[0];
+        });
+        String first = generator.next();
+        stored[0] = "RES-20250102-4711";
+        String second = generator.next();
+        stored[0] = "RES-20250103-9999"; // read once only
+        String third = generator.next();
+        // reservation_number is VARCHAR(20)
+        return first.endsWith("-1000") && first.length() <= 20
+                && second.endsWith("-4712") && third.endsWith("-4713")
+                && new ReservationNumberGenerator(() -> null).nextSequence() == 1000;
+    }
+
+    private boolean testHighestStoredQuery() throws Exception {
+        FakeDatabase db = new FakeDatabase().rows(sql -> new ArrayList<>(Arrays.asList(
+                FakeDatabase.row("highest", "RES-20250102-4711"))));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            ReservationDAO dao = new ReservationDAO(new DatabaseConnection(pool, SqlDialect.DERBY));
+            ReservationNumberGenerator generator = new ReservationNumberGenerator(dao::findHighestReservationNumber);
+            String sql = db.executedSql.get(0);
+            System.out.println("  " + sql);
+            return generator.next().endsWith("-4712") && db.statementsExecuted.get() == 1
+                    && sql.startsWith("SELECT MAX(reservation_number) FROM reservations");
+        } finally {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Stress tests for concurrent booking: parallel bookings and cancellations
+ * at overlapping dates must never leave a room double-booked.
+ */
+public class BookingConcurrencyTest {
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 150;
+    private static final int ROOMS = 12;
+
+    public static void main(String[] args) {
+        BookingConcurrencyTest test = new BookingConcurrencyTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Booking Concurrency Tests...\n");
+
+        String[] names = {
+                (THREADS * ATTEMPTS_PER_THREAD) + " parallel bookings and cancels, no double-bookings",
+                "Room flags and index agree with stored reservations",
+                "Concurrent file saves lose no reservations",
+                "Overlong and far-off stays refused before booking",
+                "Bills computed during cancels do not restore cancelled stays"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private final MemoryReservationDAO reservations = new MemoryReservationDAO();
+    private final MemoryRoomDAO rooms = new MemoryRoomDAO();
+    private final RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testParallelBookings();
+            case 1: return testStateConsistent();
+            case 2: return testConcurrentFileSaves();
+            case 3: return testStayLimits();
+            default: return testBillDuringCancel();
+        }
+    }
+
+    private boolean testParallelBookings() throws Exception {
+        ReservationService service = new ReservationService(reservations, rooms, index);
+        LocalDate base = LocalDate.now().plusDays(10);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger cancelled = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            final int seed = t;
+            new Thread(() -> {
+                Random random = new Random(seed);
+                List<String> mine = new ArrayList<>();
+                try {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (!mine.isEmpty() && random.nextInt(3) == 0) {
+                            service.cancelReservation(mine.remove(random.nextInt(mine.size())));
+                            cancelled.incrementAndGet();
+                            continue;
+                        }
+                        LocalDate in = base.plusDays(random.nextInt(5));
+                        Guest guest = new Guest("Guest " + seed, "Galle", "0712345678", "g@example.com", "1V");
+                        try {
+                            mine.add(service.createReservation(guest, "R" + (101 + random.nextInt(ROOMS)),
+                                    in.toString(), in.plusDays(1 + random.nextInt(4)).toString()));
+                            booked.incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            rejected.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        boolean finished = done.await(120, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        int attempts = booked.get() + rejected.get() + cancelled.get();
+        System.out.printf("  %d booked, %d rejected, %d cancelled in %.2f s (%.0f ops/sec)%n",
+                booked.get(), rejected.get(), cancelled.get(), seconds, attempts / seconds);
+
+        return finished && errors.get() == 0 && booked.get() > ROOMS && overlappingPairs() == 0;
+    }
+
+    private boolean testStateConsistent() throws Exception {
+        for (Room room : rooms.findAll()) {
+            List<Reservation> active = activeFor(room.getRoomNumber());
+            if (room.isAvailable() != active.isEmpty()) {
+                System.out.println("  flag mismatch for " + room.getRoomNumber());
+                return false;
+            }
+            LocalDate probe = LocalDate.now().plusDays(10);
+            boolean indexFree = index.isAvailable(room.getRoomNumber(), probe, probe.plusDays(10));
+            boolean storedFree = active.stream().allMatch(r -> r.getCheckOutDate().isBefore(probe)
+                    || r.getCheckInDate().isAfter(probe.plusDays(10)));
+            if (indexFree != storedFree) {
+                System.out.println("  index mismatch for " + room.getRoomNumber());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean testConcurrentFileSaves() throws Exception {
+        ReservationDAO dao = new ReservationDAO();
+        String prefix = "CONC-" + System.nanoTime() + "-";
+        int writers = 64;
+        CountDownLatch done = new CountDownLatch(writers);
+        AtomicInteger errors = new AtomicInteger();
+        for (int i = 0; i < writers; i++) {
+            final int n = i;
+            new Thread(() -> {
+                try {
+                    Reservation reservation = new Reservation(prefix + n, null,
+                            new Room("R101", Room.RoomType.SINGLE, true, 1, "AC"),
+                            LocalDate.now().plusDays(1), LocalDate.now().plusDays(2));
+                    reservation.setStatus("CANCELLED"); // inert for other tests sharing the data directory
+                    dao.save(reservation);
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await(60, TimeUnit.SECONDS);
+        long saved = dao.findAll().stream().filter(r -> r.getReservationNumber().startsWith(prefix)).count();
+        System.out.println("  " + saved + "/" + writers + " concurrent saves kept");
+        return errors.get() == 0 && saved == writers;
+    }
+
+    private boolean testStayLimits() throws Exception {
+        // Fresh rooms: the tests above leave most of them flagged booked
+        MemoryReservationDAO reservations = new MemoryReservationDAO();
+        MemoryRoomDAO rooms = new MemoryRoomDAO();
+        ReservationService service = new ReservationService(reservations, rooms, new RoomAvailabilityIndex());
+        Guest guest = new Guest("Limit Probe", "Colombo", "0712345678", "limit@example.com", "123456789V");
+        LocalDate in = LocalDate.now().plusDays(10);
+        LocalDate latest = LocalDate.now().plusDays(ReservationService.MAX_ADVANCE_DAYS);
+        String[][] stays = {
+                {in.toString(), "+999999-12-31"},
+                {in.toString(), in.plusDays(RoomAvailabilityIndex.MAX_STAY_NIGHTS + 1).toString()},
+                {latest.toString(), latest.plusDays(1).toString()},
+                {in.toString(), "next week"}
+        };
+        int before = reservations.store.size();
+        for (String[] stay : stays) {
+            try {
+                service.createReservation(guest, "R101", stay[0], stay[1]);
+                return false;
+            } catch (IllegalArgumentException e) {
+                // Refused
+            }
+            List<ReservationService.Booking> batch = new ArrayList<>();
+            batch.add(new ReservationService.Booking(guest, "R102", stay[0], stay[1]));
+            if (service.importReservations(batch).get(0).getReservationNumber() != null) {
+                return false;
+            }
+        }
+        // The longest stay ending on the last allowed day is still bookable
+        String number = service.createReservation(guest, "R103",
+                latest.minusDays(RoomAvailabilityIndex.MAX_STAY_NIGHTS).toString(), latest.toString());
+        return number != null && reservations.store.size() == before + 1;
+    }
+
+    private boolean testBillDuringCancel() throws Exception {
+        MemoryReservationDAO reservations = new MemoryReservationDAO();
+        MemoryRoomDAO rooms = new MemoryRoomDAO();
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        ReservationService service = new ReservationService(reservations, rooms, index);
+        Guest guest = new Guest("Bill Probe", "Colombo", "0712345678", "bill@example.com", "123456789V");
+        LocalDate in = LocalDate.now().plusDays(10);
+        AtomicInteger errors = new AtomicInteger();
+
+        for (int round = 0; round < 200; round++) {
+            String room = "R" + (101 + round % ROOMS);
+            LocalDate checkIn = in.plusDays(3L * (round / ROOMS));
+            String number = service.createReservation(guest, room, checkIn.toString(),
+                    checkIn.plusDays(1).toString());
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(2);
+            for (int t = 0; t < 2; t++) {
+                boolean cancels = t == 0;
+                new Thread(() -> {
+                    try {
+                        start.await();
+                        if (cancels) {
+                            service.cancelReservation(number);
+                        } else {
+                            service.calculateBill(number);
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+            start.countDown();
+            done.await(30, TimeUnit.SECONDS);
+
+            // The stored row and the index must agree that the stay is cancelled
+            boolean stored = "CANCELLED".equals(reservations.store.get(number).getStatus());
+            boolean indexed = index.isAvailable(room, checkIn, checkIn.plusDays(1));
+            if (!stored || !indexed) {
+                System.out.println("  round " + round + ": stored " + reservations.store.get(number).getStatus()
+                        + ", index free " + indexed);
+                return false;
+            }
+            // Booking flags the room unavailable; cancel cleared it, but keep rounds independent
+            rooms.store.get(room).setAvailable(true);
+        }
+        return errors.get() == 0;
+    }
+
+    private long overlappingPairs() {
+        long pairs = 0;
+        for (int r = 0; r < ROOMS; r++) {
+            List<Reservation> active = activeFor("R" + (101 + r));
+            for (int i = 0; i < active.size(); i++) {
+                for (int j = i + 1; j < active.size(); j++) {
+                    Reservation a = active.get(i);
+                    Reservation b = active.get(j);
+                    if (!(a.getCheckOutDate().isBefore(b.getCheckInDate())
+                            || a.getCheckInDate().isAfter(b.getCheckOutDate()))) {
+                        System.out.println("  double-booked: " + a.getReservationNumber() + " / "
+                                + b.getReservationNumber());
+                        pairs++;
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private List<Reservation> activeFor(String roomNumber) {
+        return reservations.store.values().stream()
+                .filter(r -> r.getRoom().getRoomNumber().equals(roomNumber) && RoomAvailabilityIndex.isActive(r))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Pause inside DAO calls so unsynchronized check-then-act would interleave
+     */
+    private static void pause() {
+        Thread.yield();
+        try {
+            Thread.sleep(0, 200_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Room copy(Room room) {
+        return new Room(room.getRoomNumber(), room.getRoomType(), room.isAvailable(), room.getCapacity(),
+                room.getFeatures());
+    }
+
+    private static Reservation copy(Reservation source) {
+        Reservation copy = new Reservation(source.getReservationNumber(), source.getGuest(), copy(source.getRoom()),
+                source.getCheckInDate(), source.getCheckOutDate());
+        copy.setStatus(source.getStatus());
+        copy.setTotalAmount(source.getTotalAmount());
+        return copy;
+    }
+
+    /**
+     * Reservation storage in memory; returns copies like the file store does
+     */
+    private static class MemoryReservationDAO extends ReservationDAO {
+        final Map<String, Reservation> store = new ConcurrentHashMap<>();
+
+        @Override
+        public void save(Reservation reservation) {
+            pause();
+            store.put(reservation.getReservationNumber(), copy(reservation));
+        }
+
+        @Override
+        public Reservation findByReservationNumber(String number) {
+            Reservation found = store.get(number);
+            return found != null ? copy(found) : null;
+        }
+
+        @Override
+        public List<Reservation> findAll() {
+            return store.values().stream().map(BookingConcurrencyTest::copy).collect(Collectors.toList());
+        }
+    }
+
+    private static class MemoryRoomDAO extends RoomDAO {
+        final Map<String, Room> store = new ConcurrentHashMap<>();
+
+        MemoryRoomDAO() {
+            for (int i = 0; i < ROOMS; i++) {
+                store.put("R" + (101 + i), new Room("R" + (101 + i), Room.RoomType.SINGLE, true, 1, "AC"));
+            }
+        }
+
+        @Override
+        public void save(Room room) {
+            pause();
+            store.put(room.getRoomNumber(), copy(room));
+        }
+
+        @Override
+        public Room findByRoomNumber(String roomNumber) {
+            pause();
+            Room room = store.get(roomNumber);
+            return room != null ? copy(room) : null;
+        }
+
+        @Override
+        public List<Room> findAll() {
+            return store.values().stream().map(BookingConcurrencyTest::copy).collect(Collectors.toList());
+        }
+    }
+}
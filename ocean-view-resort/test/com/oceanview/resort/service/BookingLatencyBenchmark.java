@@ -0,0 +1,257 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * createReservation latency against booking history size when no in-memory
+ * availability index is kept: before, the conflict check loads every
+ * reservation and scans them, as the original hasConflict did; after, it is
+ * one ReservationDAO.existsOverlap query (StoredAvailabilityIndex).
+ *
+ * Runs on each of Derby, H2 and SQLite whose driver is on the classpath,
+ * with the database in a temporary directory and the schema migrated. With
+ * none of them it uses FakeDatabase, which shows only the Java side: mapping
+ * the loaded rows versus one empty result.
+ *
+ * Usage: BookingLatencyBenchmark [historySizes...]
+ */
+public class BookingLatencyBenchmark {
+    private static final int ROOMS = 50;
+    private static final int BOOKINGS = 20;
+    private static final int WARMUP = 3;
+    private static final Guest GUEST = new Guest("Benchmark Guest", "Galle", "0712345678", "guest@example.com",
+            "901234567V");
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[] { 1_000, 10_000, 100_000 };
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        String[][] engines = {
+                {"org.apache.derby.jdbc.EmbeddedDriver", "jdbc:derby:%s/db;create=true"},
+                {"org.h2.Driver", "jdbc:h2:%s/db"},
+                {"org.sqlite.JDBC", "jdbc:sqlite:%s/db.sqlite"}
+        };
+        boolean ran = false;
+        for (String[] engine : engines) {
+            try {
+                Class.forName(engine[0]);
+            } catch (ClassNotFoundException e) {
+                continue;
+            }
+            ran = true;
+            SqlDialect dialect = SqlDialect.forDriver(engine[0]);
+            printHeader(dialect.toString());
+            for (int size : sizes) {
+                Path dir = Files.createTempDirectory("booking-bench");
+                try {
+                    String url = String.format(engine[1], dir);
+                    try (Connection conn = DriverManager.getConnection(url)) {
+                        createTables(conn);
+                        fill(conn, size);
+                    }
+                    run(size, () -> DriverManager.getConnection(url), dialect, null);
+                } finally {
+                    delete(dir);
+                }
+            }
+        }
+        if (!ran) {
+            printHeader("No Derby, H2 or SQLite driver on the classpath; FakeDatabase");
+            for (int size : sizes) {
+                FakeDatabase db = new FakeDatabase().rows(sql -> sql.contains("FROM rooms") ? roomRows()
+                        : sql.startsWith("SELECT r.*") ? reservationRows(size) : new ArrayList<>());
+                run(size, db::newConnection, SqlDialect.DERBY, db);
+            }
+        }
+    }
+
+    private static void printHeader(String title) {
+        System.out.printf("%n%s, mean of %d bookings%n", title, BOOKINGS);
+        System.out.printf("%9s %18s %18s%n", "history", "load + scan ms", "existsOverlap ms");
+    }
+
+    private static void run(int size, ConnectionPool.ConnectionFactory factory, SqlDialect dialect,
+            FakeDatabase fake) throws Exception {
+        ConnectionPool pool = new ConnectionPool(factory, 1, 1, 60_000, 0);
+        try {
+            DatabaseConnection connection = new DatabaseConnection(pool, dialect);
+            if (fake == null) {
+                connection.migrateSchema();
+            }
+            ReservationDAO reservations = new ReservationDAO(connection);
+            RoomDAO rooms = new RoomDAO(connection);
+            RoomAvailabilityIndex[] checks = { new ScanningIndex(reservations),
+                    new StoredAvailabilityIndex(reservations) };
+            double[] millis = new double[checks.length];
+            for (int mode = 0; mode < checks.length; mode++) {
+                ReservationService service = new ReservationService(reservations, rooms, checks[mode]);
+                // Future stays, apart from each other and from the history
+                LocalDate first = LocalDate.now().plusDays(30 + mode * (WARMUP + BOOKINGS) * 4L);
+                long total = 0;
+                for (int b = 0; b < WARMUP + BOOKINGS; b++) {
+                    String room = room(b % ROOMS);
+                    LocalDate checkIn = first.plusDays(b * 4L);
+                    long t0 = System.nanoTime();
+                    service.createReservation(GUEST, room, checkIn.toString(), checkIn.plusDays(2).toString());
+                    if (b >= WARMUP) {
+                        total += System.nanoTime() - t0;
+                    }
+                    // Booking flags the room unavailable; free it for the next round
+                    Room booked = rooms.findByRoomNumber(room);
+                    booked.setAvailable(true);
+                    rooms.save(booked);
+                }
+                millis[mode] = total / 1e6 / BOOKINGS;
+            }
+            System.out.printf("%,9d %18.3f %18.3f%n", size, millis[0], millis[1]);
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * The conflict check before existsOverlap, without an in-memory index
+     */
+    private static class ScanningIndex extends RoomAvailabilityIndex {
+        private final ReservationDAO reservations;
+
+        ScanningIndex(ReservationDAO reservations) {
+            this.reservations = reservations;
+        }
+
+        @Override
+        public void add(Reservation reservation) {
+        }
+
+        @Override
+        public void remove(Reservation reservation) {
+        }
+
+        @Override
+        public boolean isAvailable(String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+            try {
+                return !RoomAvailabilityIndexTest.linearConflict(reservations.findAll(), roomNumber, checkIn,
+                        checkOut);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static String room(int i) {
+        return String.format("R%03d", i);
+    }
+
+    /**
+     * The DatabaseConnection schema, without IF NOT EXISTS, which Derby lacks
+     */
+    private static void createTables(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE rooms (room_number VARCHAR(10) PRIMARY KEY, "
+                    + "room_type VARCHAR(20) NOT NULL, is_available BOOLEAN NOT NULL DEFAULT true, "
+                    + "capacity INTEGER NOT NULL, features VARCHAR(500), base_rate DOUBLE NOT NULL)");
+            stmt.executeUpdate("CREATE TABLE reservations (reservation_number VARCHAR(20) PRIMARY KEY, "
+                    + "guest_id INTEGER, guest_name VARCHAR(100) NOT NULL, guest_address VARCHAR(500), "
+                    + "guest_contact VARCHAR(20), guest_email VARCHAR(100), guest_nic VARCHAR(20), "
+                    + "room_number VARCHAR(10) NOT NULL, room_type VARCHAR(20) NOT NULL, "
+                    + "check_in_date DATE NOT NULL, check_out_date DATE NOT NULL, "
+                    + "number_of_nights INTEGER NOT NULL, total_amount DOUBLE NOT NULL, "
+                    + "status VARCHAR(20) NOT NULL DEFAULT 'PENDING', reservation_date DATE NOT NULL, "
+                    + "FOREIGN KEY (room_number) REFERENCES rooms(room_number))");
+        }
+    }
+
+    /**
+     * Back-to-back past stays per room, one in ten cancelled, in one transaction
+     */
+    private static void fill(Connection conn, int size) throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO rooms (room_number, room_type, "
+                + "is_available, capacity, features, base_rate) VALUES (?, 'DOUBLE', true, 2, 'AC', 8000)")) {
+            for (int i = 0; i < ROOMS; i++) {
+                ps.setString(1, room(i));
+                ps.executeUpdate();
+            }
+        }
+        LocalDate start = LocalDate.now().minusDays(3L * (size / ROOMS + 1) + 1);
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO reservations (reservation_number, "
+                + "guest_name, guest_contact, room_number, room_type, check_in_date, check_out_date, "
+                + "number_of_nights, total_amount, status, reservation_date) "
+                + "VALUES (?, ?, '0712345678', ?, 'DOUBLE', ?, ?, 2, 16000, ?, ?)")) {
+            for (int i = 0; i < size; i++) {
+                LocalDate checkIn = start.plusDays(3L * (i / ROOMS));
+                ps.setString(1, "HIST" + i);
+                ps.setString(2, "Guest " + i);
+                ps.setString(3, room(i % ROOMS));
+                ps.setDate(4, Date.valueOf(checkIn));
+                ps.setDate(5, Date.valueOf(checkIn.plusDays(2)));
+                ps.setString(6, i % 10 == 0 ? "CANCELLED" : "CONFIRMED");
+                ps.setDate(7, Date.valueOf(checkIn.minusDays(14)));
+                ps.addBatch();
+                if (i % 5000 == 4999) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    private static List<Map<String, Object>> roomRows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < ROOMS; i++) {
+            rows.add(FakeDatabase.row("room_number", room(i), "room_type", "DOUBLE", "is_available", true,
+                    "capacity", 2, "features", "AC"));
+        }
+        return rows;
+    }
+
+    private static List<Map<String, Object>> reservationRows(int size) {
+        LocalDate start = LocalDate.now().minusDays(3L * (size / ROOMS + 1) + 1);
+        List<Map<String, Object>> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocalDate checkIn = start.plusDays(3L * (i / ROOMS));
+            rows.add(FakeDatabase.row("reservation_number", "HIST" + i, "guest_name", "Guest " + i,
+                    "room_number", room(i % ROOMS), "room_type", "DOUBLE",
+                    "check_in_date", Date.valueOf(checkIn), "check_out_date", Date.valueOf(checkIn.plusDays(2)),
+                    "number_of_nights", 2, "total_amount", 16000.0,
+                    "status", i % 10 == 0 ? "CANCELLED" : "CONFIRMED",
+                    "reservation_date", Date.valueOf(checkIn.minusDays(14)),
+                    "rm_room_number", room(i % ROOMS), "rm_room_type", "DOUBLE", "rm_is_available", true,
+                    "rm_capacity", 2, "rm_features", "AC"));
+        }
+        return rows;
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Conflict-check cost of createReservation against reservation history size:
+ * the original linear scan versus RoomAvailabilityIndex.
+ *
+ * Storage is left out because the file store rewrites every reservation on
+ * save; this isolates the part the index replaces.
+ *
+ * Usage: java -Xmx1g ... ConflictCheckBenchmark [historySizes...]
+ */
+public class ConflictCheckBenchmark {
+    private static final int ROOMS = 23;
+    private static final int QUERIES = 2000;
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? new int[args.length] : new int[] { 1_000, 100_000, 1_000_000 };
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        System.out.println("  history      linear us/op     index us/op    build ms");
+        for (int size : sizes) {
+            List<Reservation> history = history(size);
+
+            long t0 = System.nanoTime();
+            RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+            index.load(history);
+            double buildMs = (System.nanoTime() - t0) / 1e6;
+
+            double linear = measure(history, index, true);
+            double indexed = measure(history, index, false);
+            System.out.printf("%9d %16.2f %15.3f %11.1f%n", size, linear, indexed, buildMs);
+        }
+    }
+
+    private static double measure(List<Reservation> history, RoomAvailabilityIndex index, boolean linear) {
+        Random random = new Random(7);
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        int span = history.size() / ROOMS * 4 + 30;
+        int queries = linear ? Math.max(20, QUERIES * 1000 / Math.max(1000, history.size())) : QUERIES * 50;
+        int conflicts = 0;
+
+        // Warm up, then time
+        for (int round = 0; round < 2; round++) {
+            long t0 = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                String room = "R" + (100 + random.nextInt(ROOMS));
+                LocalDate in = start.plusDays(random.nextInt(span));
+                LocalDate out = in.plusDays(1 + random.nextInt(7));
+                boolean conflict = linear
+                        ? RoomAvailabilityIndexTest.linearConflict(history, room, in, out)
+                        : !index.isAvailable(room, in, out);
+                if (conflict) conflicts++;
+            }
+            if (round == 1) {
+                double us = (System.nanoTime() - t0) / 1e3 / queries;
+                return conflicts < 0 ? -1 : us;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Back-to-back stays per room with some cancellations, like a long-running hotel
+     */
+    private static List<Reservation> history(int size) {
+        Random random = new Random(size);
+        List<Reservation> history = new ArrayList<>(size);
+        LocalDate[] next = new LocalDate[ROOMS];
+        for (int i = 0; i < ROOMS; i++) {
+            next[i] = LocalDate.of(2000, 1, 1);
+        }
+        for (int i = 0; i < size; i++) {
+            int room = i % ROOMS;
+            LocalDate in = next[room].plusDays(random.nextInt(2));
+            LocalDate out = in.plusDays(1 + random.nextInt(3));
+            next[room] = out.plusDays(1);
+            history.add(RoomAvailabilityIndexTest.reservation("R" + (100 + room), in.toString(), out.toString(),
+                    random.nextInt(10) == 0 ? "CANCELLED" : "CONFIRMED"));
+        }
+        return history;
+    }
+}
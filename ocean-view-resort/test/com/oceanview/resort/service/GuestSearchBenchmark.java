@@ -0,0 +1,100 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.model.Reservation;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Type-ahead guest name searches on a large booking history: the scan the
+ * file storage fallback does (lower-case every name, keep the ones that
+ * contain the query) against GuestSearchIndex with a limit of 20.
+ *
+ * Usage: GuestSearchBenchmark [reservations] [repetitions]
+ */
+public class GuestSearchBenchmark {
+    private static final String[] FIRST = { "Kamal", "Nimal", "Sunil", "Anura", "Chaminda", "Dilani", "Ishara",
+            "Kasun", "Lahiru", "Malini", "Nadeesha", "Pradeep", "Ruwan", "Sanduni", "Tharindu", "Upul", "John",
+            "Mary", "David", "Sarah", "Michael", "Emma", "Ahmed", "Fatima", "Priya", "Ravi", "Chen", "Yuki" };
+    private static final String[] SYLLABLES = { "ka", "ma", "ni", "sha", "ru", "de", "la", "wi", "ra", "si",
+            "pe", "ya", "go", "na", "the", "ba", "dra", "ko", "ti", "ja", "son", "ler", "ton", "ham" };
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Random random = new Random(7);
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = FIRST[random.nextInt(FIRST.length)] + " " + surname(random);
+        }
+
+        System.gc();
+        long heap0 = usedHeap();
+        long t0 = System.nanoTime();
+        GuestSearchIndex index = new GuestSearchIndex();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Reservation reservation = GuestSearchIndexTest.reservation("RES" + i, names[i]);
+            reservation.setReservationDate(start.plusDays(i / 500));
+            reservations.add(reservation);
+            if (reservations.size() == 100_000) {
+                index.load(reservations);
+                reservations.clear();
+            }
+        }
+        index.load(reservations);
+        reservations.clear();
+        double buildSeconds = (System.nanoTime() - t0) / 1e9;
+        System.gc();
+        System.out.printf("%,d reservations indexed in %.1f s, about %,d MB of heap; mean of %d searches%n%n",
+                size, buildSeconds, (usedHeap() - heap0) / (1024 * 1024), repetitions);
+
+        String[][] queries = {
+                {"k", "prefix"}, {"ka", "prefix"}, {"kam", "prefix"}, {"kamal ra", "prefix"},
+                {"dra", "prefix"}, {"ndra", "substring"}, {"sunil gowi", "substring"},
+                {"an", "substring"}, {"zq", "substring"}, {"xyz", "substring"}
+        };
+        System.out.printf("%-24s %12s %12s %10s%n", "query", "scan ms", "index ms", "matches");
+        for (String[] query : queries) {
+            String text = query[0];
+            boolean prefix = query[1].equals("prefix");
+            int[] matches = { 0 };
+            double scan = time(Math.max(1, repetitions / 20), () -> {
+                matches[0] = 0;
+                for (String name : names) {
+                    if (GuestSearchIndex.matches(name.toLowerCase(), text, prefix)) {
+                        matches[0]++;
+                    }
+                }
+            });
+            double indexed = time(repetitions, () -> index.search(text, prefix, 20));
+            System.out.printf("%-24s %12.2f %12.4f %,10d%n", query[1] + " '" + text + "'", scan, indexed, matches[0]);
+        }
+    }
+
+    private static String surname(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0, n = 2 + random.nextInt(3); i < n; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static double time(int repetitions, Runnable search) {
+        search.run(); // warm-up
+        long t0 = System.nanoTime();
+        for (int r = 0; r < repetitions; r++) {
+            search.run();
+        }
+        return (System.nanoTime() - t0) / 1e6 / repetitions;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,210 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for GuestSearchIndex against a scan of the lower-cased names.
+ */
+public class GuestSearchIndexTest {
+    private static final String[] SYLLABLES = { "ka", "ma", "ni", "sha", "ru", "de", "la", "an", "tha", "si",
+            "per", "ra", "jo", "hn", "smi", "th", "wi", "ck", "mo", "ya" };
+
+    public static void main(String[] args) {
+        GuestSearchIndexTest test = new GuestSearchIndexTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running GuestSearchIndex Tests...\n");
+
+        String[] names = {
+                "Substring search ignores case and position",
+                "Prefix search matches word starts only",
+                "One- and two-letter queries",
+                "Newest first, cut at the limit",
+                "Adding a reservation again does not repeat it",
+                "Index agrees with a scan on random names",
+                "Bookings made after loading are found, cancelled or not"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testSubstring();
+            case 1: return testPrefix();
+            case 2: return testShortQueries();
+            case 3: return testOrderAndLimit();
+            case 4: return testAddAgain();
+            case 5: return testMatchesScan();
+            default: return testServiceKeepsIndexCurrent();
+        }
+    }
+
+    private boolean testSubstring() {
+        GuestSearchIndex index = index("John Smith", "Nimal Perera", "Anne Smithers");
+        return index.search("SMITH", false, 10).equals(Arrays.asList("RES3", "RES1"))
+                && index.search("mal per", false, 10).equals(Arrays.asList("RES2"))
+                && index.search("ith", false, 10).equals(Arrays.asList("RES3", "RES1"))
+                && index.search("smyth", false, 10).isEmpty()
+                // Both trigrams of "abcy" are in the name, but not next to each other
+                && index("Abcd Xbcy").search("abcy", false, 10).isEmpty();
+    }
+
+    private boolean testPrefix() {
+        GuestSearchIndex index = index("John Smith", "Nimal Perera", "Anne Smithers");
+        return index.search("smi", true, 10).equals(Arrays.asList("RES3", "RES1"))
+                && index.search("mith", true, 10).isEmpty()
+                && index.search("Nimal P", true, 10).equals(Arrays.asList("RES2"))
+                && index.search("smithe", true, 10).equals(Arrays.asList("RES3"))
+                && index.search(" smith", true, 10).isEmpty();
+    }
+
+    private boolean testShortQueries() {
+        GuestSearchIndex index = index("John Smith", "Nimal Perera", "Anne Smithers");
+        return index.search("p", true, 10).equals(Arrays.asList("RES2"))
+                && index.search("jo", true, 10).equals(Arrays.asList("RES1"))
+                && index.search("oh", true, 10).isEmpty()
+                && index.search("oh", false, 10).equals(Arrays.asList("RES1"))
+                && index.search("e", false, 10).equals(Arrays.asList("RES3", "RES2"))
+                && index.search("", false, 10).isEmpty();
+    }
+
+    private boolean testOrderAndLimit() {
+        List<Reservation> reservations = new ArrayList<>();
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < 30; i++) {
+            // Booked out of order; the index sorts them by booking date
+            Reservation reservation = reservation("RES" + i, "Guest " + i);
+            reservation.setReservationDate(start.plusDays((i * 7) % 30));
+            reservations.add(reservation);
+        }
+        GuestSearchIndex index = new GuestSearchIndex();
+        index.load(reservations);
+        List<String> found = index.search("guest", false, 5);
+        List<String> expected = new ArrayList<>();
+        for (int day = 29; expected.size() < 5; day--) {
+            for (int i = 0; i < 30; i++) {
+                if ((i * 7) % 30 == day) {
+                    expected.add("RES" + i);
+                }
+            }
+        }
+        return found.equals(expected) && index.search("gu", false, 3).equals(expected.subList(0, 3))
+                && index.search("guest", true, 0).isEmpty();
+    }
+
+    private boolean testAddAgain() {
+        GuestSearchIndex index = index("John Smith", "Nimal Perera");
+        index.add(reservation("RES1", "John Smith"));
+        boolean unchanged = index.size() == 2 && index.search("smith", false, 10).equals(Arrays.asList("RES1"));
+        index.add(reservation("RES1", "Jane Doe"));
+        return unchanged && index.size() == 2
+                && index.search("smith", false, 10).isEmpty()
+                && index.search("jane", true, 10).equals(Arrays.asList("RES1"));
+    }
+
+    private boolean testMatchesScan() {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>();
+        GuestSearchIndex index = new GuestSearchIndex();
+        for (int i = 0; i < 2000; i++) {
+            String name = name(random) + " " + name(random);
+            names.add(name.toLowerCase());
+            index.add(reservation("RES" + i, name));
+        }
+        for (int q = 0; q < 500; q++) {
+            String name = names.get(random.nextInt(names.size()));
+            int from = random.nextInt(name.length());
+            String text = name.substring(from, Math.min(name.length(), from + 1 + random.nextInt(6)));
+            boolean prefix = random.nextBoolean();
+            List<String> expected = new ArrayList<>();
+            for (int i = names.size() - 1; i >= 0; i--) {
+                if (GuestSearchIndex.matches(names.get(i), text, prefix)) {
+                    expected.add("RES" + i);
+                }
+            }
+            if (!index.search(text, prefix, Integer.MAX_VALUE).equals(expected)
+                    || !index.search(text, prefix, 7).equals(expected.subList(0, Math.min(7, expected.size())))) {
+                System.out.println("  mismatch for " + (prefix ? "prefix" : "substring") + " '" + text + "'");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean testServiceKeepsIndexCurrent() throws Exception {
+        GuestSearchIndex index = new GuestSearchIndex();
+        ReservationService service = new ReservationService(new ReservationDAO(), new RoomDAO(),
+                new RoomAvailabilityIndex(), index);
+        String name = "Trigram Probe " + System.nanoTime();
+        LocalDate in = LocalDate.now().plusDays(430);
+        Guest guest = new Guest(name, "Colombo", "0712345678", "probe@example.com", "123456789V");
+
+        String number = service.createReservation(guest, "R106", in.toString(), in.plusDays(2).toString());
+        List<Reservation> booked = service.searchGuests(name.substring(8), false, 5);
+        service.cancelReservation(number);
+        List<Reservation> cancelled = service.searchGuests("trigram probe", true, 100);
+        return booked.size() == 1 && booked.get(0).getReservationNumber().equals(number)
+                && cancelled.stream().anyMatch(r -> r.getReservationNumber().equals(number)
+                        && "CANCELLED".equals(r.getStatus()));
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0, n = 2 + random.nextInt(2); i < n; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    /**
+     * An index of the names as RES1, RES2, ... booked one day apart in that order
+     */
+    private static GuestSearchIndex index(String... names) {
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            Reservation reservation = reservation("RES" + (i + 1), names[i]);
+            reservation.setReservationDate(LocalDate.of(2026, 1, 1).plusDays(i));
+            reservations.add(reservation);
+        }
+        GuestSearchIndex index = new GuestSearchIndex();
+        index.load(reservations);
+        return index;
+    }
+
+    static Reservation reservation(String number, String guestName) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationNumber(number);
+        reservation.setGuest(new Guest(guestName, "", "", "", ""));
+        return reservation;
+    }
+}
@@ -0,0 +1,86 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Guest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Importing many reservations one createReservation call at a time versus
+ * one importReservations call. The fake database charges a simulated time
+ * per statement and per commit (the log flush a durable engine does), and
+ * the room catalogue has one free room per booking. The waits are sleeps,
+ * which the OS rounds up to its timer tick (about 1 ms on Linux).
+ *
+ * Usage: ReservationImportBenchmark [reservations] [statementMicros] [commitMicros]
+ */
+public class ReservationImportBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long statementMicros = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        long commitMicros = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+        List<ReservationService.Booking> bookings = new ArrayList<>();
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+        for (int i = 0; i < count; i++) {
+            bookings.add(new ReservationService.Booking(
+                    new Guest("Guest " + i, "Galle", "0712345678", "guest@example.com", "901234567V"),
+                    room(i), checkIn.toString(), checkIn.plusDays(3).toString()));
+        }
+
+        System.out.printf("%,d reservations, %d us per statement, %d us per commit%n", count, statementMicros,
+                commitMicros);
+        for (boolean batched : new boolean[] {false, true}) {
+            FakeDatabase db = new FakeDatabase().rows(sql -> sql.contains("FROM rooms") ? rooms(count)
+                    : new ArrayList<>());
+            ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 5000, 0);
+            DatabaseConnection connection = new DatabaseConnection(pool, SqlDialect.DERBY);
+            RoomDAO roomDAO = new RoomDAO(connection);
+            ReservationService service = new ReservationService(new ReservationDAO(connection), roomDAO,
+                    new RoomAvailabilityIndex());
+            roomDAO.findAll(); // load the catalogue into the room cache, as a running server would have
+            db.resetCounters();
+            db.latencyMicros(statementMicros).commitLatencyMicros(commitMicros);
+
+            int created = 0;
+            long t0 = System.nanoTime();
+            if (batched) {
+                for (ReservationService.BookingResult result : service.importReservations(bookings)) {
+                    if (result.isSuccess()) created++;
+                }
+            } else {
+                for (ReservationService.Booking booking : bookings) {
+                    service.createReservation(booking.getGuest(), booking.getRoomNumber(), booking.getCheckIn(),
+                            booking.getCheckOut());
+                    created++;
+                }
+            }
+            double seconds = (System.nanoTime() - t0) / 1e9;
+            System.out.printf("%-22s %,7d created in %7.3f s (%,9.0f/s), %,6d statements, %,6d commits%n",
+                    batched ? "importReservations" : "createReservation x N", created, seconds, created / seconds,
+                    db.statementsExecuted.get(), db.commits.get());
+            pool.close();
+        }
+    }
+
+    private static String room(int i) {
+        return String.format("B%05d", i);
+    }
+
+    private static List<Map<String, Object>> rooms(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(FakeDatabase.row("room_number", room(i), "room_type", "DOUBLE", "is_available", true,
+                    "capacity", 2, "features", "AC"));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,221 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.web.ServletRouter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for bulk reservation import: batched writes in one transaction,
+ * per-booking results, rollback on failure and the batch endpoint.
+ */
+public class ReservationImportTest {
+
+    public static void main(String[] args) {
+        ReservationImportTest test = new ReservationImportTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Reservation Import Tests...\n");
+
+        String[] names = {
+                "Accepted bookings are written with one batch per table and one commit",
+                "Each booking gets its own result, in order, with the single-booking checks",
+                "A failed batch is rolled back and stored in the file store instead",
+                "Batch endpoint reports per-item results and rejects a non-array body"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testBatchedWrites();
+            case 1: return testPerBookingResults();
+            case 2: return testRollback();
+            default: return testEndpoint();
+        }
+    }
+
+    private final LocalDate start = LocalDate.now().plusDays(30);
+
+    private boolean testBatchedWrites() throws Exception {
+        FakeDatabase db = database();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+            ReservationService service = service(pool, index);
+            List<ReservationService.Booking> bookings = new ArrayList<>();
+            for (String room : new String[] {"R101", "R102", "R103"}) {
+                bookings.add(booking(room, start, start.plusDays(2)));
+            }
+            db.resetCounters();
+            List<ReservationService.BookingResult> results = service.importReservations(bookings);
+
+            long inserts = db.executedSql.stream().filter(sql -> sql.startsWith("INSERT INTO reservations")).count();
+            long updates = db.executedSql.stream().filter(sql -> sql.startsWith("UPDATE rooms")).count();
+            System.out.println("  " + db.statementsExecuted.get() + " statements, " + db.commits.get() + " commits");
+            return results.stream().allMatch(ReservationService.BookingResult::isSuccess)
+                    && inserts == 1 && updates == 1 && db.commits.get() == 1 && db.rollbacks.get() == 0
+                    && !index.isAvailable("R102", start, start.plusDays(1));
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testPerBookingResults() throws Exception {
+        FakeDatabase db = database();
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+            Reservation existing = new Reservation("RES-EXISTING", null,
+                    new Room("R102", Room.RoomType.SINGLE, true, 1, "AC"), start, start.plusDays(5));
+            existing.setStatus("CONFIRMED");
+            index.add(existing);
+            ReservationService service = service(pool, index);
+
+            List<ReservationService.BookingResult> results = service.importReservations(Arrays.asList(
+                    booking("R101", start, start.plusDays(2)),
+                    booking("R101", start.plusDays(10), start.plusDays(12)),
+                    booking("R105", start, start.plusDays(1)),
+                    booking("R999", start, start.plusDays(1)),
+                    booking("R103", start.plusDays(3), start.plusDays(1)),
+                    booking("R103", LocalDate.now().minusDays(2), LocalDate.now().plusDays(1)),
+                    new ReservationService.Booking(guest(), "R103", "2030-02-30", "2030-03-02"),
+                    booking("R102", start.plusDays(1), start.plusDays(3)),
+                    booking("R103", start, start.plusDays(4))));
+
+            String[] expected = {null, "Room not available", "Room not available", "Room not available",
+                    "Check-out must be after check-in", "Check-in cannot be in the past", "*",
+                    "Room already booked for these dates", null};
+            for (int i = 0; i < expected.length; i++) {
+                ReservationService.BookingResult result = results.get(i);
+                boolean ok = expected[i] == null ? result.isSuccess() && result.getReservationNumber() != null
+                        : !result.isSuccess() && (expected[i].equals("*") || expected[i].equals(result.getError()));
+                if (!ok) {
+                    System.out.println("  booking " + i + ": " + result.getError());
+                    return false;
+                }
+            }
+            return results.size() == expected.length
+                    && !results.get(0).getReservationNumber().equals(results.get(8).getReservationNumber());
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testRollback() throws Exception {
+        FakeDatabase db = database().failOn(sql -> sql.startsWith("INSERT INTO reservations"));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            ReservationService service = service(pool, new RoomAvailabilityIndex());
+            List<ReservationService.BookingResult> results = service.importReservations(Arrays.asList(
+                    booking("R101", start, start.plusDays(2)), booking("R102", start, start.plusDays(2))));
+
+            ReservationDAO files = new ReservationDAO();
+            int stored = 0;
+            for (ReservationService.BookingResult result : results) {
+                Reservation reservation = files.findByReservationNumber(result.getReservationNumber());
+                if (reservation != null) {
+                    stored++;
+                    reservation.setStatus("CANCELLED"); // inert for other tests sharing the data directory
+                    files.save(reservation);
+                }
+            }
+            return db.rollbacks.get() == 1 && stored == 2;
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testEndpoint() throws Exception {
+        String in = start.toString();
+        String out = start.plusDays(2).toString();
+        String body = "[" + item("Nimal Perera", "R999", in, out) + ","
+                + item("N", "R101", in, out) + ","
+                + item("Nimal Perera", "R101", "2001-01-01", "2001-01-03") + "]";
+        String response = post("/api/reservations/batch", body);
+        String json = response.substring(response.indexOf("\r\n\r\n") + 4);
+        System.out.println("  " + json);
+        return response.startsWith("HTTP/1.1 200")
+                && json.equals("{\"results\":["
+                        + "{\"index\":0,\"success\":false,\"error\":\"Room not available\"},"
+                        + "{\"index\":1,\"success\":false,\"error\":\"Invalid guest name. Use letters and spaces "
+                        + "only (minimum 2 characters)\"},"
+                        + "{\"index\":2,\"success\":false,\"error\":\"Check-in cannot be in the past\"}],"
+                        + "\"created\":0,\"failed\":3}")
+                && post("/api/reservations/batch", item("Nimal Perera", "R101", in, out)).startsWith("HTTP/1.1 400")
+                && post("/api/reservations/batch", "[").startsWith("HTTP/1.1 400");
+    }
+
+    private static String item(String name, String room, String in, String out) {
+        return "{\"name\":\"" + name + "\",\"contact\":\"0712345678\",\"roomNumber\":\"" + room
+                + "\",\"checkInDate\":\"" + in + "\",\"checkOutDate\":\"" + out + "\"}";
+    }
+
+    private static String post(String path, String body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ServletRouter().route("POST", path, new HashMap<>(), new HashMap<>(), body, null, out, false);
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static FakeDatabase database() {
+        return new FakeDatabase().rows(sql -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            if (sql.contains("FROM rooms")) {
+                for (int i = 1; i <= 5; i++) {
+                    rows.add(FakeDatabase.row("room_number", "R10" + i, "room_type", "SINGLE",
+                            "is_available", i != 5, "capacity", 1, "features", "AC"));
+                }
+            }
+            return rows;
+        });
+    }
+
+    private static ReservationService service(ConnectionPool pool, RoomAvailabilityIndex index) {
+        DatabaseConnection connection = new DatabaseConnection(pool, SqlDialect.DERBY);
+        return new ReservationService(new ReservationDAO(connection), new RoomDAO(connection), index,
+                new RoomLocks(8));
+    }
+
+    private static ReservationService.Booking booking(String room, LocalDate checkIn, LocalDate checkOut) {
+        return new ReservationService.Booking(guest(), room, checkIn.toString(), checkOut.toString());
+    }
+
+    private static Guest guest() {
+        return new Guest("Nimal Perera", "12, Galle Rd", "0712345678", "nimal@example.com", "901234567V");
+    }
+}
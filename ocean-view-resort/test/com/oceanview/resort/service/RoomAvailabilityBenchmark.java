@@ -0,0 +1,73 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latency of the availability search for a large property: every room is
+ * checked for the requested stay against a multi-year booking history.
+ *
+ * Usage: RoomAvailabilityBenchmark [rooms] [years]
+ */
+public class RoomAvailabilityBenchmark {
+    private static final int SEARCHES = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int roomCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int years = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Room.RoomType[] types = Room.RoomType.values();
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Room("R" + (1000 + i), types[i % types.length], true, 1 + i % 4, "AC, TV"));
+        }
+
+        // Stays of 1-7 nights with gaps, from a year ago to `years` ahead
+        Random random = new Random(1);
+        LocalDate start = LocalDate.now().minusYears(1);
+        LocalDate end = LocalDate.now().plusYears(years);
+        List<Reservation> history = new ArrayList<>();
+        for (Room room : rooms) {
+            LocalDate day = start.plusDays(random.nextInt(5));
+            while (day.isBefore(end)) {
+                LocalDate out = day.plusDays(1 + random.nextInt(7));
+                history.add(RoomAvailabilityIndexTest.reservation(room.getRoomNumber(), day.toString(),
+                        out.toString(), random.nextInt(8) == 0 ? "CANCELLED" : "CONFIRMED"));
+                day = out.plusDays(1 + random.nextInt(4));
+            }
+        }
+
+        long t0 = System.nanoTime();
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        index.load(history);
+        System.out.printf("%d rooms, %d reservations, index built in %.1f ms%n", roomCount, history.size(),
+                (System.nanoTime() - t0) / 1e6);
+
+        ReservationService service = new ReservationService(new ReservationDAO(),
+                new RoomAvailabilitySearchTest.FixedRoomDAO(rooms), index);
+
+        long[] samples = new long[SEARCHES];
+        int found = 0;
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < SEARCHES; i++) {
+                LocalDate in = LocalDate.now().plusDays(1 + random.nextInt(365 * years - 14));
+                LocalDate out = in.plusDays(1 + random.nextInt(10));
+                Room.RoomType type = random.nextBoolean() ? null : types[random.nextInt(types.length)];
+                long s = System.nanoTime();
+                found += service.findAvailableRooms(in, out, type, random.nextInt(3)).size();
+                samples[i] = System.nanoTime() - s;
+            }
+        }
+
+        Arrays.sort(samples);
+        System.out.printf("search: p50 %.3f ms, p99 %.3f ms, max %.3f ms (avg %d rooms returned)%n",
+                samples[SEARCHES / 2] / 1e6, samples[SEARCHES * 99 / 100] / 1e6, samples[SEARCHES - 1] / 1e6,
+                found / (2 * SEARCHES));
+    }
+}
@@ -0,0 +1,265 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for RoomAvailabilityIndex against the original linear conflict scan.
+ */
+public class RoomAvailabilityIndexTest {
+
+    public static void main(String[] args) {
+        RoomAvailabilityIndexTest test = new RoomAvailabilityIndexTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running RoomAvailabilityIndex Tests...\n");
+
+        String[] names = {
+                "Check-in and check-out days are both occupied",
+                "Cancelled and overlapping reservations counted correctly",
+                "Stays earlier than the first indexed day",
+                "Index agrees with linear scan on random data",
+                "Create and cancel keep the index current",
+                "Stored index asks the database one bounded query per check",
+                "Stored index agrees with linear scan on stored reservations",
+                "Overlong and far-off stays refused without growing the calendar"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testInclusiveBoundaries();
+            case 1: return testCountsAndStatus();
+            case 2: return testEarlierStays();
+            case 3: return testMatchesLinearScan();
+            case 4: return testServiceUpdatesIndex();
+            case 5: return testStoredQuery();
+            case 6: return testStoredMatchesLinearScan();
+            default: return testBoundedCalendar();
+        }
+    }
+
+    private boolean testInclusiveBoundaries() {
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        index.add(reservation("R101", "2026-05-10", "2026-05-12", "CONFIRMED"));
+        return !index.isAvailable("R101", date("2026-05-12"), date("2026-05-14"))
+                && !index.isAvailable("R101", date("2026-05-08"), date("2026-05-10"))
+                && index.isAvailable("R101", date("2026-05-13"), date("2026-05-15"))
+                && index.isAvailable("R101", date("2026-05-07"), date("2026-05-09"))
+                && index.isAvailable("R102", date("2026-05-10"), date("2026-05-12"));
+    }
+
+    private boolean testCountsAndStatus() {
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        Reservation first = reservation("R201", "2026-06-01", "2026-06-05", "CONFIRMED");
+        Reservation second = reservation("R201", "2026-06-04", "2026-06-08", "PENDING");
+        index.add(first);
+        index.add(second);
+        index.add(reservation("R201", "2026-07-01", "2026-07-03", "CANCELLED"));
+
+        boolean cancelledIgnored = index.isAvailable("R201", date("2026-07-01"), date("2026-07-03"));
+        index.remove(first);
+        boolean overlapKept = !index.isAvailable("R201", date("2026-06-04"), date("2026-06-04"));
+        boolean freed = index.isAvailable("R201", date("2026-06-01"), date("2026-06-03"));
+        index.remove(second);
+        return cancelledIgnored && overlapKept && freed
+                && index.isAvailable("R201", date("2026-06-01"), date("2026-06-08"));
+    }
+
+    private boolean testEarlierStays() {
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        index.add(reservation("R301", "2027-01-10", "2027-01-12", "CONFIRMED"));
+        index.add(reservation("R301", "2020-03-01", "2020-03-02", "CONFIRMED"));
+        return !index.isAvailable("R301", date("2027-01-11"), date("2027-01-20"))
+                && !index.isAvailable("R301", date("2020-02-25"), date("2020-03-01"))
+                && index.isAvailable("R301", date("2020-03-03"), date("2027-01-09"));
+    }
+
+    private boolean testMatchesLinearScan() {
+        Random random = new Random(42);
+        List<Reservation> history = new ArrayList<>();
+        LocalDate start = date("2025-01-01");
+        String[] statuses = { "CONFIRMED", "PENDING", "CANCELLED" };
+        for (int i = 0; i < 2000; i++) {
+            LocalDate in = start.plusDays(random.nextInt(700));
+            history.add(reservation("R" + (101 + random.nextInt(10)), in.toString(),
+                    in.plusDays(1 + random.nextInt(10)).toString(), statuses[random.nextInt(3)]));
+        }
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        index.load(history);
+
+        for (int q = 0; q < 5000; q++) {
+            String room = "R" + (101 + random.nextInt(12));
+            LocalDate in = start.plusDays(random.nextInt(760) - 30);
+            LocalDate out = in.plusDays(1 + random.nextInt(14));
+            if (index.isAvailable(room, in, out) == linearConflict(history, room, in, out)) {
+                System.out.println("  mismatch for " + room + " " + in + ".." + out);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean testServiceUpdatesIndex() throws Exception {
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        ReservationService service = new ReservationService(new com.oceanview.resort.dao.ReservationDAO(),
+                new com.oceanview.resort.dao.RoomDAO(), index);
+        LocalDate in = LocalDate.now().plusDays(400);
+        Guest guest = new Guest("Index Test", "Colombo", "0712345678", "index@example.com", "123456789V");
+
+        String number = service.createReservation(guest, "R105", in.toString(), in.plusDays(2).toString());
+        boolean booked = !index.isAvailable("R105", in, in.plusDays(2));
+        service.cancelReservation(number);
+        return booked && index.isAvailable("R105", in, in.plusDays(2));
+    }
+
+    private boolean testStoredQuery() throws Exception {
+        List<Boolean> booked = new ArrayList<>(Arrays.asList(true));
+        FakeDatabase db = new FakeDatabase().rows(sql -> booked.get(0)
+                ? new ArrayList<>(Arrays.asList(FakeDatabase.row("1", 1))) : new ArrayList<>());
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 1000, 0);
+        try {
+            ReservationDAO dao = new ReservationDAO(new DatabaseConnection(pool, SqlDialect.DERBY));
+            RoomAvailabilityIndex index = new StoredAvailabilityIndex(dao);
+            index.load(Arrays.asList(reservation("R101", "2026-05-10", "2026-05-12", "CONFIRMED")));
+            db.resetCounters();
+
+            boolean taken = !index.isAvailable("R101", date("2026-05-12"), date("2026-05-14"));
+            String sql = db.executedSql.get(0);
+            List<Object> parameters = db.executedParameters.get(0);
+            booked.set(0, false);
+            boolean free = index.isAvailable("R101", date("2026-05-12"), date("2026-05-14"));
+            System.out.println("  " + sql);
+            return taken && free && db.statementsExecuted.get() == 2
+                    && sql.equals("SELECT 1 FROM reservations WHERE room_number = ? AND check_in_date <= ? "
+                            + "AND check_out_date >= ? AND status IN ('CONFIRMED', 'PENDING') "
+                            + "FETCH FIRST ? ROWS ONLY")
+                    && parameters.equals(Arrays.asList("R101", Date.valueOf("2026-05-14"),
+                            Date.valueOf("2026-05-12"), 1));
+        } finally {
+            pool.close();
+        }
+    }
+
+    private boolean testStoredMatchesLinearScan() throws Exception {
+        // Rooms of this run only, as the data directory is shared
+        String prefix = "OV" + (System.nanoTime() % 100_000) + "-";
+        Random random = new Random(43);
+        List<Reservation> history = new ArrayList<>();
+        LocalDate start = date("2025-01-01");
+        String[] statuses = { "CONFIRMED", "PENDING", "CANCELLED" };
+        ReservationDAO dao = new ReservationDAO();
+        for (int i = 0; i < 300; i++) {
+            LocalDate in = start.plusDays(random.nextInt(200));
+            Reservation reservation = reservation(prefix + random.nextInt(5), in.toString(),
+                    in.plusDays(1 + random.nextInt(10)).toString(), statuses[random.nextInt(3)]);
+            reservation.setReservationNumber(prefix + "RES" + i);
+            history.add(reservation);
+        }
+        dao.insertAll(history);
+
+        RoomAvailabilityIndex index = new StoredAvailabilityIndex(dao);
+        for (int q = 0; q < 500; q++) {
+            String room = prefix + random.nextInt(6);
+            LocalDate in = start.plusDays(random.nextInt(230) - 15);
+            LocalDate out = in.plusDays(1 + random.nextInt(14));
+            if (index.isAvailable(room, in, out) == linearConflict(history, room, in, out)) {
+                System.out.println("  mismatch for " + room + " " + in + ".." + out);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The conflict rule ReservationService used before the index
+     */
+    static boolean linearConflict(List<Reservation> reservations, String roomNumber, LocalDate checkIn,
+            LocalDate checkOut) {
+        for (Reservation r : reservations) {
+            if (r.getRoom() != null && r.getRoom().getRoomNumber().equals(roomNumber)
+                    && ("CONFIRMED".equals(r.getStatus()) || "PENDING".equals(r.getStatus()))) {
+                if (!(checkOut.isBefore(r.getCheckInDate()) || checkIn.isAfter(r.getCheckOutDate()))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean testBoundedCalendar() {
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        index.add(reservation("R101", "2026-05-10", "2026-05-12", "CONFIRMED"));
+        boolean tooLong = refused(index, reservation("R101", "2026-06-01", "2027-06-02", "CONFIRMED"));
+        boolean farFuture = refused(index, reservation("R101", "+999999-12-30", "+999999-12-31", "CONFIRMED"));
+        boolean farPast = refused(index, reservation("R101", "-999999-01-01", "-999999-01-02", "CONFIRMED"));
+
+        // Loading skips what the index refuses and keeps the rest
+        RoomAvailabilityIndex loaded = new RoomAvailabilityIndex();
+        loaded.load(Arrays.asList(reservation("R102", "2026-05-10", "2027-12-31", "CONFIRMED"),
+                reservation("R102", "2026-05-20", "2026-05-22", "CONFIRMED")));
+
+        return tooLong && farFuture && farPast
+                && !index.isAvailable("R101", date("2026-05-11"), date("2026-05-11"))
+                && index.isAvailable("R101", date("2026-06-01"), date("2026-06-05"))
+                && index.isAvailable("R101", date("2026-05-13"), date("+999999-12-31"))
+                && index.isAvailable("R101", date("-999999-01-01"), date("2026-05-09"))
+                && !index.isAvailable("R101", date("-999999-01-01"), date("+999999-12-31"))
+                && !loaded.isAvailable("R102", date("2026-05-21"), date("2026-05-21"))
+                && loaded.isAvailable("R102", date("2026-06-01"), date("2026-06-02"));
+    }
+
+    private static boolean refused(RoomAvailabilityIndex index, Reservation reservation) {
+        try {
+            index.add(reservation);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    static Reservation reservation(String room, String in, String out, String status) {
+        Reservation reservation = new Reservation("RES-" + room + "-" + in, null,
+                new Room(room, Room.RoomType.SINGLE, true, 1, "AC"), date(in), date(out));
+        reservation.setStatus(status);
+        return reservation;
+    }
+
+    private static LocalDate date(String value) {
+        return LocalDate.parse(value);
+    }
+}
@@ -0,0 +1,167 @@
+package com.oceanview.resort.service;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.dao.RoomDAO;
+import com.oceanview.resort.model.Room;
+import com.oceanview.resort.web.ServletRouter;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for the date-range room availability search.
+ */
+public class RoomAvailabilitySearchTest {
+    private static final LocalDate BASE = LocalDate.now().plusDays(30);
+
+    public static void main(String[] args) {
+        RoomAvailabilitySearchTest test = new RoomAvailabilitySearchTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Room Availability Search Tests...\n");
+
+        String[] names = {
+                "Rooms booked during the stay are excluded",
+                "Type and capacity filters applied",
+                "Invalid stays rejected",
+                "GET /api/rooms/availability answers with JSON",
+                "GET /api/rooms/availability validates parameters"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testBookedRoomsExcluded();
+            case 1: return testFilters();
+            case 2: return testInvalidStay();
+            case 3: return testEndpoint();
+            default: return testEndpointValidation();
+        }
+    }
+
+    private boolean testBookedRoomsExcluded() throws Exception {
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex();
+        index.add(RoomAvailabilityIndexTest.reservation("R101", BASE.toString(), BASE.plusDays(3).toString(),
+                "CONFIRMED"));
+        ReservationService service = service(index);
+
+        List<String> during = numbers(service.findAvailableRooms(BASE.plusDays(2), BASE.plusDays(5), null, 0));
+        List<String> after = numbers(service.findAvailableRooms(BASE.plusDays(4), BASE.plusDays(6), null, 0));
+        return !during.contains("R101") && during.contains("R102")
+                && after.contains("R101")
+                && !during.contains("R103"); // flagged unavailable
+    }
+
+    private boolean testFilters() throws Exception {
+        ReservationService service = service(new RoomAvailabilityIndex());
+        List<String> doubles = numbers(service.findAvailableRooms(BASE, BASE.plusDays(1), Room.RoomType.DOUBLE, 0));
+        List<String> large = numbers(service.findAvailableRooms(BASE, BASE.plusDays(1), null, 3));
+        return doubles.equals(List.of("R201")) && large.equals(List.of("R401"));
+    }
+
+    private boolean testInvalidStay() throws Exception {
+        ReservationService service = service(new RoomAvailabilityIndex());
+        int rejected = 0;
+        try {
+            service.findAvailableRooms(BASE.plusDays(2), BASE, null, 0);
+        } catch (IllegalArgumentException e) {
+            rejected++;
+        }
+        try {
+            service.findAvailableRooms(LocalDate.now().minusDays(3), LocalDate.now().minusDays(1), null, 0);
+        } catch (IllegalArgumentException e) {
+            rejected++;
+        }
+        return rejected == 2;
+    }
+
+    private boolean testEndpoint() throws Exception {
+        Map<String, String> params = new HashMap<>();
+        params.put("from", BASE.toString());
+        params.put("to", BASE.plusDays(2).toString());
+        params.put("type", "suite");
+        String response = get("/api/rooms/availability", params);
+        return response.startsWith("HTTP/1.1 200") && response.contains("\"roomType\":\"SUITE\"")
+                && !response.contains("\"roomType\":\"SINGLE\"");
+    }
+
+    private boolean testEndpointValidation() throws Exception {
+        Map<String, String> missing = new HashMap<>();
+        missing.put("from", BASE.toString());
+        Map<String, String> badType = new HashMap<>(missing);
+        badType.put("to", BASE.plusDays(1).toString());
+        badType.put("type", "PENTHOUSE");
+        Map<String, String> badDate = new HashMap<>(missing);
+        badDate.put("to", "tomorrow");
+        return get("/api/rooms/availability", missing).startsWith("HTTP/1.1 400")
+                && get("/api/rooms/availability", badType).startsWith("HTTP/1.1 400")
+                && get("/api/rooms/availability", badDate).startsWith("HTTP/1.1 400");
+    }
+
+    private static String get(String path, Map<String, String> params) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ServletRouter().route("GET", path, params, new HashMap<>(), "", null, out, false);
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static ReservationService service(RoomAvailabilityIndex index) {
+        return new ReservationService(new ReservationDAO(), new FixedRoomDAO(rooms()), index);
+    }
+
+    private static List<Room> rooms() {
+        List<Room> rooms = new ArrayList<>();
+        rooms.add(new Room("R101", Room.RoomType.SINGLE, true, 1, "AC"));
+        rooms.add(new Room("R102", Room.RoomType.SINGLE, true, 1, "AC"));
+        rooms.add(new Room("R103", Room.RoomType.SINGLE, false, 1, "AC"));
+        rooms.add(new Room("R201", Room.RoomType.DOUBLE, true, 2, "AC"));
+        rooms.add(new Room("R401", Room.RoomType.SUITE, true, 4, "AC"));
+        return rooms;
+    }
+
+    private static List<String> numbers(List<Room> rooms) {
+        return rooms.stream().map(Room::getRoomNumber).collect(Collectors.toList());
+    }
+
+    /**
+     * RoomDAO over a fixed in-memory list
+     */
+    static class FixedRoomDAO extends RoomDAO {
+        private final List<Room> rooms;
+
+        FixedRoomDAO(List<Room> rooms) {
+            this.rooms = rooms;
+        }
+
+        @Override
+        public List<Room> findAll() {
+            return rooms;
+        }
+    }
+}
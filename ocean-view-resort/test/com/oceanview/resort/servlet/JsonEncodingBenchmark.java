@@ -0,0 +1,74 @@
+package com.oceanview.resort.servlet;
+
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Time and heap allocation per call of toJSON(Reservation) and toJSON(Room),
+ * with the String.format encoders the servlets used before and with the
+ * shared JsonWriter. Both produce the UTF-8 bytes sent on the wire.
+ * Allocation is read from the thread's allocated-bytes counter.
+ *
+ * Usage: JsonEncodingBenchmark [iterations]
+ */
+public class JsonEncodingBenchmark {
+    private static final int ROUNDS = 5;
+
+    private static volatile int sink;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+
+        Room room = new Room("R305", Room.RoomType.DELUXE, true, 2, "AC, TV, WiFi, Mini Bar, Balcony");
+        Reservation reservation = new Reservation("RES-20260301-0042",
+                new Guest("Nimal Perera", "12 Galle Road, Colombo 03", "0712345678", "nimal@example.com",
+                        "901234567V"), room, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 4));
+        reservation.calculateNights();
+        reservation.calculateTotalAmount();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.out.printf("%,d calls per round, best of %d rounds%n", iterations, ROUNDS);
+        System.out.printf("%-34s %10s %12s%n", "", "ns/op", "bytes/op");
+
+        run(threads, "toJSON(Reservation) String.format", iterations,
+                () -> JsonWriterTest.legacyJSON(reservation).getBytes(StandardCharsets.UTF_8).length);
+        run(threads, "toJSON(Reservation) JsonWriter", iterations,
+                () -> ReservationServlet.toJSON(JsonWriter.get(), reservation, null).size());
+        run(threads, "toJSON(Room) String.format", iterations,
+                () -> JsonWriterTest.legacyJSON(room).getBytes(StandardCharsets.UTF_8).length);
+        run(threads, "toJSON(Room) JsonWriter", iterations,
+                () -> RoomServlet.toJSON(JsonWriter.get(), room, null).size());
+    }
+
+    private interface Encoder {
+        int encode();
+    }
+
+    private static void run(com.sun.management.ThreadMXBean threads, String name, int iterations,
+            Encoder encoder) {
+        long thread = Thread.currentThread().getId();
+        double bestNs = Double.MAX_VALUE;
+        double bestBytes = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS + 1; round++) {
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long t0 = System.nanoTime();
+            int total = 0;
+            for (int i = 0; i < iterations; i++) {
+                total += encoder.encode();
+            }
+            long elapsed = System.nanoTime() - t0;
+            long bytes = threads.getThreadAllocatedBytes(thread) - allocated;
+            sink += total;
+            if (round > 0) { // the first round is warm-up
+                bestNs = Math.min(bestNs, (double) elapsed / iterations);
+                bestBytes = Math.min(bestBytes, (double) bytes / iterations);
+            }
+        }
+        System.out.printf("%-34s %10.1f %12.1f%n", name, bestNs, bestBytes);
+    }
+}
@@ -0,0 +1,89 @@
+package com.oceanview.resort.servlet;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Time and heap allocation per parsed booking body, with the regex and
+ * split parser ReservationServlet and LoginServlet used before and with
+ * JsonReader. The body has no commas or colons inside values, so the old
+ * parser reads it correctly too.
+ *
+ * Usage: JsonParsingBenchmark [iterations]
+ */
+public class JsonParsingBenchmark {
+    private static final int ROUNDS = 5;
+    private static final String BODY = "{\"name\":\"Nimal Perera\",\"address\":\"12 Galle Road Colombo 03\","
+            + "\"contact\":\"0712345678\",\"email\":\"nimal@example.com\",\"nic\":\"901234567V\","
+            + "\"roomNumber\":\"R305\",\"checkInDate\":\"2026-03-01\",\"checkOutDate\":\"2026-03-04\"}";
+
+    private static volatile int sink;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        System.out.printf("%d-byte body, %,d parses per round, best of %d rounds%n", BODY.length(), iterations,
+                ROUNDS);
+        System.out.printf("%-24s %10s %12s%n", "", "ns/op", "bytes/op");
+
+        run(threads, "regex and split", iterations, () -> legacyParse(BODY).get("checkOutDate").length());
+        run(threads, "JsonReader", iterations, () -> {
+            JsonReader json = new JsonReader(BODY);
+            ReservationServlet.BookingRequest booking = ReservationServlet.BookingRequest.read(json);
+            json.endDocument();
+            return booking.checkOutDate.length();
+        });
+    }
+
+    private interface Parser {
+        int parse();
+    }
+
+    private static void run(com.sun.management.ThreadMXBean threads, String name, int iterations, Parser parser) {
+        long thread = Thread.currentThread().getId();
+        double bestNs = Double.MAX_VALUE;
+        double bestBytes = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS + 1; round++) {
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long t0 = System.nanoTime();
+            int total = 0;
+            for (int i = 0; i < iterations; i++) {
+                total += parser.parse();
+            }
+            long elapsed = System.nanoTime() - t0;
+            long bytes = threads.getThreadAllocatedBytes(thread) - allocated;
+            sink += total;
+            if (round > 0) { // the first round is warm-up
+                bestNs = Math.min(bestNs, (double) elapsed / iterations);
+                bestBytes = Math.min(bestBytes, (double) bytes / iterations);
+            }
+        }
+        System.out.printf("%-24s %10.1f %12.1f%n", name, bestNs, bestBytes);
+    }
+
+    /**
+     * ReservationServlet.parseJSON before JsonReader
+     */
+    private static Map<String, String> legacyParse(String json) {
+        Map<String, String> result = new HashMap<>();
+        if (json == null || json.trim().isEmpty()) {
+            return result;
+        }
+
+        json = json.trim().replaceAll("^\\{", "").replaceAll("\\}$", "");
+        String[] pairs = json.split(",");
+
+        for (String pair : pairs) {
+            String[] keyValue = pair.split(":", 2);
+            if (keyValue.length == 2) {
+                String key = keyValue[0].trim().replaceAll("\"", "");
+                String value = keyValue[1].trim().replaceAll("\"", "");
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,359 @@
+package com.oceanview.resort.servlet;
+
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.service.ReservationService;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Tests for the JSON request parser: typed reads, nesting, rejection of
+ * malformed bodies, and fuzzing with generated and mutated documents.
+ */
+public class JsonReaderTest {
+    private static final int FUZZ_DOCUMENTS = 20_000;
+
+    public static void main(String[] args) {
+        JsonReaderTest test = new JsonReaderTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running JsonReader Tests...\n");
+
+        String[] names = {
+                "Values with commas, colons and escapes are read intact",
+                "Nested objects and arrays are walked and skipped",
+                "Malformed bodies are rejected with IllegalArgumentException",
+                "Fuzz: generated documents read back to the same values",
+                "Fuzz: mutated documents either parse or fail cleanly",
+                "Booking POST keeps an address with commas; bad JSON gives 400"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testValues();
+            case 1: return testNesting();
+            case 2: return testMalformed();
+            case 3: return testGeneratedDocuments();
+            case 4: return testMutatedDocuments();
+            default: return testBookingPost();
+        }
+    }
+
+    private boolean testValues() {
+        JsonReader json = new JsonReader(" { \"address\" : \"12, Galle Rd: Colombo\", \"note\":\"a\\\"b\\\\c\\n\\u00e9\\/\","
+                + "\"nights\":3, \"nightsText\":\"3\", \"rate\":-1.5e2, \"ok\":true, \"gone\":null, \"big\":"
+                + Long.MIN_VALUE + "}\n");
+        json.beginObject();
+        boolean ok = json.nextName().equals("address") && json.nextString().equals("12, Galle Rd: Colombo")
+                && json.nextName().equals("note") && json.nextString().equals("a\"b\\c\né/")
+                && json.nextName().equals("nights") && json.nextLong() == 3
+                && json.nextName().equals("nightsText") && json.nextLong() == 3
+                && json.nextName().equals("rate") && json.nextDouble() == -150.0
+                && json.nextName().equals("ok") && json.nextBoolean()
+                && json.nextName().equals("gone") && json.nextString() == null
+                && json.nextName().equals("big") && json.nextLong() == Long.MIN_VALUE
+                && !json.hasNext();
+        json.endObject();
+        json.endDocument();
+        return ok && new JsonReader("42").nextString().equals("42");
+    }
+
+    private boolean testNesting() {
+        JsonReader json = new JsonReader("{\"skip\":{\"a\":[1,{\"b\":[[],{}]},\"x\"],\"c\":null},"
+                + "\"items\":[{\"n\":1},{\"n\":2,\"extra\":[true,false]}],\"last\":\"end\"}");
+        List<Long> numbers = new ArrayList<>();
+        String last = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (name.equals("items")) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        if (json.nextName().equals("n")) {
+                            numbers.add(json.nextLong());
+                        } else {
+                            json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                }
+                json.endArray();
+            } else if (name.equals("last")) {
+                last = json.nextString();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        json.endDocument();
+
+        // skipValue at a name skips the name and its value
+        JsonReader named = new JsonReader("{\"a\":[1,2],\"b\":7}");
+        named.beginObject();
+        named.skipValue();
+        return numbers.equals(Arrays.asList(1L, 2L)) && "end".equals(last)
+                && named.nextName().equals("b") && named.nextLong() == 7;
+    }
+
+    private boolean testMalformed() {
+        String deep = repeat("[", JsonReader.MAX_DEPTH + 1) + repeat("]", JsonReader.MAX_DEPTH + 1);
+        String[] bad = {"", "   ", "{", "}", "{\"a\"}", "{\"a\":}", "{\"a\":1,}", "[1,]", "[,1]", "{a:1}",
+                "{'a':1}", "[01]", "[1.]", "[.5]", "[1e]", "[-]", "[+1]", "[tru]", "[nul]", "[truex]",
+                "[\"abc]", "[\"a\\x\"]", "[\"\\u12G4\"]", "[\"\\u12\"]", "[\"line\nbreak\"]", "{} {}", "[1] x",
+                "[1 2]", "{\"a\":1 \"b\":2}", "[NaN]", "[Infinity]", deep, "\"unterminated\\"};
+        for (String json : bad) {
+            try {
+                read(new JsonReader(json), true);
+                System.out.println("  accepted: " + json);
+                return false;
+            } catch (IllegalArgumentException expected) {
+                if (!expected.getMessage().startsWith("Invalid JSON at offset")) {
+                    System.out.println("  " + expected.getMessage());
+                    return false;
+                }
+            }
+        }
+
+        // Typed reads check the token they are given
+        String[][] mismatched = {{"{\"n\":\"three\"}", "long"}, {"{\"n\":1.5}", "long"}, {"{\"n\":[1]}", "string"},
+                {"{\"n\":1}", "boolean"}, {"{\"n\":99999999999999999999}", "long"}};
+        for (String[] c : mismatched) {
+            JsonReader json = new JsonReader(c[0]);
+            json.beginObject();
+            json.nextName();
+            try {
+                if (c[1].equals("long")) json.nextLong();
+                else if (c[1].equals("string")) json.nextString();
+                else json.nextBoolean();
+                System.out.println("  accepted " + c[1] + ": " + c[0]);
+                return false;
+            } catch (IllegalArgumentException expected) {
+                // rejected as it should be
+            }
+        }
+        return true;
+    }
+
+    private boolean testGeneratedDocuments() {
+        Random random = new Random(18);
+        for (int i = 0; i < FUZZ_DOCUMENTS; i++) {
+            Object value = randomValue(random, 0);
+            JsonWriter writer = JsonWriter.get();
+            write(writer, value);
+            String text = pad(random, writer.toString(), random.nextInt(3));
+            Object read = read(new JsonReader(text), true);
+            if (!Objects.equals(value, read)) {
+                System.out.println("  wrote " + text + "\n  read  " + read);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean testMutatedDocuments() {
+        Random random = new Random(1018);
+        String alphabet = "{}[]:,\"\\ -0123456789.eEtrufalsn\n\u00e9\uD83C";
+        int parsed = 0;
+        for (int i = 0; i < FUZZ_DOCUMENTS; i++) {
+            JsonWriter writer = JsonWriter.get();
+            write(writer, randomValue(random, 0));
+            StringBuilder text = new StringBuilder(writer.toString());
+            for (int edits = 1 + random.nextInt(3); edits > 0 && text.length() > 0; edits--) {
+                int at = random.nextInt(text.length());
+                switch (random.nextInt(4)) {
+                    case 0: text.deleteCharAt(at); break;
+                    case 1: text.insert(at, alphabet.charAt(random.nextInt(alphabet.length()))); break;
+                    case 2: text.setCharAt(at, alphabet.charAt(random.nextInt(alphabet.length()))); break;
+                    default: text.setLength(at);
+                }
+            }
+            try {
+                read(new JsonReader(text.toString()), true);
+                parsed++;
+            } catch (IllegalArgumentException expected) {
+                // malformed input must fail this way and no other
+            } catch (RuntimeException | StackOverflowError e) {
+                System.out.println("  " + e + " for " + text);
+                return false;
+            }
+        }
+        System.out.println("  " + parsed + " of " + FUZZ_DOCUMENTS + " mutated documents were still valid JSON");
+        return true;
+    }
+
+    private boolean testBookingPost() throws Exception {
+        Guest[] booked = new Guest[1];
+        ReservationServlet servlet = new ReservationServlet(new ReservationService() {
+            @Override
+            public String createReservation(Guest guest, String roomNumber, String checkIn, String checkOut) {
+                booked[0] = guest;
+                return "RES-TEST";
+            }
+        });
+        String created = post(servlet, "{\"name\":\"Nimal Perera\",\"address\":\"12, Galle Rd: Colombo 03\","
+                + "\"contact\":\"0712345678\",\"email\":\"n@example.com\",\"nic\":\"901234567V\","
+                + "\"roomNumber\":\"R101\",\"checkInDate\":\"2030-03-01\",\"checkOutDate\":\"2030-03-04\","
+                + "\"extras\":{\"cot\":true,\"notes\":[\"late, check-in\"]}}");
+        String malformed = post(servlet, "{\"name\":\"Nimal\",");
+        String nested = post(servlet, "{\"name\":{\"first\":\"Nimal\"}}");
+        String login = post(new LoginServlet(), "{\"username\":");
+        return created.startsWith("HTTP/1.1 201") && booked[0] != null
+                && booked[0].getAddress().equals("12, Galle Rd: Colombo 03")
+                && malformed.startsWith("HTTP/1.1 400") && malformed.contains("Invalid JSON at offset")
+                && nested.startsWith("HTTP/1.1 400") && login.startsWith("HTTP/1.1 400");
+    }
+
+    private static String post(Servlet servlet, String body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        servlet.service(new Servlet.HttpServletRequest("POST", "/api/reservations", new HashMap<>(),
+                new HashMap<>(), body, null), new Servlet.HttpServletResponse(out, false));
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Read any value into maps, lists, strings, numbers and booleans
+     */
+    static Object read(JsonReader json, boolean whole) {
+        Object value;
+        switch (json.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> object = new LinkedHashMap<>();
+                json.beginObject();
+                while (json.hasNext()) {
+                    String name = json.nextName();
+                    object.put(name, read(json, false));
+                }
+                json.endObject();
+                value = object;
+                break;
+            case BEGIN_ARRAY:
+                List<Object> array = new ArrayList<>();
+                json.beginArray();
+                while (json.hasNext()) {
+                    array.add(read(json, false));
+                }
+                json.endArray();
+                value = array;
+                break;
+            case NUMBER:
+                value = json.nextDouble();
+                break;
+            case BOOLEAN:
+                value = json.nextBoolean();
+                break;
+            case NULL:
+                json.nextNull();
+                value = null;
+                break;
+            default:
+                value = json.nextString();
+        }
+        if (whole) {
+            json.endDocument();
+        }
+        return value;
+    }
+
+    private static Object randomValue(Random random, int depth) {
+        int kind = random.nextInt(depth < 6 ? 7 : 5);
+        switch (kind) {
+            case 0: return null;
+            case 1: return random.nextBoolean();
+            case 2: return (double) (random.nextInt(2_000_001) - 1_000_000);
+            case 3: return randomString(random);
+            case 4: return random.nextInt(100_000) / 100.0;
+            case 5:
+                List<Object> array = new ArrayList<>();
+                for (int i = random.nextInt(5); i > 0; i--) array.add(randomValue(random, depth + 1));
+                return array;
+            default:
+                Map<String, Object> object = new LinkedHashMap<>();
+                for (int i = random.nextInt(5); i > 0; i--) {
+                    object.put(randomString(random), randomValue(random, depth + 1));
+                }
+                return object;
+        }
+    }
+
+    private static String randomString(Random random) {
+        String pool = "abc ,:{}[]\"\\/\n\t\u0001é✓\uD83C\uDF0A";
+        StringBuilder s = new StringBuilder();
+        for (int i = random.nextInt(8); i > 0; i--) {
+            char c = pool.charAt(random.nextInt(pool.length()));
+            if (Character.isSurrogate(c)) {
+                s.append("\uD83C\uDF0A");
+            } else {
+                s.append(c);
+            }
+        }
+        return s.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void write(JsonWriter json, Object value) {
+        if (value == null) {
+            json.nullValue();
+        } else if (value instanceof Boolean) {
+            json.value((boolean) value);
+        } else if (value instanceof Double) {
+            json.value((double) value, 2);
+        } else if (value instanceof String) {
+            json.value((String) value);
+        } else if (value instanceof List) {
+            json.beginArray();
+            for (Object item : (List<Object>) value) write(json, item);
+            json.endArray();
+        } else {
+            json.beginObject();
+            for (Map.Entry<String, Object> member : ((Map<String, Object>) value).entrySet()) {
+                write(json.name(member.getKey()), member.getValue());
+            }
+            json.endObject();
+        }
+    }
+
+    private static String pad(Random random, String text, int spaces) {
+        String ws = " \n\t\r";
+        StringBuilder padded = new StringBuilder();
+        for (int i = 0; i < spaces; i++) padded.append(ws.charAt(random.nextInt(ws.length())));
+        return padded + text + padded;
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < times; i++) out.append(s);
+        return out.toString();
+    }
+}
@@ -0,0 +1,213 @@
+package com.oceanview.resort.servlet;
+
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Tests for the shared JSON encoder: escaping, number formatting, nesting,
+ * and output identical to the String.format encoders it replaced.
+ */
+public class JsonWriterTest {
+
+    public static void main(String[] args) {
+        JsonWriterTest test = new JsonWriterTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running JsonWriter Tests...\n");
+
+        String[] names = {
+                "Strings are escaped and UTF-8 encoded",
+                "Fixed-point numbers match String.format",
+                "Commas and nesting are handled",
+                "Reservation and room JSON unchanged from the old encoders",
+                "Streamed bytes match the buffered result after flushTo"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testEscaping();
+            case 1: return testFixedPoint();
+            case 2: return testNesting();
+            case 3: return testSameAsBefore();
+            default: return testFlush();
+        }
+    }
+
+    private boolean testEscaping() {
+        String tricky = "Say \"hi\"\\ \n\r\t\b\f\u0001 café ✓ 🌊 end";
+        JsonWriter json = JsonWriter.get().value(tricky);
+        String expected = "\"Say \\\"hi\\\"\\\\ \\n\\r\\t\\b\\f\\u0001 café ✓ 🌊 end\"";
+        byte[] bytes = json.toByteArray();
+        return json.toString().equals(expected)
+                && java.util.Arrays.equals(bytes, expected.getBytes(StandardCharsets.UTF_8))
+                && JsonWriter.get().value((String) null).toString().equals("\"\"")
+                && JsonWriter.get().value("\uD800x").toString().equals("\"?x\"");
+    }
+
+    private boolean testFixedPoint() {
+        Random random = new Random(7);
+        double[] edges = {0, -0.0, 0.005, 0.015, 1.005, 1.115, 2.675, -2.675, 0.125, 999999.995, 36000, 1e14 + 0.5,
+                123456789012.345, 1e20, -1e20, Double.NaN};
+        for (double value : edges) {
+            if (!same(value)) return false;
+        }
+        for (int i = 0; i < 200_000; i++) {
+            double value = random.nextInt(4) == 0 ? random.nextInt(1_000_000) / 100.0
+                    : (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12));
+            if (!same(value)) return false;
+        }
+        return JsonWriter.get().value(1234.5678, 0).toString().equals("1235")
+                && JsonWriter.get().value(-Long.MAX_VALUE).toString().equals(String.valueOf(-Long.MAX_VALUE))
+                && JsonWriter.get().value(Long.MIN_VALUE).toString().equals(String.valueOf(Long.MIN_VALUE));
+    }
+
+    private static boolean same(double value) {
+        String expected = String.format(java.util.Locale.ROOT, "%.2f", value);
+        String actual = JsonWriter.get().value(value, 2).toString();
+        if (!expected.equals(actual)) {
+            System.out.println("  " + value + ": expected " + expected + " but was " + actual);
+            return false;
+        }
+        return true;
+    }
+
+    private boolean testNesting() {
+        String json = JsonWriter.get().beginObject()
+                .name("a").beginArray().value(1).value(true).nullValue().beginObject().endObject().endArray()
+                .name("b").beginObject().name("c").value("d").endObject()
+                .name("e").value(LocalDate.of(2026, 3, 9))
+                .endObject().toString();
+        return json.equals("{\"a\":[1,true,null,{}],\"b\":{\"c\":\"d\"},\"e\":\"2026-03-09\"}")
+                && JsonWriter.get().beginArray().endArray().toString().equals("[]");
+    }
+
+    private boolean testSameAsBefore() {
+        Room room = new Room("R305", Room.RoomType.DELUXE, false, 2, "AC, \"Sea\" view\n");
+        Reservation full = new Reservation("RES-1", new Guest("Nimal \"Nim\" Perera", "12 Galle Rd\nColombo",
+                "0712345678", "n@example.com", "901234567V"), room, LocalDate.of(2026, 3, 1),
+                LocalDate.of(2026, 3, 4));
+        full.setTotalAmount(35999.999);
+        Reservation empty = new Reservation();
+        empty.setReservationNumber("RES-2");
+        empty.setReservationDate(null);
+
+        for (Reservation r : new Reservation[] {full, empty}) {
+            String actual = ReservationServlet.toJSON(JsonWriter.get(), r, null).toString();
+            if (!actual.equals(legacyJSON(r))) {
+                System.out.println("  " + actual + "\n  " + legacyJSON(r));
+                return false;
+            }
+        }
+        String roomJson = RoomServlet.toJSON(JsonWriter.get(), room, null).toString();
+        return roomJson.equals(legacyJSON(room));
+    }
+
+    private boolean testFlush() throws Exception {
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        JsonWriter json = JsonWriter.get().beginArray();
+        for (int i = 0; i < 1000; i++) {
+            json.beginObject().name("n").value(i).endObject();
+            if (json.size() > 100) {
+                json.flushTo(streamed);
+            }
+        }
+        json.endArray().flushTo(streamed);
+
+        JsonWriter whole = JsonWriter.get().beginArray();
+        for (int i = 0; i < 1000; i++) {
+            whole.beginObject().name("n").value(i).endObject();
+        }
+        return streamed.toString(StandardCharsets.UTF_8.name()).equals(whole.endArray().toString());
+    }
+
+    /**
+     * ReservationServlet.toJSON before the shared encoder
+     */
+    static String legacyJSON(Reservation r) {
+        return String.format(
+                "{\"reservationNumber\":\"%s\"," +
+                        "\"guestName\":\"%s\"," +
+                        "\"guestAddress\":\"%s\"," +
+                        "\"guestContact\":\"%s\"," +
+                        "\"guestEmail\":\"%s\"," +
+                        "\"roomNumber\":\"%s\"," +
+                        "\"roomType\":\"%s\"," +
+                        "\"checkInDate\":\"%s\"," +
+                        "\"checkOutDate\":\"%s\"," +
+                        "\"numberOfNights\":%d," +
+                        "\"totalAmount\":%.2f," +
+                        "\"status\":\"%s\"," +
+                        "\"reservationDate\":\"%s\"}",
+                escape(r.getReservationNumber()),
+                escape(r.getGuest() != null ? r.getGuest().getName() : ""),
+                escape(r.getGuest() != null ? r.getGuest().getAddress() : ""),
+                escape(r.getGuest() != null ? r.getGuest().getContactNumber() : ""),
+                escape(r.getGuest() != null ? r.getGuest().getEmail() : ""),
+                escape(r.getRoom() != null ? r.getRoom().getRoomNumber() : ""),
+                r.getRoom() != null ? r.getRoom().getRoomType().getDescription() : "",
+                r.getCheckInDate() != null ? r.getCheckInDate().toString() : "",
+                r.getCheckOutDate() != null ? r.getCheckOutDate().toString() : "",
+                r.getNumberOfNights(),
+                r.getTotalAmount(),
+                escape(r.getStatus()),
+                r.getReservationDate() != null ? r.getReservationDate().toString() : "");
+    }
+
+    /**
+     * RoomServlet.toJSON before the shared encoder
+     */
+    static String legacyJSON(Room room) {
+        return String.format(
+                "{\"roomNumber\":\"%s\"," +
+                        "\"roomType\":\"%s\"," +
+                        "\"typeDescription\":\"%s\"," +
+                        "\"isAvailable\":%s," +
+                        "\"capacity\":%d," +
+                        "\"features\":\"%s\"," +
+                        "\"rate\":%.2f}",
+                escape(room.getRoomNumber()),
+                room.getRoomType() != null ? room.getRoomType().name() : "",
+                room.getRoomType() != null ? escape(room.getRoomType().getDescription()) : "",
+                room.isAvailable(),
+                room.getCapacity(),
+                escape(room.getFeatures()),
+                room.getRate());
+    }
+
+    private static String escape(String str) {
+        if (str == null) return "";
+        return str.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t");
+    }
+}
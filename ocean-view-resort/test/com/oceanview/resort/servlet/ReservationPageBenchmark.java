@@ -0,0 +1,165 @@
+package com.oceanview.resort.servlet;
+
+import com.oceanview.resort.dao.Page;
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.service.ReservationService;
+import com.oceanview.resort.util.RowHandler;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Latency of GET /api/reservations against a table of a million rows: the
+ * whole listing, a first page, a projected first page and a page deep into
+ * the table. The fake database answers a paged query with limit + 1 rows and
+ * a full query with every row, like an engine seeking on an index on
+ * (reservation_date, reservation_number); each row read costs a simulated
+ * engine time.
+ *
+ * Usage: ReservationPageBenchmark [rows] [pageSize] [rowCostNanos]
+ */
+public class ReservationPageBenchmark {
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int pageSize = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        long rowCost = args.length > 2 ? Long.parseLong(args[2]) : 200;
+
+        FakeDatabase db = new FakeDatabase().rows(sql -> sql.contains("ROWS ONLY")
+                ? new GeneratedRows(pageSize + 1, rowCost) : new GeneratedRows(rows, rowCost));
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 5000, 0);
+        ReservationDAO dao = new ReservationDAO(new DatabaseConnection(pool, SqlDialect.DERBY));
+        ReservationServlet servlet = new ReservationServlet(new ReservationService() {
+            @Override
+            public void forEachReservation(Set<String> fields, RowHandler<Reservation> handler) throws Exception {
+                dao.forEach(fields, handler);
+            }
+
+            @Override
+            public Page<Reservation> getReservationPage(String after, int limit, Set<String> fields)
+                    throws Exception {
+                return dao.findPage(after, limit, fields);
+            }
+        });
+
+        System.out.printf("%,d rows, page size %d, %d ns per row read%n", rows, pageSize, rowCost);
+        String deep = dao.findPage(null, pageSize, null).getNextCursor();
+        run(servlet, "whole listing", 1, new String[0]);
+        run(servlet, "first page", ROUNDS, new String[] {"limit", String.valueOf(pageSize)});
+        run(servlet, "first page, 2 fields", ROUNDS,
+                new String[] {"limit", String.valueOf(pageSize), "fields", "reservationNumber,status"});
+        run(servlet, "page after a cursor", ROUNDS,
+                new String[] {"limit", String.valueOf(pageSize), "after", deep});
+        pool.close();
+    }
+
+    private static void run(ReservationServlet servlet, String name, int rounds, String[] params)
+            throws Exception {
+        Map<String, String> parameters = new HashMap<>();
+        for (int i = 0; i < params.length; i += 2) {
+            parameters.put(params[i], params[i + 1]);
+        }
+        long[] samples = new long[rounds];
+        long bytes = 0;
+        for (int warmup = 0; warmup < (rounds > 1 ? rounds : 0); warmup++) {
+            get(servlet, parameters, new CountingStream());
+        }
+        for (int i = 0; i < rounds; i++) {
+            CountingStream out = new CountingStream();
+            long t0 = System.nanoTime();
+            get(servlet, parameters, out);
+            samples[i] = System.nanoTime() - t0;
+            bytes = out.count;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-22s p50 %10.3f ms, max %10.3f ms, %,12d bytes%n", name, samples[rounds / 2] / 1e6,
+                samples[rounds - 1] / 1e6, bytes);
+    }
+
+    private static void get(ReservationServlet servlet, Map<String, String> parameters, OutputStream out)
+            throws Exception {
+        servlet.service(new Servlet.HttpServletRequest("GET", "/api/reservations", parameters, new HashMap<>(),
+                "", null), new Servlet.HttpServletResponse(out, true));
+    }
+
+    /**
+     * Discards the response, keeping its size
+     */
+    private static class CountingStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    /**
+     * Rows built when read, each costing a busy-wait of the row cost
+     */
+    private static class GeneratedRows extends AbstractList<Map<String, Object>> {
+        private final int size;
+        private final long rowCost;
+        private int cachedIndex = -1;
+        private Map<String, Object> cached;
+
+        GeneratedRows(int size, long rowCost) {
+            this.size = size;
+            this.rowCost = rowCost;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Map<String, Object> get(int i) {
+            if (i != cachedIndex) {
+                long until = System.nanoTime() + rowCost;
+                while (System.nanoTime() < until) {
+                    Thread.onSpinWait();
+                }
+                LocalDate booked = LocalDate.of(2030, 1, 1).minusDays(i / 50);
+                cached = FakeDatabase.row(
+                        "reservation_number", String.format("RES-%07d", size - i),
+                        "guest_name", "Guest " + i,
+                        "guest_address", "Galle",
+                        "guest_contact", "0712345678",
+                        "guest_email", "guest" + i + "@example.com",
+                        "guest_nic", "901234567V",
+                        "room_number", "R" + (101 + i % 12),
+                        "room_type", "DOUBLE",
+                        "check_in_date", booked.plusDays(30),
+                        "check_out_date", booked.plusDays(33),
+                        "reservation_date", booked,
+                        "number_of_nights", 3,
+                        "total_amount", 36000.0,
+                        "status", "CONFIRMED",
+                        "rm_room_number", "R" + (101 + i % 12),
+                        "rm_room_type", "DOUBLE",
+                        "rm_is_available", true,
+                        "rm_capacity", 2,
+                        "rm_features", "AC, TV");
+                cachedIndex = i;
+            }
+            return cached;
+        }
+    }
+}
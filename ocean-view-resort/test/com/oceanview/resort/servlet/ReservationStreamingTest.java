@@ -0,0 +1,331 @@
+package com.oceanview.resort.servlet;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.database.ConnectionPool;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.database.FakeDatabase;
+import com.oceanview.resort.database.SqlDialect;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.service.ReservationService;
+import com.oceanview.resort.util.JournalStoreTest;
+import com.oceanview.resort.util.RowHandler;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the streamed reservation listing: chunked framing, failures
+ * part-way through, and constant memory for a very large result.
+ */
+public class ReservationStreamingTest {
+    private static final int LARGE = 1_000_000;
+    private static final String HEAP = "-Xmx24m";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("child")) {
+            streamFromDatabase(Integer.parseInt(args[1]));
+            return;
+        }
+
+        ReservationStreamingTest test = new ReservationStreamingTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Reservation Streaming Tests...\n");
+
+        String[] names = {
+                "Keep-alive listing is chunked and decodes to a JSON array",
+                "Listing without keep-alive is written raw and closes",
+                "Failure mid-stream leaves the body unterminated",
+                String.format("%,d reservations stream from the database with %s", LARGE, HEAP)
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testChunkedListing();
+            case 1: return testRawListing();
+            case 2: return testFailureMidStream();
+            default: return testLargeListingInSmallHeap();
+        }
+    }
+
+    private boolean testChunkedListing() throws Exception {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        list(new FixedService(5000, -1), raw, true);
+
+        BodyCounter body = new BodyCounter(true);
+        body.write(raw.toByteArray());
+        String head = body.headers();
+        System.out.println("  " + body.rows + " rows in " + body.chunks + " chunks");
+        return head.startsWith("HTTP/1.1 200") && head.contains("Transfer-Encoding: chunked")
+                && !head.contains("Content-Length") && body.complete && body.rows == 5000 && body.chunks > 1
+                && body.first == '[' && body.last == ']';
+    }
+
+    private boolean testRawListing() throws Exception {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        list(new FixedService(3, -1), raw, false);
+        String response = raw.toString(StandardCharsets.UTF_8.name());
+        String body = response.substring(response.indexOf("\r\n\r\n") + 4);
+        return response.contains("Connection: close") && !response.contains("Transfer-Encoding")
+                && body.startsWith("[{") && body.endsWith("}]")
+                && body.split("\"reservationNumber\"", -1).length == 4;
+    }
+
+    private boolean testFailureMidStream() throws Exception {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try {
+            list(new FixedService(5000, 4000), raw, true);
+            return false;
+        } catch (IOException expected) {
+            // The status line has gone out, so the router must drop the connection
+        }
+        BodyCounter body = new BodyCounter(true);
+        body.write(raw.toByteArray());
+        System.out.println("  " + body.rows + " rows sent before the failure");
+        return !body.complete && body.rows > 0 && body.rows <= 4000;
+    }
+
+    private boolean testLargeListingInSmallHeap() throws Exception {
+        ProcessBuilder builder = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getPath(), HEAP,
+                "-cp", System.getProperty("java.class.path"),
+                ReservationStreamingTest.class.getName(), "child", String.valueOf(LARGE));
+        builder.redirectErrorStream(true);
+        Process child = builder.start();
+        String output = new String(child.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        boolean exited = child.waitFor(5, TimeUnit.MINUTES);
+        System.out.println("  " + output.replace("\n", "\n  "));
+        return exited && child.exitValue() == 0 && output.contains("OK " + LARGE);
+    }
+
+    /**
+     * Child JVM: list `count` rows from a fake database that builds each row
+     * on demand, counting the decoded rows as they arrive
+     */
+    private static void streamFromDatabase(int count) throws Exception {
+        FakeDatabase db = new FakeDatabase().rows(sql -> sql.contains("FROM reservations")
+                ? new LazyRows(count) : new ArrayList<>());
+        ConnectionPool pool = new ConnectionPool(db::newConnection, 1, 1, 5000, 0);
+        ReservationDAO dao = new ReservationDAO(new DatabaseConnection(pool, SqlDialect.GENERIC));
+        ReservationService service = new ReservationService() {
+            @Override
+            public void forEachReservation(Set<String> fields, RowHandler<Reservation> handler)
+                    throws Exception {
+                dao.forEach(fields, handler);
+            }
+        };
+
+        BodyCounter body = new BodyCounter(true);
+        long t0 = System.nanoTime();
+        list(service, body, true);
+        long usedMb = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20;
+        System.out.printf("%d rows, %d chunks in %.1f s, %d MB heap in use (max %d MB)%n", body.rows,
+                body.chunks, (System.nanoTime() - t0) / 1e9, usedMb, Runtime.getRuntime().maxMemory() >> 20);
+        pool.close();
+        if (body.complete && body.rows == count) {
+            System.out.println("OK " + body.rows);
+        } else {
+            System.exit(1);
+        }
+    }
+
+    private static void list(ReservationService service, OutputStream out, boolean keepAlive) throws Exception {
+        Servlet.HttpServletRequest request = new Servlet.HttpServletRequest("GET", "/api/reservations",
+                new HashMap<>(), new HashMap<>(), "", null);
+        new ReservationServlet(service).service(request, new Servlet.HttpServletResponse(out, keepAlive));
+    }
+
+    /**
+     * Hands out generated reservations, optionally failing after some rows
+     */
+    private static class FixedService extends ReservationService {
+        private final int count;
+        private final int failAfter;
+
+        FixedService(int count, int failAfter) {
+            this.count = count;
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public void forEachReservation(Set<String> fields, RowHandler<Reservation> handler) throws Exception {
+            for (int i = 0; i < count; i++) {
+                if (i == failAfter) {
+                    throw new IOException("Connection to the database lost");
+                }
+                handler.handle(JournalStoreTest.reservation(i, "CONFIRMED"));
+            }
+        }
+    }
+
+    /**
+     * Result rows built when read, so a million of them take no memory
+     */
+    private static class LazyRows extends AbstractList<Map<String, Object>> {
+        private final int size;
+        private int cachedIndex = -1;
+        private Map<String, Object> cached;
+
+        LazyRows(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Map<String, Object> get(int i) {
+            if (i != cachedIndex) {
+                String room = "R" + (101 + i % 12);
+                LocalDate in = LocalDate.of(2026, 1, 1).plusDays(i % 700);
+                cached = FakeDatabase.row(
+                        "reservation_number", JournalStoreTest.number(i),
+                        "guest_name", "Guest " + i,
+                        "guest_address", "Galle",
+                        "guest_contact", "0712345678",
+                        "guest_email", "guest" + i + "@example.com",
+                        "guest_nic", "901234567V",
+                        "room_number", room,
+                        "check_in_date", in,
+                        "check_out_date", in.plusDays(3),
+                        "reservation_date", in.minusDays(30),
+                        "number_of_nights", 3,
+                        "total_amount", 36000.0,
+                        "status", "CONFIRMED",
+                        "rm_room_number", room,
+                        "rm_room_type", "DELUXE",
+                        "rm_is_available", true,
+                        "rm_capacity", 3,
+                        "rm_features", "Sea view");
+                cachedIndex = i;
+            }
+            return cached;
+        }
+    }
+
+    /**
+     * Decodes an HTTP response as it is written and counts reservation
+     * objects in the body without keeping it
+     */
+    private static class BodyCounter extends OutputStream {
+        private static final byte[] MARKER = "\"reservationNumber\"".getBytes(StandardCharsets.UTF_8);
+
+        private final boolean chunked;
+        private final StringBuilder head = new StringBuilder();
+        private final StringBuilder sizeLine = new StringBuilder();
+        private boolean inHead = true;
+        private boolean chunkedBody;
+        private int remaining;
+        private int skip;
+        private int matched;
+        int rows;
+        int chunks;
+        int first = -1;
+        int last = -1;
+        boolean complete;
+
+        BodyCounter(boolean chunked) {
+            this.chunked = chunked;
+        }
+
+        String headers() {
+            return head.toString();
+        }
+
+        @Override
+        public void write(int b) {
+            b &= 0xff;
+            if (inHead) {
+                head.append((char) b);
+                if (head.length() >= 4 && head.lastIndexOf("\r\n\r\n") == head.length() - 4) {
+                    inHead = false;
+                    chunkedBody = chunked && head.indexOf("Transfer-Encoding: chunked") >= 0;
+                }
+                return;
+            }
+            if (!chunkedBody) {
+                body(b);
+                return;
+            }
+            if (complete) {
+                return;
+            }
+            if (skip > 0) {
+                skip--;
+            } else if (remaining > 0) {
+                body(b);
+                if (--remaining == 0) {
+                    skip = 2;
+                }
+            } else if (b == '\n') {
+                int size = Integer.parseInt(sizeLine.toString().trim(), 16);
+                sizeLine.setLength(0);
+                if (size == 0) {
+                    complete = true;
+                } else {
+                    remaining = size;
+                    chunks++;
+                }
+            } else {
+                sizeLine.append((char) b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = 0; i < len; i++) {
+                write(b[off + i]);
+            }
+        }
+
+        private void body(int b) {
+            if (first < 0) {
+                first = b;
+            }
+            last = b;
+            if (b == MARKER[matched]) {
+                if (++matched == MARKER.length) {
+                    rows++;
+                    matched = 0;
+                }
+            } else {
+                matched = b == MARKER[0] ? 1 : 0;
+            }
+        }
+    }
+}
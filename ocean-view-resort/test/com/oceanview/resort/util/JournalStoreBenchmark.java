@@ -0,0 +1,93 @@
+package com.oceanview.resort.util;
+
+import com.oceanview.resort.dao.JournalCodecs;
+import com.oceanview.resort.model.Reservation;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-save latency of the journal store as the number of stored
+ * reservations grows, next to the old whole-file rewrite for small sizes.
+ *
+ * Usage: java -Xmx1g JournalStoreBenchmark [maxRecords]
+ */
+public class JournalStoreBenchmark {
+    private static final int SAVES = 1000;
+    private static final int LEGACY_SAVES = 20;
+
+    public static void main(String[] args) throws Exception {
+        int max = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        for (int size = 1000; size <= max; size *= 10) {
+            File dir = Files.createTempDirectory("journal-bench").toFile();
+            JournalStore<Reservation> store = new JournalStore<>(dir, "bench", JournalCodecs.RESERVATIONS);
+            List<Reservation> batch = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                batch.add(JournalStoreTest.reservation(i, "CONFIRMED"));
+                if (batch.size() == 10_000 || i == size - 1) {
+                    store.putAll(batch);
+                    batch.clear();
+                }
+            }
+
+            // Half new reservations, half status changes to existing ones
+            long[] samples = new long[SAVES];
+            for (int i = 0; i < SAVES; i++) {
+                Reservation reservation = i % 2 == 0
+                        ? JournalStoreTest.reservation(size + i, "PENDING")
+                        : JournalStoreTest.reservation(i * 7 % size, "CANCELLED");
+                long t0 = System.nanoTime();
+                store.put(reservation);
+                samples[i] = System.nanoTime() - t0;
+            }
+            store.close();
+            report("journal", size, samples);
+
+            if (size <= 10_000) {
+                legacy(dir, size);
+            }
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
+    /**
+     * The previous approach: read the whole list, replace one entry, write it all back
+     */
+    private static void legacy(File dir, int size) throws Exception {
+        String filename = "bench-" + System.nanoTime() + ".dat";
+        FileManager fileManager = FileManager.getInstance();
+        List<Reservation> all = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            all.add(JournalStoreTest.reservation(i, "CONFIRMED"));
+        }
+        fileManager.writeListToFile(all, filename);
+
+        long[] samples = new long[LEGACY_SAVES];
+        for (int i = 0; i < LEGACY_SAVES; i++) {
+            long t0 = System.nanoTime();
+            List<Reservation> list = fileManager.readListFromFile(filename);
+            list.add(JournalStoreTest.reservation(size + i, "PENDING"));
+            fileManager.writeListToFile(list, filename);
+            samples[i] = System.nanoTime() - t0;
+        }
+        new File("data", filename).delete();
+        report("legacy file", size, samples);
+    }
+
+    private static void report(String label, int size, long[] samples) {
+        long total = 0;
+        for (long sample : samples) {
+            total += sample;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-12s %,9d records: avg %8.1f us, p50 %8.1f us, p99 %8.1f us%n", label, size,
+                total / 1e3 / samples.length, samples[samples.length / 2] / 1e3,
+                samples[samples.length * 99 / 100] / 1e3);
+    }
+}
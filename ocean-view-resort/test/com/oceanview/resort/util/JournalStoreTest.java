@@ -0,0 +1,430 @@
+package com.oceanview.resort.util;
+
+import com.oceanview.resort.dao.JournalCodecs;
+import com.oceanview.resort.model.Guest;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for JournalStore persistence, compaction and crash recovery.
+ */
+public class JournalStoreTest {
+
+    public static void main(String[] args) {
+        JournalStoreTest test = new JournalStoreTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running JournalStore Tests...\n");
+
+        String[] names = {
+                "Reopening restores the latest version of every record",
+                "Journal cut mid-record drops only the partial record",
+                "Checksum mismatch stops replay at the bad record",
+                "Compaction keeps data and empties the journal",
+                "Crash between snapshot and journal truncate replays cleanly",
+                "Legacy serialized file is imported once",
+                "Failed write leaves no torn record before later saves",
+                "Failed compaction does not fail the save that triggered it"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testReopen();
+            case 1: return testTruncatedRecord();
+            case 2: return testCorruptRecord();
+            case 3: return testCompaction();
+            case 4: return testCrashDuringCompaction();
+            case 5: return testLegacyImport();
+            case 6: return testFailedWrite();
+            default: return testFailedCompaction();
+        }
+    }
+
+    private boolean testReopen() throws Exception {
+        File dir = tempDir();
+        JournalStore<Reservation> store = open(dir);
+        for (int i = 0; i < 100; i++) {
+            store.put(reservation(i, "CONFIRMED"));
+        }
+        for (int i = 0; i < 100; i += 10) {
+            store.put(reservation(i, "CANCELLED"));
+        }
+        store.close();
+
+        JournalStore<Reservation> reopened = open(dir);
+        Reservation first = reopened.get(number(0));
+        Reservation other = reopened.get(number(1));
+        Reservation expected = reservation(1, "CONFIRMED");
+        reopened.close();
+        return reopened.size() == 100
+                && "CANCELLED".equals(first.getStatus())
+                && "CONFIRMED".equals(other.getStatus())
+                && other.getGuest().getName().equals(expected.getGuest().getName())
+                && other.getRoom().getRoomType() == Room.RoomType.DOUBLE
+                && other.getCheckInDate().equals(expected.getCheckInDate())
+                && other.getNumberOfNights() == expected.getNumberOfNights()
+                && other.getTotalAmount() == expected.getTotalAmount()
+                && reopened.values().get(0).getReservationNumber().equals(number(0));
+    }
+
+    private boolean testTruncatedRecord() throws Exception {
+        // Cut the last record at every byte offset inside it
+        File probe = tempDir();
+        JournalStore<Reservation> sizing = open(probe);
+        for (int i = 0; i < 10; i++) {
+            sizing.put(reservation(i, "CONFIRMED"));
+        }
+        long before = journal(probe).length();
+        sizing.put(reservation(10, "CONFIRMED"));
+        long after = journal(probe).length();
+        sizing.close();
+
+        for (long cut = before + 1; cut < after; cut++) {
+            File dir = tempDir();
+            Files.copy(journal(probe).toPath(), journal(dir).toPath());
+            try (RandomAccessFile file = new RandomAccessFile(journal(dir), "rw")) {
+                file.setLength(cut);
+            }
+
+            JournalStore<Reservation> store = open(dir);
+            boolean recovered = store.size() == 10 && store.get(number(10)) == null
+                    && store.getDroppedBytes() == cut - before && journal(dir).length() == before;
+            store.put(reservation(11, "PENDING"));
+            store.close();
+
+            JournalStore<Reservation> reopened = open(dir);
+            boolean appended = reopened.size() == 11 && reopened.get(number(11)) != null;
+            reopened.close();
+            if (!recovered || !appended) {
+                System.out.println("  failed at cut " + cut + " of " + after);
+                return false;
+            }
+        }
+        System.out.println("  " + (after - before - 1) + " cut points recovered");
+        return true;
+    }
+
+    private boolean testCorruptRecord() throws Exception {
+        File dir = tempDir();
+        JournalStore<Reservation> store = open(dir);
+        long[] offsets = new long[20];
+        for (int i = 0; i < 20; i++) {
+            offsets[i] = journal(dir).length();
+            store.put(reservation(i, "CONFIRMED"));
+        }
+        store.close();
+
+        // Flip one byte inside the payload of record 12
+        try (RandomAccessFile file = new RandomAccessFile(journal(dir), "rw")) {
+            long position = offsets[12] + 20;
+            file.seek(position);
+            int b = file.read();
+            file.seek(position);
+            file.write(b ^ 0xFF);
+        }
+
+        JournalStore<Reservation> reopened = open(dir);
+        boolean ok = reopened.size() == 12 && reopened.get(number(11)) != null && reopened.get(number(12)) == null
+                && journal(dir).length() == offsets[12];
+        reopened.close();
+        return ok;
+    }
+
+    private boolean testCompaction() throws Exception {
+        File dir = tempDir();
+        JournalStore<Reservation> store = open(dir);
+        // Many overwrites of a few keys trigger automatic compaction
+        for (int i = 0; i < 25_000; i++) {
+            store.put(reservation(i % 100, i % 2 == 0 ? "CONFIRMED" : "PENDING"));
+        }
+        boolean autoCompacted = store.getJournalRecords() < 25_000 && new File(dir, "test.snapshot").exists();
+
+        store.compact();
+        boolean emptied = store.getJournalRecords() == 0 && journal(dir).length() == 0;
+        store.put(reservation(500, "PENDING"));
+        store.close();
+
+        JournalStore<Reservation> reopened = open(dir);
+        boolean ok = autoCompacted && emptied && reopened.size() == 101
+                && "PENDING".equals(reopened.get(number(99)).getStatus())
+                && reopened.get(number(500)) != null;
+        reopened.close();
+        return ok;
+    }
+
+    private boolean testCrashDuringCompaction() throws Exception {
+        File dir = tempDir();
+        JournalStore<Reservation> store = open(dir);
+        for (int i = 0; i < 50; i++) {
+            store.put(reservation(i, "CONFIRMED"));
+        }
+        store.put(reservation(7, "CANCELLED"));
+        File saved = new File(dir, "journal.copy");
+        Files.copy(journal(dir).toPath(), saved.toPath());
+        store.compact();
+        store.close();
+
+        // Snapshot was renamed into place but the journal was never truncated
+        Files.move(saved.toPath(), journal(dir).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        JournalStore<Reservation> reopened = open(dir);
+        boolean ok = reopened.size() == 50 && "CANCELLED".equals(reopened.get(number(7)).getStatus())
+                && reopened.getDroppedBytes() == 0;
+        reopened.close();
+        return ok;
+    }
+
+    private boolean testLegacyImport() throws Exception {
+        String name = "legacy-test-" + System.nanoTime();
+        FileManager fileManager = FileManager.getInstance();
+        List<Reservation> legacy = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            legacy.add(reservation(i, "CONFIRMED"));
+        }
+        fileManager.writeListToFile(legacy, name + ".dat");
+
+        JournalStore<Reservation> store = fileManager.openJournal(name, name + ".dat", JournalCodecs.RESERVATIONS);
+        boolean imported = store.size() == 5 && store.get(number(3)) != null;
+        store.put(reservation(9, "PENDING"));
+        store.close();
+
+        // Reopening an existing store must not import again
+        JournalStore<Reservation> reopened = new JournalStore<>(new File("data"), name, JournalCodecs.RESERVATIONS);
+        boolean ok = imported && reopened.existedOnDisk() && reopened.size() == 6
+                && new File("data", name + ".dat").exists();
+        reopened.close();
+        for (String suffix : new String[] {".dat", ".journal", ".snapshot"}) {
+            new File("data", name + suffix).delete();
+        }
+        return ok;
+    }
+
+    private boolean testFailedWrite() throws Exception {
+        File dir = tempDir();
+        JournalStore<Reservation> store = open(dir);
+        for (int i = 0; i < 5; i++) {
+            store.put(reservation(i, "CONFIRMED"));
+        }
+        long before = journal(dir).length();
+        FileChannel channel = FileChannel.open(journal(dir).toPath(), StandardOpenOption.WRITE);
+        channel.position(before);
+        store.setJournalChannel(new FailingChannel(channel));
+
+        boolean rejected = false;
+        try {
+            store.put(reservation(5, "CONFIRMED"));
+        } catch (IOException e) {
+            rejected = true;
+        }
+        boolean rolledBack = rejected && store.get(number(5)) == null && journal(dir).length() == before;
+        store.put(reservation(6, "PENDING"));
+        store.close();
+
+        JournalStore<Reservation> reopened = open(dir);
+        boolean ok = rolledBack && reopened.size() == 6 && reopened.get(number(5)) == null
+                && "PENDING".equals(reopened.get(number(6)).getStatus()) && reopened.getDroppedBytes() == 0;
+        reopened.close();
+        return ok;
+    }
+
+    private boolean testFailedCompaction() throws Exception {
+        File dir = tempDir();
+        // A directory where the new snapshot would be written makes compaction fail
+        File blocker = new File(dir, "test.snapshot.tmp");
+        blocker.mkdir();
+        JournalStore<Reservation> store = open(dir);
+        for (int i = 0; i < 12_000; i++) {
+            store.put(reservation(i % 100, i % 2 == 0 ? "CONFIRMED" : "PENDING"));
+        }
+        boolean deferred = store.getJournalRecords() == 12_000 && !new File(dir, "test.snapshot").exists();
+
+        // A later save retries once the snapshot can be written
+        blocker.delete();
+        int saves = 0;
+        while (store.getJournalRecords() > 0 && saves < 200) {
+            store.put(reservation(500, "CANCELLED"));
+            saves++;
+        }
+        boolean compacted = store.getJournalRecords() == 0 && new File(dir, "test.snapshot").exists();
+        store.close();
+
+        JournalStore<Reservation> reopened = open(dir);
+        boolean ok = deferred && compacted && reopened.size() == 101
+                && "PENDING".equals(reopened.get(number(99)).getStatus())
+                && "CANCELLED".equals(reopened.get(number(500)).getStatus());
+        reopened.close();
+        return ok;
+    }
+
+    public static Reservation reservation(int i, String status) {
+        Room room = new Room("R" + (100 + i % 30), Room.RoomType.DOUBLE, false, 2, "AC, TV");
+        Guest guest = new Guest("Guest " + i, "No " + i + ", Galle Road", "0771234567", "guest" + i + "@example.com",
+                "99" + i + "V");
+        LocalDate in = LocalDate.of(2030, 1, 1).plusDays(i % 300);
+        Reservation reservation = new Reservation(number(i), guest, room, in, in.plusDays(1 + i % 5));
+        reservation.setStatus(status);
+        return reservation;
+    }
+
+    public static String number(int i) {
+        return String.format("RES-20300101-%07d", i);
+    }
+
+    private static JournalStore<Reservation> open(File dir) throws IOException {
+        return new JournalStore<>(dir, "test", JournalCodecs.RESERVATIONS);
+    }
+
+    private static File journal(File dir) {
+        return new File(dir, "test.journal");
+    }
+
+    /**
+     * Writes part of the first buffer it is given, then fails as a full disk
+     * would; every later call goes straight to the real channel
+     */
+    private static class FailingChannel extends FileChannel {
+        private final FileChannel channel;
+        private boolean failed;
+
+        FailingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failed) {
+                return channel.write(src);
+            }
+            failed = true;
+            ByteBuffer part = src.duplicate();
+            part.limit(part.position() + part.remaining() / 2);
+            src.position(src.position() + channel.write(part));
+            throw new IOException("No space left on device");
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static File tempDir() throws IOException {
+        File dir = Files.createTempDirectory("journal-test").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+}
@@ -0,0 +1,168 @@
+package com.oceanview.resort.util;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.database.DatabaseConnection;
+import com.oceanview.resort.model.Reservation;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests for LruCache bounds, expiry and the ReservationDAO write-through.
+ */
+public class LruCacheTest {
+
+    public static void main(String[] args) {
+        LruCacheTest test = new LruCacheTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running LruCache Tests...\n");
+
+        String[] names = {
+                "Least recently used entry is evicted first",
+                "Entries expire after the TTL",
+                "Load racing a write-through is not cached",
+                "Size stays bounded under concurrent access",
+                "ReservationDAO writes through on save and cancel"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testLruOrder();
+            case 1: return testExpiry();
+            case 2: return testRacingLoad();
+            case 3: return testConcurrentBound();
+            default: return testReservationWriteThrough();
+        }
+    }
+
+    private boolean testLruOrder() {
+        LruCache<String, String> cache = new LruCache<>(3, 0, TimeUnit.SECONDS);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.get("a");
+        cache.put("d", "4");
+        return cache.get("b") == null && "1".equals(cache.get("a")) && "3".equals(cache.get("c"))
+                && "4".equals(cache.get("d")) && cache.size() == 3 && cache.getEvictionCount() == 1;
+    }
+
+    private boolean testExpiry() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(10, 50, TimeUnit.MILLISECONDS);
+        cache.put("a", "1");
+        boolean fresh = "1".equals(cache.get("a"));
+        Thread.sleep(80);
+        return fresh && cache.get("a") == null && cache.getExpirationCount() == 1 && cache.size() == 0;
+    }
+
+    private boolean testRacingLoad() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(10, 0, TimeUnit.SECONDS);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            try {
+                cache.get("a", () -> {
+                    loading.countDown();
+                    try {
+                        written.await();
+                    } catch (InterruptedException e) {
+                        throw new IOException(e);
+                    }
+                    return "old";
+                });
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        reader.start();
+        loading.await();
+        cache.put("a", "new");
+        written.countDown();
+        reader.join();
+        return "new".equals(cache.get("a"));
+    }
+
+    private boolean testConcurrentBound() throws Exception {
+        LruCache<Integer, Integer> cache = new LruCache<>(1000, 0, TimeUnit.SECONDS);
+        int threads = 8;
+        int operations = 200_000;
+        AtomicLong gets = new AtomicLong();
+        AtomicInteger wrong = new AtomicInteger();
+        AtomicInteger oversize = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < operations; i++) {
+                    int key = random.nextInt(5000);
+                    if (random.nextInt(4) == 0) {
+                        cache.put(key, key * 2);
+                    } else {
+                        Integer value = cache.get(key);
+                        gets.incrementAndGet();
+                        if (value != null && value != key * 2) {
+                            wrong.incrementAndGet();
+                        }
+                    }
+                    if (i % 10_000 == 0 && cache.size() > 1000) {
+                        oversize.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await(60, TimeUnit.SECONDS);
+        System.out.println("  " + cache.getStats());
+        return wrong.get() == 0 && oversize.get() == 0 && cache.size() <= 1000
+                && cache.getHitCount() + cache.getMissCount() == gets.get() && cache.getEvictionCount() > 0;
+    }
+
+    private boolean testReservationWriteThrough() throws Exception {
+        LruCache<String, Reservation> cache = new LruCache<>(100, 60, TimeUnit.SECONDS);
+        ReservationDAO dao = new ReservationDAO(DatabaseConnection.getInstance(), cache);
+        Reservation reservation = JournalStoreTest.reservation(1, "CONFIRMED");
+        reservation.setReservationNumber("LRU-" + System.nanoTime());
+        String number = reservation.getReservationNumber();
+
+        dao.save(reservation);
+        Reservation first = dao.findByReservationNumber(number);
+        first.setStatus("PENDING"); // changing a returned copy must not reach the cache
+        Reservation second = dao.findByReservationNumber(number);
+        boolean isolated = "CONFIRMED".equals(second.getStatus());
+
+        second.setStatus("CANCELLED");
+        dao.save(second);
+        Reservation afterCancel = dao.findByReservationNumber(number);
+        Reservation stored = new ReservationDAO().findByReservationNumber(number);
+        return isolated && "CANCELLED".equals(afterCancel.getStatus()) && "CANCELLED".equals(stored.getStatus())
+                && cache.getMissCount() == 0 && cache.getHitCount() == 3
+                && afterCancel.getGuest() != reservation.getGuest();
+    }
+}
@@ -0,0 +1,260 @@
+package com.oceanview.resort.web;
+
+import com.oceanview.resort.database.DatabaseExecutor;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.service.ReservationService;
+import com.oceanview.resort.servlet.ReservationServlet;
+import com.oceanview.resort.servlet.Servlet;
+import java.io.ByteArrayOutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for async reservation requests on the NIO engine: lookups that
+ * wait on a slow database, with and without oceanview.server.async, and how
+ * long a fast request waits for a worker meanwhile.
+ */
+public class AsyncServletLoadTest {
+    private static final int WORKER_THREADS = 4;
+    private static final int SLOW_REQUESTS = 32;
+    private static final int DB_MILLIS = 200;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("oceanview.server.threads", String.valueOf(WORKER_THREADS));
+        System.setProperty("oceanview.server.queue", "256");
+        AsyncServletLoadTest test = new AsyncServletLoadTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running Async Servlet Load Tests...\n");
+
+        String[] names = {
+                SLOW_REQUESTS + " slow lookups leave the " + WORKER_THREADS + " workers free",
+                "A full database executor answers 503",
+                "Async failures keep their status codes",
+                "Without async support the response is written before service() returns"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test) throws Exception {
+        switch (test) {
+            case 0: return testWorkersFreed();
+            case 1: return testExecutorFull();
+            case 2: return testFailures();
+            default: return testInline();
+        }
+    }
+
+    private boolean testWorkersFreed() throws Exception {
+        Load async = load(true);
+        Load blocking = load(false);
+        System.out.printf("  async on:  %d lookups of %d ms in %d ms, fast request in %d ms, lookups on %s%n",
+                SLOW_REQUESTS, DB_MILLIS, async.totalMillis, async.fastMillis, async.threads);
+        System.out.printf("  async off: %d lookups of %d ms in %d ms, fast request in %d ms, lookups on %s%n",
+                SLOW_REQUESTS, DB_MILLIS, blocking.totalMillis, blocking.fastMillis, blocking.threads);
+        return async.ok && blocking.ok
+                && async.threads.equals("db-worker") && blocking.threads.equals("http-worker")
+                // Workers only hand off: the fast request does not queue behind the lookups
+                && async.fastMillis < DB_MILLIS
+                && blocking.fastMillis >= DB_MILLIS
+                // 32 threads of database executor against 4 workers
+                && async.totalMillis * 2 < blocking.totalMillis;
+    }
+
+    private boolean testExecutorFull() throws Exception {
+        ExecutorService executor = DatabaseExecutor.newBoundedPool(1, 1);
+        ReservationServlet servlet = new ReservationServlet(new SlowService(), executor);
+        try {
+            List<Call> calls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                calls.add(new Call(servlet, "GET", "/api/reservations/RES" + i, true));
+            }
+            int ok = 0;
+            int busy = 0;
+            for (Call call : calls) {
+                int status = call.await();
+                ok += status == 200 ? 1 : 0;
+                busy += status == 503 ? 1 : 0;
+            }
+            // One running and one queued; the rest are turned away at once
+            return ok == 2 && busy == 2 && calls.get(3).body().contains("Server busy");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private boolean testFailures() throws Exception {
+        ExecutorService executor = DatabaseExecutor.newBoundedPool(2, 10);
+        ReservationServlet servlet = new ReservationServlet(new SlowService(), executor);
+        try {
+            Call refused = new Call(servlet, "PUT", "/api/reservations/cancel/CANCELLED", true);
+            Call broken = new Call(servlet, "PUT", "/api/reservations/cancel/BROKEN", true);
+            Call missing = new Call(servlet, "GET", "/api/reservations/MISSING", true);
+            return refused.await() == 400 && refused.body().contains("already cancelled")
+                    && broken.await() == 500 && broken.body().contains("Internal server error")
+                    && missing.await() == 404;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private boolean testInline() throws Exception {
+        ReservationServlet servlet = new ReservationServlet(new SlowService(), task -> {
+            throw new AssertionError("Inline calls must not use the executor");
+        });
+        Call call = new Call(servlet, "GET", "/api/reservations/RES1", false);
+        return call.response.getCompletion().isDone() && call.await() == 200 && call.body().contains("RES1");
+    }
+
+    /**
+     * SLOW_REQUESTS slow lookups at once on a server with WORKER_THREADS
+     * workers, and one fast room lookup sent while they run
+     */
+    private Load load(boolean async) throws Exception {
+        System.setProperty("oceanview.server.async", String.valueOf(async));
+        SlowService service = new SlowService();
+        ExecutorService executor = DatabaseExecutor.newBoundedPool(SLOW_REQUESTS, 256);
+        NioWebServer server = new NioWebServer(0, WorkerExecutors.MODE_POOL,
+                new ServletRouter(new ReservationServlet(service, executor)));
+        server.start();
+        try {
+            // Warm up the room lookup and the reservation path
+            request(server.getPort(), "/api/rooms/R101");
+            request(server.getPort(), "/api/reservations/RES0");
+            service.threads.clear();
+
+            Load load = new Load();
+            AtomicInteger okCount = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(SLOW_REQUESTS);
+            long t0 = System.nanoTime();
+            for (int i = 0; i < SLOW_REQUESTS; i++) {
+                String path = "/api/reservations/RES" + i;
+                new Thread(() -> {
+                    try {
+                        if (request(server.getPort(), path) == 200) {
+                            okCount.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        System.out.println("  " + e);
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+            // Let every lookup reach the server before the fast request
+            Thread.sleep(DB_MILLIS / 4);
+            long f0 = System.nanoTime();
+            int fast = request(server.getPort(), "/api/rooms/R101");
+            load.fastMillis = (System.nanoTime() - f0) / 1_000_000;
+            boolean finished = done.await(30, TimeUnit.SECONDS);
+            load.totalMillis = (System.nanoTime() - t0) / 1_000_000;
+            load.ok = finished && fast == 200 && okCount.get() == SLOW_REQUESTS;
+            load.threads = String.join(",", service.threads.keySet());
+            return load;
+        } finally {
+            server.stop();
+            executor.shutdown();
+            System.clearProperty("oceanview.server.async");
+        }
+    }
+
+    private static int request(int port, String path) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            return WebServerKeepAliveTest.read(socket.getInputStream()).status;
+        }
+    }
+
+    private static class Load {
+        long totalMillis;
+        long fastMillis;
+        String threads;
+        boolean ok;
+    }
+
+    /**
+     * One request handed straight to the servlet
+     */
+    private static class Call {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final Servlet.HttpServletResponse response = new Servlet.HttpServletResponse(out, false);
+
+        Call(ReservationServlet servlet, String method, String path, boolean async) throws Exception {
+            Map<String, String> params = new HashMap<>();
+            Servlet.HttpServletRequest request = new Servlet.HttpServletRequest(method, path, params,
+                    new HashMap<>(), "", null);
+            request.setAsyncSupported(async);
+            servlet.service(request, response);
+        }
+
+        int await() throws Exception {
+            response.getCompletion().get(10, TimeUnit.SECONDS);
+            return response.getStatus();
+        }
+
+        String body() {
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Answers lookups after DB_MILLIS, as a slow database would, and records
+     * which kind of thread waited for it
+     */
+    private static class SlowService extends ReservationService {
+        final Map<String, Boolean> threads = new ConcurrentHashMap<>();
+
+        @Override
+        public Reservation getReservationByNumber(String number) throws Exception {
+            String name = Thread.currentThread().getName();
+            int dash = name.lastIndexOf('-');
+            threads.put(dash > 0 ? name.substring(0, dash) : name, true);
+            Thread.sleep(DB_MILLIS);
+            if (number.equals("MISSING")) {
+                return null;
+            }
+            Reservation reservation = new Reservation();
+            reservation.setReservationNumber(number);
+            return reservation;
+        }
+
+        @Override
+        public Reservation cancelReservation(String number) throws Exception {
+            if (number.equals("CANCELLED")) {
+                throw new IllegalArgumentException("Reservation is already cancelled");
+            }
+            throw new IllegalStateException("Storage unavailable");
+        }
+    }
+}
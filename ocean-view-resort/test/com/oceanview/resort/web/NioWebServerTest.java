@@ -0,0 +1,276 @@
+package com.oceanview.resort.web;
+
+import com.oceanview.resort.dao.ReservationDAO;
+import com.oceanview.resort.model.Reservation;
+import com.oceanview.resort.model.Room;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency tests for the NIO engine with many simultaneous slow clients.
+ */
+public class NioWebServerTest {
+    private static final int SLOW_CLIENTS = 400;
+    private static final int WORKER_THREADS = 4;
+    private static final int KEEP_ALIVE_MILLIS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("oceanview.server.threads", String.valueOf(WORKER_THREADS));
+        // Requests complete in bursts; let them queue rather than be shed with 503
+        System.setProperty("oceanview.server.queue", String.valueOf(SLOW_CLIENTS));
+        System.setProperty("oceanview.server.keepAliveTimeout", String.valueOf(KEEP_ALIVE_MILLIS));
+        NioWebServer server = new NioWebServer(0, WorkerExecutors.MODE_POOL);
+        server.start();
+
+        NioWebServerTest test = new NioWebServerTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running NioWebServer Tests...\n");
+
+        String[] names = {
+                SLOW_CLIENTS + " trickling clients all served by " + WORKER_THREADS + " workers",
+                "Fast request not delayed by idle half-sent requests",
+                "Pipelined requests answered in order",
+                "Oversized headers rejected with 431",
+                "Oversized or out-of-range body length rejected with 413",
+                "Large listing streamed to a slow reader, connection reused",
+                "Readers that stop reading a stream release their workers"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i, server);
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        server.stop();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test, NioWebServer server) throws Exception {
+        switch (test) {
+            case 0: return testSlowClients(server);
+            case 1: return testFastRequestAmongIdleClients(server);
+            case 2: return testPipelining(server.getPort());
+            case 3: return testOversizedHeaders(server.getPort());
+            case 4: return testOversizedBody(server.getPort());
+            case 5: return testStreamedListing(server.getPort());
+            default: return testStalledReaders(server.getPort());
+        }
+    }
+
+    /**
+     * Each client sends its request in four fragments spread over ~600ms.
+     */
+    private boolean testSlowClients(NioWebServer server) throws Exception {
+        String request = "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+        int step = request.length() / 4;
+        AtomicInteger ok = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(SLOW_CLIENTS);
+
+        for (int c = 0; c < SLOW_CLIENTS; c++) {
+            new Thread(() -> {
+                try (Socket socket = new Socket("localhost", server.getPort())) {
+                    OutputStream out = socket.getOutputStream();
+                    for (int part = 0; part < 4; part++) {
+                        int end = part == 3 ? request.length() : (part + 1) * step;
+                        out.write(request.substring(part * step, end).getBytes(StandardCharsets.US_ASCII));
+                        out.flush();
+                        if (part < 3) Thread.sleep(200);
+                    }
+                    WebServerKeepAliveTest.Response r = WebServerKeepAliveTest.read(socket.getInputStream());
+                    if (r.status == 200 && r.body.contains("R101")) ok.incrementAndGet();
+                } catch (Exception e) {
+                    // Counted as a failure below
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        boolean finished = done.await(60, TimeUnit.SECONDS);
+        long workers = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("http-worker")).count();
+        System.out.println("  served " + ok.get() + "/" + SLOW_CLIENTS + " with " + workers + " worker threads");
+        return finished && ok.get() == SLOW_CLIENTS && workers <= WORKER_THREADS;
+    }
+
+    private boolean testFastRequestAmongIdleClients(NioWebServer server) throws Exception {
+        List<Socket> idle = new ArrayList<>();
+        try {
+            for (int i = 0; i < SLOW_CLIENTS; i++) {
+                Socket socket = new Socket("localhost", server.getPort());
+                socket.getOutputStream().write("GET /api/rooms HTTP/1.1\r\nHost: loc".getBytes(StandardCharsets.US_ASCII));
+                idle.add(socket);
+            }
+            long t0 = System.nanoTime();
+            try (Socket socket = new Socket("localhost", server.getPort())) {
+                socket.getOutputStream().write(
+                        "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                WebServerKeepAliveTest.Response r = WebServerKeepAliveTest.read(socket.getInputStream());
+                long ms = (System.nanoTime() - t0) / 1_000_000;
+                System.out.println("  fast request took " + ms + " ms with " + server.getOpenConnections()
+                        + " open connections");
+                return r.status == 200 && ms < 2000;
+            }
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+    }
+
+    private boolean testPipelining(int port) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.getOutputStream().write((
+                    "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+                    "GET /api/rooms/R102 HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+                    "GET /api/rooms/R103 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            InputStream in = socket.getInputStream();
+            WebServerKeepAliveTest.Response first = WebServerKeepAliveTest.read(in);
+            WebServerKeepAliveTest.Response second = WebServerKeepAliveTest.read(in);
+            WebServerKeepAliveTest.Response third = WebServerKeepAliveTest.read(in);
+            return first.body.contains("R101") && second.body.contains("R102") && third.body.contains("R103")
+                    && "close".equals(third.headers.get("connection")) && in.read() == -1;
+        }
+    }
+
+    private boolean testOversizedHeaders(int port) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            StringBuilder request = new StringBuilder("GET /api/rooms HTTP/1.1\r\n");
+            while (request.length() < 20 * 1024) {
+                request.append("X-Filler: ").append("x".repeat(100)).append("\r\n");
+            }
+            socket.getOutputStream().write(request.toString().getBytes(StandardCharsets.US_ASCII));
+            return WebServerKeepAliveTest.read(socket.getInputStream()).status == 431;
+        }
+    }
+
+    private boolean testOversizedBody(int port) throws Exception {
+        // The second length does not fit in an int and must not read as 0
+        for (String length : new String[] {"2000000000", "99999999999"}) {
+            try (Socket socket = new Socket("localhost", port)) {
+                socket.getOutputStream().write(("POST /api/reservations HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                        + length + "\r\n\r\n{").getBytes(StandardCharsets.US_ASCII));
+                InputStream in = socket.getInputStream();
+                WebServerKeepAliveTest.Response r = WebServerKeepAliveTest.read(in);
+                if (r.status != 413 || in.read() != -1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean testStreamedListing(int port) throws Exception {
+        ReservationDAO dao = new ReservationDAO();
+        String prefix = "STREAM-" + System.nanoTime() + "-";
+        int count = 3000;
+        for (int i = 0; i < count; i++) {
+            Reservation reservation = new Reservation(prefix + i, null,
+                    new Room("R101", Room.RoomType.SINGLE, true, 1, "AC"),
+                    LocalDate.now().plusDays(1), LocalDate.now().plusDays(2));
+            reservation.setStatus("CANCELLED"); // inert for other tests sharing the data directory
+            dao.save(reservation);
+        }
+
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.getOutputStream().write((
+                    "GET /api/reservations HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+                    "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            // Let the worker fill its parts in flight and wait for the socket to drain
+            Thread.sleep(500);
+            InputStream in = socket.getInputStream();
+            WebServerKeepAliveTest.Response listing = WebServerKeepAliveTest.read(in);
+            WebServerKeepAliveTest.Response next = WebServerKeepAliveTest.read(in);
+            int found = listing.body.split(prefix, -1).length - 1;
+            System.out.println("  " + found + "/" + count + " streamed in " + listing.body.length() + " bytes");
+            return "chunked".equals(listing.headers.get("transfer-encoding")) && found == count
+                    && listing.body.startsWith("[") && listing.body.endsWith("]")
+                    && next.status == 200 && next.body.contains("R101");
+        }
+    }
+
+    private boolean testStalledReaders(int port) throws Exception {
+        // Far more than the socket buffers on both sides can absorb
+        ReservationDAO dao = new ReservationDAO();
+        String prefix = "STALL-" + System.nanoTime() + "-";
+        List<Reservation> rows = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Reservation reservation = new Reservation(prefix + i, null,
+                    new Room("R101", Room.RoomType.SINGLE, true, 1, "AC"),
+                    LocalDate.now().plusDays(1), LocalDate.now().plusDays(2));
+            reservation.setStatus("CANCELLED"); // inert for other tests sharing the data directory
+            rows.add(reservation);
+        }
+        dao.insertAll(rows);
+
+        List<Socket> stalled = new ArrayList<>();
+        try {
+            // One per worker: each one's stream fills its parts in flight and waits
+            for (int i = 0; i < WORKER_THREADS; i++) {
+                Socket socket = new Socket();
+                socket.setReceiveBufferSize(4096);
+                socket.connect(new java.net.InetSocketAddress("localhost", port));
+                socket.getOutputStream().write("GET /api/reservations HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                stalled.add(socket);
+            }
+            Thread.sleep(KEEP_ALIVE_MILLIS + 1500);
+
+            long t0 = System.nanoTime();
+            int status;
+            try (Socket socket = new Socket("localhost", port)) {
+                socket.setSoTimeout(10_000);
+                socket.getOutputStream().write("GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                status = WebServerKeepAliveTest.read(socket.getInputStream()).status;
+            }
+            long millis = (System.nanoTime() - t0) / 1_000_000;
+
+            // The server closed each stalled stream part way through
+            int closed = 0;
+            byte[] drain = new byte[64 * 1024];
+            for (Socket socket : stalled) {
+                socket.setSoTimeout(10_000);
+                InputStream in = socket.getInputStream();
+                while (in.read(drain) != -1) {
+                    // Discard the part already sent
+                }
+                closed++;
+            }
+            System.out.println("  request after " + WORKER_THREADS + " stalled streams answered in " + millis
+                    + " ms, " + closed + " stalled connections closed");
+            return status == 200 && millis < KEEP_ALIVE_MILLIS && closed == WORKER_THREADS;
+        } finally {
+            for (Socket socket : stalled) {
+                socket.close();
+            }
+        }
+    }
+}
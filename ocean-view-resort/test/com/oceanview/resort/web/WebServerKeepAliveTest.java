@@ -0,0 +1,266 @@
+package com.oceanview.resort.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for persistent connections and pipelined requests on WebServer.
+ */
+public class WebServerKeepAliveTest {
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("oceanview.server.maxKeepAliveRequests", "5");
+        WebServer server = new WebServer(0, WorkerExecutors.MODE_POOL);
+        server.start();
+
+        WebServerKeepAliveTest test = new WebServerKeepAliveTest();
+        int passed = 0;
+        int failed = 0;
+
+        System.out.println("Running WebServer keep-alive Tests...\n");
+
+        String[] names = {
+                "Sequential requests share one connection",
+                "Pipelined requests are framed correctly",
+                "Connection: close ends the connection",
+                "HTTP/1.0 closes unless keep-alive is requested",
+                "Max requests per connection is enforced",
+                "Oversized body rejected with 413 before it is read",
+                "Idle keep-alive connections give way to queued ones"
+        };
+        for (int i = 0; i < names.length; i++) {
+            boolean ok;
+            try {
+                ok = test.run(i, server.getPort());
+            } catch (Exception e) {
+                System.out.println("  " + e);
+                ok = false;
+            }
+            if (ok) {
+                System.out.println("✓ " + names[i] + " - PASSED");
+                passed++;
+            } else {
+                System.out.println("✗ " + names[i] + " - FAILED");
+                failed++;
+            }
+        }
+
+        server.stop();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Passed: " + passed);
+        System.out.println("Failed: " + failed);
+        System.out.println("Total: " + (passed + failed));
+    }
+
+    private boolean run(int test, int port) throws Exception {
+        switch (test) {
+            case 0: return testSequentialRequests(port);
+            case 1: return testPipelinedRequests(port);
+            case 2: return testConnectionClose(port);
+            case 3: return testHttp10(port);
+            case 4: return testMaxRequests(port);
+            case 5: return testOversizedBody(port);
+            default: return testIdleConnectionsYield();
+        }
+    }
+
+    private boolean testSequentialRequests(int port) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            for (int i = 0; i < 3; i++) {
+                send(socket, "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\n\r\n");
+                Response r = read(socket.getInputStream());
+                if (r.status != 200 || !"keep-alive".equals(r.headers.get("connection"))
+                        || !r.body.contains("\"roomNumber\":\"R101\"")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private boolean testPipelinedRequests(int port) throws Exception {
+        String login = "{\"username\":\"admin\",\"password\":\"admin123\"}";
+        try (Socket socket = new Socket("localhost", port)) {
+            send(socket,
+                    "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+                    "POST /api/login HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + login.length()
+                            + "\r\n\r\n" + login +
+                    "GET /api/rooms/R999 HTTP/1.1\r\nHost: localhost\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            Response first = read(in);
+            Response second = read(in);
+            Response third = read(in);
+            return first.status == 200 && first.body.contains("R101")
+                    && second.status == 200 && second.body.contains("\"success\":true")
+                    && third.status == 404;
+        }
+    }
+
+    private boolean testConnectionClose(int port) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            send(socket, "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n");
+            InputStream in = socket.getInputStream();
+            Response r = read(in);
+            return r.status == 200 && "close".equals(r.headers.get("connection")) && in.read() == -1;
+        }
+    }
+
+    private boolean testHttp10(int port) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            send(socket, "GET /api/rooms/R101 HTTP/1.0\r\nConnection: keep-alive\r\n\r\n");
+            Response kept = read(socket.getInputStream());
+            send(socket, "GET /api/rooms/R101 HTTP/1.0\r\n\r\n");
+            Response closed = read(socket.getInputStream());
+            return "keep-alive".equals(kept.headers.get("connection"))
+                    && "close".equals(closed.headers.get("connection"))
+                    && socket.getInputStream().read() == -1;
+        }
+    }
+
+    private boolean testMaxRequests(int port) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            InputStream in = socket.getInputStream();
+            for (int i = 1; i <= 5; i++) {
+                send(socket, "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\n\r\n");
+                Response r = read(in);
+                String expected = i < 5 ? "keep-alive" : "close";
+                if (!expected.equals(r.headers.get("connection"))) {
+                    return false;
+                }
+            }
+            return in.read() == -1;
+        }
+    }
+
+    private static void send(Socket socket, String raw) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(raw.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * Read one response, using Content-Length to find where it ends.
+     */
+    private boolean testOversizedBody(int port) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            // Far more than the heap; only the declared length is sent
+            send(socket, "POST /api/reservations HTTP/1.1\r\nHost: localhost\r\nContent-Length: 2000000000\r\n\r\n{");
+            InputStream in = socket.getInputStream();
+            Response r = read(in);
+            return r.status == 413 && "close".equals(r.headers.get("connection")) && in.read() == -1;
+        }
+    }
+
+    private boolean testIdleConnectionsYield() throws Exception {
+        // A server whose whole pool is taken by idle keep-alive connections
+        int threads = 2;
+        System.setProperty("oceanview.server.threads", String.valueOf(threads));
+        WebServer small = new WebServer(0, WorkerExecutors.MODE_POOL);
+        small.start();
+        System.clearProperty("oceanview.server.threads");
+        List<Socket> idle = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                Socket socket = new Socket("localhost", small.getPort());
+                send(socket, "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\n\r\n");
+                if (read(socket.getInputStream()).status != 200) {
+                    return false;
+                }
+                idle.add(socket);
+            }
+
+            long t0 = System.nanoTime();
+            int status;
+            try (Socket socket = new Socket("localhost", small.getPort())) {
+                socket.setSoTimeout(10_000);
+                send(socket, "GET /api/rooms/R101 HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n");
+                status = read(socket.getInputStream()).status;
+            }
+            long millis = (System.nanoTime() - t0) / 1_000_000;
+
+            // At least one idle connection gave up its thread for the queued one
+            int closed = 0;
+            for (Socket socket : idle) {
+                socket.setSoTimeout(500);
+                try {
+                    if (socket.getInputStream().read() == -1) {
+                        closed++;
+                    }
+                } catch (SocketTimeoutException e) {
+                    // Still open; nothing was waiting for its thread any more
+                }
+            }
+            System.out.println("  queued request answered in " + millis + " ms; " + closed + "/" + threads
+                    + " idle connections closed");
+            // Well inside the 15 s keep-alive timeout
+            return status == 200 && millis < 2000 && closed >= 1;
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+            small.stop();
+        }
+    }
+
+    static Response read(InputStream in) throws IOException {
+        Response r = new Response();
+        String statusLine = readLine(in);
+        r.status = Integer.parseInt(statusLine.split(" ")[1]);
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int colon = line.indexOf(':');
+            r.headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        if ("chunked".equalsIgnoreCase(r.headers.get("transfer-encoding"))) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            int size;
+            while ((size = Integer.parseInt(readLine(in).trim(), 16)) > 0) {
+                body.write(readFully(in, size));
+                readLine(in);
+            }
+            readLine(in); // blank line after the last chunk
+            r.body = body.toString(StandardCharsets.UTF_8.name());
+            return r;
+        }
+        int length = Integer.parseInt(r.headers.getOrDefault("content-length", "0"));
+        r.body = new String(readFully(in, length), StandardCharsets.UTF_8);
+        return r;
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] body = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(body, read, length - read);
+            if (n == -1) throw new IOException("Connection closed mid-body");
+            read += n;
+        }
+        return body;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) throw new IOException("Connection closed");
+            if (b != '\r') line.write(b);
+        }
+        return line.toString(StandardCharsets.ISO_8859_1.name());
+    }
+
+    static class Response {
+        int status;
+        Map<String, String> headers = new HashMap<>();
+        String body;
+    }
+}
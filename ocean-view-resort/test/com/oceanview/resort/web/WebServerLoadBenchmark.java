@@ -0,0 +1,161 @@
+package com.oceanview.resort.web;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load benchmark for the WebServer worker modes and the NIO engine against GET /api/rooms.
+ * Reports requests/sec, p50/p99 latency and 503 rejections for each mode,
+ * once with a new connection per request and once over keep-alive connections.
+ *
+ * Usage: java WebServerLoadBenchmark [clients] [requestsPerClient]
+ */
+public class WebServerLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        List<String> modes = new ArrayList<>();
+        modes.add(WorkerExecutors.MODE_POOL);
+        if (WorkerExecutors.isVirtualThreadSupported()) {
+            modes.add(WorkerExecutors.MODE_VIRTUAL);
+        } else {
+            System.out.println("(virtual mode skipped: requires JDK 21+)");
+        }
+
+        System.out.println("=== WebServer Load Benchmark: " + clients + " clients x " + requests + " requests ===\n");
+        System.out.printf("%-10s %12s %10s %10s %8s%n", "mode", "req/sec", "p50 ms", "p99 ms", "503s");
+
+        for (String mode : modes) {
+            WebServer server = new WebServer(0, mode);
+            server.start();
+            try {
+                run(server.getPort(), 8, 50, false);
+                for (boolean keepAlive : new boolean[] { false, true }) {
+                    Result result = run(server.getPort(), clients, requests, keepAlive);
+                    System.out.printf("%-10s %12.0f %10.2f %10.2f %8d%n", mode + (keepAlive ? "+ka" : ""),
+                            result.throughput, result.p50, result.p99, result.rejected);
+                }
+            } finally {
+                server.stop();
+            }
+        }
+
+        NioWebServer nio = new NioWebServer(0, WorkerExecutors.MODE_POOL);
+        nio.start();
+        try {
+            run(nio.getPort(), 8, 50, false);
+            for (boolean keepAlive : new boolean[] { false, true }) {
+                Result result = run(nio.getPort(), clients, requests, keepAlive);
+                System.out.printf("%-10s %12.0f %10.2f %10.2f %8d%n", "nio" + (keepAlive ? "+ka" : ""),
+                        result.throughput, result.p50, result.p99, result.rejected);
+            }
+        } finally {
+            nio.stop();
+        }
+    }
+
+    private static Result run(int port, int clients, int requests, boolean keepAlive)
+            throws InterruptedException {
+        long[][] latencies = new long[clients][requests];
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+
+        for (int c = 0; c < clients; c++) {
+            final long[] mine = latencies[c];
+            new Thread(() -> {
+                Socket socket = null;
+                try {
+                    start.await();
+                    for (int i = 0; i < requests; i++) {
+                        long t0 = System.nanoTime();
+                        int status;
+                        if (keepAlive) {
+                            if (socket == null) {
+                                socket = new Socket("localhost", port);
+                            }
+                            socket.getOutputStream().write(
+                                    "GET /api/rooms HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                            WebServerKeepAliveTest.Response response = WebServerKeepAliveTest.read(socket.getInputStream());
+                            status = response.status;
+                            if ("close".equals(response.headers.get("connection"))) {
+                                socket.close();
+                                socket = null;
+                            }
+                        } else {
+                            status = get(port, "/api/rooms");
+                        }
+                        if (status == 503) {
+                            rejected.incrementAndGet();
+                        }
+                        mine[i] = System.nanoTime() - t0;
+                    }
+                    if (socket != null) {
+                        socket.close();
+                    }
+                } catch (Exception e) {
+                    System.err.println("Client error: " + e.getMessage());
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = new long[clients * requests];
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, c * requests, requests);
+        }
+        Arrays.sort(all);
+
+        Result result = new Result();
+        result.throughput = all.length / (elapsed / 1_000_000_000.0);
+        result.p50 = all[all.length / 2] / 1_000_000.0;
+        result.p99 = all[(int) (all.length * 0.99)] / 1_000_000.0;
+        result.rejected = rejected.get();
+        return result;
+    }
+
+    /**
+     * Issue one request on a fresh connection and return the status code.
+     */
+    static int get(int port, String path) throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            InputStream in = socket.getInputStream();
+            byte[] buffer = new byte[8192];
+            int status = -1;
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                if (status < 0 && n >= 12) {
+                    status = Integer.parseInt(new String(buffer, 9, 3, StandardCharsets.US_ASCII));
+                }
+            }
+            return status;
+        }
+    }
+
+    private static class Result {
+        double throughput;
+        double p50;
+        double p99;
+        int rejected;
+    }
+}